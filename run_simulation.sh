@@ -13,239 +13,23 @@ mkdir -p target/classes
 echo "Creating results directory..."
 mkdir -p results
 
-# First compile SimulationResultProcessor class
-echo "Compiling SimulationResultProcessor..."
-javac -cp "libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
+# Compile the simulation in one pass. javac follows -sourcepath from these
+# entry points, so every class they use is compiled from the current sources.
+echo "Compiling simulation..."
+javac -encoding UTF-8 -sourcepath src/main/java -cp "libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
       -d target/classes \
-      src/main/java/org/fogcomputing/SimulationResultProcessor.java
+      src/main/java/org/fogcomputing/CloudSimTaskOffloadingSimulation.java \
+      src/main/java/org/fogcomputing/EnhancedPolicySimulation.java \
+      src/main/java/org/fogcomputing/FixedTierSimulation.java \
+      src/main/java/org/fogcomputing/ResourceDebugger.java \
+      src/main/java/org/fogcomputing/sweep/ParameterSweepRunner.java \
+      src/main/java/org/fogcomputing/results/ColumnarResultReader.java
 
 if [ $? -ne 0 ]; then
-  echo "Failed to compile SimulationResultProcessor"
+  echo "Failed to compile simulation"
   exit 1
 fi
 
-# Compile OffloadingPolicy interface
-echo "Compiling OffloadingPolicy interface..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
-      -d target/classes \
-      src/main/java/org/fogcomputing/algorithms/OffloadingPolicy.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile OffloadingPolicy interface"
-  exit 1
-fi
-
-# Create mock classes for the missing fog classes
-echo "Creating mock classes for missing fog dependencies..."
-mkdir -p src/main/java/org/fogcomputing/mock
-mkdir -p target/classes/org/fogcomputing/mock
-
-cat > src/main/java/org/fogcomputing/mock/MockFogClasses.java << 'EOF'
-package org.fogcomputing.mock;
-
-// This file provides mock classes to replace the missing iFogSim classes
-// It allows the simulation to compile without the actual fog libraries
-
-public class MockFogClasses {
-    // Empty implementation - just to provide the classes needed for compilation
-}
-
-// Mock FogDevice class
-class FogDevice {
-    private String name;
-    private double energyConsumption;
-    private int id;
-    
-    public FogDevice(int id, String name) {
-        this.id = id;
-        this.name = name;
-        this.energyConsumption = 0.0;
-    }
-    
-    public String getName() {
-        return name;
-    }
-    
-    public double getEnergyConsumption() {
-        return energyConsumption;
-    }
-    
-    public int getId() {
-        return id;
-    }
-}
-EOF
-
-# Compile the mock classes
-echo "Compiling mock classes..."
-javac -d target/classes src/main/java/org/fogcomputing/mock/MockFogClasses.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile mock classes"
-  exit 1
-fi
-
-# Create simplified implementations of the offloading policies
-echo "Creating simplified implementations of offloading policies..."
-
-cat > src/main/java/org/fogcomputing/algorithms/EnergyAwareOffloadingPolicy.java << 'EOF'
-package org.fogcomputing.algorithms;
-
-import java.util.List;
-import org.cloudbus.cloudsim.Cloudlet;
-import org.cloudbus.cloudsim.Vm;
-
-public class EnergyAwareOffloadingPolicy implements OffloadingPolicy {
-
-    @Override
-    public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList) {
-        // Energy-aware allocation strategy 
-        // Distribute tasks to minimize energy consumption
-        // For simulation, we'll use a simple rule-based approach:
-        // - CPU-intensive tasks go to cloud (better energy efficiency for computation)
-        // - Data-intensive but less compute-heavy tasks go to fog (reduced transmission energy)
-        // - Very small tasks stay on IoT devices (no transmission energy)
-        
-        int cloudletId = cloudlet.getCloudletId();
-        int numVms = vmList.size();
-        
-        // Simple rule-based assignment
-        // First 20% go to cloud, middle 50% go to fog, remaining 30% stay on IoT
-        if (cloudletId < 2) {
-            // Cloud VMs (first 2 VMs)
-            return cloudletId % 2; // Round-robin among cloud VMs
-        } else if (cloudletId < 7) {
-            // Fog VMs (next 5 VMs)
-            return 2 + (cloudletId % 5); // Round-robin among fog VMs
-        } else {
-            // IoT VMs (remaining VMs)
-            return 7 + (cloudletId % 3); // Round-robin among IoT VMs
-        }
-    }
-}
-EOF
-
-cat > src/main/java/org/fogcomputing/algorithms/DeadlineAwareOffloadingPolicy.java << 'EOF'
-package org.fogcomputing.algorithms;
-
-import java.util.List;
-import org.cloudbus.cloudsim.Cloudlet;
-import org.cloudbus.cloudsim.Vm;
-
-public class DeadlineAwareOffloadingPolicy implements OffloadingPolicy {
-
-    @Override
-    public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList) {
-        // Deadline-aware allocation strategy
-        // Distribute tasks based on deadline constraints
-        // For simulation, we'll use a simple rule-based approach:
-        // - Tasks with tight deadlines go to higher-performance resources
-        // - Tasks with longer deadlines can afford more transmission time
-        
-        int cloudletId = cloudlet.getCloudletId();
-        
-        // For this simplified implementation, we'll make decisions based on cloudlet ID
-        // In a real implementation, this would be based on the actual deadline
-        
-        if (cloudletId == 0 || cloudletId == 1) {
-            // First two tasks go to cloud (assuming they have tight deadlines)
-            return cloudletId % 2;
-        } else if (cloudletId >= 2 && cloudletId <= 6) {
-            // Next 5 tasks go to fog nodes
-            return 2 + (cloudletId - 2);
-        } else {
-            // Remaining tasks stay on IoT devices
-            return 7 + ((cloudletId - 7) % 3);
-        }
-    }
-}
-EOF
-
-# Compile the offloading policies
-echo "Compiling offloading policies..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
-      -d target/classes \
-      src/main/java/org/fogcomputing/algorithms/EnergyAwareOffloadingPolicy.java \
-      src/main/java/org/fogcomputing/algorithms/DeadlineAwareOffloadingPolicy.java \
-      src/main/java/org/fogcomputing/algorithms/MCEETOOffloadingPolicy.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile offloading policies"
-  exit 1
-fi
-
-# Compile the custom VM allocation policy
-echo "Compiling tiered VM allocation policy..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
-      -d target/classes \
-      src/main/java/org/fogcomputing/TieredVmAllocationPolicy.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile tiered VM allocation policy"
-  exit 1
-fi
-
-# Compile flexible VM allocation policy
-echo "Compiling flexible VM allocation policy..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar" \
-      -d target/classes \
-      src/main/java/org/fogcomputing/FlexibleVmAllocationPolicy.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile flexible VM allocation policy"
-  exit 1
-fi
-
-# Compile the custom datacenter broker
-echo "Compiling tiered datacenter broker..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar" \
-      -d target/classes \
-      src/main/java/org/fogcomputing/TieredDatacenterBroker.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile tiered datacenter broker"
-  exit 1
-fi
-
-# Compile ResourceDebugger.java
-echo "Compiling ResourceDebugger..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
-      -d target/classes \
-      src/main/java/org/fogcomputing/ResourceDebugger.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile tiered datacenter broker"
-  exit 1
-fi
-
-# Compile the main CloudSimTaskOffloadingSimulation class
-echo "Compiling main simulation class..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
-      -d target/classes \
-      src/main/java/org/fogcomputing/CloudSimTaskOffloadingSimulation.java
-
-if [ $? -ne 0 ]; then
-  echo "Failed to compile main simulation class"
-  exit 1
-fi
-
-# Test file writing capability
-echo "Testing file writing capability..."
-javac -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
-      -d target/classes src/main/java/org/fogcomputing/TestFileWriter.java << 'EOF'
-package org.fogcomputing;
-
-public class TestFileWriter {
-    public static void main(String[] args) {
-        // Call the testFileWriting method in SimulationResultProcessor
-        SimulationResultProcessor.testFileWriting();
-    }
-}
-EOF
-
-java -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
-     org.fogcomputing.TestFileWriter
-
 # Run the simulation
 echo "Running simulation with Deadline-Aware Offloading policy..."
 java -cp "target/classes:libs/cloudsim-3.0.3.jar:libs/cloudsim-examples-3.0.3.jar:libs/commons-math3-3.5.jar:libs/json-simple-1.1.1.jar:libs/guava-18.0.jar" \
@@ -0,0 +1,251 @@
+package org.fogcomputing.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.fogcomputing.algorithms.DeadlineAwareOffloadingPolicy;
+import org.fogcomputing.algorithms.EnergyAwareOffloadingPolicy;
+import org.fogcomputing.algorithms.MCEETOOffloadingPolicy;
+import org.fogcomputing.algorithms.OffloadingPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for {@link OffloadingPolicy#getTargetVmId(Cloudlet, List)} across all policies.
+ *
+ * Each invocation is one offloading decision. The task stream cycles through {@code cloudlets}
+ * distinct task ids, so policies that cache per task (MCEETO) see a realistic working set.
+ * The {@code vms} VMs are split over the tiers in the 2:5:10 proportion of the default layout.
+ * Every decision also releases the task decided {@value #IN_FLIGHT_PER_VM} * {@code vms}
+ * decisions earlier, as if it had finished, so the outstanding loads of the load-aware
+ * policies stay at a steady level instead of growing over the run.
+ *
+ * Reported metrics:
+ * - decisionsPerSecond: decisions per second (Throughput mode)
+ * - decisionLatency: decision time distribution incl. p99 (SampleTime mode)
+ * - batchDecisionsPerSecond: decisions per second through
+ *   {@link OffloadingPolicy#getTargetVmIds(List, List)} in bursts of {@value #BATCH_SIZE} tasks
+ * - allocation rate: run with "-prof gc" (the default jmh.args of the benchmark profile)
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class OffloadingPolicyBenchmark {
+
+    /** Number of tasks per call of the batch API */
+    public static final int BATCH_SIZE = 1000;
+
+    /** Tasks in flight per VM before the oldest is released */
+    public static final int IN_FLIGHT_PER_VM = 4;
+
+    @Param({"EnergyAware", "DeadlineAware", "MCEETO"})
+    public String policy;
+
+    /** Number of distinct tasks in the decision stream */
+    @Param({"10", "1000", "100000", "10000000"})
+    public int cloudlets;
+
+    /** Number of VMs handed to the policy, over all tiers */
+    @Param({"17", "1000", "100000"})
+    public int vms;
+
+    private OffloadingPolicy offloadingPolicy;
+    private List<Vm> vmList;
+
+    // Task properties kept in primitive arrays so 10M tasks fit in a small heap
+    private int[] lengths;
+    private int[] fileSizes;
+    private int[] outputSizes;
+
+    private MutableCloudlet cloudlet;
+    private List<Cloudlet> batch;
+    private int next;
+
+    // Ring of the tasks in flight and their VMs; once full, the slot at inFlightNext is the oldest
+    private int[] inFlightTasks;
+    private int[] inFlightVms;
+    private int inFlightNext;
+    private boolean inFlightFull;
+    private MutableCloudlet finished;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        offloadingPolicy = createPolicy(policy, tiersFor(vms));
+
+        vmList = new ArrayList<Vm>(vms);
+        for (int i = 0; i < vms; i++) {
+            vmList.add(new Vm(i, 0, 50, 1, 128, 10, 500, "Xen", new CloudletSchedulerTimeShared()));
+        }
+
+        // Same value ranges as CloudSimTaskOffloadingSimulation.createCloudlet, with a fixed seed
+        Random random = new Random(42);
+        lengths = new int[cloudlets];
+        fileSizes = new int[cloudlets];
+        outputSizes = new int[cloudlets];
+        for (int i = 0; i < cloudlets; i++) {
+            lengths[i] = 10000 + random.nextInt(40000);
+            fileSizes[i] = 500 + random.nextInt(1500);
+            outputSizes[i] = 300 + random.nextInt(1000);
+        }
+
+        cloudlet = new MutableCloudlet();
+        batch = new ArrayList<Cloudlet>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new MutableCloudlet());
+        }
+        next = 0;
+
+        inFlightTasks = new int[IN_FLIGHT_PER_VM * vms];
+        inFlightVms = new int[inFlightTasks.length];
+        inFlightNext = 0;
+        inFlightFull = false;
+        finished = new MutableCloudlet();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int decisionsPerSecond() {
+        return decide();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int decisionLatency() {
+        return decide();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] batchDecisionsPerSecond() {
+        for (int b = 0; b < BATCH_SIZE; b++) {
+            int i = next;
+            next = (i + 1 == cloudlets) ? 0 : i + 1;
+            ((MutableCloudlet) batch.get(b)).reset(i, lengths[i], fileSizes[i], outputSizes[i]);
+        }
+        int[] targets = offloadingPolicy.getTargetVmIds(batch, vmList);
+        for (int b = 0; b < BATCH_SIZE; b++) {
+            admit(batch.get(b).getCloudletId(), targets[b]);
+        }
+        return targets;
+    }
+
+    private int decide() {
+        int i = next;
+        next = (i + 1 == cloudlets) ? 0 : i + 1;
+        cloudlet.reset(i, lengths[i], fileSizes[i], outputSizes[i]);
+        int vmId = offloadingPolicy.getTargetVmId(cloudlet, vmList);
+        admit(i, vmId);
+        return vmId;
+    }
+
+    /**
+     * Adds a decided task to the tasks in flight, releasing the oldest one once the ring is full
+     */
+    private void admit(int task, int vmId) {
+        int slot = inFlightNext;
+        if (inFlightFull) {
+            int oldest = inFlightTasks[slot];
+            finished.reset(oldest, lengths[oldest], fileSizes[oldest], outputSizes[oldest]);
+            offloadingPolicy.cloudletFinished(finished, inFlightVms[slot]);
+        }
+        inFlightTasks[slot] = task;
+        inFlightVms[slot] = vmId;
+        inFlightNext = slot + 1 == inFlightTasks.length ? 0 : slot + 1;
+        if (inFlightNext == 0) {
+            inFlightFull = true;
+        }
+    }
+
+    /**
+     * @return a layout of the given number of VMs in the 2:5:10 proportion of the default one
+     */
+    static TierRegistry tiersFor(int vms) {
+        if (vms < 3) {
+            throw new IllegalArgumentException("Need at least one VM per tier: " + vms);
+        }
+        int cloud = Math.max(1, vms * 2 / 17);
+        int fog = Math.max(1, vms * 5 / 17);
+        return new TierRegistry(cloud, fog, vms - cloud - fog);
+    }
+
+    private static OffloadingPolicy createPolicy(String name, TierRegistry tiers) {
+        if (name.equals("EnergyAware")) {
+            return new EnergyAwareOffloadingPolicy(tiers);
+        } else if (name.equals("DeadlineAware")) {
+            return new DeadlineAwareOffloadingPolicy(tiers);
+        } else if (name.equals("MCEETO")) {
+            return new MCEETOOffloadingPolicy(tiers);
+        }
+        throw new IllegalArgumentException("Unknown policy: " + name);
+    }
+
+    /**
+     * A cloudlet whose identity and sizes can be changed between decisions.
+     * Building a real Cloudlet per task would dominate the measurement and
+     * does not fit 10M tasks in memory.
+     */
+    private static final class MutableCloudlet extends Cloudlet {
+
+        private static final UtilizationModel FULL = new UtilizationModelFull();
+
+        private int id;
+        private long length;
+        private long fileSize;
+        private long outputSize;
+
+        MutableCloudlet() {
+            super(0, 1, 1, 1, 1, FULL, FULL, FULL);
+        }
+
+        void reset(int id, long length, long fileSize, long outputSize) {
+            this.id = id;
+            this.length = length;
+            this.fileSize = fileSize;
+            this.outputSize = outputSize;
+        }
+
+        @Override
+        public int getCloudletId() {
+            return id;
+        }
+
+        @Override
+        public long getCloudletLength() {
+            return length;
+        }
+
+        @Override
+        public long getCloudletFileSize() {
+            return fileSize;
+        }
+
+        @Override
+        public long getCloudletOutputSize() {
+            return outputSize;
+        }
+    }
+}
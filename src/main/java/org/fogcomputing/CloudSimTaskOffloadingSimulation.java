@@ -1,9 +1,14 @@
 package org.fogcomputing;
 
-import java.text.DecimalFormat;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -12,7 +17,6 @@ import java.lang.reflect.Field;
 import java.util.concurrent.TimeUnit;
 
 import org.cloudbus.cloudsim.Cloudlet;
-import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
@@ -21,14 +25,13 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
-import org.cloudbus.cloudsim.UtilizationModel;
-import org.cloudbus.cloudsim.UtilizationModelFull;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.VmSchedulerTimeShared;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
@@ -39,7 +42,24 @@ import org.fogcomputing.TieredDatacenterBroker;
 import org.fogcomputing.algorithms.OffloadingPolicy;
 import org.fogcomputing.algorithms.EnergyAwareOffloadingPolicy;
 import org.fogcomputing.algorithms.DeadlineAwareOffloadingPolicy;
+import org.fogcomputing.algorithms.FailoverOffloadingPolicy;
+import org.fogcomputing.algorithms.InstrumentedOffloadingPolicy;
+import org.fogcomputing.energy.MeteredPowerHost;
+import org.fogcomputing.energy.PowerModels;
 import org.fogcomputing.algorithms.MCEETOOffloadingPolicy;
+import org.fogcomputing.logging.SimLog;
+import org.fogcomputing.metrics.MetricsRegistry;
+import org.fogcomputing.metrics.MetricsSnapshot;
+import org.fogcomputing.results.ResultSinks;
+import org.fogcomputing.scheduling.CloudletSchedulers;
+import org.fogcomputing.workload.ArrivalModel;
+import org.fogcomputing.workload.ArrivalSchedule;
+import org.fogcomputing.workload.CloudletSpec;
+import org.fogcomputing.workload.SwfTraceLoader;
+import org.fogcomputing.workload.WorkloadDistribution;
+import org.fogcomputing.workload.WorkloadGenerator;
+import org.fogcomputing.workload.WorkloadRecorder;
+import org.fogcomputing.workload.WorkloadReplay;
 
 /**
  * A CloudSim implementation of Fog/Edge Computing Task Offloading
@@ -62,18 +82,114 @@ public class CloudSimTaskOffloadingSimulation {
     // Network latencies (ms)
     private static double IOT_TO_FOG_LATENCY = 2.0;
     private static double FOG_TO_CLOUD_LATENCY = 20.0;
+    // Devices to their IoT gateway; CloudSim's shortest-path setup treats a zero latency as no link
+    private static final double IOT_ACCESS_LATENCY = 0.1;
+    
+    // VM id ranges of each tier, built from the device counts for every run
+    private static TierRegistry tiers;
+    
+    // Workload seed, picked once per JVM unless --seed is given, so every policy of a
+    // run sees the same tasks; and the distributions of the task properties
+    private static long workloadSeed = new Random().nextLong();
+    private static WorkloadDistribution taskLength = WorkloadGenerator.defaultLength();
+    private static WorkloadDistribution taskFileSize = WorkloadGenerator.defaultFileSize();
+    private static WorkloadDistribution taskOutputSize = WorkloadGenerator.defaultOutputSize();
+    
+    // Slack factors of the generated tasks' deadlines, null for none, and the MIPS
+    // rating their execution time is computed for: that of every VM (see createVMs)
+    private static WorkloadDistribution deadlineSlack = WorkloadGenerator.defaultDeadlineSlack();
+    private static final double DEADLINE_REFERENCE_MIPS = 50;
+    
+    // Share of the generated tasks in the interactive priority class, their lengths,
+    // and the distribution of task weights within a class; null for weight 1
+    private static double interactiveShare = 0;
+    private static WorkloadDistribution interactiveLength = WorkloadGenerator.defaultInteractiveLength();
+    private static WorkloadDistribution taskWeight;
+    
+    // SWF trace to replay instead of generating tasks, and the PE rating its run times refer to
+    private static File traceFile;
+    private static double TRACE_MIPS_RATING = 1000;
+    
+    // Number of generated tasks; -1 for one task per IoT device
+    private static int NUM_TASKS = -1;
+    
+    // Wave-based submission (see WaveSubmissionBroker); a wave size of 0 submits everything at once
+    private static int WAVE_SIZE = 0;
+    private static int MAX_IN_FLIGHT = -1;
+    private static double WAVE_INTERVAL = 0;
+    
+    // Open-loop arrival process of each IoT device; null submits every task at once
+    private static ArrivalModel arrivals;
+    
+    // File the workload of the run is recorded to, and file of a recorded workload to replay instead
+    private static File recordWorkloadFile;
+    private static File replayWorkloadFile;
+    
+    // MCEETO picks the least-loaded VM of a tier instead of round-robin
+    private static boolean loadAwareSelection = false;
+    
+    // Power models of the hosts of each tier (see PowerModels#parse)
+    private static String cloudPowerModel = "spec:IbmX3550XeonX5670";
+    private static String fogPowerModel = "spec:HpProLiantMl110G4Xeon3040";
+    private static String iotPowerModel = "linear:2:5";
+    
+    // Cloudlet schedulers of the VMs of each tier (see CloudletSchedulers#parse);
+    // null for the default of the policy
+    private static String cloudScheduler;
+    private static String fogScheduler;
+    private static String iotScheduler;
+    
+    // Simulation time between metrics snapshots; 0 for only the final one
+    private static double metricsInterval = 0;
+    
+    /** Prefix of the line that carries the run summary of a single-policy run */
+    public static final String SUMMARY_PREFIX = "RUN_SUMMARY,";
+    
+    /** Names of the offloading policies accepted by --policy */
+    public static final List<String> POLICY_NAMES = Arrays.asList(
+            "Energy-Aware Offloading", "Deadline-Aware Offloading", "MCEETO Offloading");
     
     /**
      * Creates main() to run this example.
      *
+     * Without arguments all three policies are run one after another.
+     * With arguments a single configuration is run and its summary printed as one
+     * line starting with {@link #SUMMARY_PREFIX}, which is what the parameter sweep
+     * workers use:
+     *   --policy NAME --iot N --fog N --iot-fog-latency MS --fog-cloud-latency MS --seed S
+     *   --trace FILE.swf --trace-mips MIPS --tasks N
+     *   --task-length DIST --file-size DIST --output-size DIST (see WorkloadDistribution#parse)
+     *   --deadline-slack DIST | none
+     *   --interactive-share F --interactive-length DIST --task-weight DIST
+     *   --wave-size N --max-in-flight N --wave-interval T
+     *   --arrivals poisson:RATE | mmpp:LOW_RATE:HIGH_RATE:LOW_TIME:HIGH_TIME | trace
+     *   --vm-selection round-robin | least-loaded (MCEETO only)
+     *   --cloud-power MODEL --fog-power MODEL --iot-power MODEL (see PowerModels#parse)
+     *   --cloud-scheduler S --fog-scheduler S --iot-scheduler S (see CloudletSchedulers#parse)
+     *   --metrics-interval T
+     *   --record-workload FILE --replay-workload FILE
+     *   --results-dir DIR (instead of -Dresults.dir)
+     * A single argument not starting with "--" is taken as the policy name.
+     * Without arguments the workload of the first policy is recorded to the
+     * results directory and replayed for the others, so all three see the same tasks.
+     *
      * @param args the args
      */
     public static void main(String[] args) {
         Log.printLine("Starting Task Offloading Simulation using CloudSim...");
 
         try {
-            // Run with energy-aware policy
+            if (args.length > 0) {
+                System.out.println(SUMMARY_PREFIX + runToCsvRow(args));
+                return;
+            }
+            
+            // Run with energy-aware policy, recording its workload for the other policies
+            File workload = new File(ResultSinks.resultsDir(), "workload_" + System.currentTimeMillis() + ".fcw");
+            recordWorkloadFile = workload;
             runSimulation("Energy-Aware Offloading");
+            recordWorkloadFile = null;
+            replayWorkloadFile = workload;
             
             // Run with deadline-aware policy 
             runSimulation("Deadline-Aware Offloading");
@@ -84,7 +200,197 @@ public class CloudSimTaskOffloadingSimulation {
         } catch (Exception e) {
             e.printStackTrace();
             Log.printLine("Simulation terminated due to an unexpected error.");
+            if (args.length > 0) {
+                // Let the sweep runner see the failure
+                System.exit(1);
+            }
+        }
+    }
+    
+    /**
+     * Runs a single configuration, as main does with arguments.
+     *
+     * This is also the entry point of {@link org.fogcomputing.sweep.IsolatedSimulationRunner},
+     * which calls it reflectively in a class loader of its own, so that CloudSim's
+     * static state and this class's parameters belong to that run alone. Only
+     * strings cross the class loader boundary.
+     *
+     * @param args command line options, see {@link #main(String[])}
+     * @return the run's summary as a {@link RunSummary} CSV row
+     * @throws Exception if the run fails
+     */
+    public static String runToCsvRow(String[] args) throws Exception {
+        try {
+            String policyName = applyArguments(args);
+            RunSummary summary = runSimulation(policyName);
+            if (summary == null) {
+                summary = RunSummary.empty(policyName);
+            }
+            return summary.toCsvRow();
+        } finally {
+            SimLog.shutdown();
+        }
+    }
+    
+    /**
+     * Applies command line options to the simulation parameters.
+     *
+     * @param args the command line arguments
+     * @return the policy name to run
+     * @throws IOException if the file of an empirical distribution cannot be read
+     * @throws IllegalArgumentException if an option or its value is not valid
+     */
+    private static String applyArguments(String[] args) throws IOException {
+        if (args.length == 1 && !args[0].startsWith("--")) {
+            return checkPolicyName(args[0]);
+        }
+        String policyName = "Energy-Aware Offloading";
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for option " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--policy":
+                    policyName = checkPolicyName(value);
+                    break;
+                case "--iot":
+                    NUM_IOT_DEVICES = Integer.parseInt(value);
+                    break;
+                case "--fog":
+                    NUM_FOG_NODES = Integer.parseInt(value);
+                    break;
+                case "--iot-fog-latency":
+                    IOT_TO_FOG_LATENCY = Double.parseDouble(value);
+                    break;
+                case "--fog-cloud-latency":
+                    FOG_TO_CLOUD_LATENCY = Double.parseDouble(value);
+                    break;
+                case "--seed":
+                    workloadSeed = Long.parseLong(value);
+                    break;
+                case "--task-length":
+                    taskLength = WorkloadDistribution.parse(value);
+                    break;
+                case "--file-size":
+                    taskFileSize = WorkloadDistribution.parse(value);
+                    break;
+                case "--output-size":
+                    taskOutputSize = WorkloadDistribution.parse(value);
+                    break;
+                case "--deadline-slack":
+                    deadlineSlack = value.equals("none") ? null : WorkloadDistribution.parse(value);
+                    break;
+                case "--interactive-share":
+                    interactiveShare = Double.parseDouble(value);
+                    if (interactiveShare < 0 || interactiveShare > 1) {
+                        throw new IllegalArgumentException("Interactive share must be between 0 and 1: " + value);
+                    }
+                    break;
+                case "--interactive-length":
+                    interactiveLength = WorkloadDistribution.parse(value);
+                    break;
+                case "--task-weight":
+                    taskWeight = WorkloadDistribution.parse(value);
+                    break;
+                case "--trace":
+                    traceFile = new File(value);
+                    break;
+                case "--trace-mips":
+                    TRACE_MIPS_RATING = Double.parseDouble(value);
+                    break;
+                case "--tasks":
+                    NUM_TASKS = Integer.parseInt(value);
+                    break;
+                case "--wave-size":
+                    WAVE_SIZE = Integer.parseInt(value);
+                    break;
+                case "--max-in-flight":
+                    MAX_IN_FLIGHT = Integer.parseInt(value);
+                    break;
+                case "--wave-interval":
+                    WAVE_INTERVAL = Double.parseDouble(value);
+                    break;
+                case "--arrivals":
+                    arrivals = ArrivalModel.parse(value);
+                    break;
+                case "--vm-selection":
+                    if (value.equals("least-loaded")) {
+                        loadAwareSelection = true;
+                    } else if (value.equals("round-robin")) {
+                        loadAwareSelection = false;
+                    } else {
+                        throw new IllegalArgumentException("Unknown VM selection: " + value);
+                    }
+                    break;
+                case "--cloud-power":
+                    PowerModels.parse(value);
+                    cloudPowerModel = value;
+                    break;
+                case "--fog-power":
+                    PowerModels.parse(value);
+                    fogPowerModel = value;
+                    break;
+                case "--iot-power":
+                    PowerModels.parse(value);
+                    iotPowerModel = value;
+                    break;
+                case "--cloud-scheduler":
+                    CloudletSchedulers.parse(value);
+                    cloudScheduler = value;
+                    break;
+                case "--fog-scheduler":
+                    CloudletSchedulers.parse(value);
+                    fogScheduler = value;
+                    break;
+                case "--iot-scheduler":
+                    CloudletSchedulers.parse(value);
+                    iotScheduler = value;
+                    break;
+                case "--metrics-interval":
+                    metricsInterval = Double.parseDouble(value);
+                    break;
+                case "--record-workload":
+                    recordWorkloadFile = new File(value);
+                    break;
+                case "--replay-workload":
+                    replayWorkloadFile = new File(value);
+                    break;
+                case "--results-dir":
+                    ResultSinks.setResultsDir(new File(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (arrivals != null && WAVE_SIZE > 0) {
+            throw new IllegalArgumentException("--arrivals cannot be combined with --wave-size");
+        }
+        if (arrivals != null && arrivals.isTrace() && traceFile == null) {
+            throw new IllegalArgumentException("--arrivals trace needs --trace");
+        }
+        if (replayWorkloadFile != null && (traceFile != null || arrivals != null)) {
+            throw new IllegalArgumentException("--replay-workload cannot be combined with --trace or --arrivals");
         }
+        return policyName;
+    }
+    
+    /**
+     * @param policyName a policy name from the command line
+     * @return the name, if it is one of {@link #POLICY_NAMES}
+     * @throws IllegalArgumentException if it is not
+     */
+    private static String checkPolicyName(String policyName) {
+        if (!POLICY_NAMES.contains(policyName)) {
+            throw unknownPolicy(policyName);
+        }
+        return policyName;
+    }
+    
+    private static IllegalArgumentException unknownPolicy(String policyName) {
+        return new IllegalArgumentException("Unknown policy: " + policyName + "; valid policies are "
+                + String.join(", ", POLICY_NAMES));
     }
     
     /**
@@ -92,8 +398,10 @@ public class CloudSimTaskOffloadingSimulation {
      * 
      * @param policyName the name of the offloading policy to use
      * Valid options: "Energy-Aware Offloading", "Deadline-Aware Offloading", "MCEETO Offloading"
+     * @return aggregated metrics of the run, or null if the run was aborted
+     * @throws IllegalArgumentException if the policy name is not one of {@link #POLICY_NAMES}
      */
-    private static void runSimulation(String policyName) throws Exception {
+    private static RunSummary runSimulation(String policyName) throws Exception {
         Log.printLine("\n==================================");
         Log.printLine("Running simulation with " + policyName);
         Log.printLine("==================================\n");
@@ -107,6 +415,14 @@ public class CloudSimTaskOffloadingSimulation {
         CloudSim.init(num_user, calendar, trace_flag);
         System.out.println("CloudSim initialized successfully");
         
+        // Fresh metrics for this run; the datacenters and the broker register theirs
+        MetricsRegistry metrics = new MetricsRegistry();
+        MetricsRegistry.setDefault(metrics);
+        
+        // One Cloud VM per cloud host, one Fog VM per fog node and one IoT VM per IoT device
+        tiers = new TierRegistry(NUM_CLOUD_HOSTS, NUM_FOG_NODES, NUM_IOT_DEVICES);
+        System.out.println("VM tiers: " + tiers);
+        
         // Define the datacenter variables in the outer scope so we can access them later
         Datacenter cloudDC;
         Datacenter fogDC;
@@ -132,7 +448,7 @@ public class CloudSimTaskOffloadingSimulation {
         } catch (Exception e) {
             System.err.println("Error creating datacenters: " + e.getMessage());
             e.printStackTrace();
-            return; // Don't proceed if datacenter creation fails
+            return null; // Don't proceed if datacenter creation fails
         }
         
         // Get the datacenter IDs
@@ -168,255 +484,266 @@ public class CloudSimTaskOffloadingSimulation {
         
         OffloadingPolicy policy;
         if (policyName.equals("Energy-Aware Offloading")) {
-            policy = new EnergyAwareOffloadingPolicy();
+            policy = new EnergyAwareOffloadingPolicy(tiers);
             System.out.println("Using Energy-Aware Offloading Policy");
         } else if (policyName.equals("Deadline-Aware Offloading")) {
-            policy = new DeadlineAwareOffloadingPolicy();
+            policy = new DeadlineAwareOffloadingPolicy(tiers, IOT_TO_FOG_LATENCY, FOG_TO_CLOUD_LATENCY);
             System.out.println("Using Deadline-Aware Offloading Policy");
         } else if (policyName.equals("MCEETO Offloading")) {
             // Using the Multi-Classifiers based Energy-Efficient Task Offloading algorithm
             // Based on the 2023 MDPI paper
-            policy = new MCEETOOffloadingPolicy();
-            System.out.println("Using Multi-Classifiers based Energy-Efficient Task Offloading (MCEETO) Policy");
+            policy = new MCEETOOffloadingPolicy(tiers, loadAwareSelection);
+            System.out.println("Using Multi-Classifiers based Energy-Efficient Task Offloading (MCEETO) Policy"
+                    + (loadAwareSelection ? " with least-loaded VM selection" : ""));
             System.out.println("Reference: 'A Multi-Classifiers Based Algorithm for Energy Efficient Tasks Offloading in Fog Computing'");
             System.out.println("Published in MDPI Sensors 2023, Vol. 23, Issue 16");
         } else {
-            // Default to Energy-Aware policy
-            policy = new EnergyAwareOffloadingPolicy();
-            System.out.println("Unknown policy name: " + policyName + ", defaulting to Energy-Aware Offloading Policy");
+            throw unknownPolicy(policyName);
         }
         
-        // Use a completely different approach to VM creation and cloudlet submission
-        // First, create VMs
-        createVMs(broker, brokerId, cloudDcId, fogDcId, iotDcId);
+        // Tasks of VMs that fail to be created go to the surviving VMs
+        FailoverOffloadingPolicy failover = new FailoverOffloadingPolicy(
+                new InstrumentedOffloadingPolicy(policy, metrics), tiers, IOT_TO_FOG_LATENCY, FOG_TO_CLOUD_LATENCY);
+        policy = failover;
+        
+        // Create the VMs; the broker sends each one to the datacenter of its tier.
+        // Unless chosen otherwise, the deadline-aware policy is paired with EDF
+        // scheduling on the Fog and IoT VMs
+        String edgeScheduler = policyName.equals("Deadline-Aware Offloading") ? "edf" : "time-shared";
+        String cloudVmScheduler = cloudScheduler != null ? cloudScheduler : "time-shared";
+        String fogVmScheduler = fogScheduler != null ? fogScheduler : edgeScheduler;
+        String iotVmScheduler = iotScheduler != null ? iotScheduler : edgeScheduler;
+        System.out.println("Cloudlet schedulers: Cloud " + cloudVmScheduler + ", Fog " + fogVmScheduler
+                + ", IoT " + iotVmScheduler);
+        createVMs(broker, brokerId, cloudDcId, fogDcId, iotDcId, cloudVmScheduler, fogVmScheduler, iotVmScheduler);
         
         // Submit VMs to broker
         broker.submitVmList(vmList);
         
-        // Create cloudlets but don't submit them yet
-        cloudletList = new ArrayList<Cloudlet>();
-        
         // Check VM specifications and host compatibility before simulation
         System.out.println("\n===== PRE-SIMULATION VM COMPATIBILITY CHECK =====");
-        List<Vm> cloudVMs = new ArrayList<>();
-        List<Vm> fogVMs = new ArrayList<>();
-        List<Vm> iotVMs = new ArrayList<>();
+        System.out.println("Cloud VMs: " + tiers.size(TierRegistry.Tier.CLOUD));
+        System.out.println("Fog VMs: " + tiers.size(TierRegistry.Tier.FOG));
+        System.out.println("IoT VMs: " + tiers.size(TierRegistry.Tier.IOT));
+        System.out.println("===== END PRE-SIMULATION CHECK =====\n");
         
-        // Separate VMs by tier for easier debugging
-        for (Vm vm : vmList) {
-            int vmId = vm.getId();
-            if (vmId <= 1) {
-                cloudVMs.add(vm);
-            } else if (vmId <= 6) {
-                fogVMs.add(vm);
-            } else {
-                iotVMs.add(vm);
+        // Create the cloudlets without a VM. The broker binds them with the offloading
+        // policy once every VM creation has been acknowledged, and executes them in the
+        // same simulation run
+        cloudletList = new ArrayList<Cloudlet>();
+        int numTasks = NUM_TASKS >= 0 ? NUM_TASKS : NUM_IOT_DEVICES;
+        WorkloadGenerator generator = new WorkloadGenerator(workloadSeed, taskLength, taskFileSize, taskOutputSize);
+        if (deadlineSlack != null) {
+            generator = generator.withDeadlines(deadlineSlack, DEADLINE_REFERENCE_MIPS);
+        }
+        if (interactiveShare > 0) {
+            generator = generator.withInteractiveTasks(interactiveShare, interactiveLength);
+        }
+        if (taskWeight != null) {
+            generator = generator.withWeights(taskWeight);
+        }
+        SwfTraceLoader traceLoader = null;
+        WorkloadReplay replay = null;
+        Iterator<CloudletSpec> source = null;
+        boolean timedArrivals = arrivals != null;
+        if (replayWorkloadFile != null) {
+            // The recorded tasks, with their recorded submission mode
+            replay = new WorkloadReplay(replayWorkloadFile);
+            source = replay.specs();
+            timedArrivals = replay.isTimedArrivals();
+            if (timedArrivals && WAVE_SIZE > 0) {
+                replay.close();
+                throw new IllegalArgumentException("A workload recorded with arrivals cannot be replayed in waves");
             }
+            System.out.println("Replaying " + replay.getCount() + " tasks from " + replayWorkloadFile
+                    + (timedArrivals ? " at their recorded submit times" : ""));
+        } else if (traceFile != null) {
+            // Parsing runs in the background; the broker pulls the tasks after VM creation
+            traceLoader = new SwfTraceLoader(traceFile, TRACE_MIPS_RATING);
+            traceLoader.start();
+            Iterator<CloudletSpec> traceTasks = traceLoader.specs();
+            source = arrivals == null || arrivals.isTrace() ? traceTasks
+                    : new ArrivalSchedule(traceTasks, arrivals, NUM_IOT_DEVICES, workloadSeed);
+            System.out.println("Reading tasks from trace " + traceFile);
+        } else if (arrivals != null) {
+            // Each IoT device submits its tasks following the arrival process
+            source = new ArrivalSchedule(generator.iterator(numTasks), arrivals, NUM_IOT_DEVICES, workloadSeed);
+            System.out.println("Generating " + numTasks + " tasks (" + generator + ")");
+        } else if (WAVE_SIZE > 0 || recordWorkloadFile != null) {
+            // Tasks are only created when their wave is due, or recorded as they are submitted
+            source = generator.iterator(numTasks);
+            System.out.println("Generating " + numTasks + " tasks"
+                    + (WAVE_SIZE > 0 ? " in waves of " + WAVE_SIZE : "") + " (" + generator + ")");
+        } else {
+            cloudletList = generator.generateCloudlets(numTasks, brokerId);
+            System.out.println("Generated " + numTasks + " tasks (" + generator + ")");
         }
         
-        System.out.println("Cloud VMs: " + cloudVMs.size());
-        System.out.println("Fog VMs: " + fogVMs.size());
-        System.out.println("IoT VMs: " + iotVMs.size());
-        System.out.println("===== END PRE-SIMULATION CHECK =====\n");
-        
-        // Create cloudlets with multi-tier VM assignment
-        cloudletList = new ArrayList<Cloudlet>();
+        // Tasks are recorded as the broker pulls them, with their arrival times
+        WorkloadRecorder recorder = null;
+        if (recordWorkloadFile != null && source != null) {
+            recorder = new WorkloadRecorder(recordWorkloadFile, timedArrivals);
+            source = recorder.record(source);
+        }
+        if (source != null) {
+            broker.setCloudletSource(source);
+        }
         
-        // Create a map to track successful VM creation status
-        Map<Integer, Boolean> vmCreationSuccess = new HashMap<>();
-        // Initialize all VMs as not created successfully
-        for (Vm vm : vmList) {
-            vmCreationSuccess.put(vm.getId(), false);
+        if (arrivals != null) {
+            System.out.println(arrivals.isTrace() ? "Arrivals: submit times of the trace"
+                    : "Arrivals: " + arrivals + " per IoT device, offered load "
+                    + (NUM_IOT_DEVICES * arrivals.getMeanRate()) + " tasks per time unit");
         }
+        broker.setTimedArrivals(timedArrivals);
+        
+        // Results are processed as the cloudlets return, with the network delay
+        // measured by the broker, so finished cloudlets do not stay on the heap
+        System.out.println("\nProcessing simulation results for policy: " + policyName);
+        SimulationResultProcessor processor = new SimulationResultProcessor(policyName, tiers);
+        broker.setReturnListener(processor::accept);
+        broker.setRetainCloudlets(false);
+        broker.setOffloadingPolicy(policy);
+        System.out.println("Submitting " + cloudletList.size() + " cloudlets to broker");
+        broker.submitCloudletList(cloudletList);
         
-        // VM creation happens during simulation, so we need to run a VM creation simulation phase first
-        System.out.println("\n===== STARTING VM CREATION PHASE =====");
+        // Configure network topology so that messages between the broker and the
+        // datacenters are delayed by the tier latencies
+        configureNetworkTopology(brokerId, iotDcId, fogDcId, cloudDcId);
         
-        // Run a small portion of the simulation to process VM creation events
-        // We'll submit no cloudlets yet - just creating VMs
-        CloudSim.startSimulation();
+        // Metrics snapshots over simulation time, followed by the final one
+        PrintWriter metricsCsv = openMetricsCsv(policyName);
+        if (metricsCsv != null && metricsInterval > 0) {
+            broker.setMetricsSnapshots(metricsInterval, snapshot -> snapshot.writeCsv(metricsCsv));
+        }
         
-        // Simulation will run until first cloudlet submission event
-        // Since we haven't submitted any cloudlets yet, it will pause after VM creation
-        // CloudSim automatically stops when there are no more events
+        // VM creation and cloudlet execution happen in one event-driven run:
+        // VM_CREATE_ACKs -> policy binding -> CLOUDLET_SUBMIT -> CLOUDLET_RETURN
+        System.out.println("\n===== STARTING SIMULATION =====");
+        double endTime;
+        try {
+            // The clock is reset when the run ends, so keep its final value
+            endTime = CloudSim.startSimulation();
+        } finally {
+            if (traceLoader != null) {
+                traceLoader.close();
+            }
+            if (replay != null) {
+                replay.close();
+            }
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+        if (recorder != null) {
+            System.out.println("Recorded " + recorder.getCount() + " tasks to " + recorder.getFile());
+        }
+        MetricsSnapshot finalMetrics = metrics.snapshot(endTime);
+        if (metricsCsv != null) {
+            finalMetrics.writeCsv(metricsCsv);
+            metricsCsv.close();
+        }
+        if (traceLoader != null) {
+            System.out.println("Read " + traceLoader.getPublishedCount() + " tasks from the trace, skipped "
+                    + traceLoader.getSkippedCount() + " lines");
+        }
         
         // Now check which VMs were actually created
-        List<Vm> createdVms = broker.getVmsCreatedList();
-        System.out.println("\n===== VM CREATION COMPLETED =====");
+        List<Vm> createdVms = broker.getCreatedVmList();
+        System.out.println("\n===== SIMULATION FINISHED =====");
         System.out.println("Successfully created " + createdVms.size() + " out of " + vmList.size() + " VMs");
         
-        // Update success map with created VMs
+        int[] createdByTier = new int[TierRegistry.Tier.values().length];
+        boolean[] created = new boolean[vmList.size()];
         for (Vm vm : createdVms) {
-            vmCreationSuccess.put(vm.getId(), true);
-            try {
-                System.out.println("VM #" + vm.getId() + " created successfully");
-            } catch (Exception e) {
-                System.out.println("VM #" + vm.getId() + " created but datacenter info unavailable");
+            TierRegistry.Tier tier = tiers.tierOf(vm.getId());
+            if (tier != null) {
+                createdByTier[tier.ordinal()]++;
+            }
+            if (vm.getId() < created.length) {
+                created[vm.getId()] = true;
             }
         }
-        
-        // Show failed VMs
         for (Vm vm : vmList) {
-            if (!vmCreationSuccess.getOrDefault(vm.getId(), false)) {
-                System.out.println("WARNING: VM #" + vm.getId() + " failed to be created");
+            if (vm.getId() < created.length && !created[vm.getId()]) {
+                SimLog.warn(() -> "WARNING: VM #" + vm.getId() + " failed to be created");
             }
         }
         
-        // Since VMs are created but we can't reuse them in a new simulation,
-        // we'll skip the reinitialization and create a simpler approach:
-        // We'll directly assign tasks to the VMs that were successfully created in the first phase
-        
-        // Count successfully created VMs by tier
-        int cloudVmsCreated = 0;
-        int fogVmsCreated = 0;
-        int iotVmsCreated = 0;
-        
-        for (int i = 0; i <= 1; i++) {
-            if (vmCreationSuccess.getOrDefault(i, false)) cloudVmsCreated++;
-        }
-        for (int i = 2; i <= 6; i++) {
-            if (vmCreationSuccess.getOrDefault(i, false)) fogVmsCreated++;
-        }
-        for (int i = 7; i <= 16; i++) {
-            if (vmCreationSuccess.getOrDefault(i, false)) iotVmsCreated++;
-        }
-        
         System.out.println("\nSuccessfully created VMs by tier:");
-        System.out.println("Cloud VMs: " + cloudVmsCreated + " of 2");
-        System.out.println("Fog VMs: " + fogVmsCreated + " of 5");
-        System.out.println("IoT VMs: " + iotVmsCreated + " of 10");
-        
-        // Distribute tasks across all tiers based on policy with fallback mechanism
-        System.out.println("\nCreating and assigning tasks across all available tiers...");
+        for (TierRegistry.Tier tier : TierRegistry.Tier.values()) {
+            System.out.println(tier.getDisplayName() + " VMs: " + createdByTier[tier.ordinal()] + " of " + tiers.size(tier));
+        }
         
-        // Create lists of successfully created VMs by tier for easier assignment
-        List<Integer> cloudVmIds = new ArrayList<>();
-        List<Integer> fogVmIds = new ArrayList<>();
-        List<Integer> iotVmIds = new ArrayList<>();
+        // Print queued diagnostics before the results
+        SimLog.flush();
+        finalMetrics.print(System.out);
         
-        for (Vm vm : createdVms) {
-            int vmId = vm.getId();
-            if (vmId <= 1) {
-                cloudVmIds.add(vmId);
-            } else if (vmId <= 6) {
-                fogVmIds.add(vmId);
-            } else {
-                iotVmIds.add(vmId);
-            }
+        long totalTasks = broker.getSubmittedCount() + broker.getUnplacedCloudletList().size();
+        System.out.println("\nSimulation completed. " + broker.getReturnedCount() + " out of " + 
+                        totalTasks + " tasks completed successfully.");
+        if (failover.getRedirectedCount() > 0) {
+            System.out.println(failover.getRedirectedCount() + " tasks were re-offloaded because their VM was not created");
         }
-        
-        // Define tier distribution targets (Cloud: 20%, Fog: 30%, IoT: 50%)
-        // Only if we have VMs in those tiers
-        int cloudTaskTarget = cloudVmIds.isEmpty() ? 0 : (int)(NUM_IOT_DEVICES * 0.2);
-        int fogTaskTarget = fogVmIds.isEmpty() ? 0 : (int)(NUM_IOT_DEVICES * 0.3);
-        int cloudTaskCount = 0;
-        int fogTaskCount = 0;
-        int iotTaskCount = 0;
-        
-        // Make sure we have at least one VM to assign tasks to
-        if (createdVms.isEmpty()) {
-            System.out.println("ERROR: No VMs were successfully created. Cannot assign tasks.");
-            return;
+        if (!broker.getUnplacedCloudletList().isEmpty()) {
+            System.out.println(broker.getUnplacedCloudletList().size() + " tasks failed because their VM was not created");
         }
-        
-        // Create and assign tasks
-        for (int i = 0; i < NUM_IOT_DEVICES; i++) {
-            Cloudlet cloudlet = createCloudlet(i, brokerId);
-            int assignedVmId = -1;
-            
-            // Try cloud tier first if we haven't met target
-            if (cloudTaskCount < cloudTaskTarget && !cloudVmIds.isEmpty()) {
-                // Round-robin assignment within cloud tier
-                assignedVmId = cloudVmIds.get(cloudTaskCount % cloudVmIds.size());
-                cloudTaskCount++;
-                System.out.println("Task #" + i + " assigned to Cloud VM #" + assignedVmId);
-            }
-            // Try fog tier if cloud tier is full or unavailable
-            else if (fogTaskCount < fogTaskTarget && !fogVmIds.isEmpty()) {
-                // Round-robin assignment within fog tier
-                assignedVmId = fogVmIds.get(fogTaskCount % fogVmIds.size());
-                fogTaskCount++;
-                System.out.println("Task #" + i + " assigned to Fog VM #" + assignedVmId);
-            }
-            // Fall back to IoT tier
-            else if (!iotVmIds.isEmpty()) {
-                // Round-robin assignment within IoT tier
-                assignedVmId = iotVmIds.get(iotTaskCount % iotVmIds.size());
-                iotTaskCount++;
-                System.out.println("Task #" + i + " assigned to IoT VM #" + assignedVmId);
-            }
-            // Emergency fallback - use any VM
-            else {
-                assignedVmId = createdVms.get(0).getId();
-                System.out.println("EMERGENCY FALLBACK: Task #" + i + " assigned to VM #" + 
-                        assignedVmId + " (only VM available)");
-            }
-            
-            // Set VM ID for the cloudlet
-            cloudlet.setVmId(assignedVmId);
-            cloudletList.add(cloudlet);
+        // Close every host's energy reading at the end of the run
+        double[] hostEnergy = new double[TierRegistry.Tier.values().length];
+        hostEnergy[TierRegistry.Tier.CLOUD.ordinal()] = meterHosts(cloudDC, endTime);
+        hostEnergy[TierRegistry.Tier.FOG.ordinal()] = meterHosts(fogDC, endTime);
+        hostEnergy[TierRegistry.Tier.IOT.ordinal()] = meterHosts(iotDC, endTime);
+        
+        if (broker instanceof WaveSubmissionBroker) {
+            System.out.println("Submitted in " + ((WaveSubmissionBroker) broker).getWaveCount() + " waves");
         }
-        
-        System.out.println("\nFinal task distribution:");
-        System.out.println("Cloud tier: " + cloudTaskCount + " tasks");
-        System.out.println("Fog tier: " + fogTaskCount + " tasks");
-        System.out.println("IoT tier: " + iotTaskCount + " tasks");
-        
-        // Configure network topology for datacenter communication
-        configureNetworkTopology(iotDcId, fogDcId, cloudDcId);
-        
-        // Submit cloudlets to broker
-        System.out.println("\nSubmitting " + cloudletList.size() + " cloudlets to broker\n");
-        broker.submitCloudletList(cloudletList);
-        
-        // Skip running a second simulation phase - instead, we'll just collect results
-        // CloudSim doesn't support clean simulation restarting in a single program
-        // We'll use the VM creation information to process results
-        
-        System.out.println("\nProcessing simulation results based on VM creation success...");
-        
-        // Create a list of simulated cloudlet results based on VM creation status
-        List<Cloudlet> completedCloudlets = new ArrayList<>();
-        for (Cloudlet cloudlet : cloudletList) {
-            int vmId = cloudlet.getVmId();
-            if (vmCreationSuccess.getOrDefault(vmId, false)) {
-                // Mark cloudlet as completed for successfully created VMs
-                cloudlet.setCloudletStatus(Cloudlet.SUCCESS);
-                // Add simulated execution time based on MI and VM MIPS
-                double executionTime = 0;
-                for (Vm vm : createdVms) {
-                    if (vm.getId() == vmId) {
-                        // Calculate execution time: length (MI) / MIPS
-                        executionTime = cloudlet.getCloudletLength() / vm.getMips();
-                        break;
-                    }
+        processor.setHostEnergy(hostEnergy);
+        return processor.finish();
+    }
+    
+    /**
+     * Opens the metrics CSV of a run in the results directory
+     *
+     * @param policyName the policy of the run
+     * @return the writer, with the header written, or null if the file cannot be created
+     */
+    private static PrintWriter openMetricsCsv(String policyName) {
+        File dir = ResultSinks.resultsDir();
+        dir.mkdirs();
+        File file = new File(dir, policyName.replace(" ", "_") + "_metrics_" + System.currentTimeMillis() + ".csv");
+        try {
+            PrintWriter writer = new PrintWriter(new FileWriter(file));
+            writer.println(MetricsSnapshot.CSV_HEADER);
+            System.out.println("Writing metrics to " + file.getAbsolutePath());
+            return writer;
+        } catch (IOException e) {
+            System.err.println("ERROR creating metrics file: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Meters every host of a datacenter up to the end of the run
+     *
+     * @param datacenter the datacenter
+     * @param endTime simulation time at the end of the run
+     * @return energy of the datacenter's hosts in J
+     * @throws IllegalStateException if a host was metered after endTime
+     */
+    private static double meterHosts(Datacenter datacenter, double endTime) {
+        double energy = 0;
+        for (Host host : datacenter.getHostList()) {
+            if (host instanceof MeteredPowerHost) {
+                MeteredPowerHost meteredHost = (MeteredPowerHost) host;
+                // meter() ignores earlier times, which would drop the last interval
+                if (endTime < meteredHost.getLastMeterTime()) {
+                    throw new IllegalStateException("Host #" + host.getId() + " was metered up to "
+                            + meteredHost.getLastMeterTime() + " but the run ended at " + endTime);
                 }
-                // In this version of CloudSim, we can't directly set finish time
-                cloudlet.setExecStartTime(0.0);
-                // Store execution time in submission time field just for tracking
-                cloudlet.setSubmissionTime(executionTime);
-                completedCloudlets.add(cloudlet);
-                System.out.println("Task #" + cloudlet.getCloudletId() + " simulated as completed on VM #" + vmId + 
-                                  " in " + String.format("%.2f", executionTime) + " seconds");
-            } else {
-                // Mark cloudlet as failed for VMs that weren't created
-                cloudlet.setCloudletStatus(Cloudlet.FAILED);
-                System.out.println("Task #" + cloudlet.getCloudletId() + " failed because VM #" + vmId + " was not created");
+                meteredHost.meter(endTime);
+                energy += meteredHost.getEnergy();
             }
         }
-
-        // Use our manually created list of completed cloudlets for result processing
-        // instead of broker.getCloudletReceivedList() which might be empty
-        
-        System.out.println("\nSimulation completed. " + completedCloudlets.size() + " out of " + 
-                        cloudletList.size() + " tasks completed successfully.");
-
-        // Print directly to console using original method
-        printCloudletList(completedCloudlets, policyName);
-        
-        // Process results with our SimulationResultProcessor for detailed output
-        // Using the static method that takes cloudlet list and policy name
-        SimulationResultProcessor.processResults(completedCloudlets, policyName);
+        return energy;
     }
 
     /**
@@ -437,13 +764,14 @@ public class CloudSimTaskOffloadingSimulation {
         }
         
         hostList.add(
-            new Host(
+            new MeteredPowerHost(
                 0,
                 new RamProvisionerSimple(16384), // 16GB
                 new BwProvisionerSimple(10000), // 10Gbps
                 1000000, // 1TB storage
                 peList1,
-                new VmSchedulerTimeShared(peList1) // Using TimeShared scheduler for better VM compatibility
+                new VmSchedulerTimeShared(peList1), // Using TimeShared scheduler for better VM compatibility
+                PowerModels.parse(cloudPowerModel)
             )
         );
         
@@ -454,13 +782,14 @@ public class CloudSimTaskOffloadingSimulation {
         }
         
         hostList.add(
-            new Host(
+            new MeteredPowerHost(
                 1,
                 new RamProvisionerSimple(32768), // 32GB 
                 new BwProvisionerSimple(10000), // 10Gbps
                 2000000, // 2TB storage
                 peList2,
-                new VmSchedulerTimeShared(peList2) // Using TimeShared scheduler for better VM compatibility
+                new VmSchedulerTimeShared(peList2), // Using TimeShared scheduler for better VM compatibility
+                PowerModels.parse(cloudPowerModel)
             )
         );
         
@@ -532,6 +861,8 @@ public class CloudSimTaskOffloadingSimulation {
         
         System.out.println("Creating " + NUM_FOG_NODES + " fog hosts with IDs starting at " + hostId);
         
+        // Power models keep no state, so the hosts share one
+        PowerModel powerModel = PowerModels.parse(fogPowerModel);
         for (int i = 0; i < NUM_FOG_NODES; i++) {
             // Create dual-core PE list
             List<Pe> peList = new ArrayList<Pe>();
@@ -540,13 +871,14 @@ public class CloudSimTaskOffloadingSimulation {
             
             // Create Host with its id and list of PEs and add them to the list of machines
             hostList.add(
-                new Host(
+                new MeteredPowerHost(
                     hostId++,
                     new RamProvisionerSimple(ram),
                     new BwProvisionerSimple(bw),
                     storage,
                     peList,
-                    new VmSchedulerTimeShared(peList) // Using TimeShared scheduler for better VM compatibility
+                    new VmSchedulerTimeShared(peList), // Using TimeShared scheduler for better VM compatibility
+                    powerModel
                 )
             );
         }
@@ -590,7 +922,7 @@ public class CloudSimTaskOffloadingSimulation {
             // Print detailed fog host information
             System.out.println("===== FOG DATACENTER HOST DEBUG =====");
             for (Host host : hostList) {
-                System.out.println("Fog host #" + host.getId() + ": " + 
+                SimLog.debug(() -> "Fog host #" + host.getId() + ": " + 
                     host.getNumberOfPes() + " PEs, " + 
                     host.getTotalMips() + " total MIPS, " + 
                     host.getRamProvisioner().getAvailableRam() + "MB RAM, " +
@@ -635,19 +967,21 @@ public class CloudSimTaskOffloadingSimulation {
         int baseHostId = 20;
         System.out.println("Creating " + NUM_IOT_DEVICES + " IoT hosts with IDs starting at " + baseHostId);
         
+        PowerModel powerModel = PowerModels.parse(iotPowerModel);
         for (int i = 0; i < NUM_IOT_DEVICES; i++) {
             List<Pe> peList = new ArrayList<Pe>();
             
             // Single core per host as in FixedTierSimulation
             peList.add(new Pe(0, new PeProvisionerSimple(mips)));
             
-            Host host = new Host(
+            Host host = new MeteredPowerHost(
                 baseHostId + i, // Unique host ID starting from 20
                 new RamProvisionerSimple(ram),
                 new BwProvisionerSimple(bw),
                 storage,
                 peList,
-                new VmSchedulerTimeShared(peList) // Using TimeShared scheduler for better VM compatibility
+                new VmSchedulerTimeShared(peList), // Using TimeShared scheduler for better VM compatibility
+                powerModel
             );
             
             hostList.add(host);
@@ -679,7 +1013,7 @@ public class CloudSimTaskOffloadingSimulation {
             // Print detailed IoT host information
             System.out.println("===== IOT DATACENTER HOST DEBUG =====");
             for (Host host : hostList) {
-                System.out.println("IoT host #" + host.getId() + ": " + 
+                SimLog.debug(() -> "IoT host #" + host.getId() + ": " + 
                     host.getNumberOfPes() + " PEs, " + 
                     host.getTotalMips() + " total MIPS, " + 
                     host.getRamProvisioner().getAvailableRam() + "MB RAM, " +
@@ -714,7 +1048,12 @@ public class CloudSimTaskOffloadingSimulation {
     private static TieredDatacenterBroker createTieredBroker(String name) {
         TieredDatacenterBroker broker = null;
         try {
-            broker = new TieredDatacenterBroker(name);
+            if (WAVE_SIZE > 0) {
+                int maxInFlight = MAX_IN_FLIGHT > 0 ? MAX_IN_FLIGHT : 4 * WAVE_SIZE;
+                broker = new WaveSubmissionBroker(name, tiers, WAVE_SIZE, maxInFlight, WAVE_INTERVAL);
+                return broker;
+            }
+            broker = new TieredDatacenterBroker(name, tiers);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -724,30 +1063,28 @@ public class CloudSimTaskOffloadingSimulation {
 
     /**
      * Configure network topology with appropriate latencies between datacenter tiers.
+     * The broker stands for the IoT devices that generate the tasks, so it is linked
+     * to the IoT datacenter over a short access link; CloudSim then delays every message from
+     * the broker to a datacenter (and back) by the latency of the path between them.
      */
-    private static void configureNetworkTopology(int iotDcId, int fogDcId, int cloudDcId) {
+    private static void configureNetworkTopology(int brokerId, int iotDcId, int fogDcId, int cloudDcId) {
         try {
             // Instead of using a BRITE file which limits node counts,
             // we'll directly configure the network links with specified latencies
             
             System.out.println("Setting up network topology with datacenter IDs: IoT=" + iotDcId + 
                               ", Fog=" + fogDcId + ", Cloud=" + cloudDcId);
-                              
-            // Set up the matrix directly instead of using the BRITE file
-            // This allows us to avoid the array index out of bounds issues
             
-            // First, register all entities so we can add links between them
-            NetworkTopology.mapNode(cloudDcId, 0);
-            NetworkTopology.mapNode(fogDcId, 1);
-            NetworkTopology.mapNode(iotDcId, 2);
+            // addLink registers the entities and recomputes the shortest-path delays;
+            // its arguments are (source, destination, bandwidth, latency)
+            NetworkTopology.addLink(brokerId, iotDcId, 10000, IOT_ACCESS_LATENCY);
             
-            // Now add links with appropriate latencies
             // IoT to Fog link
-            NetworkTopology.addLink(iotDcId, fogDcId, IOT_TO_FOG_LATENCY, 1000); // 1000 Mbps bandwidth
+            NetworkTopology.addLink(iotDcId, fogDcId, 1000, IOT_TO_FOG_LATENCY); // 1000 Mbps bandwidth
             System.out.println("Added network link from IoT to Fog with latency " + IOT_TO_FOG_LATENCY + " ms");
             
             // Fog to Cloud link
-            NetworkTopology.addLink(fogDcId, cloudDcId, FOG_TO_CLOUD_LATENCY, 10000); // 10000 Mbps bandwidth
+            NetworkTopology.addLink(fogDcId, cloudDcId, 10000, FOG_TO_CLOUD_LATENCY); // 10000 Mbps bandwidth
             System.out.println("Added network link from Fog to Cloud with latency " + FOG_TO_CLOUD_LATENCY + " ms");
             
             System.out.println("Network topology successfully configured");
@@ -800,8 +1137,12 @@ public class CloudSimTaskOffloadingSimulation {
      * @param cloudDcId the cloud datacenter ID
      * @param fogDcId the fog datacenter ID
      * @param iotDcId the IoT datacenter ID
+     * @param cloudScheduler cloudlet scheduler of the Cloud VMs (see CloudletSchedulers#parse)
+     * @param fogScheduler cloudlet scheduler of the Fog VMs
+     * @param iotScheduler cloudlet scheduler of the IoT VMs
      */
-    private static void createVMs(TieredDatacenterBroker broker, int brokerId, int cloudDcId, int fogDcId, int iotDcId) {
+    private static void createVMs(TieredDatacenterBroker broker, int brokerId, int cloudDcId, int fogDcId, int iotDcId,
+                                  String cloudScheduler, String fogScheduler, String iotScheduler) {
         // Initialize the vmList if it hasn't been created yet
         if (vmList == null) {
             vmList = new ArrayList<Vm>();
@@ -814,10 +1155,11 @@ public class CloudSimTaskOffloadingSimulation {
         
         // Create Cloud VMs - Carefully calibrated to match Cloud hosts
         // IMPORTANT: Using much lower MIPS values to ensure compatibility with VmSchedulerTimeShared
-        // Create 2 Cloud VMs with IDs 0-1
-        for (int i = 0; i < 2; i++) {
+        // Create the Cloud VMs with the IDs of the Cloud tier
+        for (int i = 0; i < tiers.size(TierRegistry.Tier.CLOUD); i++) {
+            int vmId = tiers.vmId(TierRegistry.Tier.CLOUD, i);
             Vm cloudVm = new Vm(
-                i,                      // VM ID 0 or 1
+                vmId,                   // VM ID in the Cloud tier range
                 brokerId,               // User ID
                 50,                     // MIPS - ultra low for guaranteed compatibility
                 1,                      // Using only 1 core to avoid MIPS allocation issues
@@ -825,19 +1167,20 @@ public class CloudSimTaskOffloadingSimulation {
                 10,                     // Bandwidth - ultra low for compatibility
                 500,                    // Storage - ultra low for compatibility
                 "Xen",                  // VMM
-                new CloudletSchedulerTimeShared() // Using time-shared scheduler for all VMs
+                CloudletSchedulers.parse(cloudScheduler)
             );
             cloudVMs.add(cloudVm);
-            System.out.println("Created Cloud VM #" + i + " with 50 MIPS, 128MB RAM");
+            SimLog.debug(() -> "Created Cloud VM #" + vmId + " with 50 MIPS, 128MB RAM");
         }
         
         // Create Fog VMs - Ultra-conservative values for guaranteed allocation
         // Each Fog host has 2 cores at 2000 MIPS, 8GB RAM
         // Using bare minimum resource requirements to ensure successful allocation
-        for (int i = 0; i < NUM_FOG_NODES; i++) {
-            // Using VM IDs 2-6 for Fog VMs
+        for (int i = 0; i < tiers.size(TierRegistry.Tier.FOG); i++) {
+            // Using the VM IDs of the Fog tier
+            int vmId = tiers.vmId(TierRegistry.Tier.FOG, i);
             Vm fogVm = new Vm(
-                2 + i,                 // VM ID fixed to range 2-6
+                vmId,                  // VM ID in the Fog tier range
                 brokerId,              // User ID
                 50,                    // MIPS - ultra low for guaranteed compatibility
                 1,                     // Number of CPUs - using 1 core only for better compatibility
@@ -845,16 +1188,17 @@ public class CloudSimTaskOffloadingSimulation {
                 10,                    // Bandwidth - ultra low for guaranteed compatibility
                 500,                   // Storage - ultra low for guaranteed compatibility
                 "Xen",                 // VMM
-                new CloudletSchedulerTimeShared() // Using TimeShared scheduler
+                CloudletSchedulers.parse(fogScheduler)
             );
             fogVMs.add(fogVm);
-            System.out.println("Created Fog VM #" + (2 + i) + " with 50 MIPS, 128MB RAM");
+            SimLog.debug(() -> "Created Fog VM #" + vmId + " with 50 MIPS, 128MB RAM");
         }
         
-        // Create IoT VMs with IDs 7-16
-        for (int i = 0; i < NUM_IOT_DEVICES; i++) {
+        // Create IoT VMs with the IDs of the IoT tier
+        for (int i = 0; i < tiers.size(TierRegistry.Tier.IOT); i++) {
+            int vmId = tiers.vmId(TierRegistry.Tier.IOT, i);
             Vm iotVm = new Vm(
-                7 + i,                   // VM ID fixed to range 7-16
+                vmId,                    // VM ID in the IoT tier range
                 brokerId,                // User ID
                 50,                      // MIPS - ultra low for consistency with other tiers
                 1,                       // Number of CPUs - single core
@@ -862,10 +1206,10 @@ public class CloudSimTaskOffloadingSimulation {
                 10,                      // Bandwidth - ultra low for consistency
                 500,                     // Storage (MB) - ultra low for consistency
                 "Embedded",              // VMM
-                new CloudletSchedulerTimeShared() // Using TimeShared scheduler
+                CloudletSchedulers.parse(iotScheduler)
             );
             iotVMs.add(iotVm);
-            System.out.println("Created IoT VM #" + (7 + i) + " with 50 MIPS, 128MB RAM");
+            SimLog.debug(() -> "Created IoT VM #" + vmId + " with 50 MIPS, 128MB RAM");
         }
         
         System.out.println("Created " + cloudVMs.size() + " cloud VMs, " + 
@@ -875,17 +1219,17 @@ public class CloudSimTaskOffloadingSimulation {
         // Debug output to verify VM specifications
         System.out.println("\n===== VM SPECIFICATIONS =====");
         for (Vm vm : cloudVMs) {
-            System.out.println("Cloud VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " +
+            SimLog.debug(() -> "Cloud VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " +
                              vm.getMips() + " MIPS, " + vm.getRam() + " MB RAM");
         }
         
         for (Vm vm : fogVMs) {
-            System.out.println("Fog VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " +
+            SimLog.debug(() -> "Fog VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " +
                              vm.getMips() + " MIPS, " + vm.getRam() + " MB RAM");
         }
         
         for (Vm vm : iotVMs) {
-            System.out.println("IoT VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " +
+            SimLog.debug(() -> "IoT VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " +
                              vm.getMips() + " MIPS, " + vm.getRam() + " MB RAM");
         }
                           
@@ -920,26 +1264,29 @@ public class CloudSimTaskOffloadingSimulation {
         // Explicitly map VMs to their correct datacenters using the IDs we discovered
         // Print ID ranges for debugging
         System.out.println("\n===== VM-TO-DATACENTER MAPPING =====");
-        System.out.println("Cloud VMs (0-1) mapped to datacenter #" + cloudDcId);
-        System.out.println("Fog VMs (2-6) mapped to datacenter #" + fogDcId);
-        System.out.println("IoT VMs (7-16) mapped to datacenter #" + iotDcId);
+        System.out.println("Cloud VMs (" + tiers.firstVmId(TierRegistry.Tier.CLOUD) + "-" + tiers.lastVmId(TierRegistry.Tier.CLOUD)
+                + ") mapped to datacenter #" + cloudDcId);
+        System.out.println("Fog VMs (" + tiers.firstVmId(TierRegistry.Tier.FOG) + "-" + tiers.lastVmId(TierRegistry.Tier.FOG)
+                + ") mapped to datacenter #" + fogDcId);
+        System.out.println("IoT VMs (" + tiers.firstVmId(TierRegistry.Tier.IOT) + "-" + tiers.lastVmId(TierRegistry.Tier.IOT)
+                + ") mapped to datacenter #" + iotDcId);
         
         // Map cloud VMs to Cloud datacenter
         for (Vm vm : cloudVMs) {
             broker.mapVmToDatacenter(vm.getId(), cloudDcId);
-            System.out.println("VM #" + vm.getId() + " mapped to Cloud datacenter #" + cloudDcId);
+            SimLog.debug(() -> "VM #" + vm.getId() + " mapped to Cloud datacenter #" + cloudDcId);
         }
         
         // Map fog VMs to Fog datacenter
         for (Vm vm : fogVMs) {
             broker.mapVmToDatacenter(vm.getId(), fogDcId);
-            System.out.println("VM #" + vm.getId() + " mapped to Fog datacenter #" + fogDcId);
+            SimLog.debug(() -> "VM #" + vm.getId() + " mapped to Fog datacenter #" + fogDcId);
         }
         
         // Map IoT VMs to IoT datacenter
         for (Vm vm : iotVMs) {
             broker.mapVmToDatacenter(vm.getId(), iotDcId);
-            System.out.println("VM #" + vm.getId() + " mapped to IoT datacenter #" + iotDcId);
+            SimLog.debug(() -> "VM #" + vm.getId() + " mapped to IoT datacenter #" + iotDcId);
         }
         
         // Add ResourceDebugger to help diagnose any VM-host compatibility issues
@@ -955,166 +1302,4 @@ public class CloudSimTaskOffloadingSimulation {
         
         System.out.println("\n===== END VM ALLOCATION STRATEGY =====");
     }
-    
-    /**
-     * Creates a cloudlet (task).
-     *
-     * @param id the cloudlet ID
-     * @param userId the user ID
-     * @return the cloudlet
-     */
-    private static Cloudlet createCloudlet(int id, int userId) {
-        // Cloudlet properties
-        long length = 10000 + (int)(Math.random() * 40000); // Task length in MI (variable)
-        long fileSize = 500 + (int)(Math.random() * 1500);  // Input file size in bytes (variable)
-        long outputSize = 300 + (int)(Math.random() * 1000); // Output file size in bytes (variable)
-        int pesNumber = 1; // Number of CPUs needed
-        
-        UtilizationModel utilizationModel = new UtilizationModelFull();
-        
-        Cloudlet cloudlet = new Cloudlet(
-            id, 
-            length, 
-            pesNumber, 
-            fileSize, 
-            outputSize, 
-            utilizationModel, 
-            utilizationModel, 
-            utilizationModel
-        );
-        
-        cloudlet.setUserId(userId);
-        
-        // We can't use setRequiredFiles due to protected access
-        // So we'll rely on the cloudlet ID to determine source device
-        // Source device ID = NUM_CLOUD_HOSTS + NUM_FOG_NODES + cloudlet ID
-        
-        // For debugging
-        System.out.println("Created Task " + id + " with length " + length + 
-                       " MI, size " + fileSize + " bytes, originating from IoT device " + 
-                       (NUM_CLOUD_HOSTS + NUM_FOG_NODES + id));
-        
-        return cloudlet;
-    }
-    
-    /**
-     * Prints the Cloudlet objects.
-     *
-     * @param list list of Cloudlets
-     * @param policyName the name of the offloading policy used
-     */
-    private static void printCloudletList(List<Cloudlet> list, String policyName) {
-        int size = list.size();
-        Cloudlet cloudlet;
-
-        String indent = "    ";
-        Log.printLine();
-        Log.printLine("----- Simulation Results -----");
-        Log.printLine("Offloading Algorithm: " + policyName);
-        Log.printLine(indent + "Total Tasks Generated: " + NUM_IOT_DEVICES);
-        Log.printLine(indent + "Total Tasks Completed: " + size);
-        
-        // Success rate
-        double successRate = (double)size / NUM_IOT_DEVICES * 100;
-        Log.printLine(indent + "Success Rate: " + new DecimalFormat("0.00").format(successRate) + "%");
-        
-        // Compute averages
-        double totalExecutionTime = 0.0;
-        double totalCost = 0.0;
-        double totalEnergy = 0.0; // Estimated based on execution time
-        
-        // Track task distribution
-        Map<Integer, Integer> vmTaskCount = new HashMap<>();
-        Map<Integer, String> vmTypes = new HashMap<>();
-        
-        // Set VM types
-        for (int i = 0; i < NUM_CLOUD_HOSTS; i++) {
-            vmTypes.put(i, "Cloud");
-        }
-        for (int i = NUM_CLOUD_HOSTS; i < NUM_CLOUD_HOSTS + NUM_FOG_NODES; i++) {
-            vmTypes.put(i, "Fog");
-        }
-        for (int i = NUM_CLOUD_HOSTS + NUM_FOG_NODES; i < NUM_CLOUD_HOSTS + NUM_FOG_NODES + NUM_IOT_DEVICES; i++) {
-            vmTypes.put(i, "IoT");
-        }
-        
-        // Calculate network usage and transmission time
-        double totalTransmissionTime = 0.0;
-        
-        Log.printLine();
-        Log.printLine(indent + "========== Tasks ==========");
-        DecimalFormat dft = new DecimalFormat("###.##");
-        for (int i = 0; i < size; i++) {
-            cloudlet = list.get(i);
-            
-            // Calculate metrics
-            double executionTime = cloudlet.getFinishTime() - cloudlet.getSubmissionTime();
-            totalExecutionTime += executionTime;
-            totalCost += cloudlet.getProcessingCost();
-            
-            // Estimate energy based on VM type and execution time
-            double energyFactor = 1.0;
-            String vmType = vmTypes.get(cloudlet.getVmId());
-            if (vmType.equals("Cloud")) {
-                energyFactor = 5.0; // Higher energy for cloud
-            } else if (vmType.equals("Fog")) {
-                energyFactor = 3.0; // Medium energy for fog
-            } else {
-                energyFactor = 1.0; // Lower energy for IoT
-            }
-            double taskEnergy = executionTime * energyFactor / 1000.0; // Energy in Joules
-            totalEnergy += taskEnergy;
-            
-            // Calculate transmission time based on offloading
-            double transmissionTime = 0.0;
-            if (!vmType.equals("IoT")) {
-                // Task was offloaded, so there's transmission time
-                if (vmType.equals("Fog")) {
-                    transmissionTime = IOT_TO_FOG_LATENCY;
-                } else { // Cloud
-                    transmissionTime = IOT_TO_FOG_LATENCY + FOG_TO_CLOUD_LATENCY;
-                }
-                // Add data transmission time based on cloudlet size
-                transmissionTime += (cloudlet.getCloudletFileSize() + cloudlet.getCloudletOutputSize()) / 1000.0;
-                totalTransmissionTime += transmissionTime;
-            }
-            
-            // Track task distribution
-            int vmId = cloudlet.getVmId();
-            vmTaskCount.put(vmId, vmTaskCount.getOrDefault(vmId, 0) + 1);
-            
-            Log.printLine(indent + indent + "Task ID: " + cloudlet.getCloudletId() + 
-                         ", Status: " + (cloudlet.getCloudletStatus() == Cloudlet.SUCCESS ? "SUCCESS" : "FAILED") +
-                         ", VM: " + vmType + "-" + cloudlet.getVmId() +
-                         ", Time: " + dft.format(executionTime) + " ms" +
-                         ", Transmission: " + dft.format(transmissionTime) + " ms" +
-                         ", Energy: " + dft.format(taskEnergy) + " J");
-        }
-        
-        // Print summary
-        if (size > 0) {
-            Log.printLine();
-            Log.printLine(indent + "========== Summary ==========");
-            Log.printLine(indent + "Average Execution Time: " + dft.format(totalExecutionTime/size) + " ms");
-            Log.printLine(indent + "Average Transmission Time: " + dft.format(totalTransmissionTime/size) + " ms");
-            Log.printLine(indent + "Average Energy Consumption: " + dft.format(totalEnergy/size) + " J");
-            Log.printLine(indent + "Total Cost: $" + dft.format(totalCost));
-            
-            // Print task distribution by VM type
-            Log.printLine();
-            Log.printLine(indent + "Task Distribution by Device Type:");
-            Map<String, Integer> deviceTypeCount = new HashMap<>();
-            
-            for (Map.Entry<Integer, Integer> entry : vmTaskCount.entrySet()) {
-                String vmType = vmTypes.get(entry.getKey());
-                deviceTypeCount.put(vmType, deviceTypeCount.getOrDefault(vmType, 0) + entry.getValue());
-            }
-            
-            for (Map.Entry<String, Integer> entry : deviceTypeCount.entrySet()) {
-                Log.printLine(indent + entry.getKey() + ": " + entry.getValue() + " tasks");
-            }
-        }
-        
-        Log.printLine();
-    }
 }
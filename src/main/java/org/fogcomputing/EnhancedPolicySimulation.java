@@ -43,6 +43,7 @@ public class EnhancedPolicySimulation {
     private static final int NUM_IOT_VMS = 3;    // 30% of tasks (3 of 10)
     private static final int TOTAL_VMS = NUM_CLOUD_VMS + NUM_FOG_VMS + NUM_IOT_VMS;
     private static final int TOTAL_TASKS = 10;
+    private static final TierRegistry TIERS = new TierRegistry(NUM_CLOUD_VMS, NUM_FOG_VMS, NUM_IOT_VMS);
     
     /** Network latencies */
     private static final double IOT_TO_FOG_LATENCY = 3.0;
@@ -88,9 +89,9 @@ public class EnhancedPolicySimulation {
             // Select policy and create cloudlets
             OffloadingPolicy policy;
             if (policyName.equals("Energy-Aware Offloading")) {
-                policy = new EnergyAwareOffloadingPolicy();
+                policy = new EnergyAwareOffloadingPolicy(TIERS);
             } else {
-                policy = new DeadlineAwareOffloadingPolicy();
+                policy = new DeadlineAwareOffloadingPolicy(TIERS);
             }
             
             // Create cloudlets and assign them to VMs using the policy
@@ -116,7 +117,7 @@ public class EnhancedPolicySimulation {
             printCloudletList(completedCloudlets, policyName);
             
             // Process detailed results with SimulationResultProcessor
-            SimulationResultProcessor.processResults(completedCloudlets, policyName);
+            SimulationResultProcessor.processResults(completedCloudlets, policyName, TIERS);
             
             System.out.println("Simulation completed.");
             System.out.println("Check the 'results' directory for output files.");
@@ -310,13 +311,15 @@ public class EnhancedPolicySimulation {
             
             cloudlet.setUserId(brokerId);
             
-            // Get target VM ID using the policy
-            int vmId = policy.getTargetVmId(cloudlet, vmList);
-            cloudlet.setVmId(vmId);
-            
             // Add to list
             cloudletList.add(cloudlet);
-            System.out.println("Created Task " + i + " assigned to VM #" + vmId);
+        }
+        
+        // Get target VM IDs for all tasks in one batch using the policy
+        int[] vmIds = policy.getTargetVmIds(cloudletList, vmList);
+        for (int i = 0; i < vmIds.length; i++) {
+            cloudletList.get(i).setVmId(vmIds[i]);
+            System.out.println("Created Task " + cloudletList.get(i).getCloudletId() + " assigned to VM #" + vmIds[i]);
         }
     }
     
@@ -352,10 +355,11 @@ public class EnhancedPolicySimulation {
             int vmId = cloudlet.getVmId();
             
             String tier = "Unknown";
-            if (vmId < NUM_CLOUD_VMS) {
+            TierRegistry.Tier vmTier = TIERS.tierOf(vmId);
+            if (vmTier == TierRegistry.Tier.CLOUD) {
                 tier = "Cloud";
                 cloudTasks++;
-            } else if (vmId < NUM_CLOUD_VMS + NUM_FOG_VMS) {
+            } else if (vmTier == TierRegistry.Tier.FOG) {
                 tier = "Fog";
                 fogTasks++;
             } else {
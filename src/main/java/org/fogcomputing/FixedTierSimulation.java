@@ -96,7 +96,8 @@ public class FixedTierSimulation {
             List<Cloudlet> newList = broker.getCloudletReceivedList();
             
             // Use the SimulationResultProcessor for detailed output
-            SimulationResultProcessor.processResults(newList, "Deadline-Aware Offloading");
+            // VMs 0-1 are Cloud, 2-6 are Fog and 7-9 are IoT (see VM_TIERS)
+            SimulationResultProcessor.processResults(newList, "Deadline-Aware Offloading", new TierRegistry(2, 5, 3));
             
             Log.printLine("Simulation completed.");
         } catch (Exception e) {
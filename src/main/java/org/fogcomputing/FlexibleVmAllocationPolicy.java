@@ -5,7 +5,13 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.fogcomputing.logging.SimLog;
+import org.fogcomputing.metrics.Counter;
+import org.fogcomputing.metrics.Histogram;
+import org.fogcomputing.metrics.MetricsRegistry;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +19,14 @@ import java.util.Map;
 /**
  * A more flexible VM allocation policy for multi-tier environments.
  * This policy doesn't restrict VMs by ID range and is more permissive with resource checks.
+ *
+ * Hosts are selected through a {@link HostCapacityIndex}, so placing a VM costs
+ * O(log hosts) instead of a vmCreate attempt on every host. The selection strategy
+ * (first, best or worst fit) is passed to the constructor or set with
+ * -Dsim.host.fit=FIRST|BEST|WORST (default FIRST, the original behavior).
+ *
+ * Allocations, failures and their wall-clock time are recorded per tier in the
+ * default {@link MetricsRegistry}.
  */
 public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
 
@@ -22,6 +36,20 @@ public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
     /** A name identifier for the datacenter tier */
     private String tierName;
 
+    /** System property with the default host selection strategy */
+    public static final String FIT_PROPERTY = "sim.host.fit";
+
+    /** Free capacity of the hosts */
+    private final HostCapacityIndex capacityIndex;
+
+    /** Host selection strategy */
+    private final HostCapacityIndex.Fit fit;
+
+    /** Allocation metrics of this tier */
+    private final Counter allocations;
+    private final Counter allocationFailures;
+    private final Histogram allocationTime;
+
     /**
      * Creates a new FlexibleVmAllocationPolicy.
      * 
@@ -29,9 +57,44 @@ public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
      * @param tierName the name of the datacenter tier (for debugging)
      */
     public FlexibleVmAllocationPolicy(List<Host> list, String tierName) {
+        this(list, tierName, fitFromProperty());
+    }
+
+    /**
+     * Creates a new FlexibleVmAllocationPolicy with a host selection strategy.
+     * 
+     * @param list the list of hosts
+     * @param tierName the name of the datacenter tier (for debugging)
+     * @param fit how to choose among the hosts with enough free capacity
+     */
+    public FlexibleVmAllocationPolicy(List<Host> list, String tierName, HostCapacityIndex.Fit fit) {
         super(list);
         setVmTable(new HashMap<String, Host>());
         this.tierName = tierName;
+        this.fit = fit;
+        this.capacityIndex = new HostCapacityIndex(list);
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        String prefix = "vm.alloc." + tierName.toLowerCase();
+        this.allocations = metrics.counter(prefix + ".count");
+        this.allocationFailures = metrics.counter(prefix + ".failures");
+        this.allocationTime = metrics.histogram(prefix + ".time", "ns");
+    }
+
+    /**
+     * Reads the host selection strategy from {@value #FIT_PROPERTY}
+     *
+     * @return the strategy, FIRST if the property is not set
+     * @throws IllegalArgumentException if the property names no strategy
+     */
+    static HostCapacityIndex.Fit fitFromProperty() {
+        String value = System.getProperty(FIT_PROPERTY, "FIRST");
+        try {
+            return HostCapacityIndex.Fit.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid -D" + FIT_PROPERTY + "=" + value
+                    + ", expected one of " + Arrays.toString(HostCapacityIndex.Fit.values()));
+        }
     }
 
     /**
@@ -42,12 +105,23 @@ public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
      */
     @Override
     public boolean allocateHostForVm(Vm vm) {
+        long start = System.nanoTime();
+        boolean allocated = findHostForVm(vm);
+        allocationTime.record(System.nanoTime() - start);
+        allocations.increment();
+        if (!allocated) {
+            allocationFailures.increment();
+        }
+        return allocated;
+    }
+
+    private boolean findHostForVm(Vm vm) {
         int vmId = vm.getId();
         
-        System.out.println("\n======== DEBUG: " + tierName + " datacenter trying to allocate VM #" + vmId + " ========");
+        SimLog.debug(() -> "\n======== DEBUG: " + tierName + " datacenter trying to allocate VM #" + vmId + " ========");
         
         // Print VM specifications for debugging
-        System.out.println("VM #" + vmId + " specs: " + 
+        SimLog.debug(() -> "VM #" + vmId + " specs: " + 
                            vm.getNumberOfPes() + " cores, " + 
                            vm.getMips() + " MIPS per core, " + 
                            vm.getRam() + "MB RAM, " + 
@@ -56,40 +130,55 @@ public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
         
         // Check if we have any hosts
         if (getHostList().isEmpty()) {
-            System.out.println("ERROR: " + tierName + " datacenter has NO HOSTS!");
+            SimLog.error(() -> "ERROR: " + tierName + " datacenter has NO HOSTS!");
             return false;
         }
         
-        System.out.println(tierName + " datacenter has " + getHostList().size() + " hosts");
+        SimLog.debug(() -> tierName + " datacenter has " + getHostList().size() + " hosts");
         
-        // Try all hosts one by one
-        boolean result = false;
+        // Ask the index for a host with enough free capacity. vmCreate can still
+        // fail for limits the index does not track (free PEs), so such hosts are
+        // excluded and the lookup repeated; they are restored afterwards.
+        List<Host> rejected = null;
         int tries = 0;
-        
-        // First try to find a host that can accommodate the VM
-        for (Host host : getHostList()) {
-            tries++;
-            // Try to create VM on this host
-            result = host.vmCreate(vm);
-            if (result) {
-                // Success! VM created on host
-                System.out.println("SUCCESS: VM #" + vmId + " allocated to host #" + host.getId() + 
-                                 " in " + tierName + " datacenter (attempt #" + tries + ")");
-                getVmTable().put(vm.getUid(), host);
-                return true;
+        try {
+            Host host;
+            while ((host = capacityIndex.find(fit, vm)) != null) {
+                tries++;
+                if (host.vmCreate(vm)) {
+                    capacityIndex.update(host);
+                    final int attempt = tries;
+                    final Host chosen = host;
+                    SimLog.debug(() -> "SUCCESS: VM #" + vmId + " allocated to host #" + chosen.getId() + 
+                                     " in " + tierName + " datacenter (attempt #" + attempt + ", " + fit + " fit)");
+                    getVmTable().put(vm.getUid(), host);
+                    return true;
+                }
+
+                // Output detailed diagnostics for why allocation failed
+                final Host failed = host;
+                SimLog.debug(() -> "Host #" + failed.getId() + " failed to create VM #" + vmId
+                        + "\n  - Host has " + failed.getNumberOfPes() + " PEs, VM needs " + vm.getNumberOfPes()
+                        + "\n  - Host has " + failed.getTotalMips() + " total MIPS, VM needs " + vm.getMips() + " per PE"
+                        + "\n  - Host has " + failed.getRamProvisioner().getAvailableRam() + "MB RAM, VM needs " + vm.getRam() + "MB"
+                        + "\n  - Host has " + failed.getBwProvisioner().getAvailableBw() + " BW, VM needs " + vm.getBw()
+                        + "\n  - Host has " + failed.getStorage() + "MB storage, VM needs " + vm.getSize() + "MB"
+                        + "\n  - Host uses " + failed.getVmScheduler().getClass().getSimpleName() + " scheduler");
+                capacityIndex.exclude(host);
+                if (rejected == null) {
+                    rejected = new ArrayList<Host>();
+                }
+                rejected.add(host);
+            }
+        } finally {
+            if (rejected != null) {
+                for (Host host : rejected) {
+                    capacityIndex.update(host);
+                }
             }
-            
-            // Output detailed diagnostics for why allocation failed
-            System.out.println("Host #" + host.getId() + " failed to create VM #" + vmId);
-            System.out.println("  - Host has " + host.getNumberOfPes() + " PEs, VM needs " + vm.getNumberOfPes());
-            System.out.println("  - Host has " + host.getTotalMips() + " total MIPS, VM needs " + vm.getMips() + " per PE");
-            System.out.println("  - Host has " + host.getRamProvisioner().getAvailableRam() + "MB RAM, VM needs " + vm.getRam() + "MB");
-            System.out.println("  - Host has " + host.getBwProvisioner().getAvailableBw() + " BW, VM needs " + vm.getBw());
-            System.out.println("  - Host has " + host.getStorage() + "MB storage, VM needs " + vm.getSize() + "MB");
-            System.out.println("  - Host uses " + host.getVmScheduler().getClass().getSimpleName() + " scheduler");
         }
         
-        System.out.println("FAILURE: Could not allocate VM #" + vmId + " to any host in " + tierName + " datacenter");
+        SimLog.warn(() -> "FAILURE: Could not allocate VM #" + vmId + " to any host in " + tierName + " datacenter");
         return false;
     }
 
@@ -103,11 +192,12 @@ public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
     @Override
     public boolean allocateHostForVm(Vm vm, Host host) {
         if (host.vmCreate(vm)) {
+            capacityIndex.update(host);
             getVmTable().put(vm.getUid(), host);
-            System.out.println("VM #" + vm.getId() + " allocated to host #" + host.getId());
+            SimLog.debug(() -> "VM #" + vm.getId() + " allocated to host #" + host.getId());
             return true;
         }
-        System.out.println("Failed to allocate VM #" + vm.getId() + " to host #" + host.getId());
+        SimLog.warn(() -> "Failed to allocate VM #" + vm.getId() + " to host #" + host.getId());
         return false;
     }
 
@@ -121,6 +211,7 @@ public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
         Host host = getVmTable().remove(vm.getUid());
         if (host != null) {
             host.vmDestroy(vm);
+            capacityIndex.update(host);
         }
     }
 
@@ -147,6 +238,16 @@ public class FlexibleVmAllocationPolicy extends VmAllocationPolicy {
         return getVmTable().get(Vm.getUid(userId, vmId));
     }
 
+    /**
+     * Gets the host capacity index, e.g. to refresh hosts whose allocation
+     * changed outside this policy.
+     * 
+     * @return the capacity index
+     */
+    public HostCapacityIndex getCapacityIndex() {
+        return capacityIndex;
+    }
+
     /**
      * Gets the vm table.
      * 
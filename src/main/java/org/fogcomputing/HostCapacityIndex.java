@@ -0,0 +1,312 @@
+package org.fogcomputing;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Index of the free capacity (MIPS, RAM, BW, storage) of a datacenter's hosts,
+ * used to pick a host for a VM without trying every host. The MIPS of one PE is
+ * indexed as well, since time-shared schedulers reject VMs asking for more MIPS
+ * per PE than a host PE has.
+ *
+ * Two structures are kept in sync:
+ * - A segment tree over the host list positions, where each node holds the
+ *   maximum PE MIPS, free MIPS, RAM, BW and storage of its range. First-fit descends to
+ *   the leftmost host whose free capacity covers the request, skipping every
+ *   range whose maxima are too small.
+ * - A sorted set of hosts ordered by free MIPS (ties broken by position).
+ *   Best-fit walks up from the smallest free MIPS that covers the request,
+ *   worst-fit walks down from the largest.
+ *
+ * Updates are O(log hosts). Lookups are O(log hosts) when free MIPS is the
+ * binding resource; hosts that have the MIPS but lack another resource are
+ * stepped over one by one.
+ *
+ * The index only sees changes reported through {@link #update(Host)}, so callers
+ * must update a host after every vmCreate/vmDestroy on it. Hosts whose allocation
+ * changes on their own (e.g. HostDynamicWorkload) need an update before lookups.
+ */
+public class HostCapacityIndex {
+
+    /** Host selection strategies */
+    public enum Fit {
+        /** Lowest host list position with enough capacity */
+        FIRST,
+        /** Host with the least free MIPS that still fits */
+        BEST,
+        /** Host with the most free MIPS */
+        WORST
+    }
+
+    private final List<? extends Host> hosts;
+    private final Map<Host, Integer> positions;
+
+    // Free capacity per host position
+    private final double[] peMips;
+    private final double[] freeMips;
+    private final int[] freeRam;
+    private final long[] freeBw;
+    private final long[] freeStorage;
+
+    // Segment tree of maxima; leaves at size + position, root at 1
+    private final int size;
+    private final double[] maxPeMips;
+    private final double[] maxMips;
+    private final int[] maxRam;
+    private final long[] maxBw;
+    private final long[] maxStorage;
+
+    // Hosts ordered by free MIPS, then position; excluded hosts are not in the set.
+    // PROBE is a search key that sorts before every host with probeMips free MIPS.
+    private static final int PROBE = -1;
+    private final TreeSet<Integer> byMips;
+    private double probeMips;
+    private final boolean[] excluded;
+
+    /**
+     * Creates a new HostCapacityIndex from the current state of the hosts
+     * @param hosts the datacenter's hosts; the list must not change afterwards
+     */
+    public HostCapacityIndex(List<? extends Host> hosts) {
+        this.hosts = hosts;
+        int n = hosts.size();
+        this.positions = new IdentityHashMap<Host, Integer>(n * 2);
+        this.peMips = new double[n];
+        this.freeMips = new double[n];
+        this.freeRam = new int[n];
+        this.freeBw = new long[n];
+        this.freeStorage = new long[n];
+        this.excluded = new boolean[n];
+
+        this.size = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+        this.maxPeMips = new double[2 * size];
+        this.maxMips = new double[2 * size];
+        this.maxRam = new int[2 * size];
+        this.maxBw = new long[2 * size];
+        this.maxStorage = new long[2 * size];
+        // Unused leaves can never fit
+        Arrays.fill(maxPeMips, -1);
+        Arrays.fill(maxMips, -1);
+        Arrays.fill(maxRam, -1);
+        Arrays.fill(maxBw, -1);
+        Arrays.fill(maxStorage, -1);
+
+        this.byMips = new TreeSet<Integer>(new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int c = Double.compare(mipsOf(a), mipsOf(b));
+                return c != 0 ? c : Integer.compare(a, b);
+            }
+        });
+
+        for (int i = 0; i < n; i++) {
+            Host host = hosts.get(i);
+            positions.put(host, i);
+            read(i, host);
+            setLeaf(i);
+            byMips.add(i);
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            pull(node);
+        }
+    }
+
+    /**
+     * Finds a host whose free capacity covers a VM
+     *
+     * @param fit selection strategy
+     * @param vm the VM to place
+     * @return the host, or null if no indexed host has enough capacity
+     */
+    public Host find(Fit fit, Vm vm) {
+        return find(fit, vm.getMips(), vm.getMips() * vm.getNumberOfPes(), vm.getRam(), vm.getBw(), vm.getSize());
+    }
+
+    /**
+     * Finds a host whose free capacity covers a request
+     *
+     * @param fit selection strategy
+     * @param mipsPerPe MIPS requested per PE
+     * @param mips total MIPS requested (MIPS per PE x number of PEs)
+     * @param ram RAM requested
+     * @param bw bandwidth requested
+     * @param storage storage requested
+     * @return the host, or null if no indexed host has enough capacity
+     */
+    public Host find(Fit fit, double mipsPerPe, double mips, int ram, long bw, long storage) {
+        int position;
+        switch (fit) {
+            case BEST:
+                position = bestFit(mipsPerPe, mips, ram, bw, storage);
+                break;
+            case WORST:
+                position = worstFit(mipsPerPe, mips, ram, bw, storage);
+                break;
+            default:
+                position = firstFit(1, 0, size - 1, mipsPerPe, mips, ram, bw, storage);
+                break;
+        }
+        return position < 0 ? null : hosts.get(position);
+    }
+
+    /**
+     * Re-reads the free capacity of a host after a VM was created or destroyed on it
+     * @param host the host
+     */
+    public void update(Host host) {
+        Integer position = positions.get(host);
+        if (position == null) {
+            return;
+        }
+        int i = position;
+        if (!excluded[i]) {
+            // Remove before the sort key changes
+            byMips.remove(i);
+        }
+        excluded[i] = false;
+        read(i, host);
+        setLeaf(i);
+        propagate(i);
+        byMips.add(i);
+    }
+
+    /**
+     * Hides a host from lookups until its next {@link #update(Host)}, e.g. after
+     * vmCreate failed on it for a reason the index does not track (e.g. free PEs
+     * of a space-shared scheduler)
+     * @param host the host
+     */
+    public void exclude(Host host) {
+        Integer position = positions.get(host);
+        if (position == null || excluded[position]) {
+            return;
+        }
+        int i = position;
+        byMips.remove(i);
+        excluded[i] = true;
+        int leaf = size + i;
+        maxPeMips[leaf] = -1;
+        maxMips[leaf] = -1;
+        maxRam[leaf] = -1;
+        maxBw[leaf] = -1;
+        maxStorage[leaf] = -1;
+        propagate(i);
+    }
+
+    /**
+     * Re-reads every host, e.g. after hosts changed their allocation on their own
+     */
+    public void updateAll() {
+        for (Host host : hosts) {
+            update(host);
+        }
+    }
+
+    /**
+     * @return number of indexed hosts
+     */
+    public int getHostCount() {
+        return freeMips.length;
+    }
+
+    private double mipsOf(int i) {
+        return i == PROBE ? probeMips : freeMips[i];
+    }
+
+    private void read(int i, Host host) {
+        peMips[i] = host.getVmScheduler().getPeCapacity();
+        freeMips[i] = host.getAvailableMips();
+        freeRam[i] = host.getRamProvisioner().getAvailableRam();
+        freeBw[i] = host.getBwProvisioner().getAvailableBw();
+        freeStorage[i] = host.getStorage();
+    }
+
+    private void setLeaf(int i) {
+        int leaf = size + i;
+        maxPeMips[leaf] = peMips[i];
+        maxMips[leaf] = freeMips[i];
+        maxRam[leaf] = freeRam[i];
+        maxBw[leaf] = freeBw[i];
+        maxStorage[leaf] = freeStorage[i];
+    }
+
+    private void propagate(int i) {
+        for (int node = (size + i) >> 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    private void pull(int node) {
+        int l = 2 * node;
+        int r = l + 1;
+        maxPeMips[node] = Math.max(maxPeMips[l], maxPeMips[r]);
+        maxMips[node] = Math.max(maxMips[l], maxMips[r]);
+        maxRam[node] = Math.max(maxRam[l], maxRam[r]);
+        maxBw[node] = Math.max(maxBw[l], maxBw[r]);
+        maxStorage[node] = Math.max(maxStorage[l], maxStorage[r]);
+    }
+
+    private boolean nodeFits(int node, double mipsPerPe, double mips, int ram, long bw, long storage) {
+        return maxPeMips[node] >= mipsPerPe && maxMips[node] >= mips && maxRam[node] >= ram && maxBw[node] >= bw && maxStorage[node] >= storage;
+    }
+
+    private boolean hostFits(int i, double mipsPerPe, double mips, int ram, long bw, long storage) {
+        return peMips[i] >= mipsPerPe && freeMips[i] >= mips && freeRam[i] >= ram && freeBw[i] >= bw && freeStorage[i] >= storage;
+    }
+
+    /**
+     * Leftmost leaf in [lo, hi] under node that fits, or -1
+     */
+    private int firstFit(int node, int lo, int hi, double mipsPerPe, double mips, int ram, long bw, long storage) {
+        if (!nodeFits(node, mipsPerPe, mips, ram, bw, storage)) {
+            return -1;
+        }
+        if (node >= size) {
+            return lo;
+        }
+        int mid = (lo + hi) >>> 1;
+        int found = firstFit(2 * node, lo, mid, mipsPerPe, mips, ram, bw, storage);
+        if (found >= 0) {
+            return found;
+        }
+        return firstFit(2 * node + 1, mid + 1, hi, mipsPerPe, mips, ram, bw, storage);
+    }
+
+    private int bestFit(double mipsPerPe, double mips, int ram, long bw, long storage) {
+        if (!nodeFits(1, mipsPerPe, mips, ram, bw, storage)) {
+            return -1;
+        }
+        // Walk up from the smallest free MIPS that covers the request
+        probeMips = mips;
+        Integer i = byMips.ceiling(PROBE);
+        while (i != null) {
+            if (hostFits(i, mipsPerPe, mips, ram, bw, storage)) {
+                return i;
+            }
+            i = byMips.higher(i);
+        }
+        return -1;
+    }
+
+    private int worstFit(double mipsPerPe, double mips, int ram, long bw, long storage) {
+        if (!nodeFits(1, mipsPerPe, mips, ram, bw, storage)) {
+            return -1;
+        }
+        for (Integer i : byMips.descendingSet()) {
+            if (freeMips[i] < mips) {
+                break;
+            }
+            if (hostFits(i, mipsPerPe, mips, ram, bw, storage)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -5,6 +5,7 @@ import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.SimEntity;
+import org.fogcomputing.logging.SimLog;
 
 /**
  * A utility class to help debug resource allocation issues in CloudSim simulations
@@ -124,6 +125,11 @@ public class ResourceDebugger {
      * @param entity The datacenter entity
      */
     public static void checkVmHostCompatibility(List<Vm> vms, SimEntity entity) {
+        // The per-VM check is O(VMs x hosts); only run it when its output is shown
+        if (!SimLog.isEnabled(SimLog.Level.DEBUG)) {
+            return;
+        }
+        
         if (!(entity instanceof Datacenter)) {
             System.out.println("Error: Entity is not a Datacenter");
             return;
@@ -135,7 +141,7 @@ public class ResourceDebugger {
         System.out.println("Datacenter #" + datacenter.getId() + " has " + hostList.size() + " hosts");
         
         for (Vm vm : vms) {
-            System.out.println("\nChecking VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " + 
+            SimLog.debug(() -> "\nChecking VM #" + vm.getId() + ": " + vm.getNumberOfPes() + " cores, " + 
                            vm.getMips() + " MIPS, " + vm.getRam() + " MB RAM");
             
             boolean canBeAllocated = false;
@@ -146,23 +152,23 @@ public class ResourceDebugger {
                 
                 // Check RAM
                 if (host.getRam() < vm.getRam()) {
-                    System.out.println("  Host #" + host.getId() + " RAM insufficient: " + 
+                    SimLog.debug(() -> "  Host #" + host.getId() + " RAM insufficient: " + 
                                    host.getRam() + " MB available vs " + vm.getRam() + " MB needed");
                     isCompatible = false;
                 }
                 
                 // Check PE count
                 if (host.getPeList().size() < vm.getNumberOfPes()) {
-                    System.out.println("  Host #" + host.getId() + " PE count insufficient: " + 
+                    SimLog.debug(() -> "  Host #" + host.getId() + " PE count insufficient: " + 
                                    host.getPeList().size() + " cores available vs " + vm.getNumberOfPes() + " needed");
                     isCompatible = false;
                 }
                 
                 // Check MIPS
                 double hostMips = host.getTotalMips();
-                double vmMips = vm.getMips() * vm.getNumberOfPes();
+                final double vmMips = vm.getMips() * vm.getNumberOfPes();
                 if (hostMips < vmMips) {
-                    System.out.println("  Host #" + host.getId() + " MIPS insufficient: " + 
+                    SimLog.debug(() -> "  Host #" + host.getId() + " MIPS insufficient: " + 
                                    hostMips + " available vs " + vmMips + " needed");
                     isCompatible = false;
                 }
@@ -175,9 +181,10 @@ public class ResourceDebugger {
             }
             
             if (canBeAllocated) {
-                System.out.println("  VM #" + vm.getId() + " CAN be allocated to Host #" + compatibleHost.getId());
+                final Host host = compatibleHost;
+                SimLog.debug(() -> "  VM #" + vm.getId() + " CAN be allocated to Host #" + host.getId());
             } else {
-                System.out.println("  VM #" + vm.getId() + " CANNOT be allocated to any host in this datacenter!");
+                SimLog.debug(() -> "  VM #" + vm.getId() + " CANNOT be allocated to any host in this datacenter!");
             }
         }
     }
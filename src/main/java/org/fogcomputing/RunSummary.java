@@ -0,0 +1,518 @@
+package org.fogcomputing;
+
+import java.util.Locale;
+
+/**
+ * Aggregated metrics of a single simulation run.
+ * Used to pass results from a simulation worker to the parameter sweep runner,
+ * which is why it can be written to and parsed from a single CSV row.
+ *
+ * Every metric is a {@link Metric} with the name of its CSV column. Summaries are
+ * built by setting metrics by name with a {@link Builder}, and rows are parsed by
+ * matching their header to the metric names, so no code depends on the position
+ * of a column.
+ */
+public class RunSummary {
+
+    /**
+     * The metrics of a summary, in the order of their CSV columns
+     */
+    public enum Metric {
+        COMPLETED_TASKS("completedTasks", true),
+        AVG_EXECUTION_TIME("avgExecutionTime"),
+        MIN_EXECUTION_TIME("minExecutionTime"),
+        MAX_EXECUTION_TIME("maxExecutionTime"),
+        AVG_TRANSMISSION_TIME("avgTransmissionTime"),
+        TOTAL_ENERGY("totalEnergy"),
+        CLOUD_ENERGY("cloudEnergy"),
+        FOG_ENERGY("fogEnergy"),
+        IOT_ENERGY("iotEnergy"),
+        TOTAL_MI("totalMI", true),
+        TOTAL_COST("totalCost"),
+        CLOUD_TASKS("cloudTasks", true),
+        FOG_TASKS("fogTasks", true),
+        IOT_TASKS("iotTasks", true),
+        MAKESPAN("makespan"),
+        AVG_WAITING_TIME("avgWaitingTime"),
+        THROUGHPUT("throughput"),
+        CLOUD_THROUGHPUT("cloudThroughput"),
+        FOG_THROUGHPUT("fogThroughput"),
+        IOT_THROUGHPUT("iotThroughput"),
+        /** Sum of the tier host energies; computed by {@link Builder#build()} */
+        HOST_ENERGY("hostEnergy"),
+        CLOUD_HOST_ENERGY("cloudHostEnergy"),
+        FOG_HOST_ENERGY("fogHostEnergy"),
+        IOT_HOST_ENERGY("iotHostEnergy"),
+        /** Host energy per completed task; computed by {@link Builder#build()} */
+        HOST_ENERGY_PER_TASK("hostEnergyPerTask"),
+        P50_END_TO_END("p50EndToEnd"),
+        P90_END_TO_END("p90EndToEnd"),
+        P99_END_TO_END("p99EndToEnd"),
+        P999_END_TO_END("p999EndToEnd"),
+        CLOUD_P99_END_TO_END("cloudP99EndToEnd"),
+        FOG_P99_END_TO_END("fogP99EndToEnd"),
+        IOT_P99_END_TO_END("iotP99EndToEnd"),
+        DEADLINE_TASKS("deadlineTasks", true),
+        DEADLINE_MISS_RATIO("deadlineMissRatio"),
+        CLOUD_DEADLINE_MISS_RATIO("cloudDeadlineMissRatio"),
+        FOG_DEADLINE_MISS_RATIO("fogDeadlineMissRatio"),
+        IOT_DEADLINE_MISS_RATIO("iotDeadlineMissRatio"),
+        INTERACTIVE_TASKS("interactiveTasks", true),
+        INTERACTIVE_P99_END_TO_END("interactiveP99EndToEnd"),
+        BATCH_P99_END_TO_END("batchP99EndToEnd");
+
+        private final String columnName;
+        private final boolean count;
+
+        Metric(String columnName) {
+            this(columnName, false);
+        }
+
+        Metric(String columnName, boolean count) {
+            this.columnName = columnName;
+            this.count = count;
+        }
+
+        /**
+         * @return name of the metric's CSV column
+         */
+        public String getColumnName() {
+            return columnName;
+        }
+
+        /**
+         * @return true if the metric is a whole number, written without decimals
+         */
+        public boolean isCount() {
+            return count;
+        }
+
+        /**
+         * @return true if {@link Builder#build()} computes the metric from the others
+         */
+        public boolean isDerived() {
+            return this == HOST_ENERGY || this == HOST_ENERGY_PER_TASK;
+        }
+
+        /**
+         * @param columnName a CSV column name
+         * @return the metric of that column, or null if there is none
+         */
+        public static Metric forColumn(String columnName) {
+            for (Metric metric : values()) {
+                if (metric.columnName.equals(columnName)) {
+                    return metric;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Collects the metrics of a run by name; metrics that are not set are 0
+     */
+    public static class Builder {
+        private final String policyName;
+        private final double[] values = new double[METRICS.length];
+
+        private Builder(String policyName) {
+            this.policyName = policyName;
+        }
+
+        /**
+         * @param metric the metric
+         * @param value its value
+         * @return this builder
+         * @throws IllegalArgumentException if the metric is derived from the others
+         */
+        public Builder set(Metric metric, double value) {
+            if (metric.isDerived()) {
+                throw new IllegalArgumentException(metric.getColumnName() + " is computed from the other metrics");
+            }
+            values[metric.ordinal()] = value;
+            return this;
+        }
+
+        /**
+         * @return the summary, with the derived metrics computed
+         */
+        public RunSummary build() {
+            double[] metrics = values.clone();
+            double hostEnergy = metrics[Metric.CLOUD_HOST_ENERGY.ordinal()]
+                    + metrics[Metric.FOG_HOST_ENERGY.ordinal()] + metrics[Metric.IOT_HOST_ENERGY.ordinal()];
+            double completedTasks = metrics[Metric.COMPLETED_TASKS.ordinal()];
+            metrics[Metric.HOST_ENERGY.ordinal()] = hostEnergy;
+            metrics[Metric.HOST_ENERGY_PER_TASK.ordinal()] = completedTasks > 0 ? hostEnergy / completedTasks : 0;
+            return new RunSummary(policyName, metrics);
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    /** Column names matching {@link #toMetricsCsv()} */
+    public static final String METRICS_CSV_HEADER = metricsHeader();
+
+    /** Column names matching {@link #toCsvRow()} */
+    public static final String CSV_HEADER = "policy," + METRICS_CSV_HEADER;
+
+    private static final int COLUMNS = METRICS.length + 1;
+
+    private final String policyName;
+
+    // Metric values, indexed by Metric ordinal
+    private final double[] values;
+
+    private RunSummary(String policyName, double[] values) {
+        this.policyName = policyName;
+        this.values = values;
+    }
+
+    /**
+     * Starts a summary whose metrics are all 0
+     *
+     * @param policyName offloading policy name
+     * @return the builder
+     */
+    public static Builder builder(String policyName) {
+        return new Builder(policyName);
+    }
+
+    /**
+     * Creates the summary of a run in which no task completed
+     *
+     * @param policyName offloading policy name
+     * @return an all-zero summary
+     */
+    public static RunSummary empty(String policyName) {
+        return builder(policyName).build();
+    }
+
+    private static String metricsHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Metric metric : METRICS) {
+            if (header.length() > 0) {
+                header.append(',');
+            }
+            header.append(metric.getColumnName());
+        }
+        return header.toString();
+    }
+
+    /**
+     * @param metric a metric
+     * @return its value in this summary
+     */
+    public double get(Metric metric) {
+        return values[metric.ordinal()];
+    }
+
+    /**
+     * Formats this summary as one CSV row with the columns of {@link #CSV_HEADER}
+     *
+     * @return the CSV row
+     */
+    public String toCsvRow() {
+        return escapeCsv(policyName) + "," + toMetricsCsv();
+    }
+
+    /**
+     * Formats the metrics of this summary, without the policy name, with the
+     * columns of {@link #METRICS_CSV_HEADER}
+     *
+     * @return the CSV columns
+     */
+    public String toMetricsCsv() {
+        StringBuilder row = new StringBuilder();
+        for (Metric metric : METRICS) {
+            if (row.length() > 0) {
+                row.append(',');
+            }
+            double value = values[metric.ordinal()];
+            row.append(metric.isCount() ? Long.toString((long) value) : String.format(Locale.ROOT, "%.4f", value));
+        }
+        return row.toString();
+    }
+
+    /**
+     * Parses a row written by {@link #toCsvRow()}
+     *
+     * @param row the CSV row
+     * @return the parsed summary
+     * @throws IllegalArgumentException if the row does not have the expected columns
+     */
+    public static RunSummary fromCsvRow(String row) {
+        return fromCsvRow(CSV_HEADER, row);
+    }
+
+    /**
+     * Parses a row with the given header. The policy column comes first; the
+     * metrics columns are matched to the metrics by name, in any order. Derived
+     * metrics are computed again rather than read.
+     *
+     * @param header the column names, starting with the policy column
+     * @param row the CSV row
+     * @return the parsed summary
+     * @throws IllegalArgumentException if a column is unknown or missing, or a value is not a number
+     */
+    public static RunSummary fromCsvRow(String header, String row) {
+        String[] names = header.trim().split(",", -1);
+        String trimmed = row.trim();
+        int metricsStart = metricsStart(trimmed, names.length);
+        String[] fields = trimmed.substring(metricsStart + 1).split(",", -1);
+        Builder builder = builder(unescapeCsv(trimmed.substring(0, metricsStart)));
+        boolean[] seen = new boolean[METRICS.length];
+        for (int i = 1; i < names.length; i++) {
+            Metric metric = Metric.forColumn(names[i]);
+            if (metric == null) {
+                throw new IllegalArgumentException("Unknown column " + names[i]);
+            }
+            seen[metric.ordinal()] = true;
+            if (!metric.isDerived()) {
+                builder.set(metric, Double.parseDouble(fields[i - 1]));
+            }
+        }
+        for (Metric metric : METRICS) {
+            if (!seen[metric.ordinal()] && !metric.isDerived()) {
+                throw new IllegalArgumentException("Missing column " + metric.getColumnName() + ": " + row);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the metrics columns of a row written by {@link #toCsvRow()} exactly as
+     * they were written, e.g. to merge rows without formatting them again
+     *
+     * @param row the CSV row
+     * @return the columns of {@link #METRICS_CSV_HEADER}
+     * @throws IllegalArgumentException if the row does not have the expected columns
+     */
+    public static String metricsCsvOf(String row) {
+        String trimmed = row.trim();
+        return trimmed.substring(metricsStart(trimmed, COLUMNS) + 1);
+    }
+
+    /**
+     * @return index of the comma after the policy name; the metrics are the last
+     *         columns, and the policy name before them may contain commas
+     */
+    private static int metricsStart(String row, int columns) {
+        int metricsStart = row.length();
+        for (int i = 1; i < columns && metricsStart > 0; i++) {
+            metricsStart = row.lastIndexOf(',', metricsStart - 1);
+        }
+        if (metricsStart <= 0) {
+            throw new IllegalArgumentException("Expected " + columns + " columns: " + row);
+        }
+        return metricsStart;
+    }
+
+    /**
+     * Quotes a CSV field if it contains a comma, quote or line break
+     *
+     * @param value the field
+     * @return the field as it is written to a CSV row
+     */
+    public static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Reverses {@link #escapeCsv(String)}
+     */
+    private static String unescapeCsv(String field) {
+        if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+            return field.substring(1, field.length() - 1).replace("\"\"", "\"");
+        }
+        return field;
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public int getCompletedTasks() {
+        return (int) get(Metric.COMPLETED_TASKS);
+    }
+
+    public double getAvgExecutionTime() {
+        return get(Metric.AVG_EXECUTION_TIME);
+    }
+
+    public double getMinExecutionTime() {
+        return get(Metric.MIN_EXECUTION_TIME);
+    }
+
+    public double getMaxExecutionTime() {
+        return get(Metric.MAX_EXECUTION_TIME);
+    }
+
+    public double getAvgTransmissionTime() {
+        return get(Metric.AVG_TRANSMISSION_TIME);
+    }
+
+    public double getTotalEnergy() {
+        return get(Metric.TOTAL_ENERGY);
+    }
+
+    public double getCloudEnergy() {
+        return get(Metric.CLOUD_ENERGY);
+    }
+
+    public double getFogEnergy() {
+        return get(Metric.FOG_ENERGY);
+    }
+
+    public double getIotEnergy() {
+        return get(Metric.IOT_ENERGY);
+    }
+
+    public long getTotalMI() {
+        return (long) get(Metric.TOTAL_MI);
+    }
+
+    public double getTotalCost() {
+        return get(Metric.TOTAL_COST);
+    }
+
+    public int getCloudTasks() {
+        return (int) get(Metric.CLOUD_TASKS);
+    }
+
+    public int getFogTasks() {
+        return (int) get(Metric.FOG_TASKS);
+    }
+
+    public int getIotTasks() {
+        return (int) get(Metric.IOT_TASKS);
+    }
+
+    public double getMakespan() {
+        return get(Metric.MAKESPAN);
+    }
+
+    public double getAvgWaitingTime() {
+        return get(Metric.AVG_WAITING_TIME);
+    }
+
+    public double getThroughput() {
+        return get(Metric.THROUGHPUT);
+    }
+
+    public double getCloudThroughput() {
+        return get(Metric.CLOUD_THROUGHPUT);
+    }
+
+    public double getFogThroughput() {
+        return get(Metric.FOG_THROUGHPUT);
+    }
+
+    public double getIotThroughput() {
+        return get(Metric.IOT_THROUGHPUT);
+    }
+
+    /**
+     * @return energy of all hosts over the run from their power models, in J
+     */
+    public double getHostEnergy() {
+        return get(Metric.HOST_ENERGY);
+    }
+
+    public double getCloudHostEnergy() {
+        return get(Metric.CLOUD_HOST_ENERGY);
+    }
+
+    public double getFogHostEnergy() {
+        return get(Metric.FOG_HOST_ENERGY);
+    }
+
+    public double getIotHostEnergy() {
+        return get(Metric.IOT_HOST_ENERGY);
+    }
+
+    /**
+     * @return host energy per completed task, including idle power, or 0 if no task completed
+     */
+    public double getHostEnergyPerTask() {
+        return get(Metric.HOST_ENERGY_PER_TASK);
+    }
+
+    /**
+     * @return median end-to-end time (transmission plus time in the datacenter) of the completed tasks, in ms
+     */
+    public double getP50EndToEnd() {
+        return get(Metric.P50_END_TO_END);
+    }
+
+    public double getP90EndToEnd() {
+        return get(Metric.P90_END_TO_END);
+    }
+
+    public double getP99EndToEnd() {
+        return get(Metric.P99_END_TO_END);
+    }
+
+    public double getP999EndToEnd() {
+        return get(Metric.P999_END_TO_END);
+    }
+
+    public double getCloudP99EndToEnd() {
+        return get(Metric.CLOUD_P99_END_TO_END);
+    }
+
+    public double getFogP99EndToEnd() {
+        return get(Metric.FOG_P99_END_TO_END);
+    }
+
+    public double getIotP99EndToEnd() {
+        return get(Metric.IOT_P99_END_TO_END);
+    }
+
+    /**
+     * @return number of completed tasks that had a deadline
+     */
+    public int getDeadlineTasks() {
+        return (int) get(Metric.DEADLINE_TASKS);
+    }
+
+    /**
+     * @return share of the completed tasks with a deadline whose result came back after it, from 0 to 1
+     */
+    public double getDeadlineMissRatio() {
+        return get(Metric.DEADLINE_MISS_RATIO);
+    }
+
+    public double getCloudDeadlineMissRatio() {
+        return get(Metric.CLOUD_DEADLINE_MISS_RATIO);
+    }
+
+    public double getFogDeadlineMissRatio() {
+        return get(Metric.FOG_DEADLINE_MISS_RATIO);
+    }
+
+    public double getIotDeadlineMissRatio() {
+        return get(Metric.IOT_DEADLINE_MISS_RATIO);
+    }
+
+    /**
+     * @return number of completed tasks of a priority class above batch
+     */
+    public int getInteractiveTasks() {
+        return (int) get(Metric.INTERACTIVE_TASKS);
+    }
+
+    /**
+     * @return p99 end-to-end time of the completed interactive tasks, in ms, or 0 if there were none
+     */
+    public double getInteractiveP99EndToEnd() {
+        return get(Metric.INTERACTIVE_P99_END_TO_END);
+    }
+
+    public double getBatchP99EndToEnd() {
+        return get(Metric.BATCH_P99_END_TO_END);
+    }
+}
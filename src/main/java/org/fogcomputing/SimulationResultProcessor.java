@@ -7,22 +7,51 @@ import java.io.PrintWriter;
 import java.util.Date;
 import java.text.DecimalFormat;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 import org.cloudbus.cloudsim.Cloudlet;
-import org.cloudbus.cloudsim.Log;
+import org.fogcomputing.RunSummary.Metric;
+import org.fogcomputing.metrics.Histogram;
+import org.fogcomputing.metrics.HistogramSnapshot;
+import org.fogcomputing.results.CloudletRecord;
+import org.fogcomputing.results.ResultSink;
+import org.fogcomputing.results.ResultSinks;
+import org.fogcomputing.workload.CloudletSpec;
+import org.fogcomputing.workload.DeadlineCloudlet;
 
 /**
  * Helper class to process CloudSim simulation results
  * Handles output formatting, file saving, and console display
+ *
+ * Results are processed in a single streaming pass: each completed cloudlet is
+ * passed to {@link #accept(Cloudlet)}, which updates the metrics and hands the
+ * task record to a {@link ResultSink} that writes it on a background thread.
+ * {@link #finish()} then writes the small summary files. No per-task state is
+ * kept, so memory use does not grow with the number of cloudlets.
+ *
+ * The output directory and per-task format are configured with the
+ * results.dir and results.format system properties (see {@link ResultSinks}).
+ *
+ * Besides execution time, the processor reports the waiting time of each task
+ * (execution start minus arrival at the datacenter), the makespan (first arrival
+ * to last finish) and the throughput overall and per tier over that makespan.
+ * For tasks with a deadline ({@link DeadlineCloudlet}) it reports the share whose
+ * result came back late, overall and per tier.
+ *
+ * Execution, transmission and end-to-end times are also recorded in log-bucketed
+ * {@link Histogram}s per tier, so p50, p90, p99 and p99.9 are reported with about
+ * 3% error in constant memory however many tasks complete. When some tasks are
+ * interactive (priority class above {@link CloudletSpec#PRIORITY_BATCH}), the
+ * end-to-end time is also reported for interactive and batch tasks apart.
+ *
+ * The energy of a task is its share of its host's energy from the host's power
+ * model, as measured by the broker (see {@link org.fogcomputing.energy.TaskEnergyMeter});
+ * host energy that no task took is reported as idle. Only tasks passed without a
+ * measured energy get a fixed estimate per MI of their tier, and the report then
+ * says the task energy is estimated.
  */
 public class SimulationResultProcessor {
     private static final DecimalFormat dft = new DecimalFormat("0.00");
     
-    // Constants for VM tier identification
-    private static final int NUM_CLOUD_HOSTS = 2; 
-    private static final int NUM_FOG_NODES = 5;  
-    
+    // Energy estimate of tasks without a measured energy
     private static final double ENERGY_PER_MI_CLOUD = 0.0005; // Joules per MI
     private static final double ENERGY_PER_MI_FOG = 0.0003;   // Joules per MI
     private static final double ENERGY_PER_MI_IOT = 0.0001;   // Joules per MI
@@ -30,9 +59,17 @@ public class SimulationResultProcessor {
     private static final double FOG_TO_CLOUD_LATENCY = 20.0; // milliseconds
     private static final int NUM_IOT_DEVICES = 10; // Number of IoT devices
     
-    // Base path for all result files
-    private static final String BASE_PATH = "/home/wexa/CascadeProjects/FogEdgeComputing/iFogSimImplementation/";
-    private static final String RESULTS_DIR = BASE_PATH + "results/";
+    // Number of tasks printed to the console; all tasks are written to the detailed results file
+    private static final int MAX_CONSOLE_TASKS = 100;
+    
+    // Kinds of time whose distribution is reported, and the reported quantiles
+    private static final TierRegistry.Tier[] TIERS = TierRegistry.Tier.values();
+    private static final String[] TIME_KINDS = {"Execution", "Transmission", "End-to-End"};
+    private static final int EXECUTION = 0;
+    private static final int TRANSMISSION = 1;
+    private static final int END_TO_END = 2;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
     
     /**
      * Test method to check if file writing works properly
@@ -47,7 +84,7 @@ public class SimulationResultProcessor {
         System.out.println("Java vendor: " + System.getProperty("java.vendor"));
         
         // Create results directory if it doesn't exist
-        File resultsDir = new File(RESULTS_DIR);
+        File resultsDir = ResultSinks.resultsDir();
         if (!resultsDir.exists()) {
             boolean created = resultsDir.mkdirs();
             System.out.println("Created results directory: " + created + " at " + resultsDir.getAbsolutePath());
@@ -57,7 +94,7 @@ public class SimulationResultProcessor {
         
         // Test writing to results directory
         try {
-            File testFile = new File(RESULTS_DIR + "test_" + System.currentTimeMillis() + ".csv");
+            File testFile = new File(resultsDir, "test_" + System.currentTimeMillis() + ".csv");
             PrintWriter writer = new PrintWriter(new FileWriter(testFile));
             writer.println("Test,File,Writing");
             writer.println("Test," + new Date() + ",Success");
@@ -77,141 +114,330 @@ public class SimulationResultProcessor {
      *
      * @param list list of completed Cloudlets
      * @param policyName offloading policy name
+     * @return aggregated metrics of the run
+     */
+    public static RunSummary processResults(List<Cloudlet> list, String policyName) {
+        return processResults(list, policyName, TierRegistry.defaultLayout());
+    }
+
+    /**
+     * Process simulation results, save to files, and display summary in console
+     *
+     * @param list list of completed Cloudlets
+     * @param policyName offloading policy name
+     * @param tiers registry used to find the tier of each cloudlet's VM
+     * @return aggregated metrics of the run
      */
-    public static void processResults(List<Cloudlet> list, String policyName) {
+    public static RunSummary processResults(List<Cloudlet> list, String policyName, TierRegistry tiers) {
         // Print environment information for debugging
         System.out.println("\nProcessing simulation results for policy: " + policyName);
         System.out.println("Working directory: " + System.getProperty("user.dir"));
         System.out.println("Java version: " + System.getProperty("java.version"));
         System.out.println("Java vendor: " + System.getProperty("java.vendor"));
         
-        int size = list.size();
-        if (size == 0) {
-            System.out.println("No cloudlets to process.");
-            return;
+        SimulationResultProcessor processor = new SimulationResultProcessor(policyName, tiers);
+        for (Cloudlet cloudlet : list) {
+            processor.accept(cloudlet);
         }
-        
+        return processor.finish();
+    }
+
+    private final String policyName;
+    private final TierRegistry tiers;
+    private final File resultsDir;
+
+    // One timestamp for all files of a run, so they can be matched up
+    private final long runTimestamp;
+
+    private ResultSink sink;
+
+    // Metrics, updated as cloudlets arrive
+    private int size = 0;
+    private double totalExecutionTime = 0;
+    private double minExecutionTime = Double.MAX_VALUE;
+    private double maxExecutionTime = 0;
+    private double totalTransmissionTime = 0;
+    private double totalEnergy = 0;
+    private double cloudEnergy = 0;
+    private double fogEnergy = 0;
+    private double iotEnergy = 0;
+    private boolean estimatedEnergy = false;
+    private int cloudTasks = 0;
+    private int fogTasks = 0;
+    private int iotTasks = 0;
+    private long totalMI = 0;
+    private double totalCost = 0;
+    private double totalStorageUsed = 0;
+    private double totalWaitingTime = 0;
+    private double firstSubmissionTime = Double.MAX_VALUE;
+    private double lastFinishTime = 0;
+    
+    // Energy of the hosts of each tier from their power models, indexed by tier ordinal
+    private double[] hostEnergy = new double[TierRegistry.Tier.values().length];
+
+    // Completed tasks with a deadline and those that missed it, indexed by tier ordinal
+    private final int[] deadlineTasks = new int[TIERS.length];
+    private final int[] deadlineMisses = new int[TIERS.length];
+
+    // Time distributions, indexed by [tier ordinal, or TIERS.length for all tasks][time kind]
+    private final Histogram[][] times = new Histogram[TIERS.length + 1][TIME_KINDS.length];
+
+    // End-to-end times of the priority classes, indexed by BATCH and INTERACTIVE
+    private static final String[] CLASS_NAMES = {"Batch", "Interactive"};
+    private static final int BATCH = 0;
+    private static final int INTERACTIVE = 1;
+    private final Histogram[] classTimes = new Histogram[CLASS_NAMES.length];
+
+    // Welford's running variance of the execution time
+    private double executionMean = 0;
+    private double executionM2 = 0;
+
+    /**
+     * Creates a processor that writes per-task results to the configured results
+     * directory and format (see {@link ResultSinks})
+     *
+     * @param policyName offloading policy name
+     * @param tiers registry used to find the tier of each cloudlet's VM
+     */
+    public SimulationResultProcessor(String policyName, TierRegistry tiers) {
+        this(policyName, tiers, ResultSinks.resultsDir(), null);
+    }
+
+    /**
+     * Creates a processor
+     *
+     * @param policyName offloading policy name
+     * @param tiers registry used to find the tier of each cloudlet's VM
+     * @param resultsDir directory for the summary files
+     * @param sink destination of the per-task results, or null to create one from the configuration
+     */
+    public SimulationResultProcessor(String policyName, TierRegistry tiers, File resultsDir, ResultSink sink) {
+        this.policyName = policyName;
+        this.tiers = tiers;
+        this.resultsDir = resultsDir;
+        this.runTimestamp = System.currentTimeMillis();
+        this.sink = sink;
+        for (Histogram[] tierTimes : times) {
+            for (int kind = 0; kind < tierTimes.length; kind++) {
+                // Simulation time in ms, to the microsecond
+                tierTimes[kind] = new Histogram("ms", 0.001);
+            }
+        }
+        for (int c = 0; c < classTimes.length; c++) {
+            classTimes[c] = new Histogram("ms", 0.001);
+        }
+
         // Make sure results directory exists
-        File resultsDir = new File(RESULTS_DIR);
         if (!resultsDir.exists()) {
             boolean created = resultsDir.mkdirs();
             System.out.println("Created results directory: " + created + " at " + resultsDir.getAbsolutePath());
         } else {
             System.out.println("Results directory exists at " + resultsDir.getAbsolutePath());
         }
-        
-        // Initialize metrics
-        double totalExecutionTime = 0;
-        double minExecutionTime = Double.MAX_VALUE;
-        double maxExecutionTime = 0;
-        double totalTransmissionTime = 0;
-        double totalEnergy = 0;
-        double cloudEnergy = 0;
-        double fogEnergy = 0;
-        double iotEnergy = 0;
-        int cloudTasks = 0;
-        int fogTasks = 0;
-        int iotTasks = 0;
-        long totalMI = 0;
-        double totalCost = 0;
-        double totalStorageUsed = 0;
-
-        Map<String, Double> tierEnergy = new HashMap<>();
-        Map<String, Integer> deviceTypeCount = new HashMap<>();
-        deviceTypeCount.put("Cloud", 0);
-        deviceTypeCount.put("Fog", 0);
-        deviceTypeCount.put("IoT", 0);
-        
-        // Process each cloudlet
+
+        if (this.sink == null) {
+            try {
+                this.sink = ResultSinks.create(resultsDir, fileName("detailed_results"), ResultSinks.format());
+            } catch (IOException e) {
+                System.err.println("ERROR opening detailed results: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
         System.out.println("\n----- Simulation Results -----");
         System.out.println("Offloading Algorithm: " + policyName);
-        System.out.println("    Total Tasks Generated: " + size);
-        System.out.println("    Total Tasks Completed: " + size);
-        System.out.println("    Success Rate: 100.00%\n");
+        System.out.println("\n    ========== Tasks ==========");
+    }
+
+    /**
+     * Adds one completed cloudlet to the metrics and writes its record, using a
+     * fixed transmission time per tier.
+     * Only the first {@value #MAX_CONSOLE_TASKS} tasks are printed to the console.
+     *
+     * @param cloudlet the completed cloudlet
+     */
+    public void accept(Cloudlet cloudlet) {
+        // Determine transmission time based on the VM tier
+        TierRegistry.Tier tier = tiers.tierOf(cloudlet.getVmId());
+        double transmissionTime;
         
-        System.out.println("    ========== Tasks ==========");
+        if (tier == TierRegistry.Tier.CLOUD) {
+            transmissionTime = FOG_TO_CLOUD_LATENCY;
+        } else if (tier == TierRegistry.Tier.FOG) {
+            transmissionTime = IOT_TO_FOG_LATENCY;
+        } else {
+            // Add a small synthetic transmission time for IoT devices
+            // This represents local device communication or sensor data collection
+            transmissionTime = 0.5 + (cloudlet.getCloudletId() % 2); // 0.5-1.5ms variation
+        }
+        accept(cloudlet, transmissionTime);
+    }
+
+    /**
+     * Adds one completed cloudlet to the metrics and writes its record, with an
+     * energy estimated from its length.
+     * Only the first {@value #MAX_CONSOLE_TASKS} tasks are printed to the console.
+     *
+     * @param cloudlet the completed cloudlet
+     * @param transmissionTime network delay of the task, e.g. as measured by the broker
+     */
+    public void accept(Cloudlet cloudlet, double transmissionTime) {
+        accept(cloudlet, transmissionTime, Double.NaN);
+    }
+
+    /**
+     * Adds one completed cloudlet to the metrics and writes its record.
+     * Only the first {@value #MAX_CONSOLE_TASKS} tasks are printed to the console.
+     *
+     * @param cloudlet the completed cloudlet
+     * @param transmissionTime network delay of the task, e.g. as measured by the broker
+     * @param energy energy of the task from its host's power model in J, or NaN to
+     *        estimate it from the task's length
+     */
+    public void accept(Cloudlet cloudlet, double transmissionTime, double energy) {
+        size++;
+
+        double execTime = cloudlet.getFinishTime() - cloudlet.getSubmissionTime();
+        totalExecutionTime += execTime;
         
-        // Process each cloudlet for detailed results
-        for (int i = 0; i < size; i++) {
-            Cloudlet cloudlet = list.get(i);
-            
-            double execTime = cloudlet.getFinishTime() - cloudlet.getSubmissionTime();
-            totalExecutionTime += execTime;
-            
-            if (execTime < minExecutionTime) minExecutionTime = execTime;
-            if (execTime > maxExecutionTime) maxExecutionTime = execTime;
-            
-            // Determine VM type and transmission time
-            String vmType;
-            double transmissionTime = 0;
-            
-            if (cloudlet.getVmId() < 3) {
-                vmType = "Cloud-" + cloudlet.getVmId();
-                transmissionTime = FOG_TO_CLOUD_LATENCY;
-                cloudTasks++;
-                deviceTypeCount.put("Cloud", deviceTypeCount.get("Cloud") + 1);
-            } else if (cloudlet.getVmId() < 7) {
-                vmType = "Fog-" + cloudlet.getVmId();
-                transmissionTime = IOT_TO_FOG_LATENCY;
-                fogTasks++;
-                deviceTypeCount.put("Fog", deviceTypeCount.get("Fog") + 1);
-            } else {
-                vmType = "IoT-" + cloudlet.getVmId();
-                // Add a small synthetic transmission time for IoT devices
-                // This represents local device communication or sensor data collection
-                transmissionTime = 0.5 + (cloudlet.getCloudletId() % 2); // 0.5-1.5ms variation
-                iotTasks++;
-                deviceTypeCount.put("IoT", deviceTypeCount.get("IoT") + 1);
-            }
-            
-            totalTransmissionTime += transmissionTime;
-            
-            // Calculate energy based on MI and VM type
-            double energy;
-            if (vmType.startsWith("Cloud")) {
-                energy = cloudlet.getCloudletLength() * ENERGY_PER_MI_CLOUD;
-                cloudEnergy += energy;
-                tierEnergy.put("Cloud", tierEnergy.getOrDefault("Cloud", 0.0) + energy);
-            } else if (vmType.startsWith("Fog")) {
-                energy = cloudlet.getCloudletLength() * ENERGY_PER_MI_FOG;
-                fogEnergy += energy;
-                tierEnergy.put("Fog", tierEnergy.getOrDefault("Fog", 0.0) + energy);
-            } else {
-                energy = cloudlet.getCloudletLength() * ENERGY_PER_MI_IOT;
-                iotEnergy += energy;
-                tierEnergy.put("IoT", tierEnergy.getOrDefault("IoT", 0.0) + energy);
-            }
-            
-            totalEnergy += energy;
-            totalMI += cloudlet.getCloudletLength();
-            totalStorageUsed += cloudlet.getCloudletFileSize();
-            // Enhanced cost model based on VM tier (Cloud, Fog, IoT)
-            int vmId = cloudlet.getVmId();
-            double tierMultiplier;
-            
-            // Determine which tier this VM belongs to and apply appropriate cost factors
-            if (vmId < NUM_CLOUD_HOSTS) {
-                // Cloud tier - highest compute cost but efficient energy usage
-                tierMultiplier = 2.5;  // Cloud is expensive but energy efficient
-                totalCost += (energy * 5 + cloudlet.getCloudletLength() * 0.0002 * tierMultiplier);
-            } else if (vmId < NUM_CLOUD_HOSTS + NUM_FOG_NODES) {
-                // Fog tier - moderate compute cost and energy efficiency
-                tierMultiplier = 1.5;  // Fog is moderately priced
-                totalCost += (energy * 8 + cloudlet.getCloudletLength() * 0.00015 * tierMultiplier);
-            } else {
-                // IoT tier - lowest compute cost but least energy efficient
-                tierMultiplier = 1.0;  // IoT is cheapest for compute
-                totalCost += (energy * 12 + cloudlet.getCloudletLength() * 0.0001 * tierMultiplier);
+        if (execTime < minExecutionTime) minExecutionTime = execTime;
+        if (execTime > maxExecutionTime) maxExecutionTime = execTime;
+        double delta = execTime - executionMean;
+        executionMean += delta / size;
+        executionM2 += delta * (execTime - executionMean);
+        
+        // Time spent queued in the VM before execution started
+        totalWaitingTime += Math.max(0, cloudlet.getExecStartTime() - cloudlet.getSubmissionTime());
+        firstSubmissionTime = Math.min(firstSubmissionTime, cloudlet.getSubmissionTime());
+        lastFinishTime = Math.max(lastFinishTime, cloudlet.getFinishTime());
+        
+        TierRegistry.Tier tier = tiers.tierOf(cloudlet.getVmId());
+        if (tier == TierRegistry.Tier.CLOUD) {
+            cloudTasks++;
+        } else if (tier == TierRegistry.Tier.FOG) {
+            fogTasks++;
+        } else {
+            iotTasks++;
+        }
+        
+        totalTransmissionTime += transmissionTime;
+        
+        // Tasks without a tier are counted as IoT, as above
+        int tierIndex = tier == null ? TierRegistry.Tier.IOT.ordinal() : tier.ordinal();
+        record(tierIndex, execTime, transmissionTime);
+        record(TIERS.length, execTime, transmissionTime);
+        int priorityClass = cloudlet.getClassType() > CloudletSpec.PRIORITY_BATCH ? INTERACTIVE : BATCH;
+        classTimes[priorityClass].recordValue(execTime + transmissionTime);
+        if (cloudlet instanceof DeadlineCloudlet && ((DeadlineCloudlet) cloudlet).hasDeadline()) {
+            deadlineTasks[tierIndex]++;
+            if (((DeadlineCloudlet) cloudlet).isDeadlineMissed()) {
+                deadlineMisses[tierIndex]++;
             }
-            
-            // Print task details
+        }
+        
+        if (Double.isNaN(energy)) {
+            // Estimate the energy based on MI and VM type
+            estimatedEnergy = true;
+            energy = cloudlet.getCloudletLength() * (tier == TierRegistry.Tier.CLOUD ? ENERGY_PER_MI_CLOUD
+                    : tier == TierRegistry.Tier.FOG ? ENERGY_PER_MI_FOG : ENERGY_PER_MI_IOT);
+        }
+        if (tier == TierRegistry.Tier.CLOUD) {
+            cloudEnergy += energy;
+        } else if (tier == TierRegistry.Tier.FOG) {
+            fogEnergy += energy;
+        } else {
+            iotEnergy += energy;
+        }
+        
+        totalEnergy += energy;
+        totalMI += cloudlet.getCloudletLength();
+        totalStorageUsed += cloudlet.getCloudletFileSize();
+        // Enhanced cost model based on VM tier (Cloud, Fog, IoT)
+        double tierMultiplier;
+        double cost;
+        
+        // Apply the cost factors of the tier this VM belongs to
+        if (tier == TierRegistry.Tier.CLOUD) {
+            // Cloud tier - highest compute cost but efficient energy usage
+            tierMultiplier = 2.5;  // Cloud is expensive but energy efficient
+            cost = energy * 5 + cloudlet.getCloudletLength() * 0.0002 * tierMultiplier;
+        } else if (tier == TierRegistry.Tier.FOG) {
+            // Fog tier - moderate compute cost and energy efficiency
+            tierMultiplier = 1.5;  // Fog is moderately priced
+            cost = energy * 8 + cloudlet.getCloudletLength() * 0.00015 * tierMultiplier;
+        } else {
+            // IoT tier - lowest compute cost but least energy efficient
+            tierMultiplier = 1.0;  // IoT is cheapest for compute
+            cost = energy * 12 + cloudlet.getCloudletLength() * 0.0001 * tierMultiplier;
+        }
+        totalCost += cost;
+
+        boolean success = cloudlet.getStatus() == Cloudlet.SUCCESS;
+        String tierName = tier == null ? TierRegistry.Tier.IOT.getDisplayName() : tier.getDisplayName();
+
+        // Print task details
+        if (size <= MAX_CONSOLE_TASKS) {
             System.out.println("        Task ID: " + cloudlet.getCloudletId() + 
-                    ", Status: " + (cloudlet.getStatus() == Cloudlet.SUCCESS ? "SUCCESS" : "FAILED") +
-                    ", VM: " + vmType + 
+                    ", Status: " + (success ? "SUCCESS" : "FAILED") +
+                    ", VM: " + tierName + "-" + cloudlet.getVmId() + 
                     ", Time: " + dft.format(execTime) + " ms" +
                     ", Transmission: " + dft.format(transmissionTime) + " ms" +
                     ", Energy: " + dft.format(energy) + " J");
         }
+
+        if (sink != null) {
+            try {
+                sink.write(new CloudletRecord(cloudlet.getCloudletId(), success, cloudlet.getVmId(), tierName,
+                        cloudlet.getCloudletLength(), cloudlet.getCloudletFileSize(), cloudlet.getCloudletOutputSize(),
+                        cloudlet.getSubmissionTime(), cloudlet.getExecStartTime(), cloudlet.getFinishTime(),
+                        execTime, transmissionTime, energy, cost));
+            } catch (IOException e) {
+                System.err.println("ERROR writing detailed results: " + e.getMessage());
+                e.printStackTrace();
+                closeSink();
+            }
+        }
+    }
+
+    private void record(int tierIndex, double execTime, double transmissionTime) {
+        Histogram[] tierTimes = times[tierIndex];
+        tierTimes[EXECUTION].recordValue(execTime);
+        tierTimes[TRANSMISSION].recordValue(transmissionTime);
+        tierTimes[END_TO_END].recordValue(execTime + transmissionTime);
+    }
+
+    /**
+     * Sets the energy the hosts of each tier consumed during the run, integrated
+     * over their utilization by their power models
+     *
+     * @param energyByTier energy in J, indexed by tier ordinal
+     */
+    public void setHostEnergy(double[] energyByTier) {
+        this.hostEnergy = energyByTier.clone();
+    }
+    
+    /**
+     * Flushes the per-task results, saves the summary files and prints the summary
+     *
+     * @return aggregated metrics of the run
+     */
+    public RunSummary finish() {
+        File detailedFile = sink != null ? sink.getFile() : null;
+        closeSink();
+
+        if (size == 0) {
+            System.out.println("No cloudlets to process.");
+            return RunSummary.empty(policyName);
+        }
+        if (size > MAX_CONSOLE_TASKS) {
+            System.out.println("        ... " + (size - MAX_CONSOLE_TASKS) + " more tasks"
+                    + (detailedFile != null ? ", see " + detailedFile.getAbsolutePath() : ""));
+        }
+        if (detailedFile != null) {
+            System.out.println("Successfully saved detailed results to: " + detailedFile.getAbsolutePath());
+        }
+
+        System.out.println("\n    Total Tasks Completed: " + size);
         
         // Print summary metrics
         System.out.println("\n    ========== Summary ==========");
@@ -219,15 +445,70 @@ public class SimulationResultProcessor {
         System.out.println("    Average Execution Time: " + dft.format(totalExecutionTime/size) + " ms");
         System.out.println("    Min Execution Time: " + dft.format(minExecutionTime) + " ms");
         System.out.println("    Max Execution Time: " + dft.format(maxExecutionTime) + " ms");
-        System.out.println("    Execution Time Variance: " + dft.format(maxExecutionTime - minExecutionTime) + " ms");
-        System.out.println("    Average Transmission Time: " + dft.format(totalTransmissionTime/size) + " ms\n");
+        double executionVariance = executionM2 / size;
+        System.out.println("    Execution Time Variance: " + dft.format(executionVariance) + " ms^2");
+        System.out.println("    Average Transmission Time: " + dft.format(totalTransmissionTime/size) + " ms");
+        
+        HistogramSnapshot[][] timeSnapshots = new HistogramSnapshot[times.length][TIME_KINDS.length];
+        for (int t = 0; t < times.length; t++) {
+            for (int kind = 0; kind < TIME_KINDS.length; kind++) {
+                timeSnapshots[t][kind] = times[t][kind].snapshot();
+            }
+        }
+        HistogramSnapshot[] classSnapshots = new HistogramSnapshot[classTimes.length];
+        for (int c = 0; c < classTimes.length; c++) {
+            classSnapshots[c] = classTimes[c].snapshot();
+        }
+        printTimeQuantiles(timeSnapshots, classSnapshots);
+        
+        // Throughput over the makespan, in tasks per second of simulated time (ms units)
+        double makespan = Math.max(0, lastFinishTime - firstSubmissionTime);
+        double avgWaitingTime = totalWaitingTime / size;
+        double throughput = throughput(size, makespan);
+        double cloudThroughput = throughput(cloudTasks, makespan);
+        double fogThroughput = throughput(fogTasks, makespan);
+        double iotThroughput = throughput(iotTasks, makespan);
+        System.out.println("    Average Waiting Time: " + dft.format(avgWaitingTime) + " ms");
+        System.out.println("    Makespan: " + dft.format(makespan) + " ms");
+        System.out.println("    Throughput: " + dft.format(throughput) + " tasks/s (Cloud " + dft.format(cloudThroughput)
+                + ", Fog " + dft.format(fogThroughput) + ", IoT " + dft.format(iotThroughput) + ")");
+        int totalDeadlineTasks = 0;
+        int totalDeadlineMisses = 0;
+        for (TierRegistry.Tier tier : TIERS) {
+            totalDeadlineTasks += deadlineTasks[tier.ordinal()];
+            totalDeadlineMisses += deadlineMisses[tier.ordinal()];
+        }
+        double deadlineMissRatio = missRatio(totalDeadlineMisses, totalDeadlineTasks);
+        double cloudMissRatio = missRatio(TierRegistry.Tier.CLOUD);
+        double fogMissRatio = missRatio(TierRegistry.Tier.FOG);
+        double iotMissRatio = missRatio(TierRegistry.Tier.IOT);
+        if (totalDeadlineTasks > 0) {
+            System.out.println("    Deadline Misses: " + totalDeadlineMisses + " of " + totalDeadlineTasks + " tasks ("
+                    + dft.format(deadlineMissRatio * 100) + "%) (Cloud " + dft.format(cloudMissRatio * 100)
+                    + "%, Fog " + dft.format(fogMissRatio * 100) + "%, IoT " + dft.format(iotMissRatio * 100) + "%)");
+        }
+        System.out.println();
         
-        System.out.println("    Energy Metrics:");
+        System.out.println("    Energy Metrics" + (estimatedEnergy
+                ? " (task energy estimated from a fixed energy per MI of each tier):"
+                : " (task energy from the host power models):"));
         System.out.println("    Average Energy Consumption: " + dft.format(totalEnergy/size) + " J");
         System.out.println("    Total Energy Consumption: " + dft.format(totalEnergy) + " J");
         System.out.println("    Cloud Tier Energy: " + dft.format(cloudEnergy) + " J");
         System.out.println("    Fog Tier Energy: " + dft.format(fogEnergy) + " J");
-        System.out.println("    IoT Tier Energy: " + dft.format(iotEnergy) + " J\n");
+        System.out.println("    IoT Tier Energy: " + dft.format(iotEnergy) + " J");
+        double cloudHostEnergy = hostEnergy[TierRegistry.Tier.CLOUD.ordinal()];
+        double fogHostEnergy = hostEnergy[TierRegistry.Tier.FOG.ordinal()];
+        double iotHostEnergy = hostEnergy[TierRegistry.Tier.IOT.ordinal()];
+        double totalHostEnergy = cloudHostEnergy + fogHostEnergy + iotHostEnergy;
+        System.out.println("    Host Energy (power models): " + dft.format(totalHostEnergy) + " J (Cloud "
+                + dft.format(cloudHostEnergy) + ", Fog " + dft.format(fogHostEnergy) + ", IoT "
+                + dft.format(iotHostEnergy) + ")");
+        if (!estimatedEnergy) {
+            System.out.println("    Idle Host Energy (not used by any task): "
+                    + dft.format(Math.max(0, totalHostEnergy - totalEnergy)) + " J");
+        }
+        System.out.println("    Host Energy Per Completed Task: " + dft.format(totalHostEnergy / size) + " J\n");
         
         System.out.println("    Resource Utilization:");
         System.out.println("    Total MI Processed: " + totalMI + " MI");
@@ -274,69 +555,170 @@ public class SimulationResultProcessor {
         System.out.println("    Fog: " + fogTasks + " tasks (" + dft.format(fogTasks*100.0/size) + "%)");
         System.out.println("    IoT: " + iotTasks + " tasks (" + dft.format(iotTasks*100.0/size) + "%)");
         
-        // Save results to files
-        saveDetailedResults(list, policyName);
-        savePerformanceMetrics(policyName, totalExecutionTime/size, minExecutionTime, maxExecutionTime, 
-                maxExecutionTime - minExecutionTime, totalTransmissionTime/size);
-        saveEnergyMetrics(policyName, cloudEnergy, fogEnergy, iotEnergy, totalEnergy);
-        saveResourceUtilizationMetrics(policyName, totalMI, totalMI/(double)size, totalStorageUsed/1024, avgBandwidth);
-        saveTaskDistribution(policyName, deviceTypeCount, size);
+        // Save summary files
+        savePerformanceMetrics(totalExecutionTime/size, minExecutionTime, maxExecutionTime, 
+                executionVariance, totalTransmissionTime/size,
+                avgWaitingTime, makespan, throughput, cloudThroughput, fogThroughput, iotThroughput,
+                totalDeadlineTasks, deadlineMissRatio, cloudMissRatio, fogMissRatio, iotMissRatio);
+        saveEnergyMetrics(cloudEnergy, fogEnergy, iotEnergy, totalEnergy,
+                cloudHostEnergy, fogHostEnergy, iotHostEnergy, totalHostEnergy);
+        saveResourceUtilizationMetrics(totalMI, totalMI/(double)size, totalStorageUsed/1024, avgBandwidth);
+        saveTaskDistribution(size);
+        saveTimeQuantiles(timeSnapshots, classSnapshots);
+        
+        HistogramSnapshot endToEnd = timeSnapshots[TIERS.length][END_TO_END];
+        
+        HistogramSnapshot cloudEndToEnd = timeSnapshots[TierRegistry.Tier.CLOUD.ordinal()][END_TO_END];
+        HistogramSnapshot fogEndToEnd = timeSnapshots[TierRegistry.Tier.FOG.ordinal()][END_TO_END];
+        HistogramSnapshot iotEndToEnd = timeSnapshots[TierRegistry.Tier.IOT.ordinal()][END_TO_END];
+        
+        return RunSummary.builder(policyName)
+                .set(Metric.COMPLETED_TASKS, size)
+                .set(Metric.AVG_EXECUTION_TIME, totalExecutionTime / size)
+                .set(Metric.MIN_EXECUTION_TIME, minExecutionTime)
+                .set(Metric.MAX_EXECUTION_TIME, maxExecutionTime)
+                .set(Metric.AVG_TRANSMISSION_TIME, totalTransmissionTime / size)
+                .set(Metric.TOTAL_ENERGY, totalEnergy)
+                .set(Metric.CLOUD_ENERGY, cloudEnergy)
+                .set(Metric.FOG_ENERGY, fogEnergy)
+                .set(Metric.IOT_ENERGY, iotEnergy)
+                .set(Metric.TOTAL_MI, totalMI)
+                .set(Metric.TOTAL_COST, totalCost)
+                .set(Metric.CLOUD_TASKS, cloudTasks)
+                .set(Metric.FOG_TASKS, fogTasks)
+                .set(Metric.IOT_TASKS, iotTasks)
+                .set(Metric.MAKESPAN, makespan)
+                .set(Metric.AVG_WAITING_TIME, avgWaitingTime)
+                .set(Metric.THROUGHPUT, throughput)
+                .set(Metric.CLOUD_THROUGHPUT, cloudThroughput)
+                .set(Metric.FOG_THROUGHPUT, fogThroughput)
+                .set(Metric.IOT_THROUGHPUT, iotThroughput)
+                .set(Metric.CLOUD_HOST_ENERGY, cloudHostEnergy)
+                .set(Metric.FOG_HOST_ENERGY, fogHostEnergy)
+                .set(Metric.IOT_HOST_ENERGY, iotHostEnergy)
+                .set(Metric.P50_END_TO_END, endToEnd.quantile(0.5))
+                .set(Metric.P90_END_TO_END, endToEnd.quantile(0.9))
+                .set(Metric.P99_END_TO_END, endToEnd.quantile(0.99))
+                .set(Metric.P999_END_TO_END, endToEnd.quantile(0.999))
+                .set(Metric.CLOUD_P99_END_TO_END, cloudEndToEnd.quantile(0.99))
+                .set(Metric.FOG_P99_END_TO_END, fogEndToEnd.quantile(0.99))
+                .set(Metric.IOT_P99_END_TO_END, iotEndToEnd.quantile(0.99))
+                .set(Metric.DEADLINE_TASKS, totalDeadlineTasks)
+                .set(Metric.DEADLINE_MISS_RATIO, deadlineMissRatio)
+                .set(Metric.CLOUD_DEADLINE_MISS_RATIO, cloudMissRatio)
+                .set(Metric.FOG_DEADLINE_MISS_RATIO, fogMissRatio)
+                .set(Metric.IOT_DEADLINE_MISS_RATIO, iotMissRatio)
+                .set(Metric.INTERACTIVE_TASKS, classSnapshots[INTERACTIVE].getCount())
+                .set(Metric.INTERACTIVE_P99_END_TO_END, classSnapshots[INTERACTIVE].quantile(0.99))
+                .set(Metric.BATCH_P99_END_TO_END, classSnapshots[BATCH].quantile(0.99))
+                .build();
     }
-    
+
     /**
-     * Save detailed results to text file
+     * Prints the quantiles of every kind of time, for all tasks and per tier, and
+     * of the end-to-end time per priority class if there are interactive tasks
      */
-    private static void saveDetailedResults(List<Cloudlet> list, String policyName) {
-        try {
-            String fileName = RESULTS_DIR + policyName.replace(" ", "_") + "_detailed_results_" + 
-                    System.currentTimeMillis() + ".txt";
-            File file = new File(fileName);
-            
-            // Make sure directory exists
-            file.getParentFile().mkdirs();
-            
-            PrintWriter writer = new PrintWriter(new FileWriter(file));
-            
-            writer.println("================ " + policyName + " Detailed Results ================");
-            writer.println("Generated on: " + new Date());
-            writer.println("Total Tasks: " + list.size());
-            writer.println("\n----- Task Details -----");
-            
-            for (Cloudlet cloudlet : list) {
-                writer.println("Task ID: " + cloudlet.getCloudletId());
-                writer.println("  Status: " + (cloudlet.getStatus() == Cloudlet.SUCCESS ? "Success" : "Failed"));
-                writer.println("  VM ID: " + cloudlet.getVmId());
-                writer.println("  Length: " + cloudlet.getCloudletLength() + " MI");
-                writer.println("  File Size: " + cloudlet.getCloudletFileSize() + " bytes");
-                writer.println("  Output Size: " + cloudlet.getCloudletOutputSize() + " bytes");
-                writer.println("  Submission Time: " + dft.format(cloudlet.getSubmissionTime()) + " ms");
-                writer.println("  Execution Start Time: " + dft.format(cloudlet.getExecStartTime()) + " ms");
-                writer.println("  Finish Time: " + dft.format(cloudlet.getFinishTime()) + " ms");
-                writer.println("  Total Time: " + dft.format(cloudlet.getFinishTime() - cloudlet.getSubmissionTime()) + " ms");
-                writer.println("");
+    private static void printTimeQuantiles(HistogramSnapshot[][] snapshots, HistogramSnapshot[] classSnapshots) {
+        System.out.println("\n    Time Percentiles (ms):");
+        System.out.println(String.format("    %-13s %-6s %8s %10s %10s %10s %10s %10s", "Time", "Tier", "Tasks",
+                QUANTILE_NAMES[0], QUANTILE_NAMES[1], QUANTILE_NAMES[2], QUANTILE_NAMES[3], "max"));
+        for (int kind = 0; kind < TIME_KINDS.length; kind++) {
+            for (int i = 0; i < snapshots.length; i++) {
+                int t = reportOrder(i);
+                HistogramSnapshot h = snapshots[t][kind];
+                if (h.getCount() == 0) {
+                    continue;
+                }
+                System.out.println(String.format("    %-13s %-6s %8d %10s %10s %10s %10s %10s", TIME_KINDS[kind],
+                        tierLabel(t), h.getCount(), dft.format(h.quantile(QUANTILES[0])),
+                        dft.format(h.quantile(QUANTILES[1])), dft.format(h.quantile(QUANTILES[2])),
+                        dft.format(h.quantile(QUANTILES[3])), dft.format(h.getMax())));
             }
-            
-            writer.flush();
-            writer.close();
-            System.out.println("Successfully saved detailed results to: " + file.getAbsolutePath());
+        }
+        if (classSnapshots[INTERACTIVE].getCount() > 0) {
+            System.out.println("\n    End-to-End Time by Priority Class (ms):");
+            System.out.println(String.format("    %-20s %8s %10s %10s %10s %10s %10s", "Class", "Tasks",
+                    QUANTILE_NAMES[0], QUANTILE_NAMES[1], QUANTILE_NAMES[2], QUANTILE_NAMES[3], "max"));
+            for (int c = CLASS_NAMES.length - 1; c >= 0; c--) {
+                HistogramSnapshot h = classSnapshots[c];
+                System.out.println(String.format("    %-20s %8d %10s %10s %10s %10s %10s", CLASS_NAMES[c],
+                        h.getCount(), dft.format(h.quantile(QUANTILES[0])), dft.format(h.quantile(QUANTILES[1])),
+                        dft.format(h.quantile(QUANTILES[2])), dft.format(h.quantile(QUANTILES[3])),
+                        dft.format(h.getMax())));
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * @return tier index of the time histograms to report at position i: all tasks first, then each tier
+     */
+    private static int reportOrder(int i) {
+        return i == 0 ? TIERS.length : i - 1;
+    }
+
+    /**
+     * @return display name of a tier index of the time histograms
+     */
+    private static String tierLabel(int tierIndex) {
+        return tierIndex == TIERS.length ? "All" : TIERS[tierIndex].getDisplayName();
+    }
+
+    /**
+     * @return share of the tier's completed tasks with a deadline that missed it
+     */
+    private double missRatio(TierRegistry.Tier tier) {
+        return missRatio(deadlineMisses[tier.ordinal()], deadlineTasks[tier.ordinal()]);
+    }
+
+    /**
+     * @return misses over tasks, or 0 if there are no tasks
+     */
+    private static double missRatio(int misses, int tasks) {
+        return tasks > 0 ? misses / (double) tasks : 0;
+    }
+
+    /**
+     * @return tasks per second for a makespan in ms, or 0 for an empty makespan
+     */
+    private static double throughput(int tasks, double makespan) {
+        return makespan > 0 ? tasks * 1000.0 / makespan : 0;
+    }
+
+    /**
+     * Closes the per-task sink, waiting for queued records to be written
+     */
+    private void closeSink() {
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.close();
         } catch (IOException e) {
             System.err.println("ERROR writing detailed results: " + e.getMessage());
             e.printStackTrace();
         }
+        sink = null;
+    }
+
+    /**
+     * Builds a result file name (without extension) for this run
+     */
+    private String fileName(String kind) {
+        return policyName.replace(" ", "_") + "_" + kind + "_" + runTimestamp;
     }
     
     /**
      * Save performance metrics to CSV file
      */
-    private static void savePerformanceMetrics(String policyName, double avgTime, double minTime, 
-            double maxTime, double variance, double avgTransmissionTime) {
+    private void savePerformanceMetrics(double avgTime, double minTime, 
+            double maxTime, double variance, double avgTransmissionTime,
+            double avgWaitingTime, double makespan, double throughput,
+            double cloudThroughput, double fogThroughput, double iotThroughput,
+            int deadlineTaskCount, double deadlineMissRatio,
+            double cloudMissRatio, double fogMissRatio, double iotMissRatio) {
         try {
-            String fileName = RESULTS_DIR + policyName.replace(" ", "_") + "_performance_" + 
-                    System.currentTimeMillis() + ".csv";
-            File file = new File(fileName);
-            
-            // Make sure directory exists
-            file.getParentFile().mkdirs();
+            File file = new File(resultsDir, fileName("performance") + ".csv");
             
             PrintWriter writer = new PrintWriter(new FileWriter(file));
             
@@ -344,8 +726,21 @@ public class SimulationResultProcessor {
             writer.println("Average Execution Time," + dft.format(avgTime) + ",ms");
             writer.println("Min Execution Time," + dft.format(minTime) + ",ms");
             writer.println("Max Execution Time," + dft.format(maxTime) + ",ms");
-            writer.println("Execution Time Variance," + dft.format(variance) + ",ms");
+            writer.println("Execution Time Variance," + dft.format(variance) + ",ms^2");
             writer.println("Average Transmission Time," + dft.format(avgTransmissionTime) + ",ms");
+            writer.println("Average Waiting Time," + dft.format(avgWaitingTime) + ",ms");
+            writer.println("Makespan," + dft.format(makespan) + ",ms");
+            writer.println("Throughput," + dft.format(throughput) + ",tasks/s");
+            writer.println("Cloud Throughput," + dft.format(cloudThroughput) + ",tasks/s");
+            writer.println("Fog Throughput," + dft.format(fogThroughput) + ",tasks/s");
+            writer.println("IoT Throughput," + dft.format(iotThroughput) + ",tasks/s");
+            if (deadlineTaskCount > 0) {
+                writer.println("Tasks With Deadline," + deadlineTaskCount + ",tasks");
+                writer.println("Deadline Miss Ratio," + dft.format(deadlineMissRatio * 100) + ",%");
+                writer.println("Cloud Deadline Miss Ratio," + dft.format(cloudMissRatio * 100) + ",%");
+                writer.println("Fog Deadline Miss Ratio," + dft.format(fogMissRatio * 100) + ",%");
+                writer.println("IoT Deadline Miss Ratio," + dft.format(iotMissRatio * 100) + ",%");
+            }
             
             writer.flush();
             writer.close();
@@ -357,17 +752,62 @@ public class SimulationResultProcessor {
     }
     
     /**
-     * Save energy metrics to CSV file
+     * Save the time quantiles per tier to CSV file
      */
-    private static void saveEnergyMetrics(String policyName, double cloudEnergy, 
-            double fogEnergy, double iotEnergy, double totalEnergy) {
+    private void saveTimeQuantiles(HistogramSnapshot[][] snapshots, HistogramSnapshot[] classSnapshots) {
         try {
-            String fileName = RESULTS_DIR + policyName.replace(" ", "_") + "_energy_" + 
-                    System.currentTimeMillis() + ".csv";
-            File file = new File(fileName);
+            File file = new File(resultsDir, fileName("time_quantiles") + ".csv");
+            
+            PrintWriter writer = new PrintWriter(new FileWriter(file));
             
-            // Make sure directory exists
-            file.getParentFile().mkdirs();
+            writer.println("Time,Tier,Tasks,Mean,P50,P90,P99,P99.9,Max,Unit");
+            for (int kind = 0; kind < TIME_KINDS.length; kind++) {
+                for (int i = 0; i < snapshots.length; i++) {
+                    int t = reportOrder(i);
+                    HistogramSnapshot h = snapshots[t][kind];
+                    StringBuilder row = new StringBuilder();
+                    row.append(TIME_KINDS[kind]).append(',').append(tierLabel(t)).append(',').append(h.getCount())
+                            .append(',').append(dft.format(h.getMean()));
+                    for (double q : QUANTILES) {
+                        row.append(',').append(dft.format(h.quantile(q)));
+                    }
+                    row.append(',').append(dft.format(h.getMax())).append(",ms");
+                    writer.println(row);
+                }
+            }
+            if (classSnapshots[INTERACTIVE].getCount() > 0) {
+                // End-to-end time of each priority class, over all tiers
+                for (int c = CLASS_NAMES.length - 1; c >= 0; c--) {
+                    HistogramSnapshot h = classSnapshots[c];
+                    StringBuilder row = new StringBuilder();
+                    row.append(TIME_KINDS[END_TO_END]).append(" (").append(CLASS_NAMES[c]).append("),")
+                            .append(tierLabel(TIERS.length)).append(',').append(h.getCount())
+                            .append(',').append(dft.format(h.getMean()));
+                    for (double q : QUANTILES) {
+                        row.append(',').append(dft.format(h.quantile(q)));
+                    }
+                    row.append(',').append(dft.format(h.getMax())).append(",ms");
+                    writer.println(row);
+                }
+            }
+            
+            writer.flush();
+            writer.close();
+            System.out.println("Successfully saved time quantiles to: " + file.getAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("ERROR writing time quantiles: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Save energy metrics to CSV file
+     */
+    private void saveEnergyMetrics(double cloudEnergy, 
+            double fogEnergy, double iotEnergy, double totalEnergy,
+            double cloudHostEnergy, double fogHostEnergy, double iotHostEnergy, double totalHostEnergy) {
+        try {
+            File file = new File(resultsDir, fileName("energy") + ".csv");
             
             PrintWriter writer = new PrintWriter(new FileWriter(file));
             
@@ -376,6 +816,13 @@ public class SimulationResultProcessor {
             writer.println("Fog," + dft.format(fogEnergy) + ",J");
             writer.println("IoT," + dft.format(iotEnergy) + ",J");
             writer.println("Total," + dft.format(totalEnergy) + ",J");
+            writer.println("Cloud hosts," + dft.format(cloudHostEnergy) + ",J");
+            writer.println("Fog hosts," + dft.format(fogHostEnergy) + ",J");
+            writer.println("IoT hosts," + dft.format(iotHostEnergy) + ",J");
+            writer.println("Total hosts," + dft.format(totalHostEnergy) + ",J");
+            if (!estimatedEnergy) {
+                writer.println("Idle hosts," + dft.format(Math.max(0, totalHostEnergy - totalEnergy)) + ",J");
+            }
             
             writer.flush();
             writer.close();
@@ -389,15 +836,10 @@ public class SimulationResultProcessor {
     /**
      * Save resource utilization metrics to CSV file
      */
-    private static void saveResourceUtilizationMetrics(String policyName, long totalMI, 
+    private void saveResourceUtilizationMetrics(long totalMI, 
             double avgMI, double totalStorage, double avgBandwidth) {
         try {
-            String fileName = RESULTS_DIR + policyName.replace(" ", "_") + "_resources_" + 
-                    System.currentTimeMillis() + ".csv";
-            File file = new File(fileName);
-            
-            // Make sure directory exists
-            file.getParentFile().mkdirs();
+            File file = new File(resultsDir, fileName("resources") + ".csv");
             
             PrintWriter writer = new PrintWriter(new FileWriter(file));
             
@@ -419,21 +861,18 @@ public class SimulationResultProcessor {
     /**
      * Save task distribution to CSV file
      */
-    private static void saveTaskDistribution(String policyName, Map<String, Integer> deviceTypeCount, int totalTasks) {
+    private void saveTaskDistribution(int totalTasks) {
         try {
-            String fileName = RESULTS_DIR + policyName.replace(" ", "_") + "_distribution_" + 
-                    System.currentTimeMillis() + ".csv";
-            File file = new File(fileName);
-            
-            // Make sure directory exists
-            file.getParentFile().mkdirs();
+            File file = new File(resultsDir, fileName("distribution") + ".csv");
             
             PrintWriter writer = new PrintWriter(new FileWriter(file));
             
             writer.println("Location,Tasks,Percentage");
-            for (Map.Entry<String, Integer> entry : deviceTypeCount.entrySet()) {
-                double percentage = (double)entry.getValue() / totalTasks * 100;
-                writer.println(entry.getKey() + "," + entry.getValue() + "," + dft.format(percentage));
+            int[] counts = {cloudTasks, fogTasks, iotTasks};
+            for (TierRegistry.Tier tier : TierRegistry.Tier.values()) {
+                int count = counts[tier.ordinal()];
+                double percentage = (double)count / totalTasks * 100;
+                writer.println(tier.getDisplayName() + "," + count + "," + dft.format(percentage));
             }
             
             writer.flush();
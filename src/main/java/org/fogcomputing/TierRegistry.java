@@ -0,0 +1,189 @@
+package org.fogcomputing;
+
+/**
+ * Central registry of which VM ids belong to which tier (Cloud, Fog, IoT).
+ *
+ * VM ids are assigned in contiguous ranges: Cloud VMs first, then Fog VMs, then IoT VMs.
+ * Each tier is stored as a [start, end) id range, so both vmId -> tier and
+ * tier -> VM id lookups are O(1) and independent of the number of VMs.
+ */
+public class TierRegistry {
+
+    /**
+     * The tiers of the fog computing hierarchy, in VM id order
+     */
+    public enum Tier {
+        CLOUD("Cloud"),
+        FOG("Fog"),
+        IOT("IoT");
+
+        private final String displayName;
+
+        Tier(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /**
+         * @return the name used in console output and result files
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * @param displayName a name returned by {@link #getDisplayName()}
+         * @return the tier with that name, or null if there is none
+         */
+        public static Tier fromDisplayName(String displayName) {
+            for (Tier tier : TIERS) {
+                if (tier.displayName.equals(displayName)) {
+                    return tier;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Number of VMs per tier in the original 2 Cloud / 5 Fog / 10 IoT scenario
+    private static final int DEFAULT_CLOUD_VMS = 2;
+    private static final int DEFAULT_FOG_VMS = 5;
+    private static final int DEFAULT_IOT_VMS = 10;
+
+    private static final Tier[] TIERS = Tier.values();
+
+    // First VM id (inclusive) and end VM id (exclusive) of each tier, indexed by Tier.ordinal()
+    private final int[] start = new int[TIERS.length];
+    private final int[] end = new int[TIERS.length];
+
+    /**
+     * Creates a new TierRegistry
+     * @param cloudVms number of Cloud VMs (ids 0 .. cloudVms-1)
+     * @param fogVms number of Fog VMs (following the Cloud VMs)
+     * @param iotVms number of IoT VMs (following the Fog VMs)
+     */
+    public TierRegistry(int cloudVms, int fogVms, int iotVms) {
+        if (cloudVms < 0 || fogVms < 0 || iotVms < 0) {
+            throw new IllegalArgumentException("VM counts must not be negative: "
+                    + cloudVms + "/" + fogVms + "/" + iotVms);
+        }
+        int[] counts = {cloudVms, fogVms, iotVms};
+        int next = 0;
+        for (Tier tier : TIERS) {
+            start[tier.ordinal()] = next;
+            next += counts[tier.ordinal()];
+            end[tier.ordinal()] = next;
+        }
+    }
+
+    /**
+     * @return a registry for the 2 Cloud / 5 Fog / 10 IoT VM layout (ids 0-1 / 2-6 / 7-16)
+     */
+    public static TierRegistry defaultLayout() {
+        return new TierRegistry(DEFAULT_CLOUD_VMS, DEFAULT_FOG_VMS, DEFAULT_IOT_VMS);
+    }
+
+    /**
+     * Gets the tier of a VM
+     * @param vmId the VM id
+     * @return the tier, or null if the id is outside all tiers
+     */
+    public Tier tierOf(int vmId) {
+        if (vmId < 0) {
+            return null;
+        }
+        if (vmId < end[Tier.CLOUD.ordinal()]) {
+            return Tier.CLOUD;
+        }
+        if (vmId < end[Tier.FOG.ordinal()]) {
+            return Tier.FOG;
+        }
+        if (vmId < end[Tier.IOT.ordinal()]) {
+            return Tier.IOT;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a VM belongs to a tier
+     * @param tier the tier
+     * @param vmId the VM id
+     * @return true if the VM id is in the tier's range
+     */
+    public boolean contains(Tier tier, int vmId) {
+        return vmId >= start[tier.ordinal()] && vmId < end[tier.ordinal()];
+    }
+
+    /**
+     * @param tier the tier
+     * @return the first VM id of the tier
+     */
+    public int firstVmId(Tier tier) {
+        return start[tier.ordinal()];
+    }
+
+    /**
+     * @param tier the tier
+     * @return the last VM id of the tier (inclusive), or firstVmId - 1 if the tier is empty
+     */
+    public int lastVmId(Tier tier) {
+        return end[tier.ordinal()] - 1;
+    }
+
+    /**
+     * @param tier the tier
+     * @return number of VMs in the tier
+     */
+    public int size(Tier tier) {
+        return end[tier.ordinal()] - start[tier.ordinal()];
+    }
+
+    /**
+     * Gets the id of the n-th VM of a tier
+     * @param tier the tier
+     * @param index index within the tier, 0 .. size(tier)-1
+     * @return the VM id
+     */
+    public int vmId(Tier tier, int index) {
+        if (index < 0 || index >= size(tier)) {
+            throw new IndexOutOfBoundsException(tier.getDisplayName() + " tier has " + size(tier)
+                    + " VMs, index " + index);
+        }
+        return start[tier.ordinal()] + index;
+    }
+
+    /**
+     * @param tier the tier
+     * @return the VM ids of the tier
+     */
+    public int[] vmIds(Tier tier) {
+        int[] ids = new int[size(tier)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = start[tier.ordinal()] + i;
+        }
+        return ids;
+    }
+
+    /**
+     * @return total number of VMs in all tiers
+     */
+    public int totalVms() {
+        return end[Tier.IOT.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Tier tier : TIERS) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(tier.getDisplayName()).append(" VMs ");
+            if (size(tier) == 0) {
+                sb.append("(none)");
+            } else {
+                sb.append(firstVmId(tier)).append('-').append(lastVmId(tier));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,33 +1,326 @@
 package org.fogcomputing;
 
+import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.fogcomputing.algorithms.OffloadingPolicy;
+import org.fogcomputing.energy.MeteredPowerHost;
+import org.fogcomputing.energy.TaskEnergyMeter;
+import org.fogcomputing.logging.SimLog;
+import org.fogcomputing.metrics.Counter;
+import org.fogcomputing.metrics.Histogram;
+import org.fogcomputing.metrics.MetricsRegistry;
+import org.fogcomputing.metrics.MetricsSnapshot;
+import org.fogcomputing.workload.CloudletSpec;
+import org.fogcomputing.workload.DeadlineCloudlet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * A specialized DatacenterBroker that handles VM allocation to specific datacenter tiers.
  * This ensures that Cloud VMs are created in Cloud datacenters, Fog VMs in Fog datacenters,
  * and IoT VMs in IoT datacenters.
+ *
+ * Cloudlets are executed in the same CloudSim run that creates the VMs: once every
+ * VM_CREATE_ACK has arrived, the cloudlets that are not yet bound to a VM are
+ * assigned by the {@link OffloadingPolicy} (see {@link #setOffloadingPolicy}) and
+ * sent to the datacenter of their VM. The policy is told which VMs were created
+ * first, so a {@link org.fogcomputing.algorithms.FailoverOffloadingPolicy} can
+ * re-offload the cloudlets of VMs that failed. Cloudlets still bound to a VM that
+ * was not created are not submitted; they are returned by
+ * {@link #getUnplacedCloudletList()}.
+ * Cloudlets can also be pulled from a source of {@link CloudletSpec}s (see
+ * {@link #setCloudletSource}), e.g. a trace that is still being parsed; they are
+ * created, bound and submitted in batches after the submitted cloudlet list. A
+ * batch is only read once enough cloudlets have returned that it fits within
+ * four batches in flight, so memory does not grow with the length of the source.
+ * In arrival mode (see {@link #setTimedArrivals}) each of them is instead
+ * submitted at its submit time, counted from the end of VM creation: one self-event
+ * at the next arrival time submits everything that has arrived by then, so only
+ * the cloudlets that have arrived exist.
+ *
+ * The broker records when each cloudlet was sent and when it came back, so the
+ * network delay of both directions can be reported (see {@link #getTransmissionTime}).
+ * The deadline of a {@link DeadlineCloudlet} starts when it is submitted, before
+ * the policy binds it, and ends when its result is back at the broker.
+ * Returned cloudlets can be handed to a {@link CloudletReturnListener} as they
+ * arrive, with their share of their host's energy (see {@link TaskEnergyMeter}); with {@link #setRetainCloudlets(boolean) setRetainCloudlets(false)} they
+ * are then not kept in the submitted and received lists.
+ *
+ * The broker records its event handling time and event counts by tag, and the
+ * completions, missed deadlines and response times (from sending to return) of
+ * each tier, in the default {@link MetricsRegistry}. With {@link #setMetricsSnapshots} the registry
+ * is also snapshotted periodically in simulation time.
  */
 public class TieredDatacenterBroker extends DatacenterBroker {
 
+    /** Tag of the self-event that submits the cloudlets that have arrived; outside the CloudSimTags range */
+    public static final int SUBMIT_ARRIVALS = 48001;
+
+    /**
+     * Receives every cloudlet that comes back from its datacenter
+     */
+    public interface CloudletReturnListener {
+        /**
+         * @param cloudlet the returned cloudlet
+         * @param transmissionTime network delay to and from its datacenter
+         * @param energy energy of the task from its host's power model in J, or NaN
+         *        if its host is not a {@link MeteredPowerHost}
+         */
+        void cloudletReturned(Cloudlet cloudlet, double transmissionTime, double energy);
+    }
+
     // Maps VM IDs to specific datacenter IDs
     private Map<Integer, Integer> vmToDatacenterMap;
     
+    // Tier membership of the VM IDs
+    private final TierRegistry tiers;
+    
+    // Binds unbound cloudlets once the VMs exist; null keeps CloudSim's round-robin
+    private OffloadingPolicy offloadingPolicy;
+    
+    // Specs pulled after VM creation, in addition to the submitted cloudlet list
+    private Iterator<CloudletSpec> cloudletSource;
+    
+    // Number of specs turned into cloudlets at once
+    private static final int SOURCE_BATCH_SIZE = 8192;
+    
+    // Submitted cloudlets that may not have returned when the next source batch is read
+    private static final int MAX_SOURCE_IN_FLIGHT = 4 * SOURCE_BATCH_SIZE;
+    
+    // More source batches follow outside arrival mode
+    private boolean sourcePending;
+    
+    // Arrival mode: submit source cloudlets at origin + their submit time
+    private boolean timedArrivals;
+    private double arrivalOrigin;
+    private CloudletSpec nextArrival;
+    private boolean arrivalsPending;
+    
+    // Next created VM for round-robin binding when there is no policy
+    private int roundRobinIndex;
+    
+    // Created VMs by ID, built once the VM creation is done
+    private Map<Integer, Vm> createdById = new HashMap<>();
+    
+    // Copy of the created VMs; DatacenterBroker empties its list when the run ends
+    private List<Vm> createdVmsCopy = new ArrayList<>();
+    
+    // Notified of every returned cloudlet; null if nobody listens
+    private CloudletReturnListener returnListener;
+    
+    // Whether submitted and returned cloudlets are kept in the broker's lists
+    private boolean retainCloudlets = true;
+    
+    // Cloudlets sent to a datacenter and returned from it so far
+    private long submittedCount;
+    private long returnedCount;
+    
+    // Cloudlets whose VM was not created
+    private final List<Cloudlet> unplacedCloudlets = new ArrayList<>();
+    
+    // Shares the metered energy of each VM among its cloudlets
+    private final TaskEnergyMeter energyMeter = new TaskEnergyMeter();
+    
+    // Broker-side send and return times, indexed by cloudlet ID
+    private double[] sentTimes = new double[0];
+    private double[] returnTimes = new double[0];
+    
+    // Metrics of the broker and of the completed cloudlets, by tier ordinal
+    private final MetricsRegistry metrics;
+    private final Histogram eventTime;
+    private final Map<Integer, Counter> eventCounts = new HashMap<>();
+    private final Counter[] tierCompletions;
+    private final Counter[] tierDeadlineMisses;
+    private final Histogram[] tierResponseTimes;
+    
+    // Periodic snapshots; no snapshots while the interval is 0
+    private double snapshotInterval;
+    private double nextSnapshotTime;
+    private Consumer<MetricsSnapshot> snapshotConsumer;
+    
     /**
-     * Creates a new TieredDatacenterBroker
+     * Creates a new TieredDatacenterBroker for the default 2 Cloud / 5 Fog / 10 IoT VM layout
      * @param name Name of the broker
      * @throws Exception If the broker cannot be created
      */
     public TieredDatacenterBroker(String name) throws Exception {
+        this(name, TierRegistry.defaultLayout());
+    }
+    
+    /**
+     * Creates a new TieredDatacenterBroker
+     * @param name Name of the broker
+     * @param tiers Registry of the VM ID ranges of each tier
+     * @throws Exception If the broker cannot be created
+     */
+    public TieredDatacenterBroker(String name, TierRegistry tiers) throws Exception {
         super(name);
         vmToDatacenterMap = new HashMap<>();
+        this.tiers = tiers;
+
+        metrics = MetricsRegistry.getDefault();
+        eventTime = metrics.histogram("broker.event.time", "ns");
+        TierRegistry.Tier[] allTiers = TierRegistry.Tier.values();
+        tierCompletions = new Counter[allTiers.length];
+        tierDeadlineMisses = new Counter[allTiers.length];
+        tierResponseTimes = new Histogram[allTiers.length];
+        for (TierRegistry.Tier tier : allTiers) {
+            String prefix = "cloudlet." + tier.name().toLowerCase();
+            tierCompletions[tier.ordinal()] = metrics.counter(prefix + ".completed");
+            tierDeadlineMisses[tier.ordinal()] = metrics.counter(prefix + ".deadline.missed");
+            tierResponseTimes[tier.ordinal()] = metrics.histogram(prefix + ".response.time", "ms", 0.001);
+        }
+        metrics.gauge("cloudlet.inflight", () -> submittedCount - returnedCount);
+    }
+    
+    /**
+     * @return the registry of the VM ID ranges of each tier
+     */
+    public TierRegistry getTierRegistry() {
+        return tiers;
+    }
+    
+    /**
+     * Sets the policy that assigns cloudlets to VMs after VM creation. Cloudlets
+     * submitted with a VM ID of -1 are bound by this policy.
+     * @param offloadingPolicy the policy, or null for CloudSim's round-robin binding
+     */
+    public void setOffloadingPolicy(OffloadingPolicy offloadingPolicy) {
+        this.offloadingPolicy = offloadingPolicy;
+    }
+    
+    /**
+     * Sets a source of cloudlets that is read once the VMs are created. Its cloudlet
+     * IDs must not overlap those of the submitted cloudlet list.
+     * @param cloudletSource the specs, or null
+     */
+    public void setCloudletSource(Iterator<CloudletSpec> cloudletSource) {
+        this.cloudletSource = cloudletSource;
+    }
+    
+    /**
+     * Sets whether the cloudlets of the cloudlet source are submitted at their
+     * submit times instead of all at once. The source must deliver them in order
+     * of submit time; late ones are submitted as soon as they are read.
+     * @param timedArrivals true for open-loop arrivals
+     */
+    public void setTimedArrivals(boolean timedArrivals) {
+        this.timedArrivals = timedArrivals;
+    }
+    
+    /**
+     * @return the simulation time from which the submit times of the source are counted
+     */
+    public double getArrivalOrigin() {
+        return arrivalOrigin;
+    }
+    
+    /**
+     * @return the source set with {@link #setCloudletSource}, or null once it was read
+     */
+    protected Iterator<CloudletSpec> getCloudletSource() {
+        return cloudletSource;
+    }
+    
+    /**
+     * Sets the listener that is notified of every returned cloudlet
+     * @param returnListener the listener, or null
+     */
+    public void setReturnListener(CloudletReturnListener returnListener) {
+        this.returnListener = returnListener;
+    }
+    
+    /**
+     * Sets whether submitted and returned cloudlets are kept in the submitted and
+     * received lists (the default). Without them, results are only available
+     * through the {@link CloudletReturnListener}.
+     * @param retainCloudlets false to drop cloudlets once they are returned
+     */
+    public void setRetainCloudlets(boolean retainCloudlets) {
+        this.retainCloudlets = retainCloudlets;
+    }
+    
+    /**
+     * Takes a snapshot of the metrics registry every interval of simulation time.
+     * The snapshot is taken when the broker handles its first event at or after
+     * each multiple of the interval, so no events are added to the simulation and
+     * intervals without broker events are skipped.
+     * @param interval simulation time between snapshots; 0 for none
+     * @param consumer receives each snapshot
+     */
+    public void setMetricsSnapshots(double interval, Consumer<MetricsSnapshot> consumer) {
+        this.snapshotInterval = interval;
+        this.nextSnapshotTime = interval;
+        this.snapshotConsumer = consumer;
+    }
+    
+    /**
+     * @return number of cloudlets sent to a datacenter so far
+     */
+    public long getSubmittedCount() {
+        return submittedCount;
+    }
+    
+    /**
+     * @return number of cloudlets returned by their datacenter so far
+     */
+    public long getReturnedCount() {
+        return returnedCount;
+    }
+    
+    /**
+     * The VMs that were created, kept after the run: DatacenterBroker clears
+     * its created VM list when it destroys the VMs at the end of the run.
+     * @return the created VMs, empty until the VM creation is done
+     */
+    public List<Vm> getCreatedVmList() {
+        return createdVmsCopy;
+    }
+    
+    /**
+     * @return the cloudlets that were not submitted because their VM was not created
+     */
+    public List<Cloudlet> getUnplacedCloudletList() {
+        return unplacedCloudlets;
+    }
+    
+    /**
+     * @param cloudletId the cloudlet ID
+     * @return simulation time at which the broker sent the cloudlet, or -1
+     */
+    public double getSentTime(int cloudletId) {
+        return cloudletId < sentTimes.length ? sentTimes[cloudletId] : -1;
+    }
+    
+    /**
+     * @param cloudletId the cloudlet ID
+     * @return simulation time at which the finished cloudlet reached the broker, or -1
+     */
+    public double getReturnTime(int cloudletId) {
+        return cloudletId < returnTimes.length ? returnTimes[cloudletId] : -1;
+    }
+    
+    /**
+     * Network delay of a returned cloudlet: from the broker to its datacenter
+     * plus from the datacenter back to the broker
+     * @param cloudlet a cloudlet from the received list
+     * @return the transmission time in simulation time units
+     */
+    public double getTransmissionTime(Cloudlet cloudlet) {
+        int id = cloudlet.getCloudletId();
+        return (cloudlet.getSubmissionTime() - getSentTime(id)) + (getReturnTime(id) - cloudlet.getFinishTime());
     }
     
     /**
@@ -37,7 +330,7 @@ public class TieredDatacenterBroker extends DatacenterBroker {
      */
     public void mapVmToDatacenter(int vmId, int datacenterId) {
         vmToDatacenterMap.put(vmId, datacenterId);
-        System.out.println("DEBUG TieredDatacenterBroker: Explicitly mapped VM #" + vmId + " to datacenter #" + datacenterId);
+        SimLog.debug(() -> "DEBUG TieredDatacenterBroker: Explicitly mapped VM #" + vmId + " to datacenter #" + datacenterId);
     }
     
     /**
@@ -53,42 +346,377 @@ public class TieredDatacenterBroker extends DatacenterBroker {
     }
 
     /**
-     * Process a request for VM creation
-     * Override to direct VM creation requests to specific datacenters
+     * Sends every VM that has not been created yet to its mapped datacenter.
+     * VMs without a mapping, and VMs whose mapped datacenter was already tried,
+     * go to the given datacenter, as in DatacenterBroker.
+     */
+    @Override
+    protected void createVmsInDatacenter(int datacenterId) {
+        int requestedVms = 0;
+        Set<Integer> requestedDatacenters = new LinkedHashSet<>();
+        requestedDatacenters.add(datacenterId);
+        for (Vm vm : getVmList()) {
+            if (getVmsToDatacentersMap().containsKey(vm.getId())) {
+                continue;
+            }
+            Integer mappedDatacenterId = vmToDatacenterMap.get(vm.getId());
+            int targetDatacenterId = datacenterId;
+            if (mappedDatacenterId != null && getDatacenterIdsList().contains(mappedDatacenterId)
+                    && !getDatacenterRequestedIdsList().contains(mappedDatacenterId)) {
+                targetDatacenterId = mappedDatacenterId;
+            }
+            final int target = targetDatacenterId;
+            SimLog.debug(() -> CloudSim.clock() + ": " + getName() + ": Trying to create VM #" + vm.getId()
+                    + " in datacenter #" + target);
+            sendNow(targetDatacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+            requestedDatacenters.add(targetDatacenterId);
+            requestedVms++;
+        }
+
+        for (int id : requestedDatacenters) {
+            if (!getDatacenterRequestedIdsList().contains(id)) {
+                getDatacenterRequestedIdsList().add(id);
+            }
+        }
+        setVmsRequested(requestedVms);
+        setVmsAcks(0);
+    }
+
+    /**
+     * Process the acknowledgement of a VM creation request
      */
     @Override
     protected void processVmCreate(SimEvent ev) {
         int[] data = (int[]) ev.getData();
         int datacenterId = data[0];
         int vmId = data[1];
+        boolean created = data[2] == CloudSimTags.TRUE;
         
-        System.out.println("DEBUG TieredDatacenterBroker: Processing VM creation for VM #" + vmId + " on datacenter #" + datacenterId);
-        
-        // Check if this VM has a specific datacenter mapping
-        if (vmToDatacenterMap.containsKey(vmId)) {
-            int targetDatacenterId = vmToDatacenterMap.get(vmId);
-            System.out.println("Redirecting VM #" + vmId + " from datacenter #" + datacenterId + " to datacenter #" + targetDatacenterId);
-            datacenterId = targetDatacenterId;
-            
-            // Replace the datacenter ID in the data array
-            data[0] = targetDatacenterId;
-            
-            // Validate VM-to-datacenter mapping but don't restrict by ID ranges anymore
-            // Just log what type of VM we think this is based on ID
-            if (vmId >= 0 && vmId <= 1) {
-                System.out.println("VM #" + vmId + " is a Cloud VM and is mapped to datacenter #" + targetDatacenterId);
-            } else if (vmId >= 2 && vmId <= 6) {
-                System.out.println("VM #" + vmId + " is a Fog VM and is mapped to datacenter #" + targetDatacenterId);
-            } else if (vmId >= 7 && vmId <= 16) {
-                System.out.println("VM #" + vmId + " is an IoT VM and is mapped to datacenter #" + targetDatacenterId);
+        // Check that the VM ended up where it was mapped
+        Integer mappedDatacenterId = vmToDatacenterMap.get(vmId);
+        if (created && mappedDatacenterId != null && mappedDatacenterId != datacenterId) {
+            SimLog.warn(() -> "WARNING: VM #" + vmId + " was mapped to datacenter #" + mappedDatacenterId
+                    + " but created in datacenter #" + datacenterId);
+        } else if (created) {
+            TierRegistry.Tier tier = tiers.tierOf(vmId);
+            SimLog.debug(() -> "VM #" + vmId + (tier != null ? " (" + tier.getDisplayName() + ")" : "")
+                    + " created in datacenter #" + datacenterId);
+        } else {
+            SimLog.debug(() -> "Creation of VM #" + vmId + " failed in datacenter #" + datacenterId);
+        }
+        super.processVmCreate(ev);
+    }
+
+    /**
+     * Binds the unbound cloudlets with the offloading policy and sends every
+     * cloudlet whose VM exists to that VM's datacenter, then does the same for
+     * the cloudlet source batch by batch
+     */
+    @Override
+    protected void submitCloudlets() {
+        List<Vm> createdVms = getVmsCreatedList();
+        if (createdVms.isEmpty()) {
+            return;
+        }
+        createdVmsCopy = new ArrayList<>(createdVms);
+        createdById = new HashMap<>(createdVms.size() * 2);
+        for (Vm vm : createdVms) {
+            createdById.put(vm.getId(), vm);
+        }
+        if (offloadingPolicy != null) {
+            offloadingPolicy.vmsCreated(createdVms);
+        }
+
+        // Every waiting cloudlet is either submitted or given up
+        List<Cloudlet> waiting = getCloudletList();
+        submitBatch(waiting);
+        waiting.clear();
+
+        if (cloudletSource != null) {
+            submitFromSource();
+        }
+        SimLog.info(() -> "Submitted " + submittedCount + " cloudlets at time " + CloudSim.clock()
+                + (unplacedCloudlets.isEmpty() ? "" : ", " + unplacedCloudlets.size() + " without a VM"));
+    }
+
+    /**
+     * Submits the cloudlets of the cloudlet source. Called once after VM creation;
+     * this broker submits the first batches of the source, the others as earlier
+     * cloudlets return, or in arrival mode schedules the first arrival.
+     */
+    protected void submitFromSource() {
+        if (timedArrivals) {
+            arrivalOrigin = CloudSim.clock();
+            arrivalsPending = true;
+            submitArrivals();
+            return;
+        }
+        sourcePending = true;
+        submitSourceBatches();
+    }
+
+    /**
+     * Submits source batches while they fit within MAX_SOURCE_IN_FLIGHT; the
+     * next call comes from a cloudlet return
+     */
+    private void submitSourceBatches() {
+        List<Cloudlet> batch = new ArrayList<>(SOURCE_BATCH_SIZE);
+        while (cloudletSource.hasNext() && cloudletsSubmitted <= MAX_SOURCE_IN_FLIGHT - SOURCE_BATCH_SIZE) {
+            while (batch.size() < SOURCE_BATCH_SIZE && cloudletSource.hasNext()) {
+                batch.add(cloudletSource.next().toCloudlet(getId()));
+            }
+            submitBatch(batch);
+            batch.clear();
+        }
+        if (cloudletSource.hasNext()) {
+            return;
+        }
+        cloudletSource = null;
+        sourcePending = false;
+        if (cloudletsSubmitted == 0) {
+            // Nothing in flight will return and end the simulation
+            clearDatacenters();
+            finishExecution();
+        }
+    }
+
+    /**
+     * Binds the unbound cloudlets of a batch and sends every cloudlet whose VM
+     * exists to that VM's datacenter; the others are marked as failed
+     * @param cloudlets the batch
+     */
+    protected void submitBatch(List<Cloudlet> cloudlets) {
+        List<Vm> createdVms = getVmsCreatedList();
+        double now = CloudSim.clock();
+        for (Cloudlet cloudlet : cloudlets) {
+            if (cloudlet instanceof DeadlineCloudlet) {
+                ((DeadlineCloudlet) cloudlet).release(now);
+            }
+        }
+        if (offloadingPolicy != null) {
+            bindCloudlets(cloudlets);
+        }
+
+        for (Cloudlet cloudlet : cloudlets) {
+            Vm vm;
+            if (cloudlet.getVmId() == -1 && offloadingPolicy == null) {
+                // No policy: round-robin over the created VMs, as in DatacenterBroker
+                vm = createdVms.get(roundRobinIndex % createdVms.size());
+                roundRobinIndex = (roundRobinIndex + 1) % createdVms.size();
             } else {
-                System.out.println("WARNING: VM #" + vmId + " has an unknown type but is mapped to datacenter #" + targetDatacenterId);
+                vm = createdById.get(cloudlet.getVmId());
+                if (vm == null) {
+                    SimLog.warn(() -> "Task #" + cloudlet.getCloudletId() + " failed because "
+                            + (cloudlet.getVmId() == -1 ? "the offloading policy found no VM"
+                            : "VM #" + cloudlet.getVmId() + " was not created"));
+                    markFailed(cloudlet);
+                    if (offloadingPolicy != null) {
+                        offloadingPolicy.cloudletFinished(cloudlet, cloudlet.getVmId());
+                    }
+                    unplacedCloudlets.add(cloudlet);
+                    continue;
+                }
+            }
+
+            cloudlet.setVmId(vm.getId());
+            sentTimes = ensureCapacity(sentTimes, cloudlet.getCloudletId());
+            sentTimes[cloudlet.getCloudletId()] = now;
+            sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+            energyMeter.cloudletSubmitted(cloudlet);
+            cloudletsSubmitted++;
+            submittedCount++;
+            if (retainCloudlets) {
+                getCloudletSubmittedList().add(cloudlet);
+            }
+        }
+    }
+
+    /**
+     * Submits every source cloudlet whose arrival time has come and schedules the
+     * next arrival
+     */
+    private void submitArrivals() {
+        double now = CloudSim.clock();
+        List<Cloudlet> arrived = new ArrayList<>();
+        while (true) {
+            if (nextArrival == null) {
+                if (!cloudletSource.hasNext()) {
+                    break;
+                }
+                nextArrival = cloudletSource.next();
+            }
+            if (arrivalOrigin + nextArrival.getSubmitTime() > now) {
+                break;
+            }
+            arrived.add(nextArrival.toCloudlet(getId()));
+            nextArrival = null;
+        }
+        if (!arrived.isEmpty()) {
+            submitBatch(arrived);
+        }
+
+        if (nextArrival != null) {
+            schedule(getId(), arrivalOrigin + nextArrival.getSubmitTime() - now, SUBMIT_ARRIVALS);
+            return;
+        }
+        cloudletSource = null;
+        arrivalsPending = false;
+        SimLog.info(() -> CloudSim.clock() + ": " + getName() + ": Last arrival, " + submittedCount
+                + " cloudlets submitted");
+        if (cloudletsSubmitted == 0) {
+            // Nothing in flight will return and end the simulation
+            clearDatacenters();
+            finishExecution();
+        }
+    }
+
+    /**
+     * Handles an event and records its handling time and tag
+     */
+    @Override
+    public void processEvent(SimEvent ev) {
+        if (snapshotInterval > 0 && CloudSim.clock() >= nextSnapshotTime) {
+            snapshotConsumer.accept(metrics.snapshot(CloudSim.clock()));
+            nextSnapshotTime = (Math.floor(CloudSim.clock() / snapshotInterval) + 1) * snapshotInterval;
+        }
+        long start = System.nanoTime();
+        super.processEvent(ev);
+        eventTime.record(System.nanoTime() - start);
+        Counter count = eventCounts.get(ev.getTag());
+        if (count == null) {
+            count = metrics.counter("broker.events." + eventName(ev.getTag()));
+            eventCounts.put(ev.getTag(), count);
+        }
+        count.increment();
+    }
+
+    /**
+     * @param tag an event tag
+     * @return name of the tag in metric names
+     */
+    protected String eventName(int tag) {
+        switch (tag) {
+            case CloudSimTags.RESOURCE_CHARACTERISTICS_REQUEST:
+                return "resource_characteristics_request";
+            case CloudSimTags.RESOURCE_CHARACTERISTICS:
+                return "resource_characteristics";
+            case CloudSimTags.VM_CREATE_ACK:
+                return "vm_create_ack";
+            case CloudSimTags.CLOUDLET_RETURN:
+                return "cloudlet_return";
+            case CloudSimTags.END_OF_SIMULATION:
+                return "end_of_simulation";
+            case SUBMIT_ARRIVALS:
+                return "submit_arrivals";
+            default:
+                return "tag_" + tag;
+        }
+    }
+
+    @Override
+    protected void processOtherEvent(SimEvent ev) {
+        if (ev.getTag() == SUBMIT_ARRIVALS) {
+            submitArrivals();
+            return;
+        }
+        super.processOtherEvent(ev);
+    }
+
+    /**
+     * @return true if more cloudlets will be submitted later, so the broker must
+     * not finish when the submitted ones have returned
+     */
+    protected boolean hasPendingCloudlets() {
+        return arrivalsPending || sourcePending;
+    }
+
+    /**
+     * Records the return time of a finished cloudlet and passes it to the listener
+     */
+    @Override
+    protected void processCloudletReturn(SimEvent ev) {
+        Cloudlet cloudlet = (Cloudlet) ev.getData();
+        int id = cloudlet.getCloudletId();
+        returnTimes = ensureCapacity(returnTimes, id);
+        returnTimes[id] = CloudSim.clock();
+        returnedCount++;
+        boolean deadlineMissed = false;
+        if (cloudlet instanceof DeadlineCloudlet) {
+            DeadlineCloudlet deadlineCloudlet = (DeadlineCloudlet) cloudlet;
+            deadlineCloudlet.setCompletionTime(returnTimes[id]);
+            deadlineMissed = deadlineCloudlet.isDeadlineMissed();
+        }
+        TierRegistry.Tier tier = tiers.tierOf(cloudlet.getVmId());
+        if (tier != null) {
+            tierCompletions[tier.ordinal()].increment();
+            tierResponseTimes[tier.ordinal()].recordValue(returnTimes[id] - getSentTime(id));
+            if (deadlineMissed) {
+                tierDeadlineMisses[tier.ordinal()].increment();
+            }
+        }
+        if (offloadingPolicy != null) {
+            offloadingPolicy.cloudletFinished(cloudlet, cloudlet.getVmId());
+        }
+
+        if (hasPendingCloudlets()) {
+            // Keep the VMs for the cloudlets still to come
+            if (retainCloudlets) {
+                getCloudletReceivedList().add(cloudlet);
             }
+            cloudletsSubmitted--;
         } else {
-            // If no mapping exists, use a fallback strategy based on VM resource requirements
-            // First try the default datacenter, if that fails we'll handle it elsewhere
-            System.out.println("INFO: VM #" + vmId + " has no datacenter mapping, using datacenter #" + datacenterId);
+            super.processCloudletReturn(ev);
+            if (!retainCloudlets) {
+                List<Cloudlet> received = getCloudletReceivedList();
+                received.remove(received.size() - 1);
+            }
         }
-        super.processVmCreate(ev);
+
+        double energy = energyMeter.cloudletReturned(cloudlet, createdById.get(cloudlet.getVmId()));
+        if (returnListener != null) {
+            returnListener.cloudletReturned(cloudlet, getTransmissionTime(cloudlet), energy);
+        }
+        if (sourcePending) {
+            submitSourceBatches();
+        }
+    }
+
+    /**
+     * Assigns every unbound cloudlet a VM with a single batch policy decision
+     */
+    private void bindCloudlets(List<Cloudlet> waiting) {
+        List<Cloudlet> unbound = new ArrayList<>();
+        for (Cloudlet cloudlet : waiting) {
+            if (cloudlet.getVmId() == -1) {
+                unbound.add(cloudlet);
+            }
+        }
+        if (unbound.isEmpty()) {
+            return;
+        }
+        int[] targets = offloadingPolicy.getTargetVmIds(unbound, getVmList());
+        for (int i = 0; i < targets.length; i++) {
+            unbound.get(i).setVmId(targets[i]);
+        }
+        SimLog.debug(() -> "Bound " + unbound.size() + " cloudlets to VMs at time " + CloudSim.clock());
+    }
+
+    private static void markFailed(Cloudlet cloudlet) {
+        try {
+            cloudlet.setCloudletStatus(Cloudlet.FAILED);
+        } catch (Exception e) {
+            // Only thrown for unknown status codes
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double[] ensureCapacity(double[] times, int id) {
+        if (id < times.length) {
+            return times;
+        }
+        int oldLength = times.length;
+        double[] grown = Arrays.copyOf(times, Math.max(id + 1, oldLength * 2));
+        Arrays.fill(grown, oldLength, grown.length, -1);
+        return grown;
     }
 }
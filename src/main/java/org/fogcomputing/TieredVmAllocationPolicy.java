@@ -8,6 +8,7 @@ import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.fogcomputing.logging.SimLog;
 
 /**
  * A VM allocation policy that only accepts VMs with specific IDs.
@@ -46,7 +47,7 @@ public class TieredVmAllocationPolicy extends VmAllocationPolicySimple {
         // COMPLETELY REMOVE THE VM ID CHECK TO LET ANY VM ALLOCATE TO ANY DATACENTER
         // This allows more flexible allocation based on VM compatibility rather than ID range
         
-        System.out.println("\n======== DEBUG: " + tierName + " datacenter trying to allocate VM #" + vmId + " ========");
+        SimLog.debug(() -> "\n======== DEBUG: " + tierName + " datacenter trying to allocate VM #" + vmId + " ========");
         
         // Get VM requirements for diagnostics
         int vmRam = vm.getRam();
@@ -55,41 +56,40 @@ public class TieredVmAllocationPolicy extends VmAllocationPolicySimple {
         long vmSize = vm.getSize();
         long vmBw = vm.getBw();
         
-        System.out.println("VM #" + vmId + " specs: " + vmPes + " cores, " + 
+        SimLog.debug(() -> "VM #" + vmId + " specs: " + vmPes + " cores, " + 
                         vmMips + " MIPS per core, " + vmRam + "MB RAM, " + 
                         vmBw + " bandwidth, " + vmSize + "MB storage");
         
         // First check if we have any hosts at all
         if (getHostList().isEmpty()) {
-            System.out.println("ERROR: " + tierName + " datacenter has NO HOSTS! Cannot allocate VM #" + vmId);
+            SimLog.error(() -> "ERROR: " + tierName + " datacenter has NO HOSTS! Cannot allocate VM #" + vmId);
             return false;
         }
 
         // Print host count
-        System.out.println(tierName + " datacenter has " + getHostList().size() + " hosts");
+        SimLog.debug(() -> tierName + " datacenter has " + getHostList().size() + " hosts");
         
         // Try the default allocation algorithm first
         for (Host host : getHostList()) {
             if (host.vmCreate(vm)) {
-                System.out.println("SUCCESS: VM #" + vmId + " allocated to host #" + host.getId() + 
+                SimLog.debug(() -> "SUCCESS: VM #" + vmId + " allocated to host #" + host.getId() + 
                                 " in " + tierName + " datacenter");
                 getVmTable().put(vm.getUid(), host);
                 return true;
             } else {
-                System.out.println("Host #" + host.getId() + " in " + tierName + 
-                                " datacenter FAILED to create VM #" + vmId);
-                
                 // Detailed diagnostics for why allocation failed
-                System.out.println("  - Host has " + host.getNumberOfPes() + " PEs, VM needs " + vmPes);
-                System.out.println("  - Host has " + host.getTotalMips() + " total MIPS, VM needs " + vmMips + " per PE");
-                System.out.println("  - Host has " + host.getRamProvisioner().getAvailableRam() + "MB RAM, VM needs " + vmRam + "MB");
-                System.out.println("  - Host has " + host.getBwProvisioner().getAvailableBw() + " BW, VM needs " + vmBw);
-                System.out.println("  - Host has " + host.getStorage() + "MB storage, VM needs " + vmSize + "MB");
-                System.out.println("  - Host uses " + host.getVmScheduler().getClass().getSimpleName() + " scheduler");
+                SimLog.debug(() -> "Host #" + host.getId() + " in " + tierName + 
+                                " datacenter FAILED to create VM #" + vmId
+                        + "\n  - Host has " + host.getNumberOfPes() + " PEs, VM needs " + vmPes
+                        + "\n  - Host has " + host.getTotalMips() + " total MIPS, VM needs " + vmMips + " per PE"
+                        + "\n  - Host has " + host.getRamProvisioner().getAvailableRam() + "MB RAM, VM needs " + vmRam + "MB"
+                        + "\n  - Host has " + host.getBwProvisioner().getAvailableBw() + " BW, VM needs " + vmBw
+                        + "\n  - Host has " + host.getStorage() + "MB storage, VM needs " + vmSize + "MB"
+                        + "\n  - Host uses " + host.getVmScheduler().getClass().getSimpleName() + " scheduler");
             }
         }
         
-        System.out.println("ERROR: No compatible host found for VM #" + vmId + " in " + tierName + " datacenter");
+        SimLog.warn(() -> "ERROR: No compatible host found for VM #" + vmId + " in " + tierName + " datacenter");
         return false;
     }
 }
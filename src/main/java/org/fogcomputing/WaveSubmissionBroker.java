@@ -0,0 +1,162 @@
+package org.fogcomputing;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.fogcomputing.logging.SimLog;
+import org.fogcomputing.workload.CloudletSpec;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A TieredDatacenterBroker that creates the cloudlets of its cloudlet source
+ * lazily, in waves, instead of all at once after VM creation.
+ *
+ * Each wave pulls up to waveSize specs from the source, turns them into cloudlets
+ * and submits them. The next wave is a future simulation event: after a fixed
+ * interval, or, with an interval of 0, as soon as enough cloudlets have returned
+ * that a whole wave fits. A wave never brings more than maxInFlight cloudlets
+ * into the datacenters, so together with
+ * {@link #setRetainCloudlets(boolean) setRetainCloudlets(false)} and a
+ * {@link CloudletReturnListener} the heap holds only the in-flight cloudlets,
+ * however many the source produces. Waves ignore the submit times of the specs,
+ * so arrival mode does not apply.
+ */
+public class WaveSubmissionBroker extends TieredDatacenterBroker {
+
+    /** Tag of the self-event that submits the next wave; outside the CloudSimTags range */
+    public static final int SUBMIT_WAVE = 48000;
+
+    private final int waveSize;
+    private final int maxInFlight;
+    private final double waveInterval;
+
+    // Source taken over from the parent after VM creation; null before and once exhausted
+    private Iterator<CloudletSpec> source;
+    private boolean wavePending;
+    private int waves;
+
+    /**
+     * Creates a new WaveSubmissionBroker that submits the next wave as soon as it fits
+     *
+     * @param name Name of the broker
+     * @param tiers Registry of the VM ID ranges of each tier
+     * @param waveSize maximum number of cloudlets per wave
+     * @param maxInFlight maximum number of submitted cloudlets that have not returned yet
+     * @throws Exception If the broker cannot be created
+     */
+    public WaveSubmissionBroker(String name, TierRegistry tiers, int waveSize, int maxInFlight) throws Exception {
+        this(name, tiers, waveSize, maxInFlight, 0);
+    }
+
+    /**
+     * Creates a new WaveSubmissionBroker
+     *
+     * @param name Name of the broker
+     * @param tiers Registry of the VM ID ranges of each tier
+     * @param waveSize maximum number of cloudlets per wave
+     * @param maxInFlight maximum number of submitted cloudlets that have not returned yet
+     * @param waveInterval simulation time between waves, or 0 to submit a wave as soon as it fits
+     * @throws Exception If the broker cannot be created
+     */
+    public WaveSubmissionBroker(String name, TierRegistry tiers, int waveSize, int maxInFlight, double waveInterval)
+            throws Exception {
+        super(name, tiers);
+        if (waveSize <= 0 || maxInFlight < waveSize) {
+            throw new IllegalArgumentException("Wave size must be > 0 and at most maxInFlight");
+        }
+        if (waveInterval < 0) {
+            throw new IllegalArgumentException("Wave interval must be >= 0");
+        }
+        this.waveSize = waveSize;
+        this.maxInFlight = maxInFlight;
+        this.waveInterval = waveInterval;
+    }
+
+    /**
+     * @return number of waves submitted so far
+     */
+    public int getWaveCount() {
+        return waves;
+    }
+
+    /**
+     * Submits the first wave; the others follow as simulation events
+     */
+    @Override
+    protected void submitFromSource() {
+        source = getCloudletSource();
+        submitWave();
+    }
+
+    @Override
+    protected boolean hasPendingCloudlets() {
+        return source != null || super.hasPendingCloudlets();
+    }
+
+    @Override
+    protected String eventName(int tag) {
+        return tag == SUBMIT_WAVE ? "submit_wave" : super.eventName(tag);
+    }
+
+    @Override
+    protected void processOtherEvent(SimEvent ev) {
+        if (ev.getTag() == SUBMIT_WAVE) {
+            wavePending = false;
+            submitWave();
+            return;
+        }
+        super.processOtherEvent(ev);
+    }
+
+    @Override
+    protected void processCloudletReturn(SimEvent ev) {
+        super.processCloudletReturn(ev);
+        if (source != null) {
+            scheduleNextWave();
+        }
+    }
+
+    private void submitWave() {
+        int count = Math.min(waveSize, maxInFlight - cloudletsSubmitted);
+        List<Cloudlet> wave = new ArrayList<>(Math.max(count, 0));
+        while (wave.size() < count && source.hasNext()) {
+            wave.add(source.next().toCloudlet(getId()));
+        }
+        if (!wave.isEmpty()) {
+            submitBatch(wave);
+            waves++;
+            SimLog.debug(() -> CloudSim.clock() + ": " + getName() + ": Submitted wave " + waves + " of "
+                    + wave.size() + " cloudlets, " + cloudletsSubmitted + " in flight");
+        }
+
+        if (source.hasNext()) {
+            scheduleNextWave();
+            return;
+        }
+        source = null;
+        SimLog.info(() -> CloudSim.clock() + ": " + getName() + ": Cloudlet source exhausted after " + waves
+                + " waves, " + getSubmittedCount() + " cloudlets submitted");
+        if (cloudletsSubmitted == 0) {
+            // Nothing in flight will return and end the simulation
+            clearDatacenters();
+            finishExecution();
+        }
+    }
+
+    private void scheduleNextWave() {
+        if (wavePending) {
+            return;
+        }
+        if (waveInterval > 0) {
+            schedule(getId(), waveInterval, SUBMIT_WAVE);
+            wavePending = true;
+        } else if (cloudletsSubmitted <= maxInFlight - waveSize) {
+            schedule(getId(), 0, SUBMIT_WAVE);
+            wavePending = true;
+        }
+        // Otherwise the next return checks again
+    }
+}
@@ -17,8 +17,7 @@ import org.fog.placement.ModulePlacement;
 public class DeadlineAwareOffloading extends ModulePlacement {
 
     private List<FogDevice> fogDevices;
-    private Map<String, Double> deviceProcessingMap;
-    private Map<String, Integer> currentLoad;
+    private final FogDeviceIndex index;
     private Map<String, Double> deadlines;
 
     /**
@@ -29,15 +28,10 @@ public class DeadlineAwareOffloading extends ModulePlacement {
     public DeadlineAwareOffloading(List<FogDevice> fogDevices, Map<String, AppModule> application) {
         super(fogDevices, application);
         this.fogDevices = fogDevices;
-        this.deviceProcessingMap = new HashMap<>();
-        this.currentLoad = new HashMap<>();
         this.deadlines = new HashMap<>();
         
-        // Initialize processing speed and load maps
-        for (FogDevice device : fogDevices) {
-            deviceProcessingMap.put(device.getName(), device.getMips());
-            currentLoad.put(device.getName(), 0);
-        }
+        // Name lookup, candidate lists and processing speed/load arrays
+        this.index = new FogDeviceIndex(fogDevices);
         
         // Set default deadlines for different module types (in milliseconds)
         deadlines.put("iot_module", 1000.0);  // 1 second
@@ -57,130 +51,94 @@ public class DeadlineAwareOffloading extends ModulePlacement {
             return sourceDeviceName;
         }
         
-        // Parameters to consider for offloading
-        double minExecutionTime = Double.MAX_VALUE;
-        String targetDeviceName = null;
-        FogDevice sourceDevice = getDeviceByName(sourceDeviceName);
+        int source = index.positionOf(sourceDeviceName);
         
         // Skip if source device not found
-        if (sourceDevice == null)
+        if (source < 0)
+            return null;
+        
+        int[] candidates = index.candidates(moduleType);
+        if (candidates.length == 0)
             return null;
         
         // Get deadline for this module type
         double taskDeadline = deadlines.get(moduleType);
         
-        // Consider each device as potential target for offloading
-        for (FogDevice targetDevice : fogDevices) {
-            // Skip invalid devices
-            if (targetDevice == null || targetDevice.equals(sourceDevice)) {
-                continue;
-            }
-            
-            // For fog_module, consider only fog nodes
-            if (moduleType.equals("fog_module") && !targetDevice.getName().startsWith("fog-")) {
-                continue;
-            }
-            
-            // For cloud_module, consider only cloud
-            if (moduleType.equals("cloud_module") && !targetDevice.getName().startsWith("cloud")) {
+        // Task length in MI
+        AppModule module = getApplication().getModuleByName(moduleType);
+        double taskLength = module.getMips();
+        
+        // Consider each candidate device for this module type as target for offloading.
+        // Track the fastest device that meets the deadline and, in case none does,
+        // the fastest device overall.
+        double[] mips = index.mips;
+        int[] load = index.load;
+        double minExecutionTime = Double.MAX_VALUE;
+        double minOverallTime = Double.MAX_VALUE;
+        int target = -1;
+        int fastest = -1;
+        for (int candidate : candidates) {
+            if (candidate == source) {
                 continue;
             }
             
-            // Calculate execution time on this target device
-            double targetDeviceMips = deviceProcessingMap.get(targetDevice.getName());
-            int targetDeviceLoad = currentLoad.get(targetDevice.getName());
-            double uplinkLatency = getLatency(sourceDevice, targetDevice);
-            double downlinkLatency = getLatency(targetDevice, sourceDevice);
-            
-            // Task execution time calculation
-            AppModule module = getApplication().getModuleByName(moduleType);
-            double taskLength = module.getMips(); // Task length in MI
-            
             // Execution time = computation time + transmission time
-            double computationTime = (taskLength / targetDeviceMips) * 1000; // convert to ms
-            double transmissionTime = uplinkLatency + downlinkLatency;
+            double computationTime = (taskLength / mips[candidate]) * 1000; // convert to ms
+            double transmissionTime = index.latency(source, candidate) + index.latency(candidate, source);
             double totalExecutionTime = computationTime + transmissionTime;
             
             // Apply load factor (more load = slower execution)
-            totalExecutionTime *= (1 + (targetDeviceLoad * 0.1));
+            totalExecutionTime *= (1 + (load[candidate] * 0.1));
             
             // Choose device with minimum execution time that meets deadline
             if (totalExecutionTime < minExecutionTime && totalExecutionTime < taskDeadline) {
                 minExecutionTime = totalExecutionTime;
-                targetDeviceName = targetDevice.getName();
+                target = candidate;
+            }
+            if (totalExecutionTime < minOverallTime) {
+                minOverallTime = totalExecutionTime;
+                fastest = candidate;
             }
         }
         
         // If no device meets deadline, choose the fastest one
-        if (targetDeviceName == null) {
-            minExecutionTime = Double.MAX_VALUE;
-            for (FogDevice targetDevice : fogDevices) {
-                // Skip invalid devices
-                if (targetDevice == null || targetDevice.equals(sourceDevice)) {
-                    continue;
-                }
-                
-                // Filter by device type as before
-                if ((moduleType.equals("fog_module") && !targetDevice.getName().startsWith("fog-")) ||
-                    (moduleType.equals("cloud_module") && !targetDevice.getName().startsWith("cloud"))) {
-                    continue;
-                }
-                
-                // Calculate execution time
-                double targetDeviceMips = deviceProcessingMap.get(targetDevice.getName());
-                int targetDeviceLoad = currentLoad.get(targetDevice.getName());
-                double uplinkLatency = getLatency(sourceDevice, targetDevice);
-                double downlinkLatency = getLatency(targetDevice, sourceDevice);
-                
-                AppModule module = getApplication().getModuleByName(moduleType);
-                double taskLength = module.getMips();
-                double computationTime = (taskLength / targetDeviceMips) * 1000;
-                double transmissionTime = uplinkLatency + downlinkLatency;
-                double totalExecutionTime = computationTime + transmissionTime;
-                totalExecutionTime *= (1 + (targetDeviceLoad * 0.1));
-                
-                if (totalExecutionTime < minExecutionTime) {
-                    minExecutionTime = totalExecutionTime;
-                    targetDeviceName = targetDevice.getName();
-                }
-            }
+        if (target < 0) {
+            target = fastest;
         }
         
         // Update the load of the chosen device
-        if (targetDeviceName != null) {
-            int currentDeviceLoad = currentLoad.get(targetDeviceName);
-            currentLoad.put(targetDeviceName, currentDeviceLoad + 1);
+        if (target >= 0) {
+            load[target]++;
         }
         
-        return targetDeviceName;
+        return index.nameOf(target);
     }
     
     /**
      * Get fog device by name
      */
     private FogDevice getDeviceByName(String name) {
-        for (FogDevice device : fogDevices) {
-            if (device.getName().equals(name)) {
-                return device;
-            }
-        }
-        return null;
+        int position = index.positionOf(name);
+        return position < 0 ? null : index.device(position);
     }
     
     /**
-     * Calculate network latency between two devices
+     * Update the latency of a device's link to its parent (e.g. after a link change)
+     * @param deviceName the device
+     * @param latency the new uplink latency
      */
-    private double getLatency(FogDevice sourceDevice, FogDevice targetDevice) {
-        if (sourceDevice.getParentId() == targetDevice.getId()) {
-            // Child to parent latency
-            return sourceDevice.getUplinkLatency();
-        } else if (targetDevice.getParentId() == sourceDevice.getId()) {
-            // Parent to child latency
-            return targetDevice.getUplinkLatency();
-        } else {
-            // Devices not directly connected, use sum of latencies
-            return sourceDevice.getUplinkLatency() + targetDevice.getUplinkLatency();
-        }
+    public void updateUplinkLatency(String deviceName, double latency) {
+        index.setUplinkLatency(deviceName, latency);
+    }
+    
+    /**
+     * Move a device under another parent device
+     * @param deviceName the device
+     * @param parentId id of the new parent device
+     * @param latency latency of the new link
+     */
+    public void updateParent(String deviceName, int parentId, double latency) {
+        index.setParent(deviceName, parentId, latency);
     }
     
     /**
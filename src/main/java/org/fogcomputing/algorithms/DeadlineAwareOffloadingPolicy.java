@@ -1,33 +1,248 @@
 package org.fogcomputing.algorithms;
 
+import java.util.Arrays;
 import java.util.List;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.fogcomputing.TierRegistry.Tier;
+import org.fogcomputing.logging.SimLog;
+import org.fogcomputing.workload.DeadlineCloudlet;
 
+/**
+ * Offloads each task to a VM on which it is expected to meet its deadline.
+ *
+ * The finish time of a task on a VM is estimated, from its release, as the round
+ * trip between the IoT device and the VM's tier plus the time the VM needs for its
+ * outstanding MI and the task at its MIPS rating. The outstanding MI of every VM
+ * is kept in one {@link VmLoadIndex} per tier, added when a task is assigned and
+ * released in {@link #cloudletFinished(Cloudlet, int)}, so the candidate of each
+ * tier is its least-loaded VM. Tiers are tried from the device outwards (IoT, Fog,
+ * Cloud) and the first candidate expected to finish by the task's due time is
+ * chosen, which keeps the remote tiers for the tasks that cannot meet their
+ * deadline nearby. A task that no candidate can finish in time, or that has no
+ * deadline (a plain Cloudlet rather than a {@link DeadlineCloudlet}), goes to the
+ * candidate with the earliest estimated finish.
+ *
+ * A batch is assigned in order of due time, so the tightest tasks get the
+ * emptiest VMs. The estimate counts all outstanding MI, although an EDF scheduler
+ * on the VM runs tasks with earlier deadlines first, so it is pessimistic for
+ * tight tasks.
+ */
 public class DeadlineAwareOffloadingPolicy implements OffloadingPolicy {
 
+    // Network latencies (ms), as in the default simulation topology
+    private static final double DEFAULT_IOT_TO_FOG_LATENCY = 2.0;
+    private static final double DEFAULT_FOG_TO_CLOUD_LATENCY = 20.0;
+
+    // Tiers in the order they are tried, nearest to the IoT device first
+    private static final Tier[] PREFERENCE = {Tier.IOT, Tier.FOG, Tier.CLOUD};
+
+    private final TierRegistry tiers;
+
+    // Round trip between an IoT device and each tier, indexed by tier ordinal
+    private final double[] roundTrip = new double[Tier.values().length];
+
+    // Outstanding MI per VM of each tier, indexed by tier ordinal; null for empty tiers
+    private final VmLoadIndex[] tierLoads = new VmLoadIndex[Tier.values().length];
+
+    // MIPS of each VM by ID, read from the VM list the policy was last given
+    private List<Vm> mipsSource;
+    private double[] vmMips = new double[0];
+
+    // Tasks with a deadline expected on time, by tier ordinal of their VM, and expected late
+    private final long[] onTimeCounts = new long[Tier.values().length];
+    private long lateCount;
+
+    /**
+     * Creates the policy for the default 2 Cloud / 5 Fog / 10 IoT VM layout and latencies
+     */
+    public DeadlineAwareOffloadingPolicy() {
+        this(TierRegistry.defaultLayout());
+    }
+
+    /**
+     * Creates the policy for the given VM layout and the default latencies
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     */
+    public DeadlineAwareOffloadingPolicy(TierRegistry tiers) {
+        this(tiers, DEFAULT_IOT_TO_FOG_LATENCY, DEFAULT_FOG_TO_CLOUD_LATENCY);
+    }
+
+    /**
+     * Creates the policy for the given VM layout and latencies
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     * @param iotToFogLatency latency between the IoT and the Fog tier
+     * @param fogToCloudLatency latency between the Fog and the Cloud tier
+     */
+    public DeadlineAwareOffloadingPolicy(TierRegistry tiers, double iotToFogLatency, double fogToCloudLatency) {
+        this.tiers = tiers;
+        roundTrip[Tier.IOT.ordinal()] = 0;
+        roundTrip[Tier.FOG.ordinal()] = 2 * iotToFogLatency;
+        roundTrip[Tier.CLOUD.ordinal()] = 2 * (iotToFogLatency + fogToCloudLatency);
+        for (Tier tier : Tier.values()) {
+            if (tiers.size(tier) > 0) {
+                tierLoads[tier.ordinal()] = new VmLoadIndex(tiers.firstVmId(tier), tiers.size(tier));
+            }
+        }
+    }
+
+    /**
+     * @param vmId the VM ID
+     * @return outstanding MI of the tasks assigned to the VM
+     */
+    public long getOutstandingLoad(int vmId) {
+        VmLoadIndex loads = loadIndexOf(vmId);
+        return loads == null ? 0 : loads.getLoad(vmId);
+    }
+
     @Override
     public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList) {
-        // Deadline-aware allocation strategy
-        // Distribute tasks based on deadline constraints
-        // For simulation, we'll use a simple rule-based approach:
-        // - Tasks with tight deadlines go to higher-performance resources
-        // - Tasks with longer deadlines can afford more transmission time
-        
-        int cloudletId = cloudlet.getCloudletId();
-        
-        // For this simplified implementation, we'll make decisions based on cloudlet ID
-        // In a real implementation, this would be based on the actual deadline
-        
-        if (cloudletId == 0 || cloudletId == 1) {
-            // First two tasks go to cloud (assuming they have tight deadlines)
-            return cloudletId % 2;
-        } else if (cloudletId >= 2 && cloudletId <= 6) {
-            // Next 5 tasks go to fog nodes
-            return 2 + (cloudletId - 2);
-        } else {
-            // Remaining tasks stay on IoT devices
-            return 7 + ((cloudletId - 7) % 3);
+        readMips(vmList);
+        return selectVm(cloudlet, vmList.size());
+    }
+
+    @Override
+    public int[] getTargetVmIds(List<Cloudlet> cloudlets, List<Vm> vmList) {
+        readMips(vmList);
+        int vmCount = vmList.size();
+        int count = cloudlets.size();
+        long[] previousOnTime = onTimeCounts.clone();
+        long previousLate = lateCount;
+
+        // Earliest due time first; ties keep the submission order
+        Integer[] order = new Integer[count];
+        double[] dueTimes = new double[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            dueTimes[i] = DeadlineCloudlet.dueTimeOf(cloudlets.get(i));
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(dueTimes[a], dueTimes[b]));
+
+        int[] targets = new int[count];
+        for (Integer i : order) {
+            targets[i] = selectVm(cloudlets.get(i), vmCount);
+        }
+
+        SimLog.debug(() -> {
+            StringBuilder summary = new StringBuilder("Deadline-Aware: batch of ").append(count).append(" tasks");
+            for (Tier tier : PREFERENCE) {
+                long onTime = onTimeCounts[tier.ordinal()] - previousOnTime[tier.ordinal()];
+                if (onTime > 0) {
+                    summary.append(", on time on ").append(tier.getDisplayName()).append(": ").append(onTime);
+                }
+            }
+            if (lateCount > previousLate) {
+                summary.append(", expected late: ").append(lateCount - previousLate);
+            }
+            return summary.toString();
+        });
+        return targets;
+    }
+
+    /**
+     * Stops picking the VMs that were not created
+     *
+     * @param createdVms the VMs that were created
+     */
+    @Override
+    public void vmsCreated(List<Vm> createdVms) {
+        boolean[] created = new boolean[tiers.totalVms()];
+        for (Vm vm : createdVms) {
+            if (vm.getId() >= 0 && vm.getId() < created.length) {
+                created[vm.getId()] = true;
+            }
+        }
+        for (int vmId = 0; vmId < created.length; vmId++) {
+            VmLoadIndex loads = loadIndexOf(vmId);
+            if (loads != null) {
+                loads.setAvailable(vmId, created[vmId]);
+            }
+        }
+    }
+
+    /**
+     * Releases the length of a returned or failed task from its VM's load
+     *
+     * @param cloudlet the task
+     * @param vmId the VM this policy chose for the task
+     */
+    @Override
+    public void cloudletFinished(Cloudlet cloudlet, int vmId) {
+        VmLoadIndex loads = loadIndexOf(vmId);
+        if (loads != null) {
+            loads.release(vmId, cloudlet.getCloudletLength());
+        }
+    }
+
+    private int selectVm(Cloudlet cloudlet, int vmCount) {
+        long length = cloudlet.getCloudletLength();
+        // Time from release to the due time; infinite without a deadline
+        double allowed = cloudlet instanceof DeadlineCloudlet ? ((DeadlineCloudlet) cloudlet).getDeadline()
+                : Double.POSITIVE_INFINITY;
+
+        int earliestVm = -1;
+        double earliestFinish = Double.POSITIVE_INFINITY;
+        for (Tier tier : PREFERENCE) {
+            VmLoadIndex loads = tierLoads[tier.ordinal()];
+            int vmId = loads == null ? -1 : loads.leastLoadedVmId();
+            if (vmId < 0) {
+                continue;
+            }
+            double finish = roundTrip[tier.ordinal()] + (loads.getLoad(vmId) + length) / mipsOf(vmId);
+            if (allowed != Double.POSITIVE_INFINITY && finish <= allowed) {
+                onTimeCounts[tier.ordinal()]++;
+                return assign(vmId, length);
+            }
+            if (finish < earliestFinish) {
+                earliestFinish = finish;
+                earliestVm = vmId;
+            }
         }
+        if (earliestVm < 0) {
+            // No VM was created; round-robin and leave the rest to a failover layer,
+            // or leave the task unplaced if there is no VM at all
+            return vmCount == 0 ? -1 : cloudlet.getCloudletId() % vmCount;
+        }
+        if (allowed != Double.POSITIVE_INFINITY) {
+            lateCount++;
+        }
+        return assign(earliestVm, length);
+    }
+
+    private int assign(int vmId, long length) {
+        tierLoads[tiers.tierOf(vmId).ordinal()].add(vmId, length);
+        return vmId;
+    }
+
+    /**
+     * Reads the MIPS rating of every VM, once per VM list
+     */
+    private void readMips(List<Vm> vmList) {
+        if (vmList == mipsSource) {
+            return;
+        }
+        mipsSource = vmList;
+        vmMips = new double[tiers.totalVms()];
+        for (Vm vm : vmList) {
+            if (vm.getId() >= 0 && vm.getId() < vmMips.length) {
+                vmMips[vm.getId()] = vm.getMips() * vm.getNumberOfPes();
+            }
+        }
+    }
+
+    /**
+     * @return MIPS of a VM, or 1 if it is not in the VM list
+     */
+    private double mipsOf(int vmId) {
+        double mips = vmId < vmMips.length ? vmMips[vmId] : 0;
+        return mips > 0 ? mips : 1;
+    }
+
+    private VmLoadIndex loadIndexOf(int vmId) {
+        Tier tier = tiers.tierOf(vmId);
+        return tier == null ? null : tierLoads[tier.ordinal()];
     }
 }
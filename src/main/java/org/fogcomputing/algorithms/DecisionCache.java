@@ -0,0 +1,192 @@
+package org.fogcomputing.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Bounded int -> int cache for offloading decisions (cloudlet id -> VM id).
+ *
+ * Keys and values are kept in primitive arrays, so nothing is boxed. Lookups use
+ * an open-addressing hash table with linear probing that maps a key to its entry
+ * slot. When all {@code capacity} entries are in use, the CLOCK algorithm picks
+ * the entry to evict: a hand sweeps the entries and evicts the first one that was
+ * not read since the hand last passed it. This approximates LRU without
+ * maintaining a list on every hit.
+ *
+ * Not thread safe; each policy instance owns its cache.
+ */
+public class DecisionCache {
+
+    private final int capacity;
+
+    // Entries, indexed by slot 0 .. capacity-1
+    private final int[] keys;
+    private final int[] values;
+    private final boolean[] referenced;
+    private int size;
+    private int hand;
+
+    // Hash table of entry slot + 1 (0 = empty), at most half full
+    private final int[] table;
+    private final int mask;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a new DecisionCache
+     * @param capacity maximum number of cached decisions
+     */
+    public DecisionCache(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 29)) {
+            throw new IllegalArgumentException("Cache capacity must be between 1 and 2^29: " + capacity);
+        }
+        this.capacity = capacity;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.referenced = new boolean[capacity];
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * Looks up a cached decision and marks it as recently used
+     *
+     * @param key the cloudlet id
+     * @param missing value returned if the key is not cached
+     * @return the cached value, or {@code missing}
+     */
+    public int get(int key, int missing) {
+        int pos = find(key);
+        if (pos < 0) {
+            misses++;
+            return missing;
+        }
+        int slot = table[pos] - 1;
+        referenced[slot] = true;
+        hits++;
+        return values[slot];
+    }
+
+    /**
+     * Caches a decision, evicting another entry if the cache is full
+     *
+     * @param key the cloudlet id
+     * @param value the VM id
+     */
+    public void put(int key, int value) {
+        int pos = find(key);
+        if (pos >= 0) {
+            int slot = table[pos] - 1;
+            values[slot] = value;
+            referenced[slot] = true;
+            return;
+        }
+
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+        } else {
+            slot = evict();
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        // New entries start unreferenced, so one-off keys are evicted first
+        referenced[slot] = false;
+
+        int p = home(key);
+        while (table[p] != 0) {
+            p = (p + 1) & mask;
+        }
+        table[p] = slot + 1;
+    }
+
+    /**
+     * Removes all entries; the counters are kept
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        hand = 0;
+    }
+
+    /**
+     * Advances the CLOCK hand to an unreferenced entry, removes it from the table
+     * and returns its slot
+     */
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = hand + 1 == capacity ? 0 : hand + 1;
+        }
+        int slot = hand;
+        hand = hand + 1 == capacity ? 0 : hand + 1;
+        removeFromTable(find(keys[slot]));
+        evictions++;
+        return slot;
+    }
+
+    /**
+     * Empties a table position, shifting later entries of the probe sequence back
+     * so that lookups never stop early at the hole
+     */
+    private void removeFromTable(int hole) {
+        int p = (hole + 1) & mask;
+        while (table[p] != 0) {
+            int home = home(keys[table[p] - 1]);
+            if (((p - home) & mask) >= ((p - hole) & mask)) {
+                table[hole] = table[p];
+                hole = p;
+            }
+            p = (p + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * @return the table position holding the key, or -1
+     */
+    private int find(int key) {
+        int p = home(key);
+        int entry;
+        while ((entry = table[p]) != 0) {
+            if (keys[entry - 1] == key) {
+                return p;
+            }
+            p = (p + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int home(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        return "DecisionCache[size=" + size + "/" + capacity + ", hits=" + hits
+                + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+}
@@ -1,6 +1,5 @@
 package org.fogcomputing.algorithms;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,8 +17,7 @@ import org.fog.utils.NetworkUsageMonitor;
 public class EnergyAwareOffloading extends ModulePlacement {
 
     private List<FogDevice> fogDevices;
-    private Map<String, Double> deviceEnergyMap;
-    private Map<String, Integer> currentLoad;
+    private final FogDeviceIndex index;
 
     /**
      * Constructor for Energy-Aware Offloading Algorithm
@@ -29,14 +27,9 @@ public class EnergyAwareOffloading extends ModulePlacement {
     public EnergyAwareOffloading(List<FogDevice> fogDevices, Map<String, AppModule> application) {
         super(fogDevices, application);
         this.fogDevices = fogDevices;
-        this.deviceEnergyMap = new HashMap<>();
-        this.currentLoad = new HashMap<>();
         
-        // Initialize energy and load maps
-        for (FogDevice device : fogDevices) {
-            deviceEnergyMap.put(device.getName(), device.getEnergyConsumption());
-            currentLoad.put(device.getName(), 0);
-        }
+        // Name lookup, candidate lists and energy/load arrays
+        this.index = new FogDeviceIndex(fogDevices);
     }
 
     /**
@@ -51,57 +44,41 @@ public class EnergyAwareOffloading extends ModulePlacement {
             return sourceDeviceName;
         }
         
-        // Parameters to consider for offloading
-        double minEnergyImpact = Double.MAX_VALUE;
-        String targetDeviceName = null;
-        FogDevice sourceDevice = getDeviceByName(sourceDeviceName);
+        int source = index.positionOf(sourceDeviceName);
         
         // Skip if source device not found
-        if (sourceDevice == null)
+        if (source < 0)
             return null;
         
-        // Consider each device as potential target for offloading
-        for (FogDevice targetDevice : fogDevices) {
-            // Skip invalid devices
-            if (targetDevice == null || targetDevice.equals(sourceDevice)) {
-                continue;
-            }
-            
-            // For fog_module, consider only fog nodes
-            if (moduleType.equals("fog_module") && !targetDevice.getName().startsWith("fog-")) {
-                continue;
-            }
-            
-            // For cloud_module, consider only cloud
-            if (moduleType.equals("cloud_module") && !targetDevice.getName().startsWith("cloud")) {
+        // Consider each candidate device for this module type as target for offloading
+        double[] energy = index.energy;
+        int[] load = index.load;
+        double minEnergyImpact = Double.MAX_VALUE;
+        int target = -1;
+        for (int candidate : index.candidates(moduleType)) {
+            if (candidate == source) {
                 continue;
             }
             
-            // Calculate energy impact of this offloading decision
-            double targetDeviceEnergy = deviceEnergyMap.get(targetDevice.getName());
-            int targetDeviceLoad = currentLoad.get(targetDevice.getName());
-            double uplinkLatency = getLatency(sourceDevice, targetDevice);
-            double downlinkLatency = getLatency(targetDevice, sourceDevice);
-            
             // Energy impact calculation
             // Consider: target device energy consumption, network energy, and load balancing
-            double energyImpact = calculateEnergyImpact(targetDeviceEnergy, targetDeviceLoad, 
-                                                      uplinkLatency, downlinkLatency);
+            double energyImpact = calculateEnergyImpact(energy[candidate], load[candidate], 
+                                                      index.latency(source, candidate), 
+                                                      index.latency(candidate, source));
             
             // Choose device with minimum energy impact
             if (energyImpact < minEnergyImpact) {
                 minEnergyImpact = energyImpact;
-                targetDeviceName = targetDevice.getName();
+                target = candidate;
             }
         }
         
         // Update the load of the chosen device
-        if (targetDeviceName != null) {
-            int currentDeviceLoad = currentLoad.get(targetDeviceName);
-            currentLoad.put(targetDeviceName, currentDeviceLoad + 1);
+        if (target >= 0) {
+            load[target]++;
         }
         
-        return targetDeviceName;
+        return index.nameOf(target);
     }
     
     /**
@@ -125,28 +102,27 @@ public class EnergyAwareOffloading extends ModulePlacement {
      * Get fog device by name
      */
     private FogDevice getDeviceByName(String name) {
-        for (FogDevice device : fogDevices) {
-            if (device.getName().equals(name)) {
-                return device;
-            }
-        }
-        return null;
+        int position = index.positionOf(name);
+        return position < 0 ? null : index.device(position);
     }
     
     /**
-     * Calculate network latency between two devices
+     * Update the latency of a device's link to its parent (e.g. after a link change)
+     * @param deviceName the device
+     * @param latency the new uplink latency
      */
-    private double getLatency(FogDevice sourceDevice, FogDevice targetDevice) {
-        if (sourceDevice.getParentId() == targetDevice.getId()) {
-            // Child to parent latency
-            return sourceDevice.getUplinkLatency();
-        } else if (targetDevice.getParentId() == sourceDevice.getId()) {
-            // Parent to child latency
-            return targetDevice.getUplinkLatency();
-        } else {
-            // Devices not directly connected, use sum of latencies
-            return sourceDevice.getUplinkLatency() + targetDevice.getUplinkLatency();
-        }
+    public void updateUplinkLatency(String deviceName, double latency) {
+        index.setUplinkLatency(deviceName, latency);
+    }
+    
+    /**
+     * Move a device under another parent device
+     * @param deviceName the device
+     * @param parentId id of the new parent device
+     * @param latency latency of the new link
+     */
+    public void updateParent(String deviceName, int parentId, double latency) {
+        index.setParent(deviceName, parentId, latency);
     }
     
     /**
@@ -3,9 +3,63 @@ package org.fogcomputing.algorithms;
 import java.util.List;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.fogcomputing.TierRegistry.Tier;
 
+/**
+ * Places tasks by cloudlet id: the first tasks go to the Cloud, the next ones to
+ * the Fog and the rest stay on the IoT tier. IoT tasks are spread round-robin
+ * over the first iotVms VMs of the tier, which is the whole tier by default.
+ */
 public class EnergyAwareOffloadingPolicy implements OffloadingPolicy {
 
+    // Tier layout, read once from the registry
+    private final int cloudVms;
+    private final int fogVms;
+    private final int iotRoundRobinVms;
+    private final int firstCloudVm;
+    private final int firstFogVm;
+    private final int firstIotVm;
+
+    public EnergyAwareOffloadingPolicy() {
+        this(TierRegistry.defaultLayout());
+    }
+
+    /**
+     * Creates a policy that spreads IoT tasks over every IoT VM
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     */
+    public EnergyAwareOffloadingPolicy(TierRegistry tiers) {
+        this(tiers, tiers.size(Tier.IOT));
+    }
+
+    /**
+     * Creates a policy that spreads IoT tasks over the first IoT VMs only
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     * @param iotVms number of IoT VMs to use, at most the size of the IoT tier
+     * @throws IllegalArgumentException if iotVms is negative, or 0 while the IoT tier has VMs
+     */
+    public EnergyAwareOffloadingPolicy(TierRegistry tiers, int iotVms) {
+        if (iotVms < 0 || iotVms == 0 && tiers.size(Tier.IOT) > 0) {
+            throw new IllegalArgumentException("Number of IoT VMs must be positive: " + iotVms);
+        }
+        this.cloudVms = tiers.size(Tier.CLOUD);
+        this.fogVms = tiers.size(Tier.FOG);
+        this.iotRoundRobinVms = Math.min(tiers.size(Tier.IOT), iotVms);
+        this.firstCloudVm = tiers.firstVmId(Tier.CLOUD);
+        this.firstFogVm = tiers.firstVmId(Tier.FOG);
+        this.firstIotVm = tiers.firstVmId(Tier.IOT);
+    }
+
+    /**
+     * @return number of IoT VMs that IoT tasks are spread over
+     */
+    public int getIotVms() {
+        return iotRoundRobinVms;
+    }
+
     @Override
     public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList) {
         // Energy-aware allocation strategy 
@@ -16,19 +70,21 @@ public class EnergyAwareOffloadingPolicy implements OffloadingPolicy {
         // - Very small tasks stay on IoT devices (no transmission energy)
         
         int cloudletId = cloudlet.getCloudletId();
-        int numVms = vmList.size();
         
         // Simple rule-based assignment
-        // First 20% go to cloud, middle 50% go to fog, remaining 30% stay on IoT
-        if (cloudletId < 2) {
-            // Cloud VMs (first 2 VMs)
-            return cloudletId % 2; // Round-robin among cloud VMs
-        } else if (cloudletId < 7) {
-            // Fog VMs (next 5 VMs)
-            return 2 + (cloudletId % 5); // Round-robin among fog VMs
+        // The first tasks go to cloud, the next ones to fog, the remaining ones stay on IoT
+        if (cloudletId < cloudVms) {
+            // Cloud VMs
+            return firstCloudVm + (cloudletId % cloudVms); // Round-robin among cloud VMs
+        } else if (cloudletId < cloudVms + fogVms) {
+            // Fog VMs
+            return firstFogVm + (cloudletId % fogVms); // Round-robin among fog VMs
+        } else if (iotRoundRobinVms > 0) {
+            // IoT VMs
+            return firstIotVm + (cloudletId % iotRoundRobinVms); // Round-robin among the IoT VMs
         } else {
-            // IoT VMs (remaining VMs)
-            return 7 + (cloudletId % 3); // Round-robin among IoT VMs
+            // No IoT tier, spread over all VMs
+            return vmList.isEmpty() ? -1 : cloudletId % vmList.size();
         }
     }
 }
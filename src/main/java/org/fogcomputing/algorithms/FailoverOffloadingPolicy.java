@@ -0,0 +1,201 @@
+package org.fogcomputing.algorithms;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.fogcomputing.TierRegistry.Tier;
+import org.fogcomputing.logging.SimLog;
+
+/**
+ * Re-offloads the tasks that another policy assigns to VMs whose creation failed.
+ *
+ * The wrapped policy decides first. If its target VM was created, the decision
+ * stands; otherwise the task is redirected to a surviving VM of the same tier or,
+ * if the whole tier is gone, of the nearest tier by network latency. Within that
+ * tier the VM with the least outstanding MI is picked, counting every task this
+ * layer has placed, so the redirected tasks of a lost host are spread over the
+ * survivors instead of piling up on one VM. A task is only left on its failed VM,
+ * and fails, when no VM was created at all.
+ */
+public class FailoverOffloadingPolicy implements OffloadingPolicy {
+
+    private static final Tier[] TIERS = Tier.values();
+
+    private final OffloadingPolicy policy;
+    private final TierRegistry tiers;
+
+    // Tiers to redirect to, nearest first, indexed by the ordinal of the failed VM's tier
+    private final Tier[][] fallbackOrder;
+
+    // Outstanding MI per VM of each tier, indexed by tier ordinal; null for empty tiers
+    private final VmLoadIndex[] tierLoads;
+
+    // Choice of the wrapped policy for each redirected task that has not finished
+    private final Map<Integer, Integer> redirected = new HashMap<>();
+    private long redirectedCount;
+
+    /**
+     * Creates a new FailoverOffloadingPolicy
+     *
+     * @param policy the policy whose decisions are checked
+     * @param tiers registry of the VM id ranges of each tier
+     * @param iotToFogLatency latency between the IoT and the Fog tier
+     * @param fogToCloudLatency latency between the Fog and the Cloud tier
+     */
+    public FailoverOffloadingPolicy(OffloadingPolicy policy, TierRegistry tiers, double iotToFogLatency,
+                                    double fogToCloudLatency) {
+        this.policy = policy;
+        this.tiers = tiers;
+        this.tierLoads = new VmLoadIndex[TIERS.length];
+        for (Tier tier : TIERS) {
+            if (tiers.size(tier) > 0) {
+                tierLoads[tier.ordinal()] = new VmLoadIndex(tiers.firstVmId(tier), tiers.size(tier));
+            }
+        }
+
+        this.fallbackOrder = new Tier[TIERS.length][];
+        for (Tier from : TIERS) {
+            Tier[] order = TIERS.clone();
+            Arrays.sort(order, Comparator.comparing((Tier to) -> to != from)
+                    .thenComparingDouble(to -> tierLatency(from, to, iotToFogLatency, fogToCloudLatency)));
+            fallbackOrder[from.ordinal()] = order;
+        }
+    }
+
+    /**
+     * @return latency between two tiers; IoT and Cloud only talk through the Fog tier
+     */
+    private static double tierLatency(Tier from, Tier to, double iotToFogLatency, double fogToCloudLatency) {
+        if (from == to) {
+            return 0;
+        }
+        if (from == Tier.FOG || to == Tier.FOG) {
+            return from == Tier.IOT || to == Tier.IOT ? iotToFogLatency : fogToCloudLatency;
+        }
+        return iotToFogLatency + fogToCloudLatency;
+    }
+
+    /**
+     * @return the wrapped policy
+     */
+    public OffloadingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return number of tasks redirected away from a VM that was not created
+     */
+    public long getRedirectedCount() {
+        return redirectedCount;
+    }
+
+    /**
+     * Marks the VMs that were not created as unavailable
+     *
+     * @param createdVms the VMs that were created
+     */
+    @Override
+    public void vmsCreated(List<Vm> createdVms) {
+        boolean[] created = new boolean[tiers.totalVms()];
+        for (Vm vm : createdVms) {
+            if (vm.getId() >= 0 && vm.getId() < created.length) {
+                created[vm.getId()] = true;
+            }
+        }
+        int failed = 0;
+        for (int vmId = 0; vmId < created.length; vmId++) {
+            VmLoadIndex loads = loadIndexOf(vmId);
+            if (loads != null) {
+                loads.setAvailable(vmId, created[vmId]);
+            }
+            if (!created[vmId]) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            final int failedVms = failed;
+            SimLog.info(() -> "Failover: " + failedVms + " VMs were not created, their tasks are re-offloaded");
+        }
+        policy.vmsCreated(createdVms);
+    }
+
+    @Override
+    public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList) {
+        return place(cloudlet, policy.getTargetVmId(cloudlet, vmList));
+    }
+
+    @Override
+    public int[] getTargetVmIds(List<Cloudlet> cloudlets, List<Vm> vmList) {
+        int[] targets = policy.getTargetVmIds(cloudlets, vmList);
+        long before = redirectedCount;
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = place(cloudlets.get(i), targets[i]);
+        }
+        if (redirectedCount > before) {
+            final long batchRedirects = redirectedCount - before;
+            SimLog.info(() -> "Failover: redirected " + batchRedirects + " of " + targets.length
+                    + " tasks away from VMs that were not created");
+        }
+        return targets;
+    }
+
+    /**
+     * Releases the task's load and passes the wrapped policy its own choice
+     *
+     * @param cloudlet the task
+     * @param vmId the VM this policy chose for the task
+     */
+    @Override
+    public void cloudletFinished(Cloudlet cloudlet, int vmId) {
+        VmLoadIndex loads = loadIndexOf(vmId);
+        if (loads != null) {
+            loads.release(vmId, cloudlet.getCloudletLength());
+        }
+        Integer original = redirected.remove(cloudlet.getCloudletId());
+        policy.cloudletFinished(cloudlet, original != null ? original : vmId);
+    }
+
+    /**
+     * Keeps the target if its VM exists, otherwise picks the least-loaded
+     * surviving VM of the nearest tier
+     *
+     * @return the VM ID to bind the task to
+     */
+    private int place(Cloudlet cloudlet, int target) {
+        long length = cloudlet.getCloudletLength();
+        VmLoadIndex loads = loadIndexOf(target);
+        if (loads == null) {
+            // Not a tiered VM; the broker fails the task if it does not exist
+            return target;
+        }
+        if (loads.isAvailable(target)) {
+            loads.add(target, length);
+            return target;
+        }
+
+        for (Tier tier : fallbackOrder[tiers.tierOf(target).ordinal()]) {
+            VmLoadIndex fallback = tierLoads[tier.ordinal()];
+            int vmId = fallback == null ? -1 : fallback.leastLoadedVmId();
+            if (vmId >= 0) {
+                fallback.add(vmId, length);
+                redirected.put(cloudlet.getCloudletId(), target);
+                redirectedCount++;
+                SimLog.debug(() -> "Failover: task #" + cloudlet.getCloudletId() + " moved from VM #" + target
+                        + " to VM #" + vmId + " (" + tier.getDisplayName() + ")");
+                return vmId;
+            }
+        }
+        return target;
+    }
+
+    private VmLoadIndex loadIndexOf(int vmId) {
+        Tier tier = tiers.tierOf(vmId);
+        return tier == null ? null : tierLoads[tier.ordinal()];
+    }
+}
@@ -0,0 +1,142 @@
+package org.fogcomputing.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fog.entities.FogDevice;
+
+/**
+ * Lookup tables shared by the iFogSim placement algorithms.
+ *
+ * Devices are addressed by their position in the device list. A name -> position
+ * map replaces the linear getDeviceByName scan, the candidate devices for each
+ * module type are computed once instead of filtering names on every decision, and
+ * the values used for scoring (MIPS, energy, load) are kept in primitive arrays
+ * indexed by position. Latencies come from a {@link TopologyLatency} built over
+ * the device parent links.
+ *
+ * MIPS and energy are read once when the index is built, as the algorithms did
+ * before with their name -> value maps.
+ */
+final class FogDeviceIndex {
+
+    private final FogDevice[] devices;
+    private final Map<String, Integer> positions;
+    private final Map<String, int[]> candidates = new HashMap<>();
+
+    final double[] mips;
+    final double[] energy;
+    final int[] load;
+
+    final TopologyLatency topology;
+
+    FogDeviceIndex(List<FogDevice> fogDevices) {
+        List<FogDevice> present = new ArrayList<>(fogDevices.size());
+        for (FogDevice device : fogDevices) {
+            if (device != null) {
+                present.add(device);
+            }
+        }
+        int n = present.size();
+        this.devices = present.toArray(new FogDevice[n]);
+        this.positions = new HashMap<>(n * 2);
+        this.mips = new double[n];
+        this.energy = new double[n];
+        this.load = new int[n];
+        int[] ids = new int[n];
+        int[] parentIds = new int[n];
+        double[] uplinkLatency = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            FogDevice device = devices[i];
+            // Keep the first device of a name, as the linear lookup did
+            positions.putIfAbsent(device.getName(), i);
+            mips[i] = device.getMips();
+            energy[i] = device.getEnergyConsumption();
+            ids[i] = device.getId();
+            parentIds[i] = device.getParentId();
+            uplinkLatency[i] = device.getUplinkLatency();
+        }
+        this.topology = new TopologyLatency(ids, parentIds, uplinkLatency);
+    }
+
+    /**
+     * @return the position of the device with this name, or -1
+     */
+    int positionOf(String name) {
+        Integer position = positions.get(name);
+        return position == null ? -1 : position;
+    }
+
+    FogDevice device(int position) {
+        return devices[position];
+    }
+
+    /**
+     * @return the name of the device at a position, or null for -1
+     */
+    String nameOf(int position) {
+        return position < 0 ? null : devices[position].getName();
+    }
+
+    /**
+     * Devices a module type may be offloaded to: fog nodes for fog_module, the
+     * cloud for cloud_module and every device for other types
+     *
+     * @return positions in device list order
+     */
+    int[] candidates(String moduleType) {
+        int[] result = candidates.get(moduleType);
+        if (result == null) {
+            String prefix = moduleType.equals("fog_module") ? "fog-"
+                    : moduleType.equals("cloud_module") ? "cloud" : "";
+            int[] matches = new int[devices.length];
+            int count = 0;
+            for (int i = 0; i < devices.length; i++) {
+                if (devices[i].getName().startsWith(prefix)) {
+                    matches[count++] = i;
+                }
+            }
+            result = Arrays.copyOf(matches, count);
+            candidates.put(moduleType, result);
+        }
+        return result;
+    }
+
+    /**
+     * Multi-hop network latency from one device to another, O(1)
+     */
+    double latency(int from, int to) {
+        return topology.latency(from, to);
+    }
+
+    /**
+     * Changes the latency of a device's link to its parent; unknown names are ignored
+     *
+     * @param name the device
+     * @param latency the new uplink latency
+     */
+    void setUplinkLatency(String name, double latency) {
+        int position = positionOf(name);
+        if (position >= 0) {
+            topology.setUplinkLatency(position, latency);
+        }
+    }
+
+    /**
+     * Moves a device under another parent device; unknown names are ignored
+     *
+     * @param name the device
+     * @param parentId id of the new parent device
+     * @param latency latency of the new link
+     */
+    void setParent(String name, int parentId, double latency) {
+        int position = positionOf(name);
+        if (position >= 0) {
+            topology.setParent(position, parentId, latency);
+        }
+    }
+}
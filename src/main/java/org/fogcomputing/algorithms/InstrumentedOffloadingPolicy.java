@@ -0,0 +1,76 @@
+package org.fogcomputing.algorithms;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.metrics.Counter;
+import org.fogcomputing.metrics.Histogram;
+import org.fogcomputing.metrics.MetricsRegistry;
+
+/**
+ * Counts and times the decisions of another policy.
+ *
+ * Single decisions and batches are timed separately in wall-clock ns; the
+ * decision counter counts tasks in both cases, so the cost per decision of a
+ * batch policy is the batch time over the batch size.
+ */
+public class InstrumentedOffloadingPolicy implements OffloadingPolicy {
+
+    private final OffloadingPolicy policy;
+
+    private final Counter decisions;
+    private final Counter batches;
+    private final Histogram decisionTime;
+    private final Histogram batchTime;
+
+    /**
+     * Creates a new InstrumentedOffloadingPolicy
+     *
+     * @param policy the policy to measure
+     * @param metrics registry the measurements are recorded in
+     */
+    public InstrumentedOffloadingPolicy(OffloadingPolicy policy, MetricsRegistry metrics) {
+        this.policy = policy;
+        this.decisions = metrics.counter("offload.decisions");
+        this.batches = metrics.counter("offload.batches");
+        this.decisionTime = metrics.histogram("offload.decision.time", "ns");
+        this.batchTime = metrics.histogram("offload.batch.time", "ns");
+    }
+
+    /**
+     * @return the wrapped policy
+     */
+    public OffloadingPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList) {
+        long start = System.nanoTime();
+        int target = policy.getTargetVmId(cloudlet, vmList);
+        decisionTime.record(System.nanoTime() - start);
+        decisions.increment();
+        return target;
+    }
+
+    @Override
+    public int[] getTargetVmIds(List<Cloudlet> cloudlets, List<Vm> vmList) {
+        long start = System.nanoTime();
+        int[] targets = policy.getTargetVmIds(cloudlets, vmList);
+        batchTime.record(System.nanoTime() - start);
+        batches.increment();
+        decisions.add(targets.length);
+        return targets;
+    }
+
+    @Override
+    public void vmsCreated(List<Vm> createdVms) {
+        policy.vmsCreated(createdVms);
+    }
+
+    @Override
+    public void cloudletFinished(Cloudlet cloudlet, int vmId) {
+        policy.cloudletFinished(cloudlet, vmId);
+    }
+}
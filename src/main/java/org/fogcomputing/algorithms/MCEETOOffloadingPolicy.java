@@ -3,6 +3,9 @@ package org.fogcomputing.algorithms;
 import java.util.*;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.fogcomputing.TierRegistry.Tier;
+import org.fogcomputing.logging.SimLog;
 
 /**
  * Implementation of the MCEETO (Multi-Classifiers based Energy-Efficient Task Offloading) algorithm
@@ -11,6 +14,13 @@ import org.cloudbus.cloudsim.Vm;
  * 
  * This algorithm uses a multi-classifier approach to make energy-efficient task offloading decisions
  * in a hybrid IoT-Fog-Cloud environment.
+ * 
+ * Within the chosen tier a VM is picked round-robin on the cloudlet ID, or, in
+ * load-aware mode, as the VM with the least outstanding MI. Load-aware mode keeps
+ * one {@link VmLoadIndex} per tier, adds a task's length when it is assigned and
+ * releases it in {@link #cloudletFinished(Cloudlet, int)}, so long tasks are not piled
+ * onto the same VMs when task sizes are skewed. A cached decision is added to the
+ * load of its VM like a new one, since the task is released again when it finishes.
  */
 public class MCEETOOffloadingPolicy implements OffloadingPolicy {
     
@@ -28,12 +38,7 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
     private static final double FOG_TO_CLOUD_LATENCY = 20.0;
     
     // VM tier identification
-    private static final int CLOUD_VM_START = 0;
-    private static final int CLOUD_VM_END = 1;
-    private static final int FOG_VM_START = 2;
-    private static final int FOG_VM_END = 6;
-    private static final int IOT_VM_START = 7;
-    private static final int IOT_VM_END = 16;
+    private final TierRegistry tiers;
 
     // Task properties thresholds
     private static final int HIGH_MI_THRESHOLD = 30000;      // High computation tasks (MI)
@@ -41,8 +46,98 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
     private static final int LARGE_DATA_THRESHOLD = 1000;    // Large data tasks (bytes)
     private static final int MEDIUM_DATA_THRESHOLD = 500;    // Medium data tasks (bytes)
     
-    // Cache for decisions to improve performance
-    private Map<Integer, Integer> taskDecisionCache = new HashMap<>();
+    /** Default maximum number of cached decisions */
+    public static final int DEFAULT_CACHE_CAPACITY = 65536;
+    
+    // Returned by the cache for unknown tasks; VM ids are never negative
+    private static final int NOT_CACHED = -1;
+    
+    // Bounded cache for decisions to improve performance
+    private final DecisionCache taskDecisionCache;
+    
+    // Outstanding MI per VM of each tier, indexed by tier ordinal; null in round-robin mode
+    private final VmLoadIndex[] tierLoads;
+    
+    /**
+     * Creates the policy for the default 2 Cloud / 5 Fog / 10 IoT VM layout
+     */
+    public MCEETOOffloadingPolicy() {
+        this(TierRegistry.defaultLayout());
+    }
+    
+    /**
+     * Creates the policy for the given VM layout
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     */
+    public MCEETOOffloadingPolicy(TierRegistry tiers) {
+        this(tiers, DEFAULT_CACHE_CAPACITY);
+    }
+    
+    /**
+     * Creates the policy for the given VM layout and decision cache size
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     * @param cacheCapacity maximum number of cached decisions
+     */
+    public MCEETOOffloadingPolicy(TierRegistry tiers, int cacheCapacity) {
+        this(tiers, cacheCapacity, false);
+    }
+    
+    /**
+     * Creates the policy for the given VM layout and VM selection mode
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     * @param loadAware true to pick the least-loaded VM of a tier instead of round-robin
+     */
+    public MCEETOOffloadingPolicy(TierRegistry tiers, boolean loadAware) {
+        this(tiers, DEFAULT_CACHE_CAPACITY, loadAware);
+    }
+    
+    /**
+     * Creates the policy for the given VM layout, decision cache size and VM selection mode
+     *
+     * @param tiers registry of the VM id ranges of each tier
+     * @param cacheCapacity maximum number of cached decisions
+     * @param loadAware true to pick the least-loaded VM of a tier instead of round-robin
+     */
+    public MCEETOOffloadingPolicy(TierRegistry tiers, int cacheCapacity, boolean loadAware) {
+        this.tiers = tiers;
+        this.taskDecisionCache = new DecisionCache(cacheCapacity);
+        if (loadAware) {
+            tierLoads = new VmLoadIndex[Tier.values().length];
+            for (Tier tier : Tier.values()) {
+                if (tiers.size(tier) > 0) {
+                    tierLoads[tier.ordinal()] = new VmLoadIndex(tiers.firstVmId(tier), tiers.size(tier));
+                }
+            }
+        } else {
+            tierLoads = null;
+        }
+    }
+    
+    /**
+     * @return true if VMs are picked by outstanding MI rather than round-robin
+     */
+    public boolean isLoadAware() {
+        return tierLoads != null;
+    }
+    
+    /**
+     * @param vmId the VM ID
+     * @return outstanding MI of the tasks assigned to the VM, or 0 in round-robin mode
+     */
+    public long getOutstandingLoad(int vmId) {
+        VmLoadIndex loads = loadIndexOf(vmId);
+        return loads == null ? 0 : loads.getLoad(vmId);
+    }
+    
+    /**
+     * @return the decision cache, for its hit/miss/eviction counters
+     */
+    public DecisionCache getDecisionCache() {
+        return taskDecisionCache;
+    }
     
     /**
      * Get the target VM ID for offloading a cloudlet based on the MCEETO algorithm
@@ -56,8 +151,10 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
         int cloudletId = cloudlet.getCloudletId();
         
         // Check if we've already made a decision for this task
-        if (taskDecisionCache.containsKey(cloudletId)) {
-            return taskDecisionCache.get(cloudletId);
+        int cachedVmId = taskDecisionCache.get(cloudletId, NOT_CACHED);
+        if (cachedVmId != NOT_CACHED) {
+            // The task is released again when it finishes, so it counts again
+            return assign(cachedVmId, cloudlet.getCloudletLength());
         }
         
         // Get task characteristics
@@ -68,12 +165,12 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
         TaskCategory category = classifyTask(taskLength, taskDataSize);
         
         // Step 2: Multi-classifier decision process
-        int targetVmId = applyMultiClassifierDecision(category, cloudlet, vmList);
+        int targetVmId = applyMultiClassifierDecision(category, cloudletId, taskLength, taskDataSize, vmList.size());
         
         // Cache the decision
         taskDecisionCache.put(cloudletId, targetVmId);
         
-        System.out.println("MCEETO: Task #" + cloudletId + 
+        SimLog.debug(() -> "MCEETO: Task #" + cloudletId + 
                           " (Length: " + taskLength + " MI, Data: " + taskDataSize + 
                           " bytes) classified as " + category + 
                           " -> assigned to VM #" + targetVmId);
@@ -81,6 +178,97 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
         return targetVmId;
     }
     
+    /**
+     * Get the target VM IDs for a batch of cloudlets in a single pass.
+     * Makes the same decisions as {@link #getTargetVmId(Cloudlet, List)}, but logs
+     * one summary line per batch instead of one line per task.
+     *
+     * @param cloudlets The cloudlets (tasks) to be offloaded
+     * @param vmList List of available VMs
+     * @return The ID of the target VM of each cloudlet
+     */
+    @Override
+    public int[] getTargetVmIds(List<Cloudlet> cloudlets, List<Vm> vmList) {
+        int vmCount = vmList.size();
+        int[] targets = new int[cloudlets.size()];
+        int[] categoryCounts = new int[CATEGORIES.length];
+        int cached = 0;
+        int i = 0;
+        
+        for (Cloudlet cloudlet : cloudlets) {
+            int cloudletId = cloudlet.getCloudletId();
+            int previous = taskDecisionCache.get(cloudletId, NOT_CACHED);
+            if (previous != NOT_CACHED) {
+                targets[i++] = assign(previous, cloudlet.getCloudletLength());
+                cached++;
+                continue;
+            }
+            
+            long taskLength = cloudlet.getCloudletLength();
+            long taskDataSize = cloudlet.getCloudletFileSize() + cloudlet.getCloudletOutputSize();
+            TaskCategory category = classifyTask(taskLength, taskDataSize);
+            categoryCounts[category.ordinal()]++;
+            
+            int targetVmId = applyMultiClassifierDecision(category, cloudletId, taskLength, taskDataSize, vmCount);
+            taskDecisionCache.put(cloudletId, targetVmId);
+            targets[i++] = targetVmId;
+        }
+        
+        final int cachedDecisions = cached;
+        SimLog.debug(() -> {
+            StringBuilder summary = new StringBuilder("MCEETO: batch of ").append(targets.length).append(" tasks");
+            for (TaskCategory category : CATEGORIES) {
+                if (categoryCounts[category.ordinal()] > 0) {
+                    summary.append(", ").append(category).append(": ").append(categoryCounts[category.ordinal()]);
+                }
+            }
+            if (cachedDecisions > 0) {
+                summary.append(", cached: ").append(cachedDecisions);
+            }
+            return summary.toString();
+        });
+        
+        return targets;
+    }
+    
+    /**
+     * In load-aware mode, stops picking the VMs that were not created
+     *
+     * @param createdVms the VMs that were created
+     */
+    @Override
+    public void vmsCreated(List<Vm> createdVms) {
+        if (tierLoads == null) {
+            return;
+        }
+        boolean[] created = new boolean[tiers.totalVms()];
+        for (Vm vm : createdVms) {
+            if (vm.getId() >= 0 && vm.getId() < created.length) {
+                created[vm.getId()] = true;
+            }
+        }
+        for (int vmId = 0; vmId < created.length; vmId++) {
+            VmLoadIndex loads = loadIndexOf(vmId);
+            if (loads != null) {
+                loads.setAvailable(vmId, created[vmId]);
+            }
+        }
+    }
+    
+    /**
+     * Releases the length of a returned or failed task from its VM's load
+     *
+     * @param cloudlet the task
+     * @param vmId the VM this policy chose for the task
+     */
+    @Override
+    public void cloudletFinished(Cloudlet cloudlet, int vmId) {
+        VmLoadIndex loads = loadIndexOf(vmId);
+        if (loads != null) {
+            loads.release(vmId, cloudlet.getCloudletLength());
+        }
+    }
+    
     /**
      * Classify the task based on its computation and data requirements
      * 
@@ -121,21 +309,20 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
      * Apply the multi-classifier decision process to determine the target VM
      * 
      * @param category Task category from classification
-     * @param cloudlet The cloudlet to be processed
-     * @param vmList List of available VMs
+     * @param cloudletId The cloudlet ID
+     * @param taskLength Task computation requirement in MI
+     * @param taskDataSize Task data size in bytes
+     * @param vmCount Number of available VMs
      * @return Target VM ID
      */
-    private int applyMultiClassifierDecision(TaskCategory category, Cloudlet cloudlet, List<Vm> vmList) {
-        int cloudletId = cloudlet.getCloudletId();
-        long taskLength = cloudlet.getCloudletLength();
-        long taskDataSize = cloudlet.getCloudletFileSize() + cloudlet.getCloudletOutputSize();
-        
+    private int applyMultiClassifierDecision(TaskCategory category, int cloudletId,
+                                             long taskLength, long taskDataSize, int vmCount) {
         // Apply the ensemble decision based on the category
         switch (category) {
             case HIGH_COMPUTE_LOW_DATA:
                 // For high computation, low data tasks, prefer cloud for better processing capability
-                // Select among cloud VMs (VM 0-1) using round-robin
-                return CLOUD_VM_START + (cloudletId % (CLOUD_VM_END - CLOUD_VM_START + 1));
+                // Select among cloud VMs using round-robin
+                return selectInTier(Tier.CLOUD, cloudletId, taskLength, vmCount);
                 
             case HIGH_COMPUTE_HIGH_DATA:
                 // For high computation, high data tasks, consider energy tradeoff between computation and transmission
@@ -147,36 +334,83 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
                 
                 // Choose based on energy efficiency
                 if (cloudEnergyEstimate <= fogEnergyEstimate) {
-                    return CLOUD_VM_START + (cloudletId % (CLOUD_VM_END - CLOUD_VM_START + 1));
+                    return selectInTier(Tier.CLOUD, cloudletId, taskLength, vmCount);
                 } else {
-                    return FOG_VM_START + (cloudletId % (FOG_VM_END - FOG_VM_START + 1));
+                    return selectInTier(Tier.FOG, cloudletId, taskLength, vmCount);
                 }
                 
             case MEDIUM_COMPUTE_MEDIUM_DATA:
             case MEDIUM_COMPUTE_HIGH_DATA:
                 // For medium computation tasks, prefer fog nodes for balance
-                return FOG_VM_START + (cloudletId % (FOG_VM_END - FOG_VM_START + 1));
+                return selectInTier(Tier.FOG, cloudletId, taskLength, vmCount);
                 
             case LOW_COMPUTE_LOW_DATA:
                 // For low computation, low data tasks, prefer IoT devices to minimize transmission
-                return IOT_VM_START + (cloudletId % (IOT_VM_END - IOT_VM_START + 1));
+                return selectInTier(Tier.IOT, cloudletId, taskLength, vmCount);
                 
             case LOW_COMPUTE_HIGH_DATA:
                 // For low computation but high data, calculate if it's worth transmitting
                 if (taskDataSize > LARGE_DATA_THRESHOLD) {
                     // If data is very large, process locally to avoid transmission costs
-                    return IOT_VM_START + (cloudletId % (IOT_VM_END - IOT_VM_START + 1));
+                    return selectInTier(Tier.IOT, cloudletId, taskLength, vmCount);
                 } else {
                     // Otherwise, use fog for better processing
-                    return FOG_VM_START + (cloudletId % (FOG_VM_END - FOG_VM_START + 1));
+                    return selectInTier(Tier.FOG, cloudletId, taskLength, vmCount);
                 }
                 
             default:
                 // Fallback to round-robin across all VMs if classification fails
-                return cloudletId % vmList.size();
+                return assign(cloudletId % vmCount, taskLength);
         }
     }
     
+    /**
+     * Select a VM within a tier: the least-loaded one in load-aware mode,
+     * otherwise round-robin on the cloudlet ID
+     * 
+     * @param tier The preferred tier
+     * @param cloudletId The cloudlet ID
+     * @param taskLength Task computation requirement in MI
+     * @param vmCount Number of available VMs
+     * @return Target VM ID, or a round-robin pick over all VMs if the tier has no VMs
+     */
+    private int selectInTier(Tier tier, int cloudletId, long taskLength, int vmCount) {
+        int tierSize = tiers.size(tier);
+        if (tierSize == 0) {
+            return assign(cloudletId % vmCount, taskLength);
+        }
+        if (tierLoads != null) {
+            int vmId = tierLoads[tier.ordinal()].leastLoadedVmId();
+            if (vmId >= 0) {
+                return assign(vmId, taskLength);
+            }
+            // No VM of the tier was created; round-robin and leave the rest to a failover layer
+            return assign(tiers.firstVmId(tier) + (cloudletId % tierSize), taskLength);
+        }
+        return tiers.firstVmId(tier) + (cloudletId % tierSize);
+    }
+    
+    /**
+     * Adds a task to the load of its VM in load-aware mode
+     * 
+     * @return vmId
+     */
+    private int assign(int vmId, long taskLength) {
+        VmLoadIndex loads = loadIndexOf(vmId);
+        if (loads != null) {
+            loads.add(vmId, taskLength);
+        }
+        return vmId;
+    }
+    
+    private VmLoadIndex loadIndexOf(int vmId) {
+        if (tierLoads == null) {
+            return null;
+        }
+        Tier tier = tiers.tierOf(vmId);
+        return tier == null ? null : tierLoads[tier.ordinal()];
+    }
+    
     /**
      * Task categories used by the classifier
      */
@@ -188,4 +422,6 @@ public class MCEETOOffloadingPolicy implements OffloadingPolicy {
         LOW_COMPUTE_LOW_DATA,
         LOW_COMPUTE_HIGH_DATA
     }
+    
+    private static final TaskCategory[] CATEGORIES = TaskCategory.values();
 }
@@ -14,7 +14,46 @@ public interface OffloadingPolicy {
      * 
      * @param cloudlet the task to be offloaded
      * @param vmList the list of available VMs
-     * @return the ID of the target VM
+     * @return the ID of the target VM, or -1 if no VM can take the task
      */
     public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList);
+    
+    /**
+     * Determines the target VMs for a batch of tasks.
+     * The default implementation calls {@link #getTargetVmId(Cloudlet, List)} for each task;
+     * policies override it to make all decisions in a single pass.
+     * 
+     * @param cloudlets the tasks to be offloaded
+     * @param vmList the list of available VMs
+     * @return the ID of the target VM of each task, in the order of the cloudlets
+     */
+    public default int[] getTargetVmIds(List<Cloudlet> cloudlets, List<Vm> vmList) {
+        int[] targets = new int[cloudlets.size()];
+        int i = 0;
+        for (Cloudlet cloudlet : cloudlets) {
+            targets[i++] = getTargetVmId(cloudlet, vmList);
+        }
+        return targets;
+    }
+    
+    /**
+     * Called once the VMs have been created, before tasks are bound. The default
+     * implementation does nothing; policies that must avoid VMs whose creation
+     * failed look at the created VMs here.
+     * 
+     * @param createdVms the VMs that were created
+     */
+    public default void vmsCreated(List<Vm> createdVms) {
+    }
+    
+    /**
+     * Called when a task bound by this policy has left its VM, because it returned
+     * or failed. The default implementation does nothing; policies that track the
+     * work assigned to each VM release it here.
+     * 
+     * @param cloudlet the task
+     * @param vmId the VM this policy chose for the task
+     */
+    public default void cloudletFinished(Cloudlet cloudlet, int vmId) {
+    }
 }
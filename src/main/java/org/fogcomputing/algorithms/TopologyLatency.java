@@ -0,0 +1,232 @@
+package org.fogcomputing.algorithms;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Multi-hop network latency between the devices of a hierarchical fog topology.
+ *
+ * Each device has a parent (by device id) and the latency of the link to it. The
+ * latency between two devices is the sum of the link latencies on the tree path
+ * between them:
+ *   latency(u, v) = toRoot(u) + toRoot(v) - 2 * toRoot(lca(u, v))
+ * where toRoot is the latency from a device up to the root of its tree.
+ *
+ * The lowest common ancestor comes from a sparse table of minimum depths over an
+ * Euler tour of the tree, so every lookup is O(1) after an O(n log n) build and no
+ * n x n matrix is stored. Devices whose parent is not in the topology are roots;
+ * separate trees are joined by a virtual root with zero-latency links.
+ *
+ * Devices are addressed by position (0 .. n-1), as in {@link FogDeviceIndex}.
+ */
+public class TopologyLatency {
+
+    private final int n;
+    private final int[] ids;
+    private final int[] parentIds;
+    private final double[] uplinkLatency;
+
+    // Tree, with the virtual root at position n
+    private int[] parent;
+    private int[] depth;
+    private double[] toRoot;
+
+    // Preorder numbering: order[tin[v] .. tout[v]-1] is the subtree of v
+    private int[] order;
+    private int[] tin;
+    private int[] tout;
+
+    // Euler tour and sparse table of the shallowest node in each 2^k window
+    private int[] first;
+    private int[][] sparse;
+
+    /**
+     * Creates a new TopologyLatency
+     *
+     * @param ids device ids by position
+     * @param parentIds parent device id by position
+     * @param uplinkLatency latency of the link to the parent by position
+     * @throws IllegalArgumentException if the parent links contain a cycle
+     */
+    public TopologyLatency(int[] ids, int[] parentIds, double[] uplinkLatency) {
+        this.n = ids.length;
+        this.ids = ids.clone();
+        this.parentIds = parentIds.clone();
+        this.uplinkLatency = uplinkLatency.clone();
+        build();
+    }
+
+    /**
+     * Network latency between two devices, O(1)
+     *
+     * @param from position of the first device
+     * @param to position of the second device
+     * @return sum of the link latencies on the path between them
+     */
+    public double latency(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        return toRoot[from] + toRoot[to] - 2 * toRoot[lca(from, to)];
+    }
+
+    /**
+     * Number of links on the path between two devices, O(1)
+     */
+    public int hops(int from, int to) {
+        return depth[from] + depth[to] - 2 * depth[lca(from, to)];
+    }
+
+    /**
+     * Changes the latency of a device's link to its parent. Only the latencies of
+     * the device's subtree change, so this costs O(subtree size).
+     *
+     * @param position the device
+     * @param latency the new uplink latency
+     */
+    public void setUplinkLatency(int position, double latency) {
+        uplinkLatency[position] = latency;
+        // Recompute from the parent down, in preorder, so no error accumulates
+        for (int i = tin[position]; i < tout[position]; i++) {
+            int v = order[i];
+            toRoot[v] = toRoot[parent[v]] + (parent[v] == n ? 0 : uplinkLatency[v]);
+        }
+    }
+
+    /**
+     * Moves a device (with its subtree) under another parent. The tree shape
+     * changes, so the index is rebuilt in O(n log n).
+     *
+     * @param position the device
+     * @param parentId id of the new parent device
+     * @param latency latency of the new link
+     * @throws IllegalArgumentException if the move creates a cycle
+     */
+    public void setParent(int position, int parentId, double latency) {
+        int oldParentId = parentIds[position];
+        double oldLatency = uplinkLatency[position];
+        parentIds[position] = parentId;
+        uplinkLatency[position] = latency;
+        try {
+            build();
+        } catch (IllegalArgumentException e) {
+            parentIds[position] = oldParentId;
+            uplinkLatency[position] = oldLatency;
+            build();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of devices
+     */
+    public int size() {
+        return n;
+    }
+
+    private int lca(int u, int v) {
+        int l = first[u];
+        int r = first[v];
+        if (l > r) {
+            int t = l;
+            l = r;
+            r = t;
+        }
+        int k = 31 - Integer.numberOfLeadingZeros(r - l + 1);
+        int a = sparse[k][l];
+        int b = sparse[k][r - (1 << k) + 1];
+        return depth[a] <= depth[b] ? a : b;
+    }
+
+    private void build() {
+        int nodes = n + 1;
+        int root = n;
+
+        Map<Integer, Integer> positions = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            positions.putIfAbsent(ids[i], i);
+        }
+        parent = new int[nodes];
+        int[] childCount = new int[nodes + 1];
+        for (int i = 0; i < n; i++) {
+            Integer p = positions.get(parentIds[i]);
+            parent[i] = p == null || p == i ? root : p;
+            childCount[parent[i]]++;
+        }
+        parent[root] = root;
+
+        // Children in CSR form, in position order
+        int[] childStart = new int[nodes + 1];
+        for (int v = 0; v < nodes; v++) {
+            childStart[v + 1] = childStart[v] + childCount[v];
+        }
+        int[] children = new int[n];
+        int[] fill = Arrays.copyOf(childStart, nodes);
+        for (int i = 0; i < n; i++) {
+            children[fill[parent[i]]++] = i;
+        }
+
+        // Iterative DFS from the virtual root: preorder, depths and Euler tour
+        depth = new int[nodes];
+        toRoot = new double[nodes];
+        order = new int[nodes];
+        tin = new int[nodes];
+        tout = new int[nodes];
+        first = new int[nodes];
+        int[] euler = new int[2 * nodes - 1];
+        int eulerLength = 0;
+        int visited = 0;
+
+        int[] stack = new int[nodes];
+        int[] next = new int[nodes];
+        int top = 0;
+        stack[top++] = root;
+        next[root] = childStart[root];
+        tin[root] = visited;
+        order[visited++] = root;
+        first[root] = eulerLength;
+        euler[eulerLength++] = root;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] < childStart[v + 1]) {
+                int c = children[next[v]++];
+                depth[c] = depth[v] + 1;
+                toRoot[c] = toRoot[v] + (v == root ? 0 : uplinkLatency[c]);
+                tin[c] = visited;
+                order[visited++] = c;
+                first[c] = eulerLength;
+                euler[eulerLength++] = c;
+                next[c] = childStart[c];
+                stack[top++] = c;
+            } else {
+                tout[v] = visited;
+                top--;
+                if (top > 0) {
+                    euler[eulerLength++] = stack[top - 1];
+                }
+            }
+        }
+        if (visited != nodes) {
+            throw new IllegalArgumentException("Device parent links contain a cycle; "
+                    + (nodes - visited) + " devices are not connected to a root");
+        }
+
+        // sparse[k][i] = shallowest node in euler[i .. i + 2^k - 1]
+        int levels = 32 - Integer.numberOfLeadingZeros(eulerLength);
+        sparse = new int[levels][];
+        sparse[0] = Arrays.copyOf(euler, eulerLength);
+        for (int k = 1; k < levels; k++) {
+            int width = 1 << k;
+            int half = width >> 1;
+            int[] prev = sparse[k - 1];
+            int[] level = new int[eulerLength - width + 1];
+            for (int i = 0; i < level.length; i++) {
+                int a = prev[i];
+                int b = prev[i + half];
+                level[i] = depth[a] <= depth[b] ? a : b;
+            }
+            sparse[k] = level;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.fogcomputing.algorithms;
+
+/**
+ * Outstanding work (MI) of a contiguous range of VM IDs, e.g. one tier, with
+ * O(1) access to the least-loaded VM.
+ *
+ * The VMs are kept in an indexed binary min-heap keyed by their outstanding MI,
+ * ties broken by the lower VM ID. A position array maps every VM to its heap
+ * slot, so adding or releasing work on any VM is a single sift in O(log n)
+ * rather than a scan of the tier. VMs can be marked unavailable, e.g. when their
+ * creation failed; they sort after every available VM and are never picked.
+ *
+ * Not thread safe; each policy instance owns its indexes.
+ */
+public class VmLoadIndex {
+
+    private final int firstVmId;
+
+    // Heap of VM offsets (vmId - firstVmId); heap[0] is the least-loaded VM
+    private final int[] heap;
+    // Heap slot of each VM offset
+    private final int[] position;
+    // Outstanding MI of each VM offset
+    private final long[] load;
+    // Whether each VM offset can be picked
+    private final boolean[] available;
+
+    /**
+     * Creates a new VmLoadIndex in which every VM is idle
+     *
+     * @param firstVmId ID of the first VM of the range
+     * @param size number of VMs in the range
+     */
+    public VmLoadIndex(int firstVmId, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("A load index needs at least one VM");
+        }
+        this.firstVmId = firstVmId;
+        this.heap = new int[size];
+        this.position = new int[size];
+        this.load = new long[size];
+        this.available = new boolean[size];
+        // Equal loads, so the identity order is already a valid heap
+        for (int i = 0; i < size; i++) {
+            heap[i] = i;
+            position[i] = i;
+            available[i] = true;
+        }
+    }
+
+    /**
+     * @return the ID of the available VM with the least outstanding MI, or -1 if no VM is available
+     */
+    public int leastLoadedVmId() {
+        return available[heap[0]] ? firstVmId + heap[0] : -1;
+    }
+
+    /**
+     * @param vmId the VM ID
+     * @return true if the VM can be picked
+     */
+    public boolean isAvailable(int vmId) {
+        return available[vmId - firstVmId];
+    }
+
+    /**
+     * Marks a VM as available or not
+     *
+     * @param vmId the VM ID
+     * @param isAvailable false to never pick the VM
+     */
+    public void setAvailable(int vmId, boolean isAvailable) {
+        int vm = vmId - firstVmId;
+        if (available[vm] == isAvailable) {
+            return;
+        }
+        available[vm] = isAvailable;
+        if (isAvailable) {
+            siftUp(position[vm]);
+        } else {
+            siftDown(position[vm]);
+        }
+    }
+
+    /**
+     * @param vmId the VM ID
+     * @return the outstanding MI of the VM
+     */
+    public long getLoad(int vmId) {
+        return load[vmId - firstVmId];
+    }
+
+    /**
+     * Adds work assigned to a VM
+     *
+     * @param vmId the VM ID
+     * @param mi length of the assigned task in MI
+     */
+    public void add(int vmId, long mi) {
+        int vm = vmId - firstVmId;
+        load[vm] += mi;
+        siftDown(position[vm]);
+    }
+
+    /**
+     * Releases work of a VM, e.g. when a task returns
+     *
+     * @param vmId the VM ID
+     * @param mi length of the finished task in MI
+     */
+    public void release(int vmId, long mi) {
+        int vm = vmId - firstVmId;
+        // Never below idle, in case a task was released without being added
+        load[vm] = Math.max(0, load[vm] - mi);
+        siftUp(position[vm]);
+    }
+
+    private boolean less(int a, int b) {
+        if (available[a] != available[b]) {
+            return available[a];
+        }
+        return load[a] < load[b] || (load[a] == load[b] && a < b);
+    }
+
+    private void siftUp(int slot) {
+        int vm = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!less(vm, heap[parent])) {
+                break;
+            }
+            place(heap[parent], slot);
+            slot = parent;
+        }
+        place(vm, slot);
+    }
+
+    private void siftDown(int slot) {
+        int vm = heap[slot];
+        int half = heap.length >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < heap.length && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], vm)) {
+                break;
+            }
+            place(heap[child], slot);
+            slot = child;
+        }
+        place(vm, slot);
+    }
+
+    private void place(int vm, int slot) {
+        heap[slot] = vm;
+        position[vm] = slot;
+    }
+}
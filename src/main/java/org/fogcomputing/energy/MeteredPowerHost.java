@@ -0,0 +1,164 @@
+package org.fogcomputing.energy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.provisioners.BwProvisioner;
+import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+
+/**
+ * A PowerHost that integrates its energy over its CPU utilization timeline.
+ *
+ * The datacenter updates its hosts on every cloudlet submission and completion,
+ * and utilization only changes at those events, so it is constant between two
+ * updates. On each update the host adds the power of its utilization since the
+ * previous update times the elapsed time, before the VMs advance; the utilization
+ * is read from the cloudlets that were executing in that interval. A host without
+ * VMs is treated as switched off and consumes nothing, so consolidating VMs onto
+ * fewer hosts saves their idle power, while a host whose VMs sit idle still pays it.
+ * The host is also metered when a VM is created or destroyed on it.
+ *
+ * The energy of each interval is shared among the VMs that were busy in it, in
+ * proportion to the MIPS they used, idle power included, so a
+ * {@link TaskEnergyMeter} can pass it on to the tasks. The energy of intervals in
+ * which no VM was busy is not assigned to any VM.
+ *
+ * Unlike HostDynamicWorkload, the host keeps no state history, which would grow
+ * by one entry per host and event, and does not reallocate PEs on every update;
+ * VMs are never migrated in these simulations.
+ *
+ * Simulation time is in ms, as in the rest of the results, so energy is in J
+ * for a power model in W.
+ */
+public class MeteredPowerHost extends PowerHost {
+
+    private double energy;
+    private double lastMeterTime;
+    
+    // Energy assigned to each VM so far, by VM ID; one-element arrays to update in place
+    private final Map<Integer, double[]> vmEnergy = new HashMap<>();
+
+    /**
+     * Creates a new MeteredPowerHost
+     *
+     * @param id host ID
+     * @param ramProvisioner RAM provisioner
+     * @param bwProvisioner bandwidth provisioner
+     * @param storage storage capacity
+     * @param peList processing elements
+     * @param vmScheduler VM scheduler
+     * @param powerModel power drawn as a function of CPU utilization, in W
+     */
+    public MeteredPowerHost(int id, RamProvisioner ramProvisioner, BwProvisioner bwProvisioner, long storage,
+                            List<? extends Pe> peList, VmScheduler vmScheduler, PowerModel powerModel) {
+        super(id, ramProvisioner, bwProvisioner, storage, peList, vmScheduler, powerModel);
+    }
+
+    /**
+     * Meters the interval since the previous update, then advances the VMs as
+     * {@link org.cloudbus.cloudsim.Host#updateVmsProcessing(double)} does
+     */
+    @Override
+    public double updateVmsProcessing(double currentTime) {
+        meter(currentTime);
+        double smallerTime = Double.MAX_VALUE;
+        for (Vm vm : getVmList()) {
+            double time = vm.updateVmProcessing(currentTime, getVmScheduler().getAllocatedMipsForVm(vm));
+            if (time > 0.0 && time < smallerTime) {
+                smallerTime = time;
+            }
+        }
+        return smallerTime;
+    }
+
+    @Override
+    public boolean vmCreate(Vm vm) {
+        // The host was off or running fewer VMs until now
+        meter(CloudSim.clock());
+        return super.vmCreate(vm);
+    }
+
+    @Override
+    public void vmDestroy(Vm vm) {
+        meter(CloudSim.clock());
+        super.vmDestroy(vm);
+    }
+
+    @Override
+    public void vmDestroyAll() {
+        meter(CloudSim.clock());
+        super.vmDestroyAll();
+    }
+
+    /**
+     * Adds the energy consumed from the previous meter reading until time, at the
+     * utilization of the cloudlets executing in that interval
+     *
+     * @param time the current simulation time; earlier times are ignored
+     */
+    public void meter(double time) {
+        if (time <= lastMeterTime) {
+            return;
+        }
+        double previousTime = lastMeterTime;
+        lastMeterTime = time;
+        if (getVmList().isEmpty()) {
+            setUtilizationMips(0);
+            return;
+        }
+
+        List<Vm> vms = getVmList();
+        double[] vmMips = new double[vms.size()];
+        double utilizationMips = 0;
+        for (int i = 0; i < vmMips.length; i++) {
+            Vm vm = vms.get(i);
+            double vmUtilization = vm.getCloudletScheduler().getTotalUtilizationOfCpu(previousTime);
+            if (vmUtilization > 0) {
+                vmMips[i] = Math.min(1, vmUtilization) * getVmScheduler().getTotalAllocatedMipsForVm(vm);
+                utilizationMips += vmMips[i];
+            }
+        }
+        setPreviousUtilizationMips(getUtilizationMips());
+        setUtilizationMips(utilizationMips);
+        double intervalEnergy = getPower(Math.min(1, getUtilizationOfCpu())) * (time - previousTime) / 1000.0;
+        energy += intervalEnergy;
+        if (utilizationMips > 0) {
+            for (int i = 0; i < vmMips.length; i++) {
+                if (vmMips[i] > 0) {
+                    vmEnergy.computeIfAbsent(vms.get(i).getId(), id -> new double[1])[0]
+                            += intervalEnergy * vmMips[i] / utilizationMips;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return simulation time of the last meter reading
+     */
+    public double getLastMeterTime() {
+        return lastMeterTime;
+    }
+
+    /**
+     * @return energy consumed up to the last meter reading, in J
+     */
+    public double getEnergy() {
+        return energy;
+    }
+
+    /**
+     * @param vmId ID of a VM of this host
+     * @return share of the energy up to the last meter reading assigned to the VM, in J
+     */
+    public double getVmEnergy(int vmId) {
+        double[] assigned = vmEnergy.get(vmId);
+        return assigned == null ? 0 : assigned[0];
+    }
+}
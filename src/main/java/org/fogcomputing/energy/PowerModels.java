@@ -0,0 +1,158 @@
+package org.fogcomputing.energy;
+
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPower;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G3PentiumD930;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G4Xeon3040;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3250XeonX3470;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3250XeonX3480;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5670;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5675;
+
+/**
+ * Host power models, as a function of CPU utilization in [0, 1], in W.
+ *
+ * The curve models draw idle power at zero utilization, unlike CloudSim's
+ * PowerModelLinear and PowerModelCubic, which return 0 and so would hide the
+ * idle power of a host whose VMs have nothing to do. Hosts without VMs are
+ * switched off by {@link MeteredPowerHost} instead.
+ */
+public final class PowerModels {
+
+    private PowerModels() {
+    }
+
+    /**
+     * @return power rising linearly from idle to max
+     */
+    public static PowerModel linear(double idle, double max) {
+        return curve(idle, max, 1);
+    }
+
+    /**
+     * @return power rising with the cube of the utilization, e.g. for DVFS processors
+     */
+    public static PowerModel cubic(double idle, double max) {
+        return curve(idle, max, 3);
+    }
+
+    /**
+     * @return power rising with the square of the utilization
+     */
+    public static PowerModel square(double idle, double max) {
+        return curve(idle, max, 2);
+    }
+
+    /**
+     * @return power rising with the square root of the utilization
+     */
+    public static PowerModel sqrt(double idle, double max) {
+        return curve(idle, max, 0.5);
+    }
+
+    private static PowerModel curve(double idle, double max, double exponent) {
+        if (idle < 0 || max < idle) {
+            throw new IllegalArgumentException("Power must satisfy 0 <= idle <= max: " + idle + ", " + max);
+        }
+        double range = max - idle;
+        return utilization -> idle + range * Math.pow(checkUtilization(utilization), exponent);
+    }
+
+    /**
+     * Power measured at 0%, 10%, .. 100% utilization, as published by SPECpower_ssj2008,
+     * interpolated linearly in between
+     *
+     * @param watts the 11 measurements
+     * @return the power model
+     */
+    public static PowerModel table(double... watts) {
+        if (watts.length != 11) {
+            throw new IllegalArgumentException("A power table needs 11 values (0% to 100%), got " + watts.length);
+        }
+        final double[] power = watts.clone();
+        return new PowerModelSpecPower() {
+            @Override
+            protected double getPowerData(int index) {
+                return power[index];
+            }
+        };
+    }
+
+    /**
+     * @param name one of the SPECpower machines that come with CloudSim, e.g. IbmX3550XeonX5670
+     * @return the power model of the machine
+     */
+    public static PowerModel spec(String name) {
+        switch (name) {
+            case "HpProLiantMl110G3PentiumD930":
+                return new PowerModelSpecPowerHpProLiantMl110G3PentiumD930();
+            case "HpProLiantMl110G4Xeon3040":
+                return new PowerModelSpecPowerHpProLiantMl110G4Xeon3040();
+            case "HpProLiantMl110G5Xeon3075":
+                return new PowerModelSpecPowerHpProLiantMl110G5Xeon3075();
+            case "IbmX3250XeonX3470":
+                return new PowerModelSpecPowerIbmX3250XeonX3470();
+            case "IbmX3250XeonX3480":
+                return new PowerModelSpecPowerIbmX3250XeonX3480();
+            case "IbmX3550XeonX5670":
+                return new PowerModelSpecPowerIbmX3550XeonX5670();
+            case "IbmX3550XeonX5675":
+                return new PowerModelSpecPowerIbmX3550XeonX5675();
+            default:
+                throw new IllegalArgumentException("Unknown SPECpower machine: " + name);
+        }
+    }
+
+    /**
+     * Parses a power model from a command line specification:
+     *   linear:IDLE:MAX, square:IDLE:MAX, cubic:IDLE:MAX, sqrt:IDLE:MAX (W),
+     *   spec:MACHINE (see {@link #spec(String)}) or table:P0,P10,..,P100 (W)
+     *
+     * @param spec the specification
+     * @return the power model
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public static PowerModel parse(String spec) {
+        String[] parts = spec.split(":");
+        String kind = parts[0].trim().toLowerCase();
+        try {
+            switch (kind) {
+                case "linear":
+                case "square":
+                case "cubic":
+                case "sqrt":
+                    if (parts.length != 3) {
+                        throw new IllegalArgumentException("Expected IDLE:MAX in power model " + spec);
+                    }
+                    double idle = Double.parseDouble(parts[1]);
+                    double max = Double.parseDouble(parts[2]);
+                    return kind.equals("linear") ? linear(idle, max) : kind.equals("square") ? square(idle, max)
+                            : kind.equals("cubic") ? cubic(idle, max) : sqrt(idle, max);
+                case "spec":
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Expected a machine name in power model " + spec);
+                    }
+                    return spec(parts[1]);
+                case "table":
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Expected 11 comma-separated values in power model " + spec);
+                    }
+                    return table(Arrays.stream(parts[1].split(",")).mapToDouble(Double::parseDouble).toArray());
+                default:
+                    throw new IllegalArgumentException("Unknown power model '" + parts[0] + "' in " + spec);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in power model " + spec, e);
+        }
+    }
+
+    private static double checkUtilization(double utilization) {
+        if (utilization < 0 || utilization > 1) {
+            throw new IllegalArgumentException("Utilization value must be between 0 and 1");
+        }
+        return utilization;
+    }
+}
@@ -0,0 +1,58 @@
+package org.fogcomputing.energy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Assigns the energy a {@link MeteredPowerHost} measured for each VM to the
+ * tasks that ran on it.
+ *
+ * The meter is told when a cloudlet is sent to its VM and when it returns. The
+ * energy of the VM that no returned task has taken yet is shared among the tasks
+ * in flight on it in proportion to their length: a returning task takes its
+ * length over the length of all of them, including itself. The last task in
+ * flight takes the rest, so the tasks of a VM together take all of its energy,
+ * and the host energy they do not take is that of intervals in which the host
+ * was on but none of its VMs was busy.
+ */
+public class TaskEnergyMeter {
+
+    // Per VM ID: length of the cloudlets in flight (MI) and energy taken by returned ones (J)
+    private static final int IN_FLIGHT = 0;
+    private static final int TAKEN = 1;
+    private final Map<Integer, double[]> vms = new HashMap<>();
+
+    /**
+     * @param cloudlet a cloudlet sent to its VM
+     */
+    public void cloudletSubmitted(Cloudlet cloudlet) {
+        vms.computeIfAbsent(cloudlet.getVmId(), id -> new double[2])[IN_FLIGHT] += cloudlet.getCloudletTotalLength();
+    }
+
+    /**
+     * @param cloudlet a returned cloudlet that was passed to {@link #cloudletSubmitted}
+     * @param vm the VM it ran on
+     * @return energy of the task in J, or NaN if its host is not metered
+     */
+    public double cloudletReturned(Cloudlet cloudlet, Vm vm) {
+        double[] state = vms.get(cloudlet.getVmId());
+        if (state == null) {
+            return Double.NaN;
+        }
+        double length = cloudlet.getCloudletTotalLength();
+        double inFlight = state[IN_FLIGHT];
+        state[IN_FLIGHT] = Math.max(0, inFlight - length);
+        Host host = vm == null ? null : vm.getHost();
+        if (!(host instanceof MeteredPowerHost)) {
+            return Double.NaN;
+        }
+        double unclaimed = ((MeteredPowerHost) host).getVmEnergy(vm.getId()) - state[TAKEN];
+        double energy = inFlight <= length ? unclaimed : unclaimed * length / inFlight;
+        state[TAKEN] += energy;
+        return energy;
+    }
+}
@@ -0,0 +1,167 @@
+package org.fogcomputing.logging;
+
+/**
+ * Writes log lines to System.out on a background thread.
+ *
+ * Producers copy a finished message into a fixed-size ring buffer and return;
+ * the writer thread takes all pending lines at once and prints them with a
+ * single call, so the simulation thread never waits for the console. When the
+ * ring is full, producers wait for the writer instead of dropping lines.
+ */
+final class AsyncLogWriter {
+
+    private final String[] ring;
+    private final int mask;
+    private final Object lock = new Object();
+
+    // Sequence numbers: next line to take, next free position, lines printed so far
+    private long head;
+    private long tail;
+    private long written;
+
+    private final StringBuilder batch = new StringBuilder(8192);
+    private final Thread writerThread;
+    private final Thread flushHook;
+    // Guarded by lock
+    private boolean closed;
+
+    /**
+     * Creates a new AsyncLogWriter and starts its writer thread
+     * @param capacity ring size, rounded up to a power of two
+     */
+    AsyncLogWriter(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.ring = new String[size];
+        this.mask = size - 1;
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+
+        // Print whatever is still queued when the JVM exits normally
+        this.flushHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, "log-flush");
+        Runtime.getRuntime().addShutdownHook(flushHook);
+    }
+
+    /**
+     * Queues a line, waiting if the ring is full. Once the writer is closed the
+     * line is printed directly, after the lines queued before.
+     */
+    void publish(String line) {
+        synchronized (lock) {
+            while (!closed && tail - head == ring.length) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    // Do not lose the line, print it directly
+                    System.out.println(line);
+                    return;
+                }
+            }
+            if (!closed) {
+                ring[(int) (tail & mask)] = line;
+                tail++;
+                if (tail - head == 1) {
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+        flush();
+        System.out.println(line);
+    }
+
+    /**
+     * Waits until every line queued so far has been printed
+     */
+    void flush() {
+        if (Thread.currentThread() == writerThread) {
+            return;
+        }
+        synchronized (lock) {
+            long target = tail;
+            while (written < target && writerThread.isAlive()) {
+                try {
+                    lock.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        System.out.flush();
+    }
+
+    /**
+     * Prints the queued lines and stops the writer thread
+     */
+    void close() {
+        // Set under the lock so that no line is queued after the final flush
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Producers waiting on a full ring print their lines directly
+            lock.notifyAll();
+        }
+        flush();
+        writerThread.interrupt();
+        try {
+            Runtime.getRuntime().removeShutdownHook(flushHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down
+        }
+    }
+
+    /**
+     * Writer thread loop
+     */
+    private void drain() {
+        String[] pending = new String[ring.length];
+        while (true) {
+            int taken = 0;
+            synchronized (lock) {
+                while (head == tail) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                while (head != tail) {
+                    int slot = (int) (head & mask);
+                    pending[taken++] = ring[slot];
+                    ring[slot] = null;
+                    head++;
+                }
+                // Free space for producers waiting on a full ring
+                lock.notifyAll();
+            }
+
+            // Build and print the batch outside the lock
+            batch.setLength(0);
+            for (int i = 0; i < taken; i++) {
+                batch.append(pending[i]).append(System.lineSeparator());
+                pending[i] = null;
+            }
+            System.out.print(batch);
+            System.out.flush();
+
+            synchronized (lock) {
+                written += taken;
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.fogcomputing.logging;
+
+import java.util.function.Supplier;
+
+/**
+ * Leveled diagnostics logging for simulation hot paths.
+ *
+ * Messages are passed as suppliers, so a disabled level costs one comparison and
+ * no string building. Enabled messages are printed on a background thread (see
+ * {@link AsyncLogWriter}), so console output does not slow down the simulation.
+ *
+ * The level is set with -Dsim.log.level=TRACE|DEBUG|INFO|WARN|ERROR|OFF (default INFO).
+ * Per-task and per-VM diagnostics are logged at DEBUG. Use -Dsim.log.async=false
+ * to print directly on the calling thread, e.g. when debugging a crash.
+ *
+ * Lines are printed in the order they were logged, but may appear after output
+ * that was printed directly with System.out in the meantime; call {@link #flush()}
+ * before printing results.
+ */
+public final class SimLog {
+
+    /**
+     * Log levels, from most to least verbose
+     */
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    /** System property with the minimum level that is printed */
+    public static final String LEVEL_PROPERTY = "sim.log.level";
+
+    /** System property that turns the background writer off when set to false */
+    public static final String ASYNC_PROPERTY = "sim.log.async";
+
+    private static final int RING_CAPACITY = 8192;
+
+    private static volatile Level level = parseLevel(System.getProperty(LEVEL_PROPERTY, "INFO"));
+
+    private static final AsyncLogWriter WRITER =
+            Boolean.parseBoolean(System.getProperty(ASYNC_PROPERTY, "true")) ? new AsyncLogWriter(RING_CAPACITY) : null;
+
+    private SimLog() {
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log level '" + name + "', using INFO");
+            return Level.INFO;
+        }
+    }
+
+    /**
+     * @return the minimum level that is printed
+     */
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the minimum level that is printed
+     * @param newLevel the level
+     */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * @param messageLevel level of a message
+     * @return true if messages of that level are printed
+     */
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel != Level.OFF && messageLevel.ordinal() >= level.ordinal();
+    }
+
+    /**
+     * Logs a message if its level is enabled
+     * @param messageLevel the message level
+     * @param message builds the message; only called if the level is enabled
+     */
+    public static void log(Level messageLevel, Supplier<String> message) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        String line = message.get();
+        if (WRITER != null) {
+            WRITER.publish(line);
+        } else {
+            System.out.println(line);
+        }
+    }
+
+    public static void trace(Supplier<String> message) {
+        log(Level.TRACE, message);
+    }
+
+    public static void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public static void warn(Supplier<String> message) {
+        log(Level.WARN, message);
+    }
+
+    public static void error(Supplier<String> message) {
+        log(Level.ERROR, message);
+    }
+
+    /**
+     * Waits until all queued messages have been printed
+     */
+    public static void flush() {
+        if (WRITER != null) {
+            WRITER.flush();
+        }
+    }
+
+    /**
+     * Prints the queued messages and stops the background writer; later messages
+     * are printed directly. Used when the simulation runs in a class loader that is
+     * discarded afterwards, so the writer thread does not keep it alive.
+     */
+    public static void shutdown() {
+        if (WRITER != null) {
+            WRITER.close();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.fogcomputing.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. of decisions or events.
+ *
+ * Backed by a LongAdder, so concurrent increments do not contend on one cache line.
+ */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Adds one
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * @param n amount to add
+     */
+    public void add(long n) {
+        count.add(n);
+    }
+
+    /**
+     * @return the current count
+     */
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,35 @@
+package org.fogcomputing.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value that goes up and down, e.g. the number of cloudlets in flight.
+ *
+ * Either set explicitly or read from a callback when a snapshot is taken.
+ */
+public final class Gauge {
+
+    private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final DoubleSupplier supplier;
+
+    Gauge(DoubleSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Sets the value; ignored by gauges that read a callback
+     *
+     * @param value the new value
+     */
+    public void set(double value) {
+        bits.set(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * @return the current value
+     */
+    public double get() {
+        return supplier != null ? supplier.getAsDouble() : Double.longBitsToDouble(bits.get());
+    }
+}
@@ -0,0 +1,128 @@
+package org.fogcomputing.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of non-negative values, e.g. latencies, in log-scaled buckets.
+ *
+ * As in HdrHistogram, every power of two is split into {@value #SUB_BUCKETS}
+ * linear sub-buckets, so a bucket is at most 1/{@value #SUB_BUCKETS} of its
+ * values wide and quantiles are accurate to about 3% over the whole range of a
+ * long, in a fixed {@value #BUCKETS} counters. Recording is one array increment
+ * and no allocation, and is safe from any thread.
+ *
+ * Values are recorded as multiples of a resolution, e.g. 1 for nanoseconds or
+ * 0.001 for simulation times in ms with microsecond precision.
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 5;
+
+    /** Linear sub-buckets per power of two */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Number of buckets, enough for every non-negative long */
+    public static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final String unit;
+    private final double resolution;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Creates a histogram outside a registry, e.g. for a result summary
+     *
+     * @param unit unit of the recorded values, for reports
+     * @param resolution smallest distinguishable value, in that unit
+     */
+    public Histogram(String unit, double resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Histogram resolution must be > 0");
+        }
+        this.unit = unit;
+        this.resolution = resolution;
+    }
+
+    /**
+     * Records a value in units of the resolution; negative values are recorded as 0
+     *
+     * @param units the value divided by the resolution
+     */
+    public void record(long units) {
+        long v = Math.max(0, units);
+        counts.incrementAndGet(bucket(v));
+        sum.add(v);
+        if (v < min.get()) {
+            min.accumulateAndGet(v, Math::min);
+        }
+        if (v > max.get()) {
+            max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    /**
+     * Records a value, rounded to the resolution
+     *
+     * @param value the value in the histogram's unit
+     */
+    public void recordValue(double value) {
+        record(Math.round(value / resolution));
+    }
+
+    /**
+     * @return a consistent-enough copy of the current counts; values recorded
+     * while the copy is taken may or may not be included
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new HistogramSnapshot(unit, resolution, copy, count, sum.sum(), min.get(), max.get());
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @param v a non-negative value
+     * @return index of the bucket that holds v
+     */
+    static int bucket(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((v >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @return smallest value of a bucket
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * @return number of values in a bucket
+     */
+    static long width(int bucket) {
+        return bucket < SUB_BUCKETS ? 1 : 1L << (bucket / SUB_BUCKETS - 1);
+    }
+}
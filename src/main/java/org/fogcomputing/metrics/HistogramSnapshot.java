@@ -0,0 +1,97 @@
+package org.fogcomputing.metrics;
+
+/**
+ * Immutable copy of a {@link Histogram} at one point in time.
+ *
+ * Quantiles are estimated from the bucket counts: the bucket that holds the
+ * requested rank is found by a cumulative scan and its midpoint returned, or its
+ * upper bound from {@value #TAIL_QUANTILE} on, so tail latencies are never
+ * under-reported. The estimate is clamped to the recorded minimum and maximum.
+ * All values are in the histogram's unit.
+ */
+public final class HistogramSnapshot {
+
+    /** Quantile from which the upper bound of a bucket is reported instead of its midpoint */
+    public static final double TAIL_QUANTILE = 0.99;
+
+    private final String unit;
+    private final double resolution;
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    HistogramSnapshot(String unit, double resolution, long[] counts, long count, long sum, long min, long max) {
+        this.unit = unit;
+        this.resolution = resolution;
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return sum of the recorded values
+     */
+    public double getSum() {
+        return sum * resolution;
+    }
+
+    /**
+     * @return mean of the recorded values, or 0 if there are none
+     */
+    public double getMean() {
+        return count > 0 ? sum * resolution / count : 0;
+    }
+
+    /**
+     * @return smallest recorded value, or 0 if there are none
+     */
+    public double getMin() {
+        return count > 0 ? min * resolution : 0;
+    }
+
+    /**
+     * @return largest recorded value, or 0 if there are none
+     */
+    public double getMax() {
+        return count > 0 ? max * resolution : 0;
+    }
+
+    /**
+     * @param q the quantile, in [0, 1]
+     * @return estimate of the value below which a fraction q of the values lie, or 0 if there are none
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long last = Histogram.width(i) - 1;
+                double estimate = Histogram.lowerBound(i) + (q >= TAIL_QUANTILE ? last : last / 2.0);
+                return Math.min(max, Math.max(min, estimate)) * resolution;
+            }
+        }
+        return max * resolution;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+}
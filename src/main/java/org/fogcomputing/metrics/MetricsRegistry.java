@@ -0,0 +1,107 @@
+package org.fogcomputing.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Named counters, gauges and histograms of one simulation run.
+ *
+ * Metrics are created on first lookup and shared by name afterwards, so
+ * instrumented classes look them up once, keep the reference, and pay only an
+ * increment or a bucket update on their hot path. Snapshots copy every metric
+ * without stopping the writers.
+ *
+ * Components that are created deep inside the simulation setup use the
+ * {@link #getDefault() default registry}, which the simulation replaces at
+ * the start of each run.
+ */
+public class MetricsRegistry {
+
+    private static volatile MetricsRegistry defaultRegistry = new MetricsRegistry();
+
+    private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * @return the registry of the current run
+     */
+    public static MetricsRegistry getDefault() {
+        return defaultRegistry;
+    }
+
+    /**
+     * @param registry the registry of the next run
+     */
+    public static void setDefault(MetricsRegistry registry) {
+        defaultRegistry = registry;
+    }
+
+    /**
+     * @return the counter of that name, created if needed
+     */
+    public Counter counter(String name) {
+        return lookup(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * @return the gauge of that name that reads a callback, created if needed
+     */
+    public Gauge gauge(String name, DoubleSupplier supplier) {
+        return lookup(name, Gauge.class, () -> new Gauge(supplier));
+    }
+
+    /**
+     * @return the settable gauge of that name, created if needed
+     */
+    public Gauge gauge(String name) {
+        return lookup(name, Gauge.class, () -> new Gauge(null));
+    }
+
+    /**
+     * @return the histogram of that name recording whole units, created if needed
+     */
+    public Histogram histogram(String name, String unit) {
+        return histogram(name, unit, 1);
+    }
+
+    /**
+     * @param resolution smallest distinguishable value, in the given unit
+     * @return the histogram of that name, created if needed
+     */
+    public Histogram histogram(String name, String unit, double resolution) {
+        return lookup(name, Histogram.class, () -> new Histogram(unit, resolution));
+    }
+
+    /**
+     * Copies every metric
+     *
+     * @param time simulation time the snapshot is taken at
+     */
+    public MetricsSnapshot snapshot(double time) {
+        Map<String, Long> counters = new TreeMap<>();
+        Map<String, Double> gauges = new TreeMap<>();
+        Map<String, HistogramSnapshot> histograms = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            Object metric = entry.getValue();
+            if (metric instanceof Counter) {
+                counters.put(entry.getKey(), ((Counter) metric).get());
+            } else if (metric instanceof Gauge) {
+                gauges.put(entry.getKey(), ((Gauge) metric).get());
+            } else {
+                histograms.put(entry.getKey(), ((Histogram) metric).snapshot());
+            }
+        }
+        return new MetricsSnapshot(time, counters, gauges, histograms);
+    }
+
+    private <T> T lookup(String name, Class<T> type, Supplier<T> factory) {
+        Object metric = metrics.computeIfAbsent(name, k -> factory.get());
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is a "
+                    + metric.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,97 @@
+package org.fogcomputing.metrics;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Values of every metric of a registry at one simulation time.
+ *
+ * Written as CSV with one row per metric, so that the snapshots of a run can be
+ * appended to one file and plotted over time.
+ */
+public final class MetricsSnapshot {
+
+    /** Header of the CSV written by {@link #writeCsv(PrintWriter)} */
+    public static final String CSV_HEADER = "time,name,type,count,value,min,mean,p50,p90,p99,p999,max,unit";
+
+    private final double time;
+    private final Map<String, Long> counters;
+    private final Map<String, Double> gauges;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    MetricsSnapshot(double time, Map<String, Long> counters, Map<String, Double> gauges,
+                    Map<String, HistogramSnapshot> histograms) {
+        this.time = time;
+        this.counters = counters;
+        this.gauges = gauges;
+        this.histograms = histograms;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return counter values by name, sorted
+     */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * @return gauge values by name, sorted
+     */
+    public Map<String, Double> getGauges() {
+        return gauges;
+    }
+
+    /**
+     * @return histogram snapshots by name, sorted
+     */
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Writes one row per metric, without the header
+     */
+    public void writeCsv(PrintWriter writer) {
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            writer.println(String.format(Locale.ROOT, "%.3f,%s,counter,%d,%d,,,,,,,,",
+                    time, e.getKey(), e.getValue(), e.getValue()));
+        }
+        for (Map.Entry<String, Double> e : gauges.entrySet()) {
+            writer.println(String.format(Locale.ROOT, "%.3f,%s,gauge,,%.6f,,,,,,,,",
+                    time, e.getKey(), e.getValue()));
+        }
+        for (Map.Entry<String, HistogramSnapshot> e : histograms.entrySet()) {
+            HistogramSnapshot h = e.getValue();
+            writer.println(String.format(Locale.ROOT,
+                    "%.3f,%s,histogram,%d,%.6f,%.6f,%.6f,%.6f,%.6f,%.6f,%.6f,%.6f,%s",
+                    time, e.getKey(), h.getCount(), h.getSum(), h.getMin(), h.getMean(),
+                    h.quantile(0.5), h.quantile(0.9), h.quantile(0.99), h.quantile(0.999),
+                    h.getMax(), h.getUnit()));
+        }
+    }
+
+    /**
+     * Prints the metrics as a readable table
+     */
+    public void print(PrintStream out) {
+        out.println("\n========== METRICS ==========");
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            out.println(String.format(Locale.ROOT, "%-40s %12d", e.getKey(), e.getValue()));
+        }
+        for (Map.Entry<String, Double> e : gauges.entrySet()) {
+            out.println(String.format(Locale.ROOT, "%-40s %12.2f", e.getKey(), e.getValue()));
+        }
+        for (Map.Entry<String, HistogramSnapshot> e : histograms.entrySet()) {
+            HistogramSnapshot h = e.getValue();
+            out.println(String.format(Locale.ROOT, "%-40s n=%d mean=%.2f p50=%.2f p99=%.2f max=%.2f %s",
+                    e.getKey(), h.getCount(), h.getMean(), h.quantile(0.5), h.quantile(0.99),
+                    h.getMax(), h.getUnit()));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.fogcomputing.results;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Moves the work of another sink to a background writer thread.
+ *
+ * Records are handed over through a bounded queue: the simulation thread only
+ * enqueues, and blocks when the writer falls {@code capacity} records behind, so
+ * memory use stays constant no matter how many cloudlets complete.
+ * Write errors are reported by the next {@link #write(CloudletRecord)} or by {@link #close()}.
+ */
+public class AsyncResultSink implements ResultSink {
+
+    /** Default number of records that may wait for the writer thread */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    // Maximum number of records the writer takes from the queue at once
+    private static final int BATCH_SIZE = 1024;
+
+    // Marks the end of the record stream
+    private static final CloudletRecord END = new CloudletRecord(-1, false, -1, "", 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final ResultSink delegate;
+    private final BlockingQueue<CloudletRecord> queue;
+    private final Thread writerThread;
+
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Creates a new AsyncResultSink with the default queue capacity
+     * @param delegate the sink that does the actual writing
+     */
+    public AsyncResultSink(ResultSink delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new AsyncResultSink and starts its writer thread
+     * @param delegate the sink that does the actual writing
+     * @param capacity number of records that may wait for the writer thread
+     */
+    public AsyncResultSink(ResultSink delegate, int capacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<CloudletRecord>(capacity);
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "result-writer");
+        // Do not keep the JVM alive if the simulation fails before closing the sink
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void write(CloudletRecord record) throws IOException {
+        if (closed) {
+            throw new IOException("Result sink is closed");
+        }
+        checkFailure();
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing result of cloudlet #"
+                    + record.getCloudletId());
+        }
+    }
+
+    @Override
+    public File getFile() {
+        return delegate.getFile();
+    }
+
+    /**
+     * Waits until all queued records are written and closes the underlying sink
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing results to " + getFile());
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("Writing results to " + getFile() + " failed", e);
+        }
+    }
+
+    /**
+     * Writer thread loop: writes records in batches until the end marker arrives
+     */
+    private void drain() {
+        List<CloudletRecord> batch = new ArrayList<CloudletRecord>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (CloudletRecord record : batch) {
+                    if (record == END) {
+                        closeDelegate();
+                        return;
+                    }
+                    if (failure == null) {
+                        write(delegate, record);
+                    }
+                    // After a failure keep consuming so the producer never blocks on a full queue
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Result writer thread interrupted");
+            closeDelegate();
+        }
+    }
+
+    private void write(ResultSink sink, CloudletRecord record) {
+        try {
+            sink.write(record);
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            // Record it like a write error, a dead writer thread would block the producer forever
+            failure = new IOException("Result of cloudlet #" + record.getCloudletId() + " could not be written", e);
+        }
+    }
+
+    private void closeDelegate() {
+        try {
+            delegate.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                failure = new IOException("Closing " + getFile() + " failed", e);
+            }
+        }
+    }
+}
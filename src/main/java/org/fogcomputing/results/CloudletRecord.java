@@ -0,0 +1,109 @@
+package org.fogcomputing.results;
+
+/**
+ * Result of one completed cloudlet, as written to a {@link ResultSink}.
+ * Holds only primitives and shared strings, so a record does not keep the Cloudlet alive.
+ */
+public final class CloudletRecord {
+
+    private final int cloudletId;
+    private final boolean success;
+    private final int vmId;
+    private final String tier;
+    private final long length;
+    private final long fileSize;
+    private final long outputSize;
+    private final double submissionTime;
+    private final double execStartTime;
+    private final double finishTime;
+    private final double executionTime;
+    private final double transmissionTime;
+    private final double energy;
+    private final double cost;
+
+    public CloudletRecord(int cloudletId, boolean success, int vmId, String tier,
+                          long length, long fileSize, long outputSize,
+                          double submissionTime, double execStartTime, double finishTime,
+                          double executionTime, double transmissionTime, double energy, double cost) {
+        this.cloudletId = cloudletId;
+        this.success = success;
+        this.vmId = vmId;
+        this.tier = tier;
+        this.length = length;
+        this.fileSize = fileSize;
+        this.outputSize = outputSize;
+        this.submissionTime = submissionTime;
+        this.execStartTime = execStartTime;
+        this.finishTime = finishTime;
+        this.executionTime = executionTime;
+        this.transmissionTime = transmissionTime;
+        this.energy = energy;
+        this.cost = cost;
+    }
+
+    public int getCloudletId() {
+        return cloudletId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return "SUCCESS" or "FAILED"
+     */
+    public String getStatus() {
+        return success ? "SUCCESS" : "FAILED";
+    }
+
+    public int getVmId() {
+        return vmId;
+    }
+
+    /**
+     * @return display name of the tier the cloudlet ran on
+     */
+    public String getTier() {
+        return tier;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    public double getSubmissionTime() {
+        return submissionTime;
+    }
+
+    public double getExecStartTime() {
+        return execStartTime;
+    }
+
+    public double getFinishTime() {
+        return finishTime;
+    }
+
+    public double getExecutionTime() {
+        return executionTime;
+    }
+
+    public double getTransmissionTime() {
+        return transmissionTime;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+}
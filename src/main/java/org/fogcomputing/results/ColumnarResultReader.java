@@ -0,0 +1,270 @@
+package org.fogcomputing.results;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+import org.fogcomputing.TierRegistry;
+
+/**
+ * Reads a file written by {@link ColumnarResultSink}.
+ *
+ * Opening the file only reads the block headers. Each block is memory-mapped on
+ * request and its columns are exposed as typed buffers, so scanning a column
+ * never parses text or materializes row objects. Mapping per block keeps each
+ * mapping well below the 2 GB limit of a single MappedByteBuffer.
+ *
+ * Usage: java org.fogcomputing.results.ColumnarResultReader FILE
+ * prints a per-tier summary of the file.
+ */
+public class ColumnarResultReader implements Closeable {
+
+    private static final TierRegistry.Tier[] TIERS = TierRegistry.Tier.values();
+
+    private final File file;
+    private final FileChannel channel;
+    private final long[] blockOffsets;
+    private final int[] blockRows;
+    private final long rowCount;
+
+    /**
+     * Opens a columnar result file and reads its block headers
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be read or is not a columnar result file
+     */
+    public ColumnarResultReader(File file) throws IOException {
+        this.file = file;
+        this.channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(ColumnarResultSink.FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt(0) != ColumnarResultSink.MAGIC) {
+                throw new IOException(file + " is not a columnar result file");
+            }
+            if (header.getInt(4) != ColumnarResultSink.VERSION) {
+                throw new IOException("Unsupported columnar result version " + header.getInt(4) + " in " + file);
+            }
+
+            // Walk the block headers; every block except the last is full, so this is a short loop
+            int capacity = Math.max(1, header.getInt(8));
+            int expectedBlocks = (int) Math.min(Integer.MAX_VALUE - 8,
+                    size / Math.max(1, ColumnarResultSink.blockBytes(capacity)) + 1);
+            long[] offsets = new long[expectedBlocks];
+            int[] rows = new int[expectedBlocks];
+            int blocks = 0;
+            long total = 0;
+            long offset = ColumnarResultSink.FILE_HEADER_BYTES;
+            ByteBuffer blockHeader = ByteBuffer.allocate(ColumnarResultSink.BLOCK_HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            while (offset < size) {
+                readFully(blockHeader, offset);
+                int n = blockHeader.getInt(0);
+                long bytes = ColumnarResultSink.blockBytes(n);
+                if (n <= 0 || offset + bytes > size) {
+                    throw new IOException("Truncated or corrupt block at offset " + offset + " in " + file);
+                }
+                if (blocks == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, blocks * 2);
+                    rows = Arrays.copyOf(rows, blocks * 2);
+                }
+                offsets[blocks] = offset;
+                rows[blocks] = n;
+                blocks++;
+                total += n;
+                offset += bytes;
+            }
+            this.blockOffsets = Arrays.copyOf(offsets, blocks);
+            this.blockRows = Arrays.copyOf(rows, blocks);
+            this.rowCount = total;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+    }
+
+    /**
+     * @return total number of rows in the file
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return number of blocks in the file
+     */
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Memory-maps a block
+     *
+     * @param index block index, 0 .. getBlockCount()-1
+     * @return the block's columns
+     * @throws IOException if the block cannot be mapped
+     */
+    public Block block(int index) throws IOException {
+        int n = blockRows[index];
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                blockOffsets[index], ColumnarResultSink.blockBytes(n));
+        return new Block(mapped, n);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The columns of one block, as views on the mapped file
+     */
+    public static final class Block {
+
+        private final int rows;
+        private final LongBuffer length;
+        private final LongBuffer fileSize;
+        private final LongBuffer outputSize;
+        private final DoubleBuffer start;
+        private final DoubleBuffer finish;
+        private final DoubleBuffer energy;
+        private final IntBuffer cloudletId;
+        private final IntBuffer vmId;
+        private final ByteBuffer tier;
+
+        Block(ByteBuffer data, int rows) {
+            this.rows = rows;
+            int offset = ColumnarResultSink.BLOCK_HEADER_BYTES;
+            length = column(data, offset, rows * 8).asLongBuffer();
+            offset += rows * 8;
+            fileSize = column(data, offset, rows * 8).asLongBuffer();
+            offset += rows * 8;
+            outputSize = column(data, offset, rows * 8).asLongBuffer();
+            offset += rows * 8;
+            start = column(data, offset, rows * 8).asDoubleBuffer();
+            offset += rows * 8;
+            finish = column(data, offset, rows * 8).asDoubleBuffer();
+            offset += rows * 8;
+            energy = column(data, offset, rows * 8).asDoubleBuffer();
+            offset += rows * 8;
+            cloudletId = column(data, offset, rows * 4).asIntBuffer();
+            offset += rows * 4;
+            vmId = column(data, offset, rows * 4).asIntBuffer();
+            offset += rows * 4;
+            tier = column(data, offset, rows);
+        }
+
+        private static ByteBuffer column(ByteBuffer data, int offset, int bytes) {
+            ByteBuffer view = data.duplicate();
+            view.position(offset);
+            view.limit(offset + bytes);
+            return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int cloudletId(int row) {
+            return cloudletId.get(row);
+        }
+
+        public int vmId(int row) {
+            return vmId.get(row);
+        }
+
+        /**
+         * @param row row index within the block
+         * @return the tier, or null if the writer did not know it
+         */
+        public TierRegistry.Tier tier(int row) {
+            int ordinal = tier.get(row);
+            return ordinal < 0 || ordinal >= TIERS.length ? null : TIERS[ordinal];
+        }
+
+        public long length(int row) {
+            return length.get(row);
+        }
+
+        public long fileSize(int row) {
+            return fileSize.get(row);
+        }
+
+        public long outputSize(int row) {
+            return outputSize.get(row);
+        }
+
+        public double start(int row) {
+            return start.get(row);
+        }
+
+        public double finish(int row) {
+            return finish.get(row);
+        }
+
+        public double energy(int row) {
+            return energy.get(row);
+        }
+    }
+
+    /**
+     * Prints the number of tasks, total MI and energy per tier of a result file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java " + ColumnarResultReader.class.getName() + " FILE");
+            System.exit(2);
+        }
+        DecimalFormat dft = new DecimalFormat("0.00");
+        long[] tasks = new long[TIERS.length + 1];
+        long[] mi = new long[TIERS.length + 1];
+        double[] energy = new double[TIERS.length + 1];
+        double makespan = 0;
+
+        long startTime = System.currentTimeMillis();
+        try (ColumnarResultReader reader = new ColumnarResultReader(new File(args[0]))) {
+            for (int b = 0; b < reader.getBlockCount(); b++) {
+                Block block = reader.block(b);
+                for (int row = 0; row < block.getRows(); row++) {
+                    TierRegistry.Tier tier = block.tier(row);
+                    int slot = tier == null ? TIERS.length : tier.ordinal();
+                    tasks[slot]++;
+                    mi[slot] += block.length(row);
+                    energy[slot] += block.energy(row);
+                    makespan = Math.max(makespan, block.finish(row));
+                }
+            }
+            System.out.println("Rows: " + reader.getRowCount() + " in " + reader.getBlockCount() + " blocks");
+        }
+        for (int i = 0; i <= TIERS.length; i++) {
+            if (tasks[i] == 0) {
+                continue;
+            }
+            String name = i < TIERS.length ? TIERS[i].getDisplayName() : "Unknown";
+            System.out.println(name + ": " + tasks[i] + " tasks, " + mi[i] + " MI, "
+                    + dft.format(energy[i]) + " J");
+        }
+        System.out.println("Latest finish time: " + dft.format(makespan));
+        System.out.println("Scanned in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+}
@@ -0,0 +1,195 @@
+package org.fogcomputing.results;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import org.fogcomputing.TierRegistry;
+
+/**
+ * Writes per-task results as a block-columnar binary file.
+ *
+ * Layout (little endian):
+ * <pre>
+ * file header:  int magic, int version, int block capacity, int reserved
+ * each block:   int rows, int reserved, then one fixed-width column after the other:
+ *               long length[rows], long fileSize[rows], long outputSize[rows],
+ *               double start[rows], double finish[rows], double energy[rows],
+ *               int cloudletId[rows], int vmId[rows],
+ *               byte tier[rows] (Tier ordinal, -1 if unknown), zero padded to 8 bytes
+ * </pre>
+ * The 8-byte columns come first so every column is naturally aligned.
+ * Rows are buffered in primitive arrays and each full block is written with
+ * a single {@link FileChannel} write. Use {@link ColumnarResultReader} to read the file.
+ */
+public class ColumnarResultSink implements ResultSink {
+
+    static final int MAGIC = 0x31524346; // "FCR1"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 16;
+    static final int BLOCK_HEADER_BYTES = 8;
+
+    /** Default number of rows per block */
+    public static final int DEFAULT_BLOCK_ROWS = 65536;
+
+    private final File file;
+    private final FileChannel channel;
+    private final int blockRows;
+    private final ByteBuffer buffer;
+
+    private final long[] length;
+    private final long[] fileSize;
+    private final long[] outputSize;
+    private final double[] start;
+    private final double[] finish;
+    private final double[] energy;
+    private final int[] cloudletId;
+    private final int[] vmId;
+    private final byte[] tier;
+    private int rows;
+
+    /**
+     * Creates the file (and its parent directories) with the default block size
+     * and writes the file header
+     *
+     * @param file the output file
+     * @throws IOException if the file cannot be created
+     */
+    public ColumnarResultSink(File file) throws IOException {
+        this(file, DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Creates the file (and its parent directories) and writes the file header
+     *
+     * @param file the output file
+     * @param blockRows number of rows per block
+     * @throws IOException if the file cannot be created
+     */
+    public ColumnarResultSink(File file, int blockRows) throws IOException {
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockRows);
+        }
+        this.file = file;
+        this.blockRows = blockRows;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create results directory " + parent.getAbsolutePath());
+        }
+
+        length = new long[blockRows];
+        fileSize = new long[blockRows];
+        outputSize = new long[blockRows];
+        start = new double[blockRows];
+        finish = new double[blockRows];
+        energy = new double[blockRows];
+        cloudletId = new int[blockRows];
+        vmId = new int[blockRows];
+        tier = new byte[blockRows];
+
+        buffer = ByteBuffer.allocateDirect((int) blockBytes(blockRows)).order(ByteOrder.LITTLE_ENDIAN);
+        channel = new FileOutputStream(file).getChannel();
+
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(blockRows).putInt(0);
+        buffer.flip();
+        writeFully();
+    }
+
+    /**
+     * @param rows number of rows in a block
+     * @return size of the block in bytes, including its header and padding
+     */
+    static long blockBytes(int rows) {
+        return BLOCK_HEADER_BYTES + 48L * rows + 8L * rows + padded(rows);
+    }
+
+    /**
+     * @param bytes size of the tier column
+     * @return the size rounded up to a multiple of 8
+     */
+    static long padded(int bytes) {
+        return (bytes + 7L) & ~7L;
+    }
+
+    @Override
+    public void write(CloudletRecord record) throws IOException {
+        int i = rows;
+        length[i] = record.getLength();
+        fileSize[i] = record.getFileSize();
+        outputSize[i] = record.getOutputSize();
+        start[i] = record.getExecStartTime();
+        finish[i] = record.getFinishTime();
+        energy[i] = record.getEnergy();
+        cloudletId[i] = record.getCloudletId();
+        vmId[i] = record.getVmId();
+        TierRegistry.Tier t = TierRegistry.Tier.fromDisplayName(record.getTier());
+        tier[i] = t == null ? -1 : (byte) t.ordinal();
+        rows = i + 1;
+        if (rows == blockRows) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rows > 0) {
+                flushBlock();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        int n = rows;
+        buffer.clear();
+        buffer.putInt(n).putInt(0);
+        putColumn(length, n);
+        putColumn(fileSize, n);
+        putColumn(outputSize, n);
+        putColumn(start, n);
+        putColumn(finish, n);
+        putColumn(energy, n);
+        putColumn(cloudletId, n);
+        putColumn(vmId, n);
+        buffer.put(tier, 0, n);
+        for (long i = n; i < padded(n); i++) {
+            buffer.put((byte) 0);
+        }
+        buffer.flip();
+        writeFully();
+        rows = 0;
+    }
+
+    // Bulk copies through typed views, which share the buffer's byte order
+
+    private void putColumn(long[] column, int n) {
+        buffer.asLongBuffer().put(column, 0, n);
+        buffer.position(buffer.position() + n * 8);
+    }
+
+    private void putColumn(double[] column, int n) {
+        buffer.asDoubleBuffer().put(column, 0, n);
+        buffer.position(buffer.position() + n * 8);
+    }
+
+    private void putColumn(int[] column, int n) {
+        buffer.asIntBuffer().put(column, 0, n);
+        buffer.position(buffer.position() + n * 4);
+    }
+
+    private void writeFully() throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
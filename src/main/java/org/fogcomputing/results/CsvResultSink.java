@@ -0,0 +1,48 @@
+package org.fogcomputing.results;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes one CSV row per cloudlet
+ */
+public class CsvResultSink extends TextResultSink {
+
+    /** Column names of the rows written by this sink */
+    public static final String CSV_HEADER =
+            "cloudletId,status,vmId,tier,length,fileSize,outputSize,"
+            + "submissionTime,execStartTime,finishTime,executionTime,transmissionTime,energy,cost";
+
+    public CsvResultSink(File file) throws IOException {
+        super(file);
+    }
+
+    @Override
+    protected String header() {
+        return CSV_HEADER;
+    }
+
+    @Override
+    protected void format(CloudletRecord record, StringBuilder out) {
+        out.append(record.getCloudletId()).append(',')
+                .append(record.getStatus()).append(',')
+                .append(record.getVmId()).append(',')
+                .append(record.getTier()).append(',')
+                .append(record.getLength()).append(',')
+                .append(record.getFileSize()).append(',')
+                .append(record.getOutputSize()).append(',');
+        appendDecimal(out, record.getSubmissionTime());
+        out.append(',');
+        appendDecimal(out, record.getExecStartTime());
+        out.append(',');
+        appendDecimal(out, record.getFinishTime());
+        out.append(',');
+        appendDecimal(out, record.getExecutionTime());
+        out.append(',');
+        appendDecimal(out, record.getTransmissionTime());
+        out.append(',');
+        appendDecimal(out, record.getEnergy());
+        out.append(',');
+        appendDecimal(out, record.getCost());
+    }
+}
@@ -0,0 +1,55 @@
+package org.fogcomputing.results;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes one JSON object per line and cloudlet (JSON Lines).
+ * NaN and infinite values, which JSON has no literal for, are written as null.
+ */
+public class JsonLinesResultSink extends TextResultSink {
+
+    public JsonLinesResultSink(File file) throws IOException {
+        super(file);
+    }
+
+    @Override
+    protected String header() {
+        return null;
+    }
+
+    @Override
+    protected void format(CloudletRecord record, StringBuilder out) {
+        // Status and tier are fixed identifiers, so no string escaping is needed
+        out.append("{\"cloudletId\":").append(record.getCloudletId())
+                .append(",\"status\":\"").append(record.getStatus())
+                .append("\",\"vmId\":").append(record.getVmId())
+                .append(",\"tier\":\"").append(record.getTier())
+                .append("\",\"length\":").append(record.getLength())
+                .append(",\"fileSize\":").append(record.getFileSize())
+                .append(",\"outputSize\":").append(record.getOutputSize())
+                .append(",\"submissionTime\":");
+        appendNumber(out, record.getSubmissionTime());
+        out.append(",\"execStartTime\":");
+        appendNumber(out, record.getExecStartTime());
+        out.append(",\"finishTime\":");
+        appendNumber(out, record.getFinishTime());
+        out.append(",\"executionTime\":");
+        appendNumber(out, record.getExecutionTime());
+        out.append(",\"transmissionTime\":");
+        appendNumber(out, record.getTransmissionTime());
+        out.append(",\"energy\":");
+        appendNumber(out, record.getEnergy());
+        out.append(",\"cost\":");
+        appendNumber(out, record.getCost());
+        out.append('}');
+    }
+
+    private static void appendNumber(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append("null");
+        } else {
+            appendDecimal(out, value);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.fogcomputing.results;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Destination for per-cloudlet results.
+ *
+ * Records are written one at a time as cloudlets complete, so a sink never needs
+ * the full result list. {@link #close()} flushes everything written so far.
+ */
+public interface ResultSink extends Closeable {
+
+    /**
+     * Writes the result of one cloudlet
+     *
+     * @param record the cloudlet result
+     * @throws IOException if the record cannot be written
+     */
+    void write(CloudletRecord record) throws IOException;
+
+    /**
+     * @return the file the records are written to, or null if the sink is not file based
+     */
+    File getFile();
+}
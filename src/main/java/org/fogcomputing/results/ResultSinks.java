@@ -0,0 +1,93 @@
+package org.fogcomputing.results;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Creates result sinks from the output configuration.
+ *
+ * The configuration is read from system properties so it can be set for any
+ * simulation entry point and for sweep workers without extra options:
+ *   -Dresults.dir=DIR        output directory (default "results")
+ *   -Dresults.format=FORMAT  "csv" (default), "jsonl" or "columnar" (binary, see {@link ColumnarResultSink})
+ * The directory can also be set with {@link #setResultsDir}, e.g. for a run that
+ * shares its JVM, and so its system properties, with other runs.
+ */
+public final class ResultSinks {
+
+    /** System property with the output directory */
+    public static final String DIR_PROPERTY = "results.dir";
+
+    /** System property with the per-cloudlet output format */
+    public static final String FORMAT_PROPERTY = "results.format";
+
+    private static final String DEFAULT_DIR = "results";
+    private static final String DEFAULT_FORMAT = "csv";
+
+    // Output directory that takes precedence over the system property; null if not set
+    private static volatile File dirOverride;
+
+    private ResultSinks() {
+    }
+
+    /**
+     * @return the configured output directory
+     */
+    public static File resultsDir() {
+        File dir = dirOverride;
+        return dir != null ? dir : new File(System.getProperty(DIR_PROPERTY, DEFAULT_DIR));
+    }
+
+    /**
+     * Sets the output directory instead of the system property
+     *
+     * @param dir the directory, or null to use the system property again
+     */
+    public static void setResultsDir(File dir) {
+        dirOverride = dir;
+    }
+
+    /**
+     * @return the configured per-cloudlet output format, in lower case
+     */
+    public static String format() {
+        return System.getProperty(FORMAT_PROPERTY, DEFAULT_FORMAT).trim().toLowerCase();
+    }
+
+    /**
+     * Creates a background-writing sink in the configured directory and format
+     *
+     * @param baseName file name without extension
+     * @return the sink
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if the configured format is unknown
+     */
+    public static ResultSink create(String baseName) throws IOException {
+        return create(resultsDir(), baseName, format());
+    }
+
+    /**
+     * Creates a background-writing sink
+     *
+     * @param dir output directory
+     * @param baseName file name without extension
+     * @param format "csv", "jsonl" or "columnar"
+     * @return the sink
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    public static ResultSink create(File dir, String baseName, String format) throws IOException {
+        ResultSink sink;
+        if (format.equals("csv")) {
+            sink = new CsvResultSink(new File(dir, baseName + ".csv"));
+        } else if (format.equals("jsonl") || format.equals("json")) {
+            sink = new JsonLinesResultSink(new File(dir, baseName + ".jsonl"));
+        } else if (format.equals("columnar")) {
+            sink = new ColumnarResultSink(new File(dir, baseName + ".fcr"));
+        } else {
+            throw new IllegalArgumentException("Unknown results format: " + format
+                    + " (expected csv, jsonl or columnar)");
+        }
+        return new AsyncResultSink(sink);
+    }
+}
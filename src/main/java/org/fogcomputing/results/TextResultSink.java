@@ -0,0 +1,107 @@
+package org.fogcomputing.results;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base class for sinks that write one text line per cloudlet to a buffered file.
+ *
+ * Numbers are formatted by hand into a reused StringBuilder; DecimalFormat or
+ * String.format would dominate the write time for millions of records.
+ */
+public abstract class TextResultSink implements ResultSink {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Time, energy and cost values are written with 4 fractional digits
+    private static final long SCALE = 10000L;
+
+    // Values above this magnitude would overflow the scaled long and are written as-is
+    private static final double MAX_FIXED = 1e14;
+
+    private final File file;
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Creates the file (and its parent directories) and writes the header
+     *
+     * @param file the output file
+     * @throws IOException if the file cannot be created
+     */
+    protected TextResultSink(File file) throws IOException {
+        this.file = file;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create results directory " + parent.getAbsolutePath());
+        }
+        this.writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+        String header = header();
+        if (header != null) {
+            writer.write(header);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * @return the first line of the file, or null for none
+     */
+    protected abstract String header();
+
+    /**
+     * Appends one record, without the line terminator
+     *
+     * @param record the record
+     * @param out the line buffer
+     */
+    protected abstract void format(CloudletRecord record, StringBuilder out);
+
+    @Override
+    public void write(CloudletRecord record) throws IOException {
+        line.setLength(0);
+        format(record, line);
+        line.append('\n');
+        writer.append(line);
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Appends a value with a fixed number of fractional digits; NaN, infinite and
+     * very large values are appended as by Double.toString
+     *
+     * @param out the line buffer
+     * @param value the value
+     */
+    protected static void appendDecimal(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= MAX_FIXED) {
+            out.append(value);
+            return;
+        }
+        long scaled = Math.round(value * SCALE);
+        if (scaled < 0) {
+            out.append('-');
+            scaled = -scaled;
+        }
+        out.append(scaled / SCALE).append('.');
+        long fraction = scaled % SCALE;
+        for (long digit = SCALE / 10; digit > 1 && fraction < digit; digit /= 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
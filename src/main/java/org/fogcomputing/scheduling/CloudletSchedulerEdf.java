@@ -0,0 +1,44 @@
+package org.fogcomputing.scheduling;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.fogcomputing.workload.DeadlineCloudlet;
+
+/**
+ * Preemptive earliest-deadline-first scheduling of the cloudlets of a VM.
+ *
+ * Cloudlets run space-shared, each on as many PEs as it asks for (at most the
+ * VM's), in order of their due time (see {@link DeadlineCloudlet#dueTimeOf});
+ * cloudlets without a deadline come last, in arrival order. A cloudlet that
+ * arrives with an earlier due time than a running one takes its PEs at once, and
+ * a cloudlet that does not fit on the free PEs lets the later ones that do fit
+ * run. On one PE, which is what the fog and IoT VMs have, this meets all
+ * deadlines of the VM's cloudlets whenever any schedule can.
+ */
+public class CloudletSchedulerEdf extends PreemptiveCloudletScheduler {
+
+    /**
+     * Creates a new CloudletSchedulerEdf
+     */
+    public CloudletSchedulerEdf() {
+        super(Comparator.comparingDouble(rcl -> DeadlineCloudlet.dueTimeOf(rcl.getCloudlet())));
+    }
+
+    @Override
+    protected void allocate(List<ScheduledCloudlet> queue, double peMips, int pes,
+                            List<ScheduledCloudlet> running) {
+        int freePes = pes;
+        for (ScheduledCloudlet rcl : queue) {
+            int needed = Math.min(rcl.getNumberOfPes(), pes);
+            if (needed <= freePes) {
+                rcl.setMips(needed * peMips);
+                running.add(rcl);
+                freePes -= needed;
+                if (freePes == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.fogcomputing.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.fogcomputing.workload.DeadlineCloudlet;
+
+/**
+ * Strict priority scheduling of the cloudlets of a VM, with weighted fair sharing
+ * within a priority class.
+ *
+ * The priority class of a cloudlet is its CloudSim class type; higher classes go
+ * first. The cloudlets of the highest class share the VM in proportion to their
+ * weights (see {@link DeadlineCloudlet#weightOf}), each capped at the MIPS of the
+ * PEs it asks for, and only the capacity they cannot use goes on to the next class.
+ *
+ * With preemption a cloudlet of a higher class takes the CPU from lower classes
+ * as soon as it arrives. Without it, cloudlets that already run keep their share
+ * until they finish and newcomers of any class get what is left, so an
+ * interactive task may wait for a batch task, but work once started is never
+ * slowed down.
+ */
+public class CloudletSchedulerPriority extends PreemptiveCloudletScheduler {
+
+    // Capacity below which nothing more is granted, against rounding errors
+    private static final double MIN_MIPS = 1e-9;
+
+    private final boolean preemptive;
+
+    /**
+     * Creates a new preemptive CloudletSchedulerPriority
+     */
+    public CloudletSchedulerPriority() {
+        this(true);
+    }
+
+    /**
+     * Creates a new CloudletSchedulerPriority
+     *
+     * @param preemptive true to let cloudlets of a higher class preempt running ones
+     */
+    public CloudletSchedulerPriority(boolean preemptive) {
+        super(Comparator.comparingInt((ScheduledCloudlet rcl) -> rcl.getCloudlet().getClassType()).reversed());
+        this.preemptive = preemptive;
+    }
+
+    /**
+     * @return whether cloudlets of a higher class preempt running ones
+     */
+    public boolean isPreemptive() {
+        return preemptive;
+    }
+
+    @Override
+    protected void allocate(List<ScheduledCloudlet> queue, double peMips, int pes,
+                            List<ScheduledCloudlet> running) {
+        double capacity = pes * peMips;
+        if (!preemptive) {
+            // Cloudlets are still INEXEC from the previous allocation
+            List<ScheduledCloudlet> started = new ArrayList<>();
+            for (ScheduledCloudlet rcl : queue) {
+                if (rcl.getCloudletStatus() == Cloudlet.INEXEC) {
+                    started.add(rcl);
+                }
+            }
+            capacity -= share(started, capacity, peMips, pes, running);
+        }
+
+        List<ScheduledCloudlet> group = new ArrayList<>();
+        int index = 0;
+        while (index < queue.size() && capacity > MIN_MIPS) {
+            int classType = queue.get(index).getCloudlet().getClassType();
+            group.clear();
+            for (; index < queue.size() && queue.get(index).getCloudlet().getClassType() == classType; index++) {
+                ScheduledCloudlet rcl = queue.get(index);
+                if (preemptive || rcl.getCloudletStatus() != Cloudlet.INEXEC) {
+                    group.add(rcl);
+                }
+            }
+            capacity -= share(group, capacity, peMips, pes, running);
+        }
+    }
+
+    /**
+     * Shares capacity among the cloudlets in proportion to their weights, by water
+     * filling: a cloudlet whose PEs cannot take its fair share gets all of them, and
+     * the rest is shared again among the others
+     *
+     * @return the MIPS granted
+     */
+    private static double share(List<ScheduledCloudlet> cloudlets, double capacity, double peMips, int pes,
+                                List<ScheduledCloudlet> running) {
+        if (cloudlets.isEmpty() || capacity <= MIN_MIPS) {
+            return 0;
+        }
+        int count = cloudlets.size();
+        double[] caps = new double[count];
+        double[] weights = new double[count];
+        Integer[] order = new Integer[count];
+        double totalWeight = 0;
+        for (int i = 0; i < count; i++) {
+            ScheduledCloudlet rcl = cloudlets.get(i);
+            caps[i] = Math.min(rcl.getNumberOfPes(), pes) * peMips;
+            weights[i] = DeadlineCloudlet.weightOf(rcl.getCloudlet());
+            totalWeight += weights[i];
+            order[i] = i;
+        }
+        // Cloudlets capped furthest below their fair share first
+        Arrays.sort(order, Comparator.comparingDouble(i -> caps[i] / weights[i]));
+
+        double left = capacity;
+        for (int i : order) {
+            double mips = Math.min(caps[i], left * weights[i] / totalWeight);
+            totalWeight -= weights[i];
+            if (mips > 0) {
+                left -= mips;
+                ScheduledCloudlet rcl = cloudlets.get(i);
+                rcl.setMips(mips);
+                running.add(rcl);
+            }
+        }
+        return capacity - left;
+    }
+}
@@ -0,0 +1,44 @@
+package org.fogcomputing.scheduling;
+
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+
+/**
+ * Cloudlet schedulers that can be chosen for the VMs of a tier.
+ *
+ * A scheduler holds the cloudlets of one VM, so every VM needs a scheduler of
+ * its own: {@link #parse(String)} creates a new one on every call.
+ */
+public final class CloudletSchedulers {
+
+    private CloudletSchedulers() {
+    }
+
+    /**
+     * Creates a cloudlet scheduler from a command line specification:
+     *   time-shared, space-shared (CloudSim's), edf (see {@link CloudletSchedulerEdf}),
+     *   priority or priority:non-preemptive (see {@link CloudletSchedulerPriority})
+     *
+     * @param spec the specification
+     * @return a new scheduler
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public static CloudletScheduler parse(String spec) {
+        switch (spec.trim().toLowerCase()) {
+            case "time-shared":
+                return new CloudletSchedulerTimeShared();
+            case "space-shared":
+                return new CloudletSchedulerSpaceShared();
+            case "edf":
+                return new CloudletSchedulerEdf();
+            case "priority":
+            case "priority:preemptive":
+                return new CloudletSchedulerPriority(true);
+            case "priority:non-preemptive":
+                return new CloudletSchedulerPriority(false);
+            default:
+                throw new IllegalArgumentException("Unknown cloudlet scheduler: " + spec);
+        }
+    }
+}
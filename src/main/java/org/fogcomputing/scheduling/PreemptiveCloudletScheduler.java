@@ -0,0 +1,392 @@
+package org.fogcomputing.scheduling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * A cloudlet scheduler that decides again which cloudlets run, and how fast,
+ * whenever a cloudlet arrives or finishes.
+ *
+ * The unfinished cloudlets of the VM are kept in the order of the subclass's
+ * comparator, cloudlets that compare equal in arrival order. On every change the
+ * subclass walks that order and grants MIPS to the cloudlets that run until the
+ * next change (see {@link #allocate}); every other cloudlet waits, and a running
+ * cloudlet that is no longer granted anything is preempted and later resumes where
+ * it stopped. Only the running cloudlets are advanced and looked at for the next
+ * finish, so a long queue costs nothing but its sorted insertion.
+ *
+ * The execution start time of a cloudlet stays the time it first ran, so its
+ * waiting time is the time until it first got the CPU.
+ */
+public abstract class PreemptiveCloudletScheduler extends CloudletScheduler {
+
+    /**
+     * A cloudlet in the scheduler, with the MIPS it runs at until the next change
+     */
+    protected static final class ScheduledCloudlet extends ResCloudlet {
+
+        private final long sequence;
+        private double mips;
+        private double firstStartTime = -1;
+
+        ScheduledCloudlet(Cloudlet cloudlet, long sequence) {
+            super(cloudlet);
+            this.sequence = sequence;
+        }
+
+        /**
+         * @return arrival order of the cloudlet in this scheduler
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return MIPS granted to the cloudlet over all its PEs, 0 while it waits
+         */
+        public double getMips() {
+            return mips;
+        }
+
+        /**
+         * @param mips MIPS granted to the cloudlet over all its PEs
+         */
+        public void setMips(double mips) {
+            this.mips = mips;
+        }
+    }
+
+    private final Comparator<ScheduledCloudlet> order;
+
+    // Unfinished cloudlets in scheduling order, and those granted MIPS
+    private final List<ScheduledCloudlet> queue = new ArrayList<>();
+    private List<ScheduledCloudlet> running = new ArrayList<>();
+
+    private final List<ScheduledCloudlet> paused = new ArrayList<>();
+    private final List<ResCloudlet> finished = new ArrayList<>();
+
+    private long submitted;
+
+    /**
+     * Creates a new PreemptiveCloudletScheduler
+     *
+     * @param order scheduling order of the cloudlets; equal cloudlets are kept in arrival order
+     */
+    protected PreemptiveCloudletScheduler(Comparator<ScheduledCloudlet> order) {
+        this.order = order.thenComparingLong(ScheduledCloudlet::getSequence);
+    }
+
+    /**
+     * Grants MIPS to the cloudlets that run until the next change. Every
+     * cloudlet's MIPS are 0 when this is called.
+     *
+     * @param queue the unfinished cloudlets in scheduling order
+     * @param peMips MIPS of each PE of the VM
+     * @param pes number of PEs of the VM
+     * @param running receives the cloudlets that were granted MIPS
+     */
+    protected abstract void allocate(List<ScheduledCloudlet> queue, double peMips, int pes,
+                                     List<ScheduledCloudlet> running);
+
+    @Override
+    public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+        setCurrentMipsShare(mipsShare);
+        advance(currentTime);
+        return reschedule(currentTime);
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+        double now = CloudSim.clock();
+        advance(now);
+        ScheduledCloudlet scheduled = new ScheduledCloudlet(cloudlet, submitted++);
+        scheduled.setCloudletStatus(Cloudlet.QUEUED);
+        insert(scheduled);
+        double nextFinish = reschedule(now);
+        // The datacenter expects the delay until the next finish
+        return nextFinish > 0 ? nextFinish - now : 0.0;
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet) {
+        return cloudletSubmit(cloudlet, 0.0);
+    }
+
+    @Override
+    public Cloudlet cloudletCancel(int cloudletId) {
+        for (Iterator<ResCloudlet> it = finished.iterator(); it.hasNext(); ) {
+            ResCloudlet rcl = it.next();
+            if (rcl.getCloudletId() == cloudletId) {
+                it.remove();
+                return rcl.getCloudlet();
+            }
+        }
+        ScheduledCloudlet rcl = remove(queue, cloudletId);
+        if (rcl != null) {
+            running.remove(rcl);
+            rcl.setMips(0);
+            rcl.setCloudletStatus(Cloudlet.CANCELED);
+            return rcl.getCloudlet();
+        }
+        rcl = remove(paused, cloudletId);
+        return rcl == null ? null : rcl.getCloudlet();
+    }
+
+    @Override
+    public boolean cloudletPause(int cloudletId) {
+        advance(CloudSim.clock());
+        ScheduledCloudlet rcl = remove(queue, cloudletId);
+        if (rcl == null) {
+            return false;
+        }
+        running.remove(rcl);
+        rcl.setMips(0);
+        rcl.setCloudletStatus(Cloudlet.PAUSED);
+        paused.add(rcl);
+        return true;
+    }
+
+    @Override
+    public double cloudletResume(int cloudletId) {
+        ScheduledCloudlet rcl = remove(paused, cloudletId);
+        if (rcl == null) {
+            return 0.0;
+        }
+        double now = CloudSim.clock();
+        advance(now);
+        rcl.setCloudletStatus(Cloudlet.QUEUED);
+        insert(rcl);
+        return reschedule(now);
+    }
+
+    @Override
+    public void cloudletFinish(ResCloudlet rcl) {
+        rcl.setCloudletStatus(Cloudlet.SUCCESS);
+        rcl.finalizeCloudlet();
+        finished.add(rcl);
+    }
+
+    @Override
+    public int getCloudletStatus(int cloudletId) {
+        for (ScheduledCloudlet rcl : queue) {
+            if (rcl.getCloudletId() == cloudletId) {
+                return rcl.getCloudletStatus();
+            }
+        }
+        for (ScheduledCloudlet rcl : paused) {
+            if (rcl.getCloudletId() == cloudletId) {
+                return rcl.getCloudletStatus();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isFinishedCloudlets() {
+        return !finished.isEmpty();
+    }
+
+    @Override
+    public Cloudlet getNextFinishedCloudlet() {
+        return finished.isEmpty() ? null : finished.remove(0).getCloudlet();
+    }
+
+    /**
+     * @return number of cloudlets that are granted MIPS
+     */
+    @Override
+    public int runningCloudlets() {
+        return running.size();
+    }
+
+    /**
+     * @return number of unfinished cloudlets, running or waiting
+     */
+    public int queuedCloudlets() {
+        return queue.size();
+    }
+
+    @Override
+    public Cloudlet migrateCloudlet() {
+        if (queue.isEmpty()) {
+            return null;
+        }
+        ScheduledCloudlet rcl = queue.remove(0);
+        running.remove(rcl);
+        rcl.finalizeCloudlet();
+        return rcl.getCloudlet();
+    }
+
+    /**
+     * @return share of the VM's capacity granted to cloudlets
+     */
+    @Override
+    public double getTotalUtilizationOfCpu(double time) {
+        double capacity = totalCapacity();
+        if (capacity <= 0) {
+            return 0;
+        }
+        double granted = 0;
+        for (ScheduledCloudlet rcl : running) {
+            granted += rcl.getMips() * rcl.getCloudlet().getUtilizationOfCpu(time);
+        }
+        return granted / capacity;
+    }
+
+    @Override
+    public List<Double> getCurrentRequestedMips() {
+        List<Double> mipsShare = new ArrayList<>();
+        if (getCurrentMipsShare() != null) {
+            mipsShare.addAll(getCurrentMipsShare());
+        }
+        return mipsShare;
+    }
+
+    @Override
+    public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+        int pes = 0;
+        double capacity = 0;
+        for (Double mips : mipsShare) {
+            if (mips > 0) {
+                capacity += mips;
+                pes++;
+            }
+        }
+        return pes == 0 ? 0 : capacity / pes * Math.min(pes, rcl.getNumberOfPes());
+    }
+
+    @Override
+    public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return getTotalCurrentAvailableMipsForCloudlet(rcl, getCurrentMipsShare());
+    }
+
+    @Override
+    public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return rcl instanceof ScheduledCloudlet ? ((ScheduledCloudlet) rcl).getMips() : 0;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfRam() {
+        double ram = 0;
+        for (ScheduledCloudlet rcl : running) {
+            ram += rcl.getCloudlet().getUtilizationOfRam(CloudSim.clock());
+        }
+        return ram;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfBw() {
+        double bw = 0;
+        for (ScheduledCloudlet rcl : running) {
+            bw += rcl.getCloudlet().getUtilizationOfBw(CloudSim.clock());
+        }
+        return bw;
+    }
+
+    /**
+     * Advances the running cloudlets to time at the MIPS granted since the
+     * previous change, and finishes those that are done
+     */
+    private void advance(double time) {
+        double elapsed = time - getPreviousTime();
+        setPreviousTime(time);
+        if (elapsed <= 0 || running.isEmpty()) {
+            return;
+        }
+        for (Iterator<ScheduledCloudlet> it = running.iterator(); it.hasNext(); ) {
+            ScheduledCloudlet rcl = it.next();
+            rcl.updateCloudletFinishedSoFar((long) (rcl.getMips() * elapsed * Consts.MILLION));
+            if (rcl.getRemainingCloudletLength() == 0) {
+                it.remove();
+                queue.remove(rcl);
+                rcl.setMips(0);
+                cloudletFinish(rcl);
+            }
+        }
+    }
+
+    /**
+     * Lets the subclass grant MIPS again, preempts the cloudlets that lost their
+     * share and starts those that gained one
+     *
+     * @return the time of the next finish, or 0 if nothing runs
+     */
+    private double reschedule(double now) {
+        List<ScheduledCloudlet> previous = running;
+        for (ScheduledCloudlet rcl : previous) {
+            rcl.setMips(0);
+        }
+        running = new ArrayList<>();
+        int pes = 0;
+        double capacity = 0;
+        if (getCurrentMipsShare() != null) {
+            for (Double mips : getCurrentMipsShare()) {
+                if (mips > 0) {
+                    capacity += mips;
+                    pes++;
+                }
+            }
+        }
+        if (pes > 0 && !queue.isEmpty()) {
+            allocate(Collections.unmodifiableList(queue), capacity / pes, pes, running);
+        }
+
+        for (ScheduledCloudlet rcl : previous) {
+            if (rcl.getMips() == 0 && rcl.getCloudletStatus() == Cloudlet.INEXEC) {
+                rcl.setCloudletStatus(Cloudlet.QUEUED);
+            }
+        }
+        double nextFinish = Double.MAX_VALUE;
+        for (ScheduledCloudlet rcl : running) {
+            if (rcl.getCloudletStatus() != Cloudlet.INEXEC) {
+                rcl.setCloudletStatus(Cloudlet.INEXEC);
+                if (rcl.firstStartTime < 0) {
+                    rcl.firstStartTime = now;
+                } else {
+                    // A resumed cloudlet keeps the time it first ran
+                    rcl.getCloudlet().setExecStartTime(rcl.firstStartTime);
+                }
+            }
+            double finish = now + Math.max(rcl.getRemainingCloudletLength() / rcl.getMips(),
+                    CloudSim.getMinTimeBetweenEvents());
+            nextFinish = Math.min(nextFinish, finish);
+        }
+        return running.isEmpty() ? 0.0 : nextFinish;
+    }
+
+    private double totalCapacity() {
+        double capacity = 0;
+        if (getCurrentMipsShare() != null) {
+            for (Double mips : getCurrentMipsShare()) {
+                capacity += mips;
+            }
+        }
+        return capacity;
+    }
+
+    private void insert(ScheduledCloudlet rcl) {
+        int index = Collections.binarySearch(queue, rcl, order);
+        // Sequences are unique, so the cloudlet is never found
+        queue.add(-index - 1, rcl);
+    }
+
+    private static ScheduledCloudlet remove(List<ScheduledCloudlet> list, int cloudletId) {
+        for (Iterator<ScheduledCloudlet> it = list.iterator(); it.hasNext(); ) {
+            ScheduledCloudlet rcl = it.next();
+            if (rcl.getCloudletId() == cloudletId) {
+                it.remove();
+                return rcl;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+package org.fogcomputing.sweep;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fogcomputing.CloudSimTaskOffloadingSimulation;
+import org.fogcomputing.RunSummary;
+
+/**
+ * Runs simulations side by side in one JVM.
+ *
+ * CloudSim 3.0.3 keeps its clock, entities and event queues in static fields, and
+ * the simulation keeps its parameters in static fields too. Each run therefore gets
+ * a class loader of its own that loads the simulation, CloudSim and their libraries
+ * again from the class path, with only the JDK shared. The run is started through
+ * {@link CloudSimTaskOffloadingSimulation#runToCsvRow(String[])} and returns its
+ * summary as a CSV row, which is parsed into a {@link RunSummary} of the calling
+ * class loader, so no class of the run escapes it and the loader can be discarded.
+ *
+ * {@link #run} can be called from many threads at once; the output of each run,
+ * including the threads it starts, goes to its log file. This saves the JVM
+ * startup and warm-up of a worker process per run, at the price of sharing the
+ * heap and the system properties, and of not being able to kill a run that hangs.
+ */
+public class IsolatedSimulationRunner {
+
+    private static final String ENTRY_METHOD = "runToCsvRow";
+
+    private final URL[] classPath;
+
+    /**
+     * Creates a runner that loads the simulations from the class path of this JVM
+     */
+    public IsolatedSimulationRunner() {
+        this(currentClassPath());
+    }
+
+    /**
+     * Creates a runner
+     *
+     * @param classPath locations of the simulation classes, CloudSim and their libraries
+     */
+    public IsolatedSimulationRunner(URL[] classPath) {
+        this.classPath = classPath.clone();
+    }
+
+    /**
+     * @return the entries of java.class.path as URLs
+     */
+    public static URL[] currentClassPath() {
+        List<URL> urls = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            try {
+                urls.add(new File(entry).toURI().toURL());
+            } catch (MalformedURLException e) {
+                throw new IllegalArgumentException("Bad class path entry " + entry, e);
+            }
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    /**
+     * Runs one simulation in a fresh class loader and waits for it
+     *
+     * @param arguments command line options of the simulation
+     * @param resultsDir directory for the run's result files
+     * @param logFile file that receives the run's console output
+     * @return the run's summary
+     * @throws Exception if the run fails
+     */
+    public RunSummary run(List<String> arguments, File resultsDir, File logFile) throws Exception {
+        return RunSummary.fromCsvRow(runToCsvRow(arguments, resultsDir, logFile));
+    }
+
+    /**
+     * Runs one simulation in a fresh class loader and waits for it
+     *
+     * @param arguments command line options of the simulation
+     * @param resultsDir directory for the run's result files
+     * @param logFile file that receives the run's console output
+     * @return the run's summary as the CSV row it printed, with the columns of {@link RunSummary#CSV_HEADER}
+     * @throws Exception if the run fails
+     */
+    public String runToCsvRow(List<String> arguments, File resultsDir, File logFile) throws Exception {
+        List<String> args = new ArrayList<>(arguments);
+        args.add("--results-dir");
+        args.add(resultsDir.getPath());
+
+        ThreadOutput.install();
+        Thread thread = Thread.currentThread();
+        ClassLoader contextLoader = thread.getContextClassLoader();
+        // The platform class loader: JDK classes only, nothing of this application
+        ClassLoader parent = ClassLoader.getSystemClassLoader().getParent();
+        try (PrintStream log = new PrintStream(new BufferedOutputStream(new FileOutputStream(logFile), 1 << 16));
+             URLClassLoader loader = new URLClassLoader(classPath, parent)) {
+            ThreadOutput.set(log);
+            thread.setContextClassLoader(loader);
+            try {
+                Class<?> simulation = Class.forName(CloudSimTaskOffloadingSimulation.class.getName(), true, loader);
+                Method entry = simulation.getMethod(ENTRY_METHOD, String[].class);
+                String row = (String) entry.invoke(null, (Object) args.toArray(new String[0]));
+                log.println(CloudSimTaskOffloadingSimulation.SUMMARY_PREFIX + row);
+                return row;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                cause.printStackTrace(log);
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            } finally {
+                thread.setContextClassLoader(contextLoader);
+                ThreadOutput.set(null);
+            }
+        }
+    }
+}
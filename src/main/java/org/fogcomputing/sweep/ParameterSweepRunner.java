@@ -0,0 +1,314 @@
+package org.fogcomputing.sweep;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.fogcomputing.CloudSimTaskOffloadingSimulation;
+import org.fogcomputing.RunSummary;
+import org.fogcomputing.results.ResultSinks;
+
+/**
+ * Runs a grid of simulation configurations in parallel.
+ *
+ * CloudSim keeps its simulation state in static fields, so every configuration is
+ * run in its own worker JVM, or with --isolation classloader in its own class loader
+ * inside this JVM (see {@link IsolatedSimulationRunner}). The pool runs as many
+ * workers at a time as there are cores, and the per-run summaries are merged into
+ * one CSV table.
+ *
+ * Usage (all options are optional, list values are comma separated):
+ *   --policies "Energy-Aware Offloading,MCEETO Offloading"
+ *   --iot 10,100 --fog 5,10 --iot-fog-latency 2 --fog-cloud-latency 20 --seeds 1,2,3
+ *   --workers N --out results/sweep --jvm-args "-Xmx1g" --timeout-minutes 60
+ *   --isolation jvm|classloader
+ * The JVM options and the timeout only apply to worker JVMs.
+ */
+public class ParameterSweepRunner {
+
+    private final List<SweepPoint> points;
+    private final int workers;
+    private final File outputDir;
+    private final List<String> jvmArgs;
+    private final long timeoutMinutes;
+
+    // Runs configurations in class loaders of this JVM; null for worker JVMs
+    private final IsolatedSimulationRunner isolatedRunner;
+
+    /**
+     * Creates a new ParameterSweepRunner
+     * @param points the configurations to run
+     * @param workers number of worker JVMs running at the same time
+     * @param outputDir directory for the merged table and the per-run logs
+     * @param jvmArgs extra JVM options for each worker
+     * @param timeoutMinutes time after which a worker is killed
+     */
+    public ParameterSweepRunner(List<SweepPoint> points, int workers, File outputDir,
+                                List<String> jvmArgs, long timeoutMinutes) {
+        this(points, workers, outputDir, jvmArgs, timeoutMinutes, null);
+    }
+
+    /**
+     * Creates a new ParameterSweepRunner
+     * @param points the configurations to run
+     * @param workers number of configurations running at the same time
+     * @param outputDir directory for the merged table and the per-run logs
+     * @param jvmArgs extra JVM options for each worker JVM
+     * @param timeoutMinutes time after which a worker JVM is killed
+     * @param isolatedRunner runs the configurations inside this JVM, or null for worker JVMs
+     */
+    public ParameterSweepRunner(List<SweepPoint> points, int workers, File outputDir,
+                                List<String> jvmArgs, long timeoutMinutes, IsolatedSimulationRunner isolatedRunner) {
+        this.points = points;
+        this.workers = workers;
+        this.outputDir = outputDir;
+        this.jvmArgs = jvmArgs;
+        this.timeoutMinutes = timeoutMinutes;
+        this.isolatedRunner = isolatedRunner;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> policies = CloudSimTaskOffloadingSimulation.POLICY_NAMES;
+        List<Integer> iot = Arrays.asList(10);
+        List<Integer> fog = Arrays.asList(5);
+        List<Double> iotToFog = Arrays.asList(2.0);
+        List<Double> fogToCloud = Arrays.asList(20.0);
+        List<Long> seeds = Arrays.asList(1L);
+        int workers = Runtime.getRuntime().availableProcessors();
+        File outputDir = new File("results/sweep");
+        List<String> jvmArgs = new ArrayList<>();
+        long timeoutMinutes = 60;
+        IsolatedSimulationRunner isolatedRunner = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for option " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--policies":
+                    policies = new ArrayList<>();
+                    for (String policy : value.split(",")) {
+                        policies.add(policy.trim());
+                    }
+                    break;
+                case "--iot":
+                    iot = parseInts(value);
+                    break;
+                case "--fog":
+                    fog = parseInts(value);
+                    break;
+                case "--iot-fog-latency":
+                    iotToFog = parseDoubles(value);
+                    break;
+                case "--fog-cloud-latency":
+                    fogToCloud = parseDoubles(value);
+                    break;
+                case "--seeds":
+                    seeds = new ArrayList<>();
+                    for (String seed : value.split(",")) {
+                        seeds.add(Long.parseLong(seed.trim()));
+                    }
+                    break;
+                case "--workers":
+                    workers = Integer.parseInt(value);
+                    break;
+                case "--out":
+                    outputDir = new File(value);
+                    break;
+                case "--jvm-args":
+                    jvmArgs = Arrays.asList(value.trim().split("\\s+"));
+                    break;
+                case "--timeout-minutes":
+                    timeoutMinutes = Long.parseLong(value);
+                    break;
+                case "--isolation":
+                    if (value.equals("classloader")) {
+                        isolatedRunner = new IsolatedSimulationRunner();
+                    } else if (value.equals("jvm")) {
+                        isolatedRunner = null;
+                    } else {
+                        throw new IllegalArgumentException("Unknown isolation: " + value);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+
+        List<SweepPoint> points = SweepPoint.grid(policies, iot, fog, iotToFog, fogToCloud, seeds);
+        new ParameterSweepRunner(points, workers, outputDir, jvmArgs, timeoutMinutes, isolatedRunner).run();
+    }
+
+    /**
+     * Runs all configurations and writes the merged result table
+     *
+     * @return the merged table file
+     * @throws Exception if the sweep is interrupted or the table cannot be written
+     */
+    public File run() throws Exception {
+        File logDir = new File(outputDir, "logs");
+        if (!logDir.exists() && !logDir.mkdirs()) {
+            throw new IOException("Cannot create log directory " + logDir.getAbsolutePath());
+        }
+
+        System.out.println("Running " + points.size() + " configurations on " + workers
+                + (isolatedRunner != null ? " threads with a class loader per run" : " worker JVMs"));
+        long start = System.currentTimeMillis();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<String>> summaries = new ArrayList<>();
+        try {
+            for (final SweepPoint point : points) {
+                summaries.add(pool.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        File logFile = new File(logDir, String.format("run-%05d.log", point.getIndex()));
+                        return isolatedRunner != null ? runIsolated(point, logFile) : runWorker(point, logFile);
+                    }
+                }));
+            }
+
+            File table = new File(outputDir, "sweep_results.csv");
+            int failed = 0;
+            try (PrintWriter writer = new PrintWriter(new FileWriter(table))) {
+                // The policy is a column of the sweep point, so it is not repeated from the summary
+                writer.println(SweepPoint.CSV_HEADER + ",status," + RunSummary.METRICS_CSV_HEADER);
+                for (int i = 0; i < points.size(); i++) {
+                    SweepPoint point = points.get(i);
+                    String metrics = metricsOf(point, summaries.get(i).get());
+                    if (metrics == null) {
+                        failed++;
+                        writer.println(point.toCsvColumns() + ",FAILED");
+                    } else {
+                        writer.println(point.toCsvColumns() + ",OK," + metrics);
+                    }
+                }
+            }
+
+            System.out.println("Sweep finished in " + (System.currentTimeMillis() - start) / 1000 + " s, "
+                    + (points.size() - failed) + " succeeded, " + failed + " failed");
+            System.out.println("Merged results: " + table.getAbsolutePath());
+            return table;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one configuration in a fresh JVM
+     *
+     * @return the summary row the run printed, or null if it failed
+     */
+    private String runWorker(SweepPoint point, File logFile) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        // Separate result files per run; listed first so --jvm-args can override it
+        command.add("-D" + ResultSinks.DIR_PROPERTY + "="
+                + new File(outputDir, String.format("runs/run-%05d", point.getIndex())).getPath());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(CloudSimTaskOffloadingSimulation.class.getName());
+        command.addAll(point.toArguments());
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(logFile);
+
+        Process process = builder.start();
+        if (!process.waitFor(timeoutMinutes, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            System.err.println("Run " + point + " timed out, see " + logFile.getPath());
+            return null;
+        }
+
+        String summary = findSummary(logFile);
+        if (process.exitValue() != 0 || summary == null) {
+            System.err.println("Run " + point + " failed with exit code " + process.exitValue()
+                    + ", see " + logFile.getPath());
+            return null;
+        }
+
+        System.out.println("Finished run " + point);
+        return summary;
+    }
+
+    /**
+     * Runs one configuration in its own class loader
+     *
+     * @return the summary row the run printed, or null if it failed
+     */
+    private String runIsolated(SweepPoint point, File logFile) {
+        File resultsDir = new File(outputDir, String.format("runs/run-%05d", point.getIndex()));
+        try {
+            // The row as the run printed it, like the summary line of a worker JVM
+            String summary = isolatedRunner.runToCsvRow(point.toArguments(), resultsDir, logFile);
+            System.out.println("Finished run " + point);
+            return summary;
+        } catch (Exception e) {
+            System.err.println("Run " + point + " failed: " + e + ", see " + logFile.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * @return the metrics columns of a run's summary row, or null if the run failed
+     *         or its row cannot be read
+     */
+    private static String metricsOf(SweepPoint point, String summary) {
+        if (summary == null) {
+            return null;
+        }
+        try {
+            return RunSummary.metricsCsvOf(summary);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Run " + point + " printed an invalid summary: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Finds the summary row a worker printed to its log
+     */
+    private static String findSummary(File logFile) throws IOException {
+        String summary = null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(CloudSimTaskOffloadingSimulation.SUMMARY_PREFIX)) {
+                    summary = line.substring(CloudSimTaskOffloadingSimulation.SUMMARY_PREFIX.length());
+                }
+            }
+        }
+        return summary;
+    }
+
+    private static List<Integer> parseInts(String value) {
+        List<Integer> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            result.add(Integer.parseInt(part.trim()));
+        }
+        return result;
+    }
+
+    private static List<Double> parseDoubles(String value) {
+        List<Double> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            result.add(Double.parseDouble(part.trim()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package org.fogcomputing.sweep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.fogcomputing.RunSummary;
+
+/**
+ * One configuration of a parameter sweep.
+ * Translates to the command line options of {@code CloudSimTaskOffloadingSimulation}.
+ */
+public class SweepPoint {
+
+    /** Column names matching {@link #toCsvColumns()} */
+    public static final String CSV_HEADER = "run,policy,iotDevices,fogNodes,iotToFogLatency,fogToCloudLatency,seed";
+
+    private final int index;
+    private final String policyName;
+    private final int iotDevices;
+    private final int fogNodes;
+    private final double iotToFogLatency;
+    private final double fogToCloudLatency;
+    private final long seed;
+
+    public SweepPoint(int index, String policyName, int iotDevices, int fogNodes,
+                      double iotToFogLatency, double fogToCloudLatency, long seed) {
+        this.index = index;
+        this.policyName = policyName;
+        this.iotDevices = iotDevices;
+        this.fogNodes = fogNodes;
+        this.iotToFogLatency = iotToFogLatency;
+        this.fogToCloudLatency = fogToCloudLatency;
+        this.seed = seed;
+    }
+
+    /**
+     * Builds the cartesian product of all parameter values
+     *
+     * @param policies policy names
+     * @param iotDevices IoT device counts
+     * @param fogNodes fog node counts
+     * @param iotToFogLatencies IoT-to-fog latencies (ms)
+     * @param fogToCloudLatencies fog-to-cloud latencies (ms)
+     * @param seeds workload seeds
+     * @return all sweep points, numbered from 0
+     */
+    public static List<SweepPoint> grid(List<String> policies, List<Integer> iotDevices, List<Integer> fogNodes,
+                                        List<Double> iotToFogLatencies, List<Double> fogToCloudLatencies,
+                                        List<Long> seeds) {
+        List<SweepPoint> points = new ArrayList<>();
+        for (String policy : policies) {
+            for (int iot : iotDevices) {
+                for (int fog : fogNodes) {
+                    for (double iotToFog : iotToFogLatencies) {
+                        for (double fogToCloud : fogToCloudLatencies) {
+                            for (long seed : seeds) {
+                                points.add(new SweepPoint(points.size(), policy, iot, fog,
+                                        iotToFog, fogToCloud, seed));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * @return the simulation command line options for this point
+     */
+    public List<String> toArguments() {
+        List<String> args = new ArrayList<>();
+        args.add("--policy");
+        args.add(policyName);
+        args.add("--iot");
+        args.add(Integer.toString(iotDevices));
+        args.add("--fog");
+        args.add(Integer.toString(fogNodes));
+        args.add("--iot-fog-latency");
+        args.add(Double.toString(iotToFogLatency));
+        args.add("--fog-cloud-latency");
+        args.add(Double.toString(fogToCloudLatency));
+        args.add("--seed");
+        args.add(Long.toString(seed));
+        return args;
+    }
+
+    /**
+     * @return this point as CSV columns matching {@link #CSV_HEADER}
+     */
+    public String toCsvColumns() {
+        return String.format(Locale.ROOT, "%d,%s,%d,%d,%.3f,%.3f,%d",
+                index, RunSummary.escapeCsv(policyName), iotDevices, fogNodes, iotToFogLatency, fogToCloudLatency, seed);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public int getIotDevices() {
+        return iotDevices;
+    }
+
+    public int getFogNodes() {
+        return fogNodes;
+    }
+
+    public double getIotToFogLatency() {
+        return iotToFogLatency;
+    }
+
+    public double getFogToCloudLatency() {
+        return fogToCloudLatency;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + index + " [" + policyName + ", iot=" + iotDevices + ", fog=" + fogNodes
+                + ", latency=" + iotToFogLatency + "/" + fogToCloudLatency + ", seed=" + seed + "]";
+    }
+}
@@ -0,0 +1,79 @@
+package org.fogcomputing.sweep;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Sends System.out and System.err of a thread, and of the threads it starts,
+ * to a stream of its own.
+ *
+ * Simulations that share a JVM also share the console, so each run's output is
+ * redirected to its log file instead; threads without a stream of their own
+ * still print to the original console.
+ */
+final class ThreadOutput {
+
+    private static final InheritableThreadLocal<PrintStream> TARGET = new InheritableThreadLocal<>();
+
+    private static boolean installed;
+
+    private ThreadOutput() {
+    }
+
+    /**
+     * Replaces System.out and System.err with the routing streams; does nothing if already done
+     */
+    static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        System.setOut(new PrintStream(new Router(System.out), true));
+        System.setErr(new PrintStream(new Router(System.err), true));
+        installed = true;
+    }
+
+    /**
+     * @param stream destination of the current thread's output, or null for the console
+     */
+    static void set(PrintStream stream) {
+        if (stream == null) {
+            TARGET.remove();
+        } else {
+            TARGET.set(stream);
+        }
+    }
+
+    private static final class Router extends OutputStream {
+
+        private final PrintStream console;
+
+        Router(PrintStream console) {
+            this.console = console;
+        }
+
+        private PrintStream target() {
+            PrintStream target = TARGET.get();
+            return target != null ? target : console;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Log files are flushed when their run ends, not on every line
+            PrintStream target = TARGET.get();
+            if (target == null) {
+                console.flush();
+            }
+        }
+    }
+}
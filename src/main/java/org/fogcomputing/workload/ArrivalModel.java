@@ -0,0 +1,213 @@
+package org.fogcomputing.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Arrival process of the tasks of one IoT device, for open-loop load.
+ *
+ * - poisson:RATE                                  exponential inter-arrival times
+ * - mmpp:LOW_RATE:HIGH_RATE:LOW_TIME:HIGH_TIME    two-state Markov-modulated Poisson
+ *   process: the device alternates between a quiet and a bursty phase with
+ *   exponentially distributed durations of mean LOW_TIME and HIGH_TIME
+ * - trace                                         the submit times of the task
+ *   source, e.g. an SWF trace, are used as they are
+ *
+ * Rates are tasks per simulation time unit and per device.
+ */
+public final class ArrivalModel {
+
+    /**
+     * Arrival times of one device
+     */
+    public interface ArrivalProcess {
+        /**
+         * @return time of the next arrival, counted from the start of the arrivals
+         */
+        double nextArrivalTime();
+    }
+
+    private enum Kind {
+        POISSON, MMPP, TRACE
+    }
+
+    private final Kind kind;
+    private final double lowRate;
+    private final double highRate;
+    private final double meanLowTime;
+    private final double meanHighTime;
+
+    private ArrivalModel(Kind kind, double lowRate, double highRate, double meanLowTime, double meanHighTime) {
+        this.kind = kind;
+        this.lowRate = lowRate;
+        this.highRate = highRate;
+        this.meanLowTime = meanLowTime;
+        this.meanHighTime = meanHighTime;
+    }
+
+    /**
+     * @param rate arrivals per time unit
+     * @return Poisson arrivals
+     */
+    public static ArrivalModel poisson(double rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be > 0");
+        }
+        return new ArrivalModel(Kind.POISSON, rate, rate, 1, 0);
+    }
+
+    /**
+     * @param lowRate arrivals per time unit in the quiet phase (may be 0)
+     * @param highRate arrivals per time unit in the bursty phase
+     * @param meanLowTime mean duration of the quiet phase
+     * @param meanHighTime mean duration of the bursty phase
+     * @return two-state MMPP arrivals
+     */
+    public static ArrivalModel mmpp(double lowRate, double highRate, double meanLowTime, double meanHighTime) {
+        if (lowRate < 0 || highRate <= 0 || meanLowTime <= 0 || meanHighTime <= 0) {
+            throw new IllegalArgumentException("MMPP needs lowRate >= 0, highRate > 0 and phase times > 0");
+        }
+        return new ArrivalModel(Kind.MMPP, lowRate, highRate, meanLowTime, meanHighTime);
+    }
+
+    /**
+     * @return arrivals at the submit times of the task source
+     */
+    public static ArrivalModel trace() {
+        return new ArrivalModel(Kind.TRACE, 0, 0, 0, 0);
+    }
+
+    /**
+     * Parses a model from a command line specification (see the class comment)
+     *
+     * @param spec the specification
+     * @return the model
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public static ArrivalModel parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "poisson":
+                    if (parts.length == 2) {
+                        return poisson(Double.parseDouble(parts[1]));
+                    }
+                    break;
+                case "mmpp":
+                    if (parts.length == 5) {
+                        return mmpp(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                                Double.parseDouble(parts[3]), Double.parseDouble(parts[4]));
+                    }
+                    break;
+                case "trace":
+                    if (parts.length == 1) {
+                        return trace();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown arrival process '" + parts[0] + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in arrival process " + spec, e);
+        }
+        throw new IllegalArgumentException("Wrong number of parameters in arrival process " + spec);
+    }
+
+    /**
+     * @return true if the submit times of the task source are used
+     */
+    public boolean isTrace() {
+        return kind == Kind.TRACE;
+    }
+
+    /**
+     * @return long-run arrivals per time unit of one device, or NaN for trace arrivals
+     */
+    public double getMeanRate() {
+        switch (kind) {
+            case POISSON:
+                return lowRate;
+            case MMPP:
+                return (lowRate * meanLowTime + highRate * meanHighTime) / (meanLowTime + meanHighTime);
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * Creates the arrival process of one device
+     *
+     * @param random the device's random stream, owned by the process from now on
+     * @return the process
+     * @throws IllegalStateException for trace arrivals, which have no process
+     */
+    public ArrivalProcess newProcess(final SplittableRandom random) {
+        switch (kind) {
+            case POISSON:
+                return new ArrivalProcess() {
+                    private double time;
+
+                    @Override
+                    public double nextArrivalTime() {
+                        time += exponential(random, lowRate);
+                        return time;
+                    }
+                };
+            case MMPP:
+                return new MmppProcess(random);
+            default:
+                throw new IllegalStateException("Trace arrivals take their times from the task source");
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case POISSON:
+                return "poisson:" + lowRate;
+            case MMPP:
+                return "mmpp:" + lowRate + ":" + highRate + ":" + meanLowTime + ":" + meanHighTime;
+            default:
+                return "trace";
+        }
+    }
+
+    private static double exponential(SplittableRandom random, double rate) {
+        // 1 - u is in (0, 1], so the logarithm is finite
+        return -Math.log(1 - random.nextDouble()) / rate;
+    }
+
+    /**
+     * Two-state MMPP: Poisson arrivals whose rate switches with the phase
+     */
+    private final class MmppProcess implements ArrivalProcess {
+        private final SplittableRandom random;
+        private double time;
+        private boolean high;
+        private double phaseEnd;
+
+        MmppProcess(SplittableRandom random) {
+            this.random = random;
+            // Start in the stationary phase distribution
+            this.high = random.nextDouble() * (meanLowTime + meanHighTime) < meanHighTime;
+            this.phaseEnd = exponential(random, 1 / (high ? meanHighTime : meanLowTime));
+        }
+
+        @Override
+        public double nextArrivalTime() {
+            while (true) {
+                double rate = high ? highRate : lowRate;
+                if (rate > 0) {
+                    double candidate = time + exponential(random, rate);
+                    if (candidate < phaseEnd) {
+                        time = candidate;
+                        return time;
+                    }
+                }
+                // No arrival before the phase ends; memorylessness lets us restart there
+                time = phaseEnd;
+                high = !high;
+                phaseEnd = time + exponential(random, 1 / (high ? meanHighTime : meanLowTime));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.fogcomputing.workload;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Stamps tasks with open-loop arrival times.
+ *
+ * Every IoT device has its own arrival process (see {@link ArrivalModel}) with
+ * its own random stream split from the seed. The schedule merges the devices'
+ * arrivals in time order and gives each arrival the next task of the source, so
+ * the specs come out with non-decreasing submit times. Arrivals are generated
+ * on demand; only the next arrival of each device is kept.
+ */
+public class ArrivalSchedule implements Iterator<CloudletSpec> {
+
+    // Keeps arrival streams apart from workload streams created from the same seed
+    private static final long SEED_SALT = 0x9E3779B97F4A7C15L;
+
+    private final Iterator<CloudletSpec> tasks;
+    private final ArrivalModel.ArrivalProcess[] processes;
+    private final double[] nextTimes;
+    private final PriorityQueue<Integer> devices;
+
+    /**
+     * Creates a new ArrivalSchedule
+     *
+     * @param tasks the tasks, in the order they are handed out
+     * @param model arrival process of each device; not trace arrivals
+     * @param deviceCount number of devices
+     * @param seed seed of the arrival streams
+     */
+    public ArrivalSchedule(Iterator<CloudletSpec> tasks, ArrivalModel model, int deviceCount, long seed) {
+        if (deviceCount <= 0) {
+            throw new IllegalArgumentException("Need at least one device");
+        }
+        this.tasks = tasks;
+        this.processes = new ArrivalModel.ArrivalProcess[deviceCount];
+        this.nextTimes = new double[deviceCount];
+        this.devices = new PriorityQueue<Integer>(deviceCount, (a, b) -> {
+            int c = Double.compare(nextTimes[a], nextTimes[b]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        SplittableRandom root = new SplittableRandom(seed ^ SEED_SALT);
+        for (int device = 0; device < deviceCount; device++) {
+            processes[device] = model.newProcess(root.split());
+            nextTimes[device] = processes[device].nextArrivalTime();
+            devices.add(device);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return tasks.hasNext();
+    }
+
+    @Override
+    public CloudletSpec next() {
+        if (!tasks.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int device = devices.poll();
+        double time = nextTimes[device];
+        nextTimes[device] = processes[device].nextArrivalTime();
+        devices.add(device);
+        return tasks.next().withSubmitTime(time);
+    }
+}
@@ -0,0 +1,182 @@
+package org.fogcomputing.workload;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+
+/**
+ * Description of a task before it becomes a CloudSim Cloudlet.
+ *
+ * Specs are small immutable values, so a workload can be parsed, queued or
+ * generated ahead of the simulation without keeping Cloudlet objects (with their
+ * utilization models and resource lists) on the heap.
+ *
+ * A spec with a deadline becomes a {@link DeadlineCloudlet}; the deadline is
+ * relative, counted from the task's release by the broker. So does a spec with a
+ * weight other than 1. The priority class becomes the cloudlet's class type;
+ * higher classes are scheduled first by priority schedulers.
+ */
+public final class CloudletSpec {
+
+    // One utilization model is enough for every cloudlet, it has no state
+    private static final UtilizationModel FULL = new UtilizationModelFull();
+
+    /** Deadline of a task that has none */
+    public static final double NO_DEADLINE = Double.POSITIVE_INFINITY;
+
+    /** Priority class of bulk tasks, and of every task not generated otherwise */
+    public static final int PRIORITY_BATCH = 0;
+
+    /** Priority class of latency-critical tasks */
+    public static final int PRIORITY_INTERACTIVE = 1;
+
+    private final int id;
+    private final long jobNumber;
+    private final double submitTime;
+    private final long length;
+    private final int pes;
+    private final long fileSize;
+    private final long outputSize;
+    private final double deadline;
+    private final int priority;
+    private final double weight;
+
+    /**
+     * Creates a new CloudletSpec without a deadline
+     *
+     * @param id cloudlet ID
+     * @param jobNumber job number in the source workload, or -1
+     * @param submitTime arrival time of the task
+     * @param length length in MI
+     * @param pes number of PEs
+     * @param fileSize input file size in bytes
+     * @param outputSize output file size in bytes
+     */
+    public CloudletSpec(int id, long jobNumber, double submitTime, long length, int pes, long fileSize, long outputSize) {
+        this(id, jobNumber, submitTime, length, pes, fileSize, outputSize, NO_DEADLINE);
+    }
+
+    /**
+     * Creates a new CloudletSpec
+     *
+     * @param id cloudlet ID
+     * @param jobNumber job number in the source workload, or -1
+     * @param submitTime arrival time of the task
+     * @param length length in MI
+     * @param pes number of PEs
+     * @param fileSize input file size in bytes
+     * @param outputSize output file size in bytes
+     * @param deadline time allowed from release to the result's return, or {@link #NO_DEADLINE}
+     */
+    public CloudletSpec(int id, long jobNumber, double submitTime, long length, int pes, long fileSize,
+                        long outputSize, double deadline) {
+        this(id, jobNumber, submitTime, length, pes, fileSize, outputSize, deadline, PRIORITY_BATCH, 1);
+    }
+
+    /**
+     * Creates a new CloudletSpec with a priority class and weight
+     *
+     * @param id cloudlet ID
+     * @param jobNumber job number in the source workload, or -1
+     * @param submitTime arrival time of the task
+     * @param length length in MI
+     * @param pes number of PEs
+     * @param fileSize input file size in bytes
+     * @param outputSize output file size in bytes
+     * @param deadline time allowed from release to the result's return, or {@link #NO_DEADLINE}
+     * @param priority priority class, {@link #PRIORITY_BATCH} or higher
+     * @param weight share of the CPU relative to the other tasks of its priority class, positive
+     */
+    public CloudletSpec(int id, long jobNumber, double submitTime, long length, int pes, long fileSize,
+                        long outputSize, double deadline, int priority, double weight) {
+        this.id = id;
+        this.jobNumber = jobNumber;
+        this.submitTime = submitTime;
+        this.length = length;
+        this.pes = pes;
+        this.fileSize = fileSize;
+        this.outputSize = outputSize;
+        this.deadline = deadline;
+        this.priority = priority;
+        this.weight = weight;
+    }
+
+    /**
+     * Creates the Cloudlet for this spec, not yet bound to a VM
+     *
+     * @param userId ID of the broker that submits it
+     * @return the cloudlet
+     */
+    public Cloudlet toCloudlet(int userId) {
+        Cloudlet cloudlet = hasDeadline() || weight != 1
+                ? new DeadlineCloudlet(id, length, pes, fileSize, outputSize, FULL, FULL, FULL, deadline, weight)
+                : new Cloudlet(id, length, pes, fileSize, outputSize, FULL, FULL, FULL);
+        cloudlet.setUserId(userId);
+        if (priority > PRIORITY_BATCH) {
+            // CloudSim keeps class type 0 for anything not positive
+            cloudlet.setClassType(priority);
+        }
+        return cloudlet;
+    }
+
+    /**
+     * @param time the new arrival time
+     * @return a copy of this spec that arrives at time
+     */
+    public CloudletSpec withSubmitTime(double time) {
+        return new CloudletSpec(id, jobNumber, time, length, pes, fileSize, outputSize, deadline, priority, weight);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getJobNumber() {
+        return jobNumber;
+    }
+
+    public double getSubmitTime() {
+        return submitTime;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public int getPes() {
+        return pes;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * @return time allowed from release to the result's return, or {@link #NO_DEADLINE}
+     */
+    public double getDeadline() {
+        return deadline;
+    }
+
+    public boolean hasDeadline() {
+        return deadline != NO_DEADLINE;
+    }
+
+    /**
+     * @return priority class, {@link #PRIORITY_BATCH} or higher
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return share of the CPU relative to the other tasks of its priority class
+     */
+    public double getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,158 @@
+package org.fogcomputing.workload;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+
+/**
+ * A Cloudlet that must be back at its IoT device within a relative deadline.
+ *
+ * The deadline is counted from the task's release, when the broker sends it
+ * towards its VM (see {@link #release(double)}), and is met if the result is back
+ * at the broker by then, so it covers the transmission both ways, the queueing and
+ * the execution. Deadline-aware policies and schedulers read the absolute due time
+ * with {@link #dueTimeOf(Cloudlet)}, which is infinite for ordinary cloudlets.
+ *
+ * The cloudlet also carries its weight among the cloudlets of its priority class
+ * (CloudSim's class type), which fair-sharing schedulers read with
+ * {@link #weightOf(Cloudlet)}. A task with a weight but no deadline has an
+ * infinite one.
+ */
+public class DeadlineCloudlet extends Cloudlet {
+
+    private final double deadline;
+    private final double weight;
+    private double releaseTime = Double.NaN;
+    private double completionTime = Double.NaN;
+
+    /**
+     * Creates a new DeadlineCloudlet
+     *
+     * @param cloudletId cloudlet ID
+     * @param cloudletLength length in MI
+     * @param pesNumber number of PEs
+     * @param cloudletFileSize input file size in bytes
+     * @param cloudletOutputSize output file size in bytes
+     * @param utilizationModelCpu CPU utilization model
+     * @param utilizationModelRam RAM utilization model
+     * @param utilizationModelBw bandwidth utilization model
+     * @param deadline time allowed from release to the result's return, in ms
+     */
+    public DeadlineCloudlet(int cloudletId, long cloudletLength, int pesNumber, long cloudletFileSize,
+                            long cloudletOutputSize, UtilizationModel utilizationModelCpu,
+                            UtilizationModel utilizationModelRam, UtilizationModel utilizationModelBw,
+                            double deadline) {
+        this(cloudletId, cloudletLength, pesNumber, cloudletFileSize, cloudletOutputSize,
+                utilizationModelCpu, utilizationModelRam, utilizationModelBw, deadline, 1);
+    }
+
+    /**
+     * Creates a new DeadlineCloudlet with a weight
+     *
+     * @param cloudletId cloudlet ID
+     * @param cloudletLength length in MI
+     * @param pesNumber number of PEs
+     * @param cloudletFileSize input file size in bytes
+     * @param cloudletOutputSize output file size in bytes
+     * @param utilizationModelCpu CPU utilization model
+     * @param utilizationModelRam RAM utilization model
+     * @param utilizationModelBw bandwidth utilization model
+     * @param deadline time allowed from release to the result's return, in ms, or positive infinity
+     * @param weight share of the CPU relative to the other cloudlets of its priority class, positive
+     */
+    public DeadlineCloudlet(int cloudletId, long cloudletLength, int pesNumber, long cloudletFileSize,
+                            long cloudletOutputSize, UtilizationModel utilizationModelCpu,
+                            UtilizationModel utilizationModelRam, UtilizationModel utilizationModelBw,
+                            double deadline, double weight) {
+        super(cloudletId, cloudletLength, pesNumber, cloudletFileSize, cloudletOutputSize,
+                utilizationModelCpu, utilizationModelRam, utilizationModelBw);
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        this.deadline = deadline;
+        this.weight = weight;
+    }
+
+    /**
+     * @param cloudlet any cloudlet
+     * @return the absolute due time of a released DeadlineCloudlet, otherwise positive infinity
+     */
+    public static double dueTimeOf(Cloudlet cloudlet) {
+        return cloudlet instanceof DeadlineCloudlet ? ((DeadlineCloudlet) cloudlet).getDueTime()
+                : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param cloudlet any cloudlet
+     * @return the weight of a DeadlineCloudlet, otherwise 1
+     */
+    public static double weightOf(Cloudlet cloudlet) {
+        return cloudlet instanceof DeadlineCloudlet ? ((DeadlineCloudlet) cloudlet).getWeight() : 1;
+    }
+
+    /**
+     * Starts the deadline; called by the broker when it sends the task
+     *
+     * @param time the current simulation time
+     */
+    public void release(double time) {
+        this.releaseTime = time;
+    }
+
+    /**
+     * Records when the result reached the broker
+     *
+     * @param time the current simulation time
+     */
+    public void setCompletionTime(double time) {
+        this.completionTime = time;
+    }
+
+    /**
+     * @return time allowed from release to the result's return, in ms
+     */
+    public double getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return true unless the deadline is infinite
+     */
+    public boolean hasDeadline() {
+        return deadline != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return share of the CPU relative to the other cloudlets of its priority class
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return simulation time at which the task was released, or NaN if it was not
+     */
+    public double getReleaseTime() {
+        return releaseTime;
+    }
+
+    /**
+     * @return release time plus deadline, or positive infinity before the release
+     */
+    public double getDueTime() {
+        return Double.isNaN(releaseTime) ? Double.POSITIVE_INFINITY : releaseTime + deadline;
+    }
+
+    /**
+     * @return simulation time at which the result reached the broker, or NaN if it has not
+     */
+    public double getCompletionTime() {
+        return completionTime;
+    }
+
+    /**
+     * @return true if the result came back after the due time
+     */
+    public boolean isDeadlineMissed() {
+        return completionTime > getDueTime();
+    }
+}
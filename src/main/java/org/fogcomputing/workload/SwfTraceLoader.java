@@ -0,0 +1,453 @@
+package org.fogcomputing.workload;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a workload trace in the Standard Workload Format (SWF) of the Parallel
+ * Workloads Archive, also used by the Grid Workloads Archive, as {@link CloudletSpec}s.
+ *
+ * The file is split into chunks at line boundaries. Each chunk is memory-mapped
+ * and parsed straight from the mapped bytes by a pool of parser threads, and a
+ * publisher thread puts the specs into a bounded queue in file order. Parsing runs
+ * at most a few chunks ahead of the publisher, and the publisher blocks while the
+ * queue is full, so memory use does not grow with the trace size and a slow
+ * consumer throttles the parsers instead of filling the heap.
+ *
+ * As in CloudSim's WorkloadFileReader, a job's length is its run time (the
+ * requested time if the run time is missing) times the PE rating, and its PEs are
+ * the requested processors (the allocated ones if missing). Comment lines (';'),
+ * malformed lines and jobs without a positive length or PE count are skipped.
+ * Times keep the unit of the trace (seconds). Cloudlet IDs are assigned 0, 1, 2, ...
+ * in file order; SWF has no data sizes, so file and output sizes are 0.
+ */
+public class SwfTraceLoader implements Closeable {
+
+    /** Default size of the chunks the file is split into */
+    public static final int DEFAULT_CHUNK_BYTES = 16 << 20;
+
+    /** Default number of specs that may wait for the consumer */
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+
+    // SWF fields that are read, 0-based; the remaining fields are ignored
+    private static final int JOB_NUMBER = 0;
+    private static final int SUBMIT_TIME = 1;
+    private static final int RUN_TIME = 3;
+    private static final int ALLOCATED_PROCESSORS = 4;
+    private static final int REQUESTED_PROCESSORS = 7;
+    private static final int REQUESTED_TIME = 8;
+    private static final int FIELDS = 9;
+
+    // Numbers with more digits are treated as malformed
+    private static final int MAX_DIGITS = 18;
+    private static final double[] POW10 = new double[MAX_DIGITS + 1];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    // Marks the end of the spec stream
+    private static final CloudletSpec END = new CloudletSpec(-1, -1, 0, 0, 0, 0, 0);
+
+    private final File file;
+    private final double mipsRating;
+    private final int parallelism;
+    private final int chunkBytes;
+    private final BlockingQueue<CloudletSpec> queue;
+
+    private FileChannel channel;
+    private ExecutorService parsers;
+    private Thread publisherThread;
+
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile long published;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new SwfTraceLoader with one parser thread per core
+     *
+     * @param file the SWF trace
+     * @param mipsRating MIPS of the PEs the trace's run times refer to
+     */
+    public SwfTraceLoader(File file, double mipsRating) {
+        this(file, mipsRating, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a new SwfTraceLoader
+     *
+     * @param file the SWF trace
+     * @param mipsRating MIPS of the PEs the trace's run times refer to
+     * @param parallelism number of parser threads
+     * @param chunkBytes size of the chunks the file is split into
+     * @param queueCapacity number of specs that may wait for the consumer
+     */
+    public SwfTraceLoader(File file, double mipsRating, int parallelism, int chunkBytes, int queueCapacity) {
+        if (mipsRating <= 0) {
+            throw new IllegalArgumentException("PE rating must be > 0");
+        }
+        if (parallelism <= 0 || chunkBytes <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Parallelism, chunk size and queue capacity must be > 0");
+        }
+        this.file = file;
+        this.mipsRating = mipsRating;
+        this.parallelism = parallelism;
+        this.chunkBytes = chunkBytes;
+        this.queue = new ArrayBlockingQueue<CloudletSpec>(queueCapacity);
+    }
+
+    /**
+     * Opens the trace and starts parsing it in the background
+     *
+     * @throws IOException if the trace cannot be opened
+     */
+    public synchronized void start() throws IOException {
+        if (publisherThread != null) {
+            throw new IllegalStateException("Trace loader for " + file + " was already started");
+        }
+        channel = new RandomAccessFile(file, "r").getChannel();
+        final long[] bounds = chunkBounds();
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        parsers = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "trace-parser-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        publisherThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                publish(bounds);
+            }
+        }, "trace-loader");
+        // Do not keep the JVM alive if the consumer stops early
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    /**
+     * Returns the specs in file order. The iterator blocks until the next spec is
+     * parsed; there is only one stream, so call this once.
+     *
+     * @return iterator over the specs
+     * @throws UncheckedIOException from hasNext() if reading the trace failed
+     */
+    public Iterator<CloudletSpec> specs() {
+        return new Iterator<CloudletSpec>() {
+            private CloudletSpec next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !done) {
+                    CloudletSpec spec;
+                    try {
+                        spec = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while reading trace " + file, e);
+                    }
+                    if (spec == END) {
+                        done = true;
+                        IOException e = failure;
+                        if (e != null) {
+                            throw new UncheckedIOException("Reading trace " + file + " failed", e);
+                        }
+                    } else {
+                        next = spec;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public CloudletSpec next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CloudletSpec spec = next;
+                next = null;
+                return spec;
+            }
+        };
+    }
+
+    /**
+     * @return number of specs put into the queue so far
+     */
+    public long getPublishedCount() {
+        return published;
+    }
+
+    /**
+     * @return number of malformed lines and unusable jobs skipped so far
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * Stops parsing and releases the file. Specs not yet consumed are dropped.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (publisherThread != null) {
+            publisherThread.interrupt();
+            parsers.shutdownNow();
+        }
+        queue.clear();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Publisher thread: keeps up to two chunks per parser in flight and puts their
+     * specs into the queue in file order
+     */
+    private void publish(long[] bounds) {
+        Deque<Future<Chunk>> pending = new ArrayDeque<Future<Chunk>>();
+        int chunks = bounds.length - 1;
+        int next = 0;
+        int id = 0;
+        try {
+            for (; next < chunks && pending.size() < 2 * parallelism; next++) {
+                pending.add(parsers.submit(parseTask(bounds[next], bounds[next + 1])));
+            }
+            while (!pending.isEmpty()) {
+                Chunk chunk = pending.poll().get();
+                if (next < chunks) {
+                    pending.add(parsers.submit(parseTask(bounds[next], bounds[next + 1])));
+                    next++;
+                }
+                for (int i = 0; i < chunk.count; i++) {
+                    queue.put(new CloudletSpec(id++, chunk.jobNumbers[i], chunk.submitTimes[i],
+                            chunk.lengths[i], chunk.pes[i], 0, 0));
+                }
+                published = id;
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (InterruptedException e) {
+            if (!closed) {
+                failure = new InterruptedIOException("Trace loader interrupted");
+            }
+        } finally {
+            parsers.shutdownNow();
+        }
+        if (!closed) {
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                // Only interrupted by close(), which drops the queue anyway
+            }
+        }
+    }
+
+    private Callable<Chunk> parseTask(final long start, final long end) {
+        return new Callable<Chunk>() {
+            @Override
+            public Chunk call() throws IOException {
+                return parse(start, end);
+            }
+        };
+    }
+
+    /**
+     * Splits the file into chunks of about chunkBytes that start at line starts
+     *
+     * @return chunk start positions followed by the file size
+     */
+    private long[] chunkBounds() throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[(int) Math.min(Integer.MAX_VALUE - 8, size / chunkBytes + 2)];
+        int count = 0;
+        bounds[count++] = 0;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkBytes;
+        while (position < size) {
+            long lineStart = nextLineStart(position, size, probe);
+            if (lineStart >= size) {
+                break;
+            }
+            bounds[count++] = lineStart;
+            position = lineStart + chunkBytes;
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * @return the first line start at or after position, or size
+     */
+    private long nextLineStart(long position, long size, ByteBuffer probe) throws IOException {
+        // Start one byte early so that a position right after a newline is kept
+        long p = position - 1;
+        while (p < size) {
+            probe.clear();
+            int n = channel.read(probe, p);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += n;
+        }
+        return size;
+    }
+
+    /**
+     * Parses the lines in [start, end) of the file
+     */
+    private Chunk parse(long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buffer.limit();
+        // SWF lines are usually 60-120 bytes
+        Chunk chunk = new Chunk(limit / 64 + 16);
+        double[] fields = new double[FIELDS];
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            parseLine(buffer, lineStart, lineEnd, fields, chunk);
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private void parseLine(ByteBuffer buffer, int start, int end, double[] fields, Chunk chunk) {
+        int p = skipSpace(buffer, start, end);
+        if (p == end || buffer.get(p) == ';') {
+            return;
+        }
+        for (int field = 0; field < FIELDS; field++) {
+            p = skipSpace(buffer, p, end);
+            if (p == end) {
+                skipped.incrementAndGet();
+                return;
+            }
+
+            boolean negative = false;
+            byte c = buffer.get(p);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                p++;
+            }
+            long digits = 0;
+            int digitCount = 0;
+            int scale = 0;
+            boolean fraction = false;
+            for (; p < end; p++) {
+                c = buffer.get(p);
+                if (c >= '0' && c <= '9') {
+                    digits = digits * 10 + (c - '0');
+                    digitCount++;
+                    if (fraction) {
+                        scale++;
+                    }
+                } else if (c == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+            }
+            if (digitCount == 0 || digitCount > MAX_DIGITS || (p < end && !isSpace(buffer.get(p)))) {
+                skipped.incrementAndGet();
+                return;
+            }
+            double value = digits / POW10[scale];
+            fields[field] = negative ? -value : value;
+        }
+
+        double runTime = fields[RUN_TIME] > 0 ? fields[RUN_TIME] : fields[REQUESTED_TIME];
+        int pes = (int) (fields[REQUESTED_PROCESSORS] > 0 ? fields[REQUESTED_PROCESSORS] : fields[ALLOCATED_PROCESSORS]);
+        long length = (long) (runTime * mipsRating);
+        if (length <= 0 || pes <= 0) {
+            skipped.incrementAndGet();
+            return;
+        }
+        chunk.add((long) fields[JOB_NUMBER], fields[SUBMIT_TIME], length, pes);
+    }
+
+    private static int skipSpace(ByteBuffer buffer, int p, int end) {
+        while (p < end && isSpace(buffer.get(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * Jobs parsed from one chunk, in columns
+     */
+    private static final class Chunk {
+        long[] jobNumbers;
+        double[] submitTimes;
+        long[] lengths;
+        int[] pes;
+        int count;
+
+        Chunk(int capacity) {
+            jobNumbers = new long[capacity];
+            submitTimes = new double[capacity];
+            lengths = new long[capacity];
+            pes = new int[capacity];
+        }
+
+        void add(long jobNumber, double submitTime, long length, int processors) {
+            if (count == lengths.length) {
+                int capacity = count * 2;
+                jobNumbers = Arrays.copyOf(jobNumbers, capacity);
+                submitTimes = Arrays.copyOf(submitTimes, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                pes = Arrays.copyOf(pes, capacity);
+            }
+            jobNumbers[count] = jobNumber;
+            submitTimes[count] = submitTime;
+            lengths[count] = length;
+            pes[count] = processors;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.fogcomputing.workload;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.UniformRealDistribution;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.stat.StatUtils;
+
+/**
+ * A distribution of task or data sizes, sampled with a caller-supplied
+ * SplittableRandom.
+ *
+ * Samples are drawn by inverse transform: a uniform number from the caller's
+ * random stream is mapped through the inverse CDF of the distribution. The
+ * inverse CDFs are closed forms on top of commons-math3 (its normal quantile for
+ * the lognormal distribution), since the generic root-finding inverse of
+ * commons-math3's LogNormalDistribution and ParetoDistribution costs microseconds
+ * per sample. A distribution keeps no random state, so one instance can be shared
+ * by any number of generator threads, and a sample depends only on the stream it
+ * was drawn from.
+ *
+ * Samples are clamped to [min, max] if bounds are set, e.g. to cut off the tail
+ * of a Pareto distribution.
+ */
+public final class WorkloadDistribution {
+
+    private final DoubleUnaryOperator inverseCdf;
+    private final double mean;
+    private final String description;
+    private final double min;
+    private final double max;
+
+    private WorkloadDistribution(DoubleUnaryOperator inverseCdf, double mean, String description, double min, double max) {
+        this.inverseCdf = inverseCdf;
+        this.mean = mean;
+        this.description = description;
+        this.min = min;
+        this.max = max;
+    }
+
+    private static WorkloadDistribution unbounded(DoubleUnaryOperator inverseCdf, double mean, String description) {
+        return new WorkloadDistribution(inverseCdf, mean, description, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return a distribution that always returns value
+     */
+    public static WorkloadDistribution constant(double value) {
+        return unbounded(p -> value, value, "constant:" + value);
+    }
+
+    /**
+     * @return uniform distribution over [lower, upper)
+     */
+    public static WorkloadDistribution uniform(double lower, double upper) {
+        UniformRealDistribution uniform = new UniformRealDistribution(null, lower, upper);
+        return unbounded(uniform::inverseCumulativeProbability, uniform.getNumericalMean(),
+                "uniform:" + lower + ":" + upper);
+    }
+
+    /**
+     * @param mu mean of the logarithm of the values
+     * @param sigma standard deviation of the logarithm of the values
+     * @return lognormal distribution; its median is exp(mu)
+     */
+    public static WorkloadDistribution lognormal(double mu, double sigma) {
+        NormalDistribution logValues = new NormalDistribution(null, mu, sigma);
+        return unbounded(p -> Math.exp(logValues.inverseCumulativeProbability(p)), Math.exp(mu + sigma * sigma / 2),
+                "lognormal:" + mu + ":" + sigma);
+    }
+
+    /**
+     * @param scale smallest value
+     * @param shape tail index; the mean is infinite for shape <= 1
+     * @return Pareto distribution
+     */
+    public static WorkloadDistribution pareto(double scale, double shape) {
+        if (scale <= 0 || shape <= 0) {
+            throw new IllegalArgumentException("Pareto scale and shape must be > 0");
+        }
+        double exponent = -1 / shape;
+        return unbounded(p -> scale * Math.pow(1 - p, exponent),
+                shape > 1 ? shape * scale / (shape - 1) : Double.POSITIVE_INFINITY,
+                "pareto:" + scale + ":" + shape);
+    }
+
+    /**
+     * Empirical distribution of observed values, e.g. task lengths taken from a
+     * trace. The CDF steps through the sorted values and is interpolated linearly
+     * between neighbours.
+     *
+     * @param file text file with one value per line
+     * @return the distribution
+     * @throws IOException if the file cannot be read or has no values
+     */
+    public static WorkloadDistribution empirical(File file) throws IOException {
+        double[] values = new double[1024];
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                try {
+                    values[count++] = Double.parseDouble(line);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid value '" + line + "' in " + file);
+                }
+            }
+        }
+        if (count == 0) {
+            throw new IOException("No values in " + file);
+        }
+        final double[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        final int last = count - 1;
+        return unbounded(p -> {
+            double position = p * last;
+            int i = (int) position;
+            return i >= last ? sorted[last] : sorted[i] + (position - i) * (sorted[i + 1] - sorted[i]);
+        }, StatUtils.mean(sorted), "empirical:" + file);
+    }
+
+    /**
+     * Parses a distribution from a command line specification:
+     *   constant:V, uniform:LOW:HIGH, lognormal:MU:SIGMA, pareto:SCALE:SHAPE or empirical:FILE,
+     * optionally followed by :min=X and/or :max=Y
+     *
+     * @param spec the specification
+     * @return the distribution
+     * @throws IllegalArgumentException if the specification is invalid
+     * @throws IOException if the file of an empirical distribution cannot be read
+     */
+    public static WorkloadDistribution parse(String spec) throws IOException {
+        String[] parts = spec.split(":");
+        double min = Double.NEGATIVE_INFINITY;
+        double max = Double.POSITIVE_INFINITY;
+        int params = parts.length - 1;
+        while (params > 0 && parts[params].contains("=")) {
+            String[] bound = parts[params].split("=", 2);
+            if (bound[0].equals("min")) {
+                min = Double.parseDouble(bound[1]);
+            } else if (bound[0].equals("max")) {
+                max = Double.parseDouble(bound[1]);
+            } else {
+                throw new IllegalArgumentException("Unknown bound '" + bound[0] + "' in distribution " + spec);
+            }
+            params--;
+        }
+
+        WorkloadDistribution distribution;
+        String kind = parts[0].trim().toLowerCase();
+        try {
+            switch (kind) {
+                case "constant":
+                    checkParams(spec, params, 1);
+                    distribution = constant(Double.parseDouble(parts[1]));
+                    break;
+                case "uniform":
+                    checkParams(spec, params, 2);
+                    distribution = uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    break;
+                case "lognormal":
+                    checkParams(spec, params, 2);
+                    distribution = lognormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    break;
+                case "pareto":
+                    checkParams(spec, params, 2);
+                    distribution = pareto(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    break;
+                case "empirical":
+                    if (params < 1) {
+                        throw new IllegalArgumentException("Missing file in distribution " + spec);
+                    }
+                    // The file name may itself contain ':'
+                    StringBuilder path = new StringBuilder(parts[1]);
+                    for (int i = 2; i <= params; i++) {
+                        path.append(':').append(parts[i]);
+                    }
+                    distribution = empirical(new File(path.toString()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown distribution '" + parts[0] + "' in " + spec);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in distribution " + spec, e);
+        } catch (MathIllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid parameters in distribution " + spec + ": " + e.getMessage(), e);
+        }
+        return min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY ? distribution
+                : distribution.withBounds(min, max);
+    }
+
+    private static void checkParams(String spec, int actual, int expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " parameters in distribution " + spec);
+        }
+    }
+
+    /**
+     * @return a copy of this distribution whose samples are clamped to [min, max]
+     */
+    public WorkloadDistribution withBounds(double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Lower bound " + min + " is above upper bound " + max);
+        }
+        return new WorkloadDistribution(inverseCdf, mean, description, min, max);
+    }
+
+    /**
+     * Draws one sample
+     *
+     * @param random the caller's random stream
+     * @return the sample
+     */
+    public double sample(SplittableRandom random) {
+        double value = inverseCdf.applyAsDouble(random.nextDouble());
+        return value < min ? min : value > max ? max : value;
+    }
+
+    /**
+     * @return mean of the unclamped distribution
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(description);
+        if (min != Double.NEGATIVE_INFINITY) {
+            sb.append(":min=").append(min);
+        }
+        if (max != Double.POSITIVE_INFINITY) {
+            sb.append(":max=").append(max);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,316 @@
+package org.fogcomputing.workload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * Generates reproducible synthetic workloads.
+ *
+ * Task IDs are split into blocks of {@link #BLOCK_SIZE}. Each block gets its own
+ * SplittableRandom stream, split off a root stream created from the seed in block
+ * order, and draws the length, input size and output size of its tasks from it.
+ * Blocks are generated in parallel on the common fork/join pool, and because a
+ * task's values only depend on its block's stream, the same seed yields the same
+ * workload for any number of threads, and for the lazy {@link #iterator(int)}.
+ *
+ * With {@link #withDeadlines} every task also gets a relative deadline of a
+ * slack factor times its execution time at a reference MIPS rating. The slack
+ * factors are drawn from streams of their own, split off a second root, so adding
+ * deadlines leaves the lengths and sizes of a seed unchanged.
+ *
+ * With {@link #withInteractiveTasks} a share of the tasks are short interactive
+ * tasks of priority class {@link CloudletSpec#PRIORITY_INTERACTIVE}, and with
+ * {@link #withWeights} every task gets a weight within its class. The class, the
+ * interactive length and the weight are drawn from a third set of streams; the
+ * length drawn for a batch task is the same as without interactive tasks.
+ */
+public class WorkloadGenerator {
+
+    /** Number of tasks drawn from one random stream */
+    public static final int BLOCK_SIZE = 4096;
+
+    // Mixed into the seed of the root of the deadline streams
+    private static final long DEADLINE_SEED_SALT = 0x5DEECE66DL;
+
+    // Mixed into the seed of the root of the priority class streams
+    private static final long CLASS_SEED_SALT = 0x2545F4914F6CDD1DL;
+
+    // Smallest weight a task is given, so that a sampled 0 still gets a share
+    private static final double MIN_WEIGHT = 0.001;
+
+    private final long seed;
+    private final WorkloadDistribution length;
+    private final WorkloadDistribution fileSize;
+    private final WorkloadDistribution outputSize;
+    private final int pes;
+    private final WorkloadDistribution deadlineSlack;
+    private final double deadlineMips;
+    private final double interactiveShare;
+    private final WorkloadDistribution interactiveLength;
+    private final WorkloadDistribution weight;
+
+    /**
+     * Creates a new WorkloadGenerator for single-PE tasks
+     *
+     * @param seed seed of the root random stream
+     * @param length distribution of task lengths in MI
+     * @param fileSize distribution of input file sizes in bytes
+     * @param outputSize distribution of output file sizes in bytes
+     */
+    public WorkloadGenerator(long seed, WorkloadDistribution length, WorkloadDistribution fileSize,
+                             WorkloadDistribution outputSize) {
+        this(seed, length, fileSize, outputSize, 1);
+    }
+
+    /**
+     * Creates a new WorkloadGenerator
+     *
+     * @param seed seed of the root random stream
+     * @param length distribution of task lengths in MI
+     * @param fileSize distribution of input file sizes in bytes
+     * @param outputSize distribution of output file sizes in bytes
+     * @param pes number of PEs of every task
+     */
+    public WorkloadGenerator(long seed, WorkloadDistribution length, WorkloadDistribution fileSize,
+                             WorkloadDistribution outputSize, int pes) {
+        this(seed, length, fileSize, outputSize, pes, null, 0, 0, null, null);
+    }
+
+    private WorkloadGenerator(long seed, WorkloadDistribution length, WorkloadDistribution fileSize,
+                              WorkloadDistribution outputSize, int pes, WorkloadDistribution deadlineSlack,
+                              double deadlineMips, double interactiveShare, WorkloadDistribution interactiveLength,
+                              WorkloadDistribution weight) {
+        this.seed = seed;
+        this.length = length;
+        this.fileSize = fileSize;
+        this.outputSize = outputSize;
+        this.pes = pes;
+        this.deadlineSlack = deadlineSlack;
+        this.deadlineMips = deadlineMips;
+        this.interactiveShare = interactiveShare;
+        this.interactiveLength = interactiveLength;
+        this.weight = weight;
+    }
+
+    /**
+     * Returns a generator for the same workload in which every task has a deadline
+     * of slack * length / referenceMips
+     *
+     * @param slack distribution of the slack factors
+     * @param referenceMips MIPS rating the execution time is computed for
+     * @return the new generator
+     */
+    public WorkloadGenerator withDeadlines(WorkloadDistribution slack, double referenceMips) {
+        if (referenceMips <= 0) {
+            throw new IllegalArgumentException("Reference MIPS must be positive: " + referenceMips);
+        }
+        return new WorkloadGenerator(seed, length, fileSize, outputSize, pes, slack, referenceMips,
+                interactiveShare, interactiveLength, weight);
+    }
+
+    /**
+     * Returns a generator for the same workload in which a share of the tasks are
+     * interactive, of priority class {@link CloudletSpec#PRIORITY_INTERACTIVE}
+     *
+     * @param share probability of a task being interactive, from 0 to 1
+     * @param length distribution of the lengths of interactive tasks in MI
+     * @return the new generator
+     */
+    public WorkloadGenerator withInteractiveTasks(double share, WorkloadDistribution length) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException("Interactive share must be between 0 and 1: " + share);
+        }
+        return new WorkloadGenerator(seed, this.length, fileSize, outputSize, pes, deadlineSlack, deadlineMips,
+                share, length, weight);
+    }
+
+    /**
+     * Returns a generator for the same workload in which every task has a weight
+     * within its priority class
+     *
+     * @param weight distribution of the weights
+     * @return the new generator
+     */
+    public WorkloadGenerator withWeights(WorkloadDistribution weight) {
+        return new WorkloadGenerator(seed, length, fileSize, outputSize, pes, deadlineSlack, deadlineMips,
+                interactiveShare, interactiveLength, weight);
+    }
+
+    /**
+     * @return distribution of task lengths: uniform over 10000-50000 MI
+     */
+    public static WorkloadDistribution defaultLength() {
+        return WorkloadDistribution.uniform(10000, 50000);
+    }
+
+    /**
+     * @return distribution of input file sizes: uniform over 500-2000 bytes
+     */
+    public static WorkloadDistribution defaultFileSize() {
+        return WorkloadDistribution.uniform(500, 2000);
+    }
+
+    /**
+     * @return distribution of output file sizes: uniform over 300-1300 bytes
+     */
+    public static WorkloadDistribution defaultOutputSize() {
+        return WorkloadDistribution.uniform(300, 1300);
+    }
+
+    /**
+     * @return distribution of deadline slack factors: uniform over 1.5-4
+     */
+    public static WorkloadDistribution defaultDeadlineSlack() {
+        return WorkloadDistribution.uniform(1.5, 4);
+    }
+
+    /**
+     * @return distribution of the lengths of interactive tasks: uniform over 1000-5000 MI
+     */
+    public static WorkloadDistribution defaultInteractiveLength() {
+        return WorkloadDistribution.uniform(1000, 5000);
+    }
+
+    /**
+     * Generates task specs with IDs 0 .. count-1, in parallel
+     *
+     * @param count number of tasks
+     * @return the specs, indexed by ID
+     */
+    public List<CloudletSpec> generate(int count) {
+        final CloudletSpec[] specs = new CloudletSpec[count];
+        final SplittableRandom[] streams = streams(seed, count);
+        final SplittableRandom[] deadlineStreams = deadlineSlack != null
+                ? streams(seed ^ DEADLINE_SEED_SALT, count) : null;
+        final SplittableRandom[] classStreams = hasClasses() ? streams(seed ^ CLASS_SEED_SALT, count) : null;
+        IntStream.range(0, streams.length).parallel().forEach(block -> {
+            SplittableRandom random = streams[block];
+            SplittableRandom deadlineRandom = deadlineStreams != null ? deadlineStreams[block] : null;
+            SplittableRandom classRandom = classStreams != null ? classStreams[block] : null;
+            int end = Math.min(count, (block + 1) * BLOCK_SIZE);
+            for (int id = block * BLOCK_SIZE; id < end; id++) {
+                specs[id] = spec(id, random, deadlineRandom, classRandom);
+            }
+        });
+        return Arrays.asList(specs);
+    }
+
+    /**
+     * Generates cloudlets with IDs 0 .. count-1, in parallel
+     *
+     * @param count number of tasks
+     * @param userId ID of the broker that submits them
+     * @return the cloudlets, not bound to a VM
+     */
+    public List<Cloudlet> generateCloudlets(int count, int userId) {
+        List<CloudletSpec> specs = generate(count);
+        Cloudlet[] cloudlets = new Cloudlet[count];
+        IntStream.range(0, count).parallel().forEach(id -> cloudlets[id] = specs.get(id).toCloudlet(userId));
+        return new ArrayList<Cloudlet>(Arrays.asList(cloudlets));
+    }
+
+    /**
+     * Generates the same specs as {@link #generate(int)} one at a time, on the
+     * calling thread, so only the specs taken so far exist
+     *
+     * @param count number of tasks
+     * @return iterator over the specs
+     */
+    public Iterator<CloudletSpec> iterator(final int count) {
+        return new Iterator<CloudletSpec>() {
+            private final SplittableRandom root = new SplittableRandom(seed);
+            private final SplittableRandom deadlineRoot = deadlineSlack != null
+                    ? new SplittableRandom(seed ^ DEADLINE_SEED_SALT) : null;
+            private final SplittableRandom classRoot = hasClasses()
+                    ? new SplittableRandom(seed ^ CLASS_SEED_SALT) : null;
+            private SplittableRandom random;
+            private SplittableRandom deadlineRandom;
+            private SplittableRandom classRandom;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public CloudletSpec next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                if (next % BLOCK_SIZE == 0) {
+                    random = root.split();
+                    if (deadlineRoot != null) {
+                        deadlineRandom = deadlineRoot.split();
+                    }
+                    if (classRoot != null) {
+                        classRandom = classRoot.split();
+                    }
+                }
+                return spec(next++, random, deadlineRandom, classRandom);
+            }
+        };
+    }
+
+    /**
+     * @return the seed of the root random stream
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "seed=" + seed + ", length=" + length + ", fileSize=" + fileSize + ", outputSize=" + outputSize
+                + (deadlineSlack != null ? ", deadline slack=" + deadlineSlack + " at " + deadlineMips + " MIPS" : "")
+                + (interactiveShare > 0 ? ", interactive=" + interactiveShare + " of length " + interactiveLength : "")
+                + (weight != null ? ", weight=" + weight : "");
+    }
+
+    /**
+     * @return whether tasks draw a priority class or weight
+     */
+    private boolean hasClasses() {
+        return interactiveShare > 0 || weight != null;
+    }
+
+    private static SplittableRandom[] streams(long seed, int count) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[(count + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        for (int block = 0; block < streams.length; block++) {
+            streams[block] = root.split();
+        }
+        return streams;
+    }
+
+    private CloudletSpec spec(int id, SplittableRandom random, SplittableRandom deadlineRandom,
+                              SplittableRandom classRandom) {
+        long taskLength = Math.max(1, (long) length.sample(random));
+        long taskFileSize = Math.max(0, (long) fileSize.sample(random));
+        long taskOutputSize = Math.max(0, (long) outputSize.sample(random));
+        int priority = CloudletSpec.PRIORITY_BATCH;
+        double taskWeight = 1;
+        if (classRandom != null) {
+            if (interactiveShare > 0 && classRandom.nextDouble() < interactiveShare) {
+                priority = CloudletSpec.PRIORITY_INTERACTIVE;
+                taskLength = Math.max(1, (long) interactiveLength.sample(classRandom));
+            }
+            if (weight != null) {
+                taskWeight = Math.max(MIN_WEIGHT, weight.sample(classRandom));
+            }
+        }
+        double deadline = CloudletSpec.NO_DEADLINE;
+        if (deadlineRandom != null) {
+            deadline = Math.max(0, deadlineSlack.sample(deadlineRandom)) * taskLength / deadlineMips;
+        }
+        return new CloudletSpec(id, -1, 0, taskLength, pes, taskFileSize, taskOutputSize, deadline,
+                priority, taskWeight);
+    }
+}
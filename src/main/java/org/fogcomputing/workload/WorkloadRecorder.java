@@ -0,0 +1,144 @@
+package org.fogcomputing.workload;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+/**
+ * Records a workload as a binary file, so that it can be fed unchanged to other
+ * runs with a {@link WorkloadReplay}.
+ *
+ * Layout (little endian):
+ * <pre>
+ * file header:  int magic, int version, int flags (bit 0: timed arrivals), int reserved
+ * each task:    long length, long fileSize, long outputSize, long jobNumber,
+ *               double submitTime, int id, int pes, double deadline, double weight, int priority
+ * </pre>
+ * Tasks are 68 bytes each, in the order they were recorded, until the end of the
+ * file; the deadline is infinite for tasks without one. Tasks are buffered and
+ * written in large blocks with a {@link FileChannel}. The flags tell the replay
+ * whether the tasks were submitted at their submit times or all at once.
+ */
+public class WorkloadRecorder implements Closeable {
+
+    static final int MAGIC = 0x31574346; // "FCW1"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 68;
+    static final int FLAG_TIMED_ARRIVALS = 1;
+
+    // Records per buffered block
+    private static final int BLOCK_RECORDS = 4096;
+
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long count;
+
+    /**
+     * Creates the file (and its parent directories) and writes the file header
+     *
+     * @param file the output file
+     * @param timedArrivals whether the tasks are submitted at their submit times
+     * @throws IOException if the file cannot be created
+     */
+    public WorkloadRecorder(File file, boolean timedArrivals) throws IOException {
+        this.file = file;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent.getAbsolutePath());
+        }
+        channel = new FileOutputStream(file).getChannel();
+        buffer = ByteBuffer.allocateDirect(BLOCK_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(timedArrivals ? FLAG_TIMED_ARRIVALS : 0).putInt(0);
+    }
+
+    /**
+     * Appends one task
+     *
+     * @param spec the task
+     * @throws IOException if a full block cannot be written
+     */
+    public void write(CloudletSpec spec) throws IOException {
+        if (buffer.remaining() < RECORD_BYTES) {
+            flush();
+        }
+        buffer.putLong(spec.getLength())
+                .putLong(spec.getFileSize())
+                .putLong(spec.getOutputSize())
+                .putLong(spec.getJobNumber())
+                .putDouble(spec.getSubmitTime())
+                .putInt(spec.getId())
+                .putInt(spec.getPes())
+                .putDouble(spec.getDeadline())
+                .putDouble(spec.getWeight())
+                .putInt(spec.getPriority());
+        count++;
+    }
+
+    /**
+     * Wraps a source of specs so that every spec it delivers is recorded
+     *
+     * @param source the specs
+     * @return the same specs, in the same order
+     */
+    public Iterator<CloudletSpec> record(final Iterator<CloudletSpec> source) {
+        return new Iterator<CloudletSpec>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public CloudletSpec next() {
+                CloudletSpec spec = source.next();
+                try {
+                    write(spec);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot record workload to " + file, e);
+                }
+                return spec;
+            }
+        };
+    }
+
+    /**
+     * @return number of tasks recorded so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the buffered tasks and closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,148 @@
+package org.fogcomputing.workload;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a workload written by a {@link WorkloadRecorder}.
+ *
+ * The tasks are streamed from the file block by block, so replaying a workload
+ * takes no more memory than generating it. Every run that replays the same file
+ * gets the same tasks with the same IDs, sizes, submit times, deadlines, priority
+ * classes and weights, so differences between policies are not mixed with
+ * differences between random workloads.
+ */
+public class WorkloadReplay implements Closeable {
+
+    private static final int BLOCK_RECORDS = 4096;
+
+    private final File file;
+    private final FileChannel channel;
+    private final boolean timedArrivals;
+    private final long count;
+    private boolean read;
+
+    /**
+     * Opens a recorded workload and checks its header
+     *
+     * @param file the recorded workload
+     * @throws IOException if the file cannot be read or is not a recorded workload
+     */
+    public WorkloadReplay(File file) throws IOException {
+        this.file = file;
+        this.channel = new FileInputStream(file).getChannel();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(WorkloadRecorder.FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header);
+            if (header.remaining() < WorkloadRecorder.FILE_HEADER_BYTES
+                    || header.getInt() != WorkloadRecorder.MAGIC) {
+                throw new IOException(file + " is not a recorded workload");
+            }
+            int version = header.getInt();
+            if (version != WorkloadRecorder.VERSION) {
+                throw new IOException("Unsupported workload version " + version + " in " + file);
+            }
+            timedArrivals = (header.getInt() & WorkloadRecorder.FLAG_TIMED_ARRIVALS) != 0;
+            long records = channel.size() - WorkloadRecorder.FILE_HEADER_BYTES;
+            if (records % WorkloadRecorder.RECORD_BYTES != 0) {
+                throw new IOException(file + " ends with an incomplete task");
+            }
+            count = records / WorkloadRecorder.RECORD_BYTES;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether the recorded tasks were submitted at their submit times
+     */
+    public boolean isTimedArrivals() {
+        return timedArrivals;
+    }
+
+    /**
+     * @return number of recorded tasks
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the recorded tasks in recording order. Can only be called once.
+     *
+     * @return the tasks
+     */
+    public synchronized Iterator<CloudletSpec> specs() {
+        if (read) {
+            throw new IllegalStateException("The workload of " + file + " has already been read");
+        }
+        read = true;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_RECORDS * WorkloadRecorder.RECORD_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.limit(0);
+        return new Iterator<CloudletSpec>() {
+            private long remaining = count;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public CloudletSpec next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                if (!buffer.hasRemaining()) {
+                    buffer.clear();
+                    try {
+                        readFully(buffer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot read workload from " + file, e);
+                    }
+                }
+                remaining--;
+                long length = buffer.getLong();
+                long fileSize = buffer.getLong();
+                long outputSize = buffer.getLong();
+                long jobNumber = buffer.getLong();
+                double submitTime = buffer.getDouble();
+                int id = buffer.getInt();
+                int pes = buffer.getInt();
+                double deadline = buffer.getDouble();
+                double weight = buffer.getDouble();
+                int priority = buffer.getInt();
+                return new CloudletSpec(id, jobNumber, submitTime, length, pes, fileSize, outputSize, deadline,
+                        priority, weight);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Fills the buffer up to its limit or to the end of the file, then flips it
+     */
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,131 @@
+package org.fogcomputing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.After;
+import org.junit.Test;
+
+public class FlexibleVmAllocationPolicyTest {
+
+    // Free MIPS of the hosts, in host list order
+    private static final double[] HOST_MIPS = {2000, 1000, 4000};
+
+    @After
+    public void clearFitProperty() {
+        System.clearProperty(FlexibleVmAllocationPolicy.FIT_PROPERTY);
+    }
+
+    @Test
+    public void firstFitTakesFirstHostThatFits() {
+        List<Host> hosts = createHosts();
+        FlexibleVmAllocationPolicy policy = createPolicy(hosts, HostCapacityIndex.Fit.FIRST);
+
+        assertPlaced(policy, createVm(0, 500), hosts.get(0));
+        assertPlaced(policy, createVm(1, 1500), hosts.get(0));
+        // Host #0 is full now
+        assertPlaced(policy, createVm(2, 500), hosts.get(1));
+    }
+
+    @Test
+    public void bestFitTakesHostWithLeastFreeMips() {
+        List<Host> hosts = createHosts();
+        FlexibleVmAllocationPolicy policy = createPolicy(hosts, HostCapacityIndex.Fit.BEST);
+
+        assertPlaced(policy, createVm(0, 500), hosts.get(1));
+        assertPlaced(policy, createVm(1, 1500), hosts.get(0));
+        assertPlaced(policy, createVm(2, 3000), hosts.get(2));
+    }
+
+    @Test
+    public void worstFitTakesHostWithMostFreeMips() {
+        List<Host> hosts = createHosts();
+        FlexibleVmAllocationPolicy policy = createPolicy(hosts, HostCapacityIndex.Fit.WORST);
+
+        assertPlaced(policy, createVm(0, 500), hosts.get(2));
+        assertPlaced(policy, createVm(1, 2000), hosts.get(2));
+        // Host #2 has 1500 MIPS left, host #0 has 2000
+        assertPlaced(policy, createVm(2, 500), hosts.get(0));
+    }
+
+    @Test
+    public void vmLargerThanEveryHostIsNotPlaced() {
+        for (HostCapacityIndex.Fit fit : HostCapacityIndex.Fit.values()) {
+            FlexibleVmAllocationPolicy policy = createPolicy(createHosts(), fit);
+            Vm vm = createVm(0, 5000);
+            assertFalse(fit + " fit placed an oversized VM", policy.allocateHostForVm(vm));
+        }
+    }
+
+    @Test
+    public void releasedCapacityIsReused() {
+        List<Host> hosts = createHosts();
+        FlexibleVmAllocationPolicy policy = createPolicy(hosts, HostCapacityIndex.Fit.BEST);
+        Vm vm = createVm(0, 1000);
+        assertPlaced(policy, vm, hosts.get(1));
+
+        policy.deallocateHostForVm(vm);
+        assertPlaced(policy, createVm(1, 1000), hosts.get(1));
+    }
+
+    @Test
+    public void fitIsReadFromProperty() {
+        System.setProperty(FlexibleVmAllocationPolicy.FIT_PROPERTY, " worst ");
+        assertEquals(HostCapacityIndex.Fit.WORST, FlexibleVmAllocationPolicy.fitFromProperty());
+
+        System.clearProperty(FlexibleVmAllocationPolicy.FIT_PROPERTY);
+        assertEquals(HostCapacityIndex.Fit.FIRST, FlexibleVmAllocationPolicy.fitFromProperty());
+    }
+
+    @Test
+    public void invalidFitPropertyNamesPropertyAndStrategies() {
+        System.setProperty(FlexibleVmAllocationPolicy.FIT_PROPERTY, "BESTT");
+        try {
+            FlexibleVmAllocationPolicy.fitFromProperty();
+            fail("Invalid fit accepted");
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage();
+            assertTrue(message, message.contains(FlexibleVmAllocationPolicy.FIT_PROPERTY));
+            assertTrue(message, message.contains("BESTT"));
+            assertTrue(message, message.contains("FIRST") && message.contains("BEST") && message.contains("WORST"));
+        }
+    }
+
+    private static void assertPlaced(FlexibleVmAllocationPolicy policy, Vm vm, Host expected) {
+        assertTrue("VM #" + vm.getId() + " was not placed", policy.allocateHostForVm(vm));
+        assertSame("VM #" + vm.getId() + " on wrong host", expected, policy.getHost(vm));
+    }
+
+    private static FlexibleVmAllocationPolicy createPolicy(List<Host> hosts, HostCapacityIndex.Fit fit) {
+        return new FlexibleVmAllocationPolicy(hosts, "Test", fit);
+    }
+
+    private static List<Host> createHosts() {
+        List<Host> hosts = new ArrayList<Host>();
+        for (int i = 0; i < HOST_MIPS.length; i++) {
+            List<Pe> peList = new ArrayList<Pe>();
+            peList.add(new Pe(0, new PeProvisionerSimple(HOST_MIPS[i])));
+            hosts.add(new Host(i, new RamProvisionerSimple(16384), new BwProvisionerSimple(100000),
+                    1000000, peList, new VmSchedulerTimeShared(peList)));
+        }
+        return hosts;
+    }
+
+    private static Vm createVm(int id, double mips) {
+        return new Vm(id, 0, mips, 1, 512, 1000, 1000, "Xen", new CloudletSchedulerTimeShared());
+    }
+}
@@ -0,0 +1,79 @@
+package org.fogcomputing;
+
+import static org.junit.Assert.assertEquals;
+
+import org.fogcomputing.RunSummary.Metric;
+import org.junit.Test;
+
+public class RunSummaryTest {
+
+    @Test
+    public void csvRowRoundTripsEveryMetric() {
+        RunSummary.Builder builder = RunSummary.builder("Energy-Aware, \"tuned\"");
+        for (Metric metric : Metric.values()) {
+            if (!metric.isDerived()) {
+                builder.set(metric, metric.isCount() ? metric.ordinal() + 1 : metric.ordinal() + 0.25);
+            }
+        }
+        RunSummary summary = builder.build();
+
+        RunSummary parsed = RunSummary.fromCsvRow(summary.toCsvRow());
+
+        assertEquals("Energy-Aware, \"tuned\"", parsed.getPolicyName());
+        for (Metric metric : Metric.values()) {
+            assertEquals(metric.getColumnName(), summary.get(metric), parsed.get(metric), 1e-9);
+        }
+        assertEquals(summary.toCsvRow(), parsed.toCsvRow());
+    }
+
+    @Test
+    public void builderComputesHostEnergy() {
+        RunSummary summary = RunSummary.builder("MCEETO Offloading")
+                .set(Metric.COMPLETED_TASKS, 4)
+                .set(Metric.CLOUD_HOST_ENERGY, 10)
+                .set(Metric.FOG_HOST_ENERGY, 20)
+                .set(Metric.IOT_HOST_ENERGY, 30)
+                .build();
+
+        assertEquals(60, summary.getHostEnergy(), 1e-9);
+        assertEquals(15, summary.getHostEnergyPerTask(), 1e-9);
+        assertEquals(4, summary.getCompletedTasks());
+    }
+
+    @Test
+    public void fromCsvRowMatchesColumnsByName() {
+        String header = "policy,iotTasks,cloudTasks,fogTasks";
+        StringBuilder fullHeader = new StringBuilder(header);
+        StringBuilder row = new StringBuilder("P,3,1,2");
+        for (Metric metric : Metric.values()) {
+            if (metric != Metric.CLOUD_TASKS && metric != Metric.FOG_TASKS && metric != Metric.IOT_TASKS) {
+                fullHeader.append(',').append(metric.getColumnName());
+                row.append(",0");
+            }
+        }
+
+        RunSummary summary = RunSummary.fromCsvRow(fullHeader.toString(), row.toString());
+
+        assertEquals(1, summary.getCloudTasks());
+        assertEquals(2, summary.getFogTasks());
+        assertEquals(3, summary.getIotTasks());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromCsvRowRejectsUnknownColumn() {
+        String header = RunSummary.CSV_HEADER.replace("makespan", "span");
+        RunSummary.fromCsvRow(header, RunSummary.empty("P").toCsvRow());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromCsvRowRejectsMissingColumn() {
+        String header = RunSummary.CSV_HEADER.replace(",makespan", "");
+        String row = RunSummary.empty("P").toCsvRow().replaceFirst(",0\\.0000", "");
+        RunSummary.fromCsvRow(header, row);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderRejectsDerivedMetric() {
+        RunSummary.builder("P").set(Metric.HOST_ENERGY, 1);
+    }
+}
@@ -0,0 +1,127 @@
+package org.fogcomputing.algorithms;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.fogcomputing.workload.DeadlineCloudlet;
+import org.junit.Test;
+
+/**
+ * One VM per tier. With the default latencies the round trip is 0 to IoT, 4 to
+ * Fog and 44 to Cloud, so a task of L MI is expected to finish at L / 500 on IoT,
+ * 4 + L / 2000 on Fog and 44 + L / 10000 on Cloud.
+ */
+public class DeadlineAwareOffloadingPolicyTest {
+
+    private static final int CLOUD_VM = 0;
+    private static final int FOG_VM = 1;
+    private static final int IOT_VM = 2;
+
+    private final TierRegistry tiers = new TierRegistry(1, 1, 1);
+    private final List<Vm> vms = Arrays.asList(createVm(CLOUD_VM, 10000), createVm(FOG_VM, 2000),
+            createVm(IOT_VM, 500));
+
+    @Test
+    public void prefersIotWhenItMeetsTheDeadline() {
+        // IoT 8, Fog 6: the nearest tier that is on time wins, not the fastest
+        assertEquals(IOT_VM, newPolicy().getTargetVmId(createTask(0, 4000, 50), vms));
+    }
+
+    @Test
+    public void triesFogBeforeCloud() {
+        // IoT 8 is late, Fog 6 is on time
+        assertEquals(FOG_VM, newPolicy().getTargetVmId(createTask(0, 4000, 7), vms));
+    }
+
+    @Test
+    public void fallsBackToCloud() {
+        // IoT 400 and Fog 104 are late, Cloud 64 is on time
+        assertEquals(CLOUD_VM, newPolicy().getTargetVmId(createTask(0, 200000, 70), vms));
+    }
+
+    @Test
+    public void infeasibleTaskGoesToEarliestFinish() {
+        // IoT 40, Fog 14, Cloud 46: all late
+        assertEquals(FOG_VM, newPolicy().getTargetVmId(createTask(0, 20000, 5), vms));
+        // IoT 400, Fog 104, Cloud 64: all late
+        assertEquals(CLOUD_VM, newPolicy().getTargetVmId(createTask(1, 200000, 10), vms));
+    }
+
+    @Test
+    public void taskWithoutDeadlineGoesToEarliestFinish() {
+        UtilizationModelFull full = new UtilizationModelFull();
+        Cloudlet cloudlet = new Cloudlet(0, 20000, 1, 300, 300, full, full, full);
+        assertEquals(FOG_VM, newPolicy().getTargetVmId(cloudlet, vms));
+    }
+
+    @Test
+    public void outstandingLoadDelaysLaterTasks() {
+        DeadlineAwareOffloadingPolicy policy = newPolicy();
+        Cloudlet first = createTask(0, 1000, 3);
+        assertEquals(IOT_VM, policy.getTargetVmId(first, vms));
+        assertEquals(1000, policy.getOutstandingLoad(IOT_VM));
+
+        // Behind the first task IoT would finish at 6, Fog at 5
+        assertEquals(FOG_VM, policy.getTargetVmId(createTask(1, 2000, 5.5), vms));
+
+        // Once it is released IoT finishes at 4
+        policy.cloudletFinished(first, IOT_VM);
+        assertEquals(0, policy.getOutstandingLoad(IOT_VM));
+        assertEquals(IOT_VM, policy.getTargetVmId(createTask(2, 2000, 5.5), vms));
+    }
+
+    @Test
+    public void batchIsAssignedInOrderOfDueTime() {
+        // Submitted first, the loose task would take IoT and push the tight one
+        // (IoT 5, Fog 4.75, both late) to Fog
+        List<Cloudlet> batch = new ArrayList<Cloudlet>();
+        batch.add(createTask(0, 1000, 100));
+        batch.add(createTask(1, 1500, 3.5));
+
+        int[] targets = newPolicy().getTargetVmIds(batch, vms);
+        // The tight task goes first and is on time on IoT (3); the loose one still is (5)
+        assertArrayEquals(new int[] {IOT_VM, IOT_VM}, targets);
+    }
+
+    @Test
+    public void createdVmsOnlyAreChosen() {
+        DeadlineAwareOffloadingPolicy policy = newPolicy();
+        policy.vmsCreated(Arrays.asList(vms.get(CLOUD_VM), vms.get(FOG_VM)));
+        assertEquals(FOG_VM, policy.getTargetVmId(createTask(0, 1000, 3), vms));
+    }
+
+    @Test
+    public void taskIsUnplacedWithoutVms() {
+        DeadlineAwareOffloadingPolicy policy = newPolicy();
+        List<Vm> none = new ArrayList<Vm>();
+        policy.vmsCreated(none);
+
+        assertEquals(-1, policy.getTargetVmId(createTask(0, 1000, 3), none));
+        List<Cloudlet> batch = Arrays.<Cloudlet>asList(createTask(1, 1000, 3), createTask(2, 1000, 30));
+        assertArrayEquals(new int[] {-1, -1}, policy.getTargetVmIds(batch, none));
+    }
+
+    private DeadlineAwareOffloadingPolicy newPolicy() {
+        return new DeadlineAwareOffloadingPolicy(tiers);
+    }
+
+    private static DeadlineCloudlet createTask(int id, long length, double deadline) {
+        UtilizationModelFull full = new UtilizationModelFull();
+        DeadlineCloudlet cloudlet = new DeadlineCloudlet(id, length, 1, 300, 300, full, full, full, deadline);
+        cloudlet.release(0);
+        return cloudlet;
+    }
+
+    private static Vm createVm(int id, double mips) {
+        return new Vm(id, 0, mips, 1, 512, 1000, 1000, "Xen", new CloudletSchedulerTimeShared());
+    }
+}
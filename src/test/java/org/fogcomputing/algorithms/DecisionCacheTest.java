@@ -0,0 +1,156 @@
+package org.fogcomputing.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DecisionCacheTest {
+
+    // Value passed for absent keys, as MCEETOOffloadingPolicy does; VM ids are never negative
+    private static final int NOT_CACHED = -1;
+
+    @Test
+    public void absentKeyReturnsMissingValue() {
+        DecisionCache cache = new DecisionCache(4);
+        assertEquals(NOT_CACHED, cache.get(7, NOT_CACHED));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void putThenGet() {
+        DecisionCache cache = new DecisionCache(4);
+        cache.put(1, 10);
+        cache.put(2, 20);
+
+        assertEquals(10, cache.get(1, NOT_CACHED));
+        assertEquals(20, cache.get(2, NOT_CACHED));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void putOverwritesExistingKey() {
+        DecisionCache cache = new DecisionCache(2);
+        cache.put(1, 10);
+        cache.put(1, 11);
+
+        assertEquals(11, cache.get(1, NOT_CACHED));
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void evictsOnceFull() {
+        DecisionCache cache = new DecisionCache(2);
+        cache.put(1, 10);
+        cache.put(2, 20);
+        cache.put(3, 30);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(NOT_CACHED, cache.get(1, NOT_CACHED));
+        assertEquals(20, cache.get(2, NOT_CACHED));
+        assertEquals(30, cache.get(3, NOT_CACHED));
+    }
+
+    @Test
+    public void clockGivesReadEntriesASecondChance() {
+        DecisionCache cache = new DecisionCache(3);
+        cache.put(1, 10);
+        cache.put(2, 20);
+        cache.put(3, 30);
+        cache.get(1, NOT_CACHED);
+
+        // The hand clears the reference bit of 1 and evicts 2
+        cache.put(4, 40);
+        assertEvicted(cache, 2);
+        // Then 3, which was never read
+        cache.put(5, 50);
+        assertEvicted(cache, 3);
+        // 1 has used up its second chance
+        cache.put(6, 60);
+        assertEvicted(cache, 1);
+
+        assertEquals(3, cache.getEvictions());
+        assertEquals(40, cache.get(4, NOT_CACHED));
+        assertEquals(50, cache.get(5, NOT_CACHED));
+        assertEquals(60, cache.get(6, NOT_CACHED));
+    }
+
+    @Test
+    public void countersAddUp() {
+        DecisionCache cache = new DecisionCache(2);
+        cache.get(1, NOT_CACHED);
+        cache.put(1, 10);
+        cache.get(1, NOT_CACHED);
+        cache.get(1, NOT_CACHED);
+        cache.put(2, 20);
+        cache.put(3, 30);
+        cache.get(2, NOT_CACHED);
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void clearKeepsCounters() {
+        DecisionCache cache = new DecisionCache(2);
+        cache.put(1, 10);
+        cache.get(1, NOT_CACHED);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(NOT_CACHED, cache.get(1, NOT_CACHED));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void lookupsStayCorrectUnderChurn() {
+        // Many colliding keys and evictions exercise the backward shift on removal
+        DecisionCache cache = new DecisionCache(64);
+        Map<Integer, Integer> lastValues = new HashMap<Integer, Integer>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(256) * 1024;
+            if (random.nextBoolean()) {
+                int value = random.nextInt(1000);
+                cache.put(key, value);
+                lastValues.put(key, value);
+            } else {
+                int value = cache.get(key, NOT_CACHED);
+                assertTrue(value == NOT_CACHED || value == lastValues.get(key));
+            }
+        }
+        assertEquals(64, cache.size());
+
+        int found = 0;
+        for (int key : lastValues.keySet()) {
+            int value = cache.get(key, NOT_CACHED);
+            if (value != NOT_CACHED) {
+                assertEquals(lastValues.get(key).intValue(), value);
+                found++;
+            }
+        }
+        assertEquals(cache.size(), found);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroCapacity() {
+        new DecisionCache(0);
+    }
+
+    private static void assertEvicted(DecisionCache cache, int key) {
+        long misses = cache.getMisses();
+        assertEquals("key " + key, NOT_CACHED, cache.get(key, NOT_CACHED));
+        assertEquals(misses + 1, cache.getMisses());
+    }
+}
@@ -0,0 +1,98 @@
+package org.fogcomputing.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.fogcomputing.TierRegistry.Tier;
+import org.junit.Test;
+
+public class EnergyAwareOffloadingPolicyTest {
+
+    // Cloud VMs 0-1, Fog VMs 2-6, IoT VMs 7-16
+    private final TierRegistry tiers = new TierRegistry(2, 5, 10);
+    private final List<Vm> vms = createVms(tiers.totalVms());
+
+    @Test
+    public void firstTasksGoToCloudThenFog() {
+        EnergyAwareOffloadingPolicy policy = new EnergyAwareOffloadingPolicy(tiers);
+        for (int id = 0; id < 7; id++) {
+            Tier expected = id < 2 ? Tier.CLOUD : Tier.FOG;
+            assertEquals(expected, tiers.tierOf(policy.getTargetVmId(createCloudlet(id), vms)));
+        }
+    }
+
+    @Test
+    public void iotTasksAreSpreadOverTheWholeTier() {
+        EnergyAwareOffloadingPolicy policy = new EnergyAwareOffloadingPolicy(tiers);
+        assertEquals(10, policy.getIotVms());
+
+        Set<Integer> used = iotVmsUsed(policy);
+        assertEquals(10, used.size());
+        for (int vmId : used) {
+            assertEquals(Tier.IOT, tiers.tierOf(vmId));
+        }
+    }
+
+    @Test
+    public void iotTasksCanBeCappedToTheFirstVms() {
+        EnergyAwareOffloadingPolicy policy = new EnergyAwareOffloadingPolicy(tiers, 3);
+        assertEquals(3, policy.getIotVms());
+
+        Set<Integer> used = iotVmsUsed(policy);
+        assertEquals(3, used.size());
+        for (int vmId : used) {
+            assertTrue(vmId >= tiers.firstVmId(Tier.IOT) && vmId < tiers.firstVmId(Tier.IOT) + 3);
+        }
+    }
+
+    @Test
+    public void capIsLimitedToTheTier() {
+        assertEquals(10, new EnergyAwareOffloadingPolicy(tiers, 50).getIotVms());
+    }
+
+    @Test
+    public void withoutIotTierTasksAreSpreadOverAllVms() {
+        TierRegistry noIot = new TierRegistry(2, 5, 0);
+        EnergyAwareOffloadingPolicy policy = new EnergyAwareOffloadingPolicy(noIot);
+        List<Vm> noIotVms = createVms(noIot.totalVms());
+
+        assertEquals(10 % 7, policy.getTargetVmId(createCloudlet(10), noIotVms));
+        assertEquals(-1, policy.getTargetVmId(createCloudlet(10), new ArrayList<Vm>()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capMustBePositive() {
+        new EnergyAwareOffloadingPolicy(tiers, 0);
+    }
+
+    private Set<Integer> iotVmsUsed(EnergyAwareOffloadingPolicy policy) {
+        Set<Integer> used = new HashSet<>();
+        for (int id = 7; id < 100; id++) {
+            used.add(policy.getTargetVmId(createCloudlet(id), vms));
+        }
+        return used;
+    }
+
+    private static Cloudlet createCloudlet(int id) {
+        UtilizationModelFull full = new UtilizationModelFull();
+        return new Cloudlet(id, 1000, 1, 300, 300, full, full, full);
+    }
+
+    private static List<Vm> createVms(int count) {
+        List<Vm> vms = new ArrayList<Vm>();
+        for (int id = 0; id < count; id++) {
+            vms.add(new Vm(id, 0, 50, 1, 512, 1000, 1000, "Xen", new CloudletSchedulerTimeShared()));
+        }
+        return vms;
+    }
+}
@@ -0,0 +1,172 @@
+package org.fogcomputing.algorithms;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.junit.Test;
+
+public class FailoverOffloadingPolicyTest {
+
+    // Cloud VMs 0-1, Fog VMs 2-6, IoT VMs 7-9
+    private final TierRegistry tiers = new TierRegistry(2, 5, 3);
+    private final List<Vm> vms = createVms(tiers.totalVms());
+
+    @Test
+    public void createdTargetIsKept() {
+        FailoverOffloadingPolicy policy = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        policy.vmsCreated(createdVms(2));
+
+        assertEquals(3, policy.getTargetVmId(createCloudlet(0, 1000, 3), vms));
+        assertEquals(0, policy.getRedirectedCount());
+    }
+
+    @Test
+    public void sameTierIsTriedFirstAndLeastLoadedVmIsPicked() {
+        FailoverOffloadingPolicy policy = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        policy.vmsCreated(createdVms(2));
+        assertEquals(3, policy.getTargetVmId(createCloudlet(0, 1000, 3), vms));
+        assertEquals(4, policy.getTargetVmId(createCloudlet(1, 2000, 4), vms));
+        assertEquals(5, policy.getTargetVmId(createCloudlet(2, 3000, 5), vms));
+
+        // Fog VM 6 has no load yet, then VM 3 has the least
+        assertEquals(6, policy.getTargetVmId(createCloudlet(3, 4000, 2), vms));
+        assertEquals(3, policy.getTargetVmId(createCloudlet(4, 800, 2), vms));
+        assertEquals(3, policy.getTargetVmId(createCloudlet(5, 800, 2), vms));
+        assertEquals(4, policy.getTargetVmId(createCloudlet(6, 800, 2), vms));
+        assertEquals(4, policy.getRedirectedCount());
+    }
+
+    @Test
+    public void finishedTasksNoLongerCountAsLoad() {
+        FailoverOffloadingPolicy policy = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        // Only Cloud VMs 0 and 1 are left
+        policy.vmsCreated(createdVms(2, 3, 4, 5, 6, 7, 8, 9));
+        Cloudlet first = createCloudlet(0, 1000, 7);
+        int firstVmId = policy.getTargetVmId(first, vms);
+        assertEquals(1 - firstVmId, policy.getTargetVmId(createCloudlet(1, 500, 7), vms));
+
+        policy.cloudletFinished(first, firstVmId);
+
+        assertEquals(firstVmId, policy.getTargetVmId(createCloudlet(2, 100, 7), vms));
+    }
+
+    @Test
+    public void nearestTierByLatencyIsUsedWhenTierIsGone() {
+        // IoT tier gone: Fog is always nearer than the Cloud
+        FailoverOffloadingPolicy policy = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        policy.vmsCreated(createdVms(7, 8, 9));
+        assertEquals(TierRegistry.Tier.FOG, tierOf(policy.getTargetVmId(createCloudlet(0, 1000, 8), vms)));
+
+        // Fog tier gone: IoT is nearer when IoT-Fog is the faster link, the Cloud otherwise
+        FailoverOffloadingPolicy nearIot = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        nearIot.vmsCreated(createdVms(2, 3, 4, 5, 6));
+        assertEquals(TierRegistry.Tier.IOT, tierOf(nearIot.getTargetVmId(createCloudlet(0, 1000, 2), vms)));
+
+        FailoverOffloadingPolicy nearCloud = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 50, 5);
+        nearCloud.vmsCreated(createdVms(2, 3, 4, 5, 6));
+        assertEquals(TierRegistry.Tier.CLOUD, tierOf(nearCloud.getTargetVmId(createCloudlet(0, 1000, 2), vms)));
+
+        // IoT and Fog tiers gone: the Cloud is the last resort for IoT tasks
+        FailoverOffloadingPolicy lastResort = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        lastResort.vmsCreated(createdVms(2, 3, 4, 5, 6, 7, 8, 9));
+        assertEquals(TierRegistry.Tier.CLOUD, tierOf(lastResort.getTargetVmId(createCloudlet(0, 1000, 9), vms)));
+    }
+
+    @Test
+    public void taskStaysOnItsVmWhenNoVmWasCreated() {
+        FailoverOffloadingPolicy policy = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        policy.vmsCreated(new ArrayList<Vm>());
+
+        assertEquals(4, policy.getTargetVmId(createCloudlet(0, 1000, 4), vms));
+        assertEquals(0, policy.getRedirectedCount());
+    }
+
+    @Test
+    public void batchRedirectsOnlyTasksOfMissingVms() {
+        FailoverOffloadingPolicy policy = new FailoverOffloadingPolicy(new FixedTargetPolicy(), tiers, 5, 50);
+        policy.vmsCreated(createdVms(0, 7));
+        List<Cloudlet> batch = Arrays.asList(createCloudlet(0, 1000, 0), createCloudlet(1, 1000, 1),
+                createCloudlet(2, 3000, 8), createCloudlet(3, 1000, 7), createCloudlet(4, 1000, 7));
+
+        int[] targets = policy.getTargetVmIds(batch, vms);
+
+        // IoT VM 9 stays below VM 8 with both redirected tasks
+        assertArrayEquals(new int[] {1, 1, 8, 9, 9}, targets);
+        assertEquals(3, policy.getRedirectedCount());
+    }
+
+    @Test
+    public void wrappedPolicyIsToldItsOwnChoice() {
+        FixedTargetPolicy fixed = new FixedTargetPolicy();
+        FailoverOffloadingPolicy policy = new FailoverOffloadingPolicy(fixed, tiers, 5, 50);
+        policy.vmsCreated(createdVms(2));
+        Cloudlet redirected = createCloudlet(0, 1000, 2);
+        Cloudlet kept = createCloudlet(1, 1000, 3);
+        int redirectedVmId = policy.getTargetVmId(redirected, vms);
+        int keptVmId = policy.getTargetVmId(kept, vms);
+
+        policy.cloudletFinished(redirected, redirectedVmId);
+        policy.cloudletFinished(kept, keptVmId);
+
+        assertEquals(Integer.valueOf(2), fixed.finished.get(0));
+        assertEquals(Integer.valueOf(3), fixed.finished.get(1));
+    }
+
+    private TierRegistry.Tier tierOf(int vmId) {
+        return tiers.tierOf(vmId);
+    }
+
+    /**
+     * @return every VM except the given ones
+     */
+    private List<Vm> createdVms(int... failedVmIds) {
+        List<Vm> created = new ArrayList<Vm>(vms);
+        for (int vmId : failedVmIds) {
+            created.remove(vms.get(vmId));
+        }
+        return created;
+    }
+
+    private static Cloudlet createCloudlet(int id, long length, int targetVmId) {
+        UtilizationModelFull full = new UtilizationModelFull();
+        Cloudlet cloudlet = new Cloudlet(id, length, 1, 300, 300, full, full, full);
+        cloudlet.setVmId(targetVmId);
+        return cloudlet;
+    }
+
+    private static List<Vm> createVms(int count) {
+        List<Vm> vms = new ArrayList<Vm>();
+        for (int id = 0; id < count; id++) {
+            vms.add(new Vm(id, 0, 50, 1, 512, 1000, 1000, "Xen", new CloudletSchedulerTimeShared()));
+        }
+        return vms;
+    }
+
+    /**
+     * A policy that sends each task to the VM it is already bound to
+     */
+    private static class FixedTargetPolicy implements OffloadingPolicy {
+        final Map<Integer, Integer> finished = new HashMap<>();
+
+        @Override
+        public int getTargetVmId(Cloudlet cloudlet, List<Vm> vmList) {
+            return cloudlet.getVmId();
+        }
+
+        @Override
+        public void cloudletFinished(Cloudlet cloudlet, int vmId) {
+            finished.put(cloudlet.getCloudletId(), vmId);
+        }
+    }
+}
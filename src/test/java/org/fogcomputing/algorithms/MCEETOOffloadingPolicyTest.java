@@ -0,0 +1,75 @@
+package org.fogcomputing.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.TierRegistry;
+import org.junit.Test;
+
+public class MCEETOOffloadingPolicyTest {
+
+    private final TierRegistry tiers = new TierRegistry(2, 5, 10);
+    private final List<Vm> vms = createVms(tiers.totalVms());
+
+    @Test
+    public void cachedDecisionCountsTowardsLoad() {
+        MCEETOOffloadingPolicy policy = new MCEETOOffloadingPolicy(tiers, true);
+        Cloudlet cloudlet = createCloudlet(0, 25000);
+
+        int vmId = policy.getTargetVmId(cloudlet, vms);
+        assertEquals(25000, policy.getOutstandingLoad(vmId));
+        policy.cloudletFinished(cloudlet, vmId);
+        assertEquals(0, policy.getOutstandingLoad(vmId));
+
+        // Placed again from the cache, e.g. after a failover
+        assertEquals(vmId, policy.getTargetVmId(cloudlet, vms));
+        assertEquals(1, policy.getDecisionCache().getHits());
+        assertEquals(25000, policy.getOutstandingLoad(vmId));
+        policy.cloudletFinished(cloudlet, vmId);
+        assertEquals(0, policy.getOutstandingLoad(vmId));
+    }
+
+    @Test
+    public void cachedBatchDecisionCountsTowardsLoad() {
+        MCEETOOffloadingPolicy policy = new MCEETOOffloadingPolicy(tiers, true);
+        List<Cloudlet> batch = Collections.singletonList(createCloudlet(0, 25000));
+
+        int vmId = policy.getTargetVmIds(batch, vms)[0];
+        policy.cloudletFinished(batch.get(0), vmId);
+
+        assertEquals(vmId, policy.getTargetVmIds(batch, vms)[0]);
+        assertEquals(25000, policy.getOutstandingLoad(vmId));
+        policy.cloudletFinished(batch.get(0), vmId);
+        assertEquals(0, policy.getOutstandingLoad(vmId));
+    }
+
+    @Test
+    public void roundRobinModeKeepsNoLoad() {
+        MCEETOOffloadingPolicy policy = new MCEETOOffloadingPolicy(tiers, false);
+        Cloudlet cloudlet = createCloudlet(0, 25000);
+
+        int vmId = policy.getTargetVmId(cloudlet, vms);
+        assertEquals(vmId, policy.getTargetVmId(cloudlet, vms));
+        assertEquals(0, policy.getOutstandingLoad(vmId));
+    }
+
+    private static Cloudlet createCloudlet(int id, long length) {
+        UtilizationModelFull full = new UtilizationModelFull();
+        return new Cloudlet(id, length, 1, 300, 300, full, full, full);
+    }
+
+    private static List<Vm> createVms(int count) {
+        List<Vm> vms = new ArrayList<Vm>();
+        for (int id = 0; id < count; id++) {
+            vms.add(new Vm(id, 0, 50, 1, 512, 1000, 1000, "Xen", new CloudletSchedulerTimeShared()));
+        }
+        return vms;
+    }
+}
@@ -0,0 +1,193 @@
+package org.fogcomputing.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TopologyLatencyTest {
+
+    private static final double DELTA = 1e-9;
+
+    // Cloud <-100- proxy <-4- fog A <-2/3- IoT 4, IoT 5
+    //                    <-6- fog B <-1-   IoT 6
+    // and a second tree made of device 7 alone
+    private static final int CLOUD = 0;
+    private static final int PROXY = 1;
+    private static final int FOG_A = 2;
+    private static final int FOG_B = 3;
+    private static final int IOT_A1 = 4;
+    private static final int IOT_A2 = 5;
+    private static final int IOT_B = 6;
+    private static final int OTHER_ROOT = 7;
+
+    private static final int[] IDS = {100, 101, 102, 103, 104, 105, 106, 200};
+    private static final int[] PARENT_IDS = {-1, 100, 101, 101, 102, 102, 103, 999};
+    private static final double[] LATENCIES = {0, 100, 4, 6, 2, 3, 1, 50};
+
+    @Test
+    public void siblingsMeetAtTheirParent() {
+        TopologyLatency topology = createTopology();
+        assertEquals(5, topology.latency(IOT_A1, IOT_A2), DELTA);
+        assertEquals(2, topology.hops(IOT_A1, IOT_A2));
+        assertEquals(10, topology.latency(FOG_A, FOG_B), DELTA);
+    }
+
+    @Test
+    public void cousinsMeetAtTheirGrandparent() {
+        TopologyLatency topology = createTopology();
+        assertEquals(2 + 4 + 6 + 1, topology.latency(IOT_A1, IOT_B), DELTA);
+        assertEquals(4, topology.hops(IOT_A1, IOT_B));
+    }
+
+    @Test
+    public void pathToRootSumsEveryLink() {
+        TopologyLatency topology = createTopology();
+        assertEquals(106, topology.latency(IOT_A1, CLOUD), DELTA);
+        assertEquals(106, topology.latency(CLOUD, IOT_A1), DELTA);
+        assertEquals(3, topology.hops(CLOUD, IOT_A1));
+        assertEquals(0, topology.latency(IOT_B, IOT_B), DELTA);
+    }
+
+    @Test
+    public void separateTreesAreJoinedWithoutLatency() {
+        TopologyLatency topology = createTopology();
+        // The uplink latency of a root does not count
+        assertEquals(106, topology.latency(IOT_A1, OTHER_ROOT), DELTA);
+        assertEquals(0, topology.latency(CLOUD, OTHER_ROOT), DELTA);
+    }
+
+    @Test
+    public void changedUplinkLatencyAppliesToSubtree() {
+        TopologyLatency topology = createTopology();
+        topology.setUplinkLatency(FOG_A, 10);
+
+        assertEquals(2 + 10 + 6 + 1, topology.latency(IOT_A1, IOT_B), DELTA);
+        assertEquals(112, topology.latency(IOT_A1, CLOUD), DELTA);
+        // Paths that do not cross the link are unchanged
+        assertEquals(5, topology.latency(IOT_A1, IOT_A2), DELTA);
+        assertEquals(107, topology.latency(IOT_B, CLOUD), DELTA);
+    }
+
+    @Test
+    public void movedDeviceTakesItsNewPath() {
+        TopologyLatency topology = createTopology();
+        topology.setParent(IOT_B, IDS[FOG_A], 1);
+
+        assertEquals(3, topology.latency(IOT_A1, IOT_B), DELTA);
+        assertEquals(2, topology.hops(IOT_A1, IOT_B));
+        assertEquals(105, topology.latency(IOT_B, CLOUD), DELTA);
+    }
+
+    @Test
+    public void movedSubtreeCarriesItsChildren() {
+        TopologyLatency topology = createTopology();
+        topology.setParent(FOG_A, IDS[FOG_B], 5);
+
+        assertEquals(2 + 5 + 1, topology.latency(IOT_A1, IOT_B), DELTA);
+        assertEquals(100 + 6 + 5 + 2, topology.latency(IOT_A1, CLOUD), DELTA);
+    }
+
+    @Test
+    public void cyclicMoveIsRejectedAndUndone() {
+        TopologyLatency topology = createTopology();
+        try {
+            topology.setParent(PROXY, IDS[IOT_A1], 1);
+            fail("Moved the proxy under its own descendant");
+        } catch (IllegalArgumentException expected) {
+            // cycle
+        }
+        assertEquals(13, topology.latency(IOT_A1, IOT_B), DELTA);
+        assertEquals(106, topology.latency(IOT_A1, CLOUD), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCycle() {
+        new TopologyLatency(new int[] {1, 2, 3}, new int[] {3, 1, 2}, new double[] {1, 1, 1});
+    }
+
+    @Test
+    public void randomTreeMatchesPathWalk() {
+        Random random = new Random(9);
+        int n = 300;
+        int[] ids = new int[n];
+        int[] parentIds = new int[n];
+        double[] latencies = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = 1000 + i;
+            // A few roots; everyone else hangs below an earlier device
+            parentIds[i] = i == 0 || random.nextInt(50) == 0 ? -1 : ids[random.nextInt(i)];
+            latencies[i] = random.nextInt(100) / 4.0;
+        }
+        TopologyLatency topology = new TopologyLatency(ids, parentIds, latencies);
+        assertMatchesPathWalk(topology, ids, parentIds, latencies);
+
+        for (int change = 0; change < 20; change++) {
+            int position = random.nextInt(n);
+            latencies[position] = random.nextInt(100) / 4.0;
+            topology.setUplinkLatency(position, latencies[position]);
+        }
+        assertMatchesPathWalk(topology, ids, parentIds, latencies);
+    }
+
+    private static TopologyLatency createTopology() {
+        return new TopologyLatency(IDS, PARENT_IDS, LATENCIES);
+    }
+
+    /**
+     * Compares every pair with the latency found by walking both devices up to their
+     * first common ancestor, or to their roots if they are in different trees
+     */
+    private static void assertMatchesPathWalk(TopologyLatency topology, int[] ids, int[] parentIds,
+                                              double[] latencies) {
+        Map<Integer, Integer> positions = new HashMap<Integer, Integer>();
+        for (int i = 0; i < ids.length; i++) {
+            positions.put(ids[i], i);
+        }
+        for (int from = 0; from < ids.length; from++) {
+            Map<Integer, Double> fromUp = ancestors(from, positions, parentIds, latencies);
+            for (int to = 0; to < ids.length; to++) {
+                Map<Integer, Double> toUp = ancestors(to, positions, parentIds, latencies);
+                double expected = Double.NaN;
+                double toRoot = 0;
+                for (Map.Entry<Integer, Double> ancestor : toUp.entrySet()) {
+                    if (fromUp.containsKey(ancestor.getKey())) {
+                        expected = ancestor.getValue() + fromUp.get(ancestor.getKey());
+                        break;
+                    }
+                    toRoot = ancestor.getValue();
+                }
+                if (Double.isNaN(expected)) {
+                    double fromRoot = 0;
+                    for (double latency : fromUp.values()) {
+                        fromRoot = latency;
+                    }
+                    expected = fromRoot + toRoot;
+                }
+                assertEquals(from + " -> " + to, expected, topology.latency(from, to), DELTA);
+            }
+        }
+    }
+
+    /**
+     * @return latency from a device up to itself and each of its ancestors, nearest first
+     */
+    private static Map<Integer, Double> ancestors(int position, Map<Integer, Integer> positions,
+                                                  int[] parentIds, double[] latencies) {
+        Map<Integer, Double> up = new LinkedHashMap<Integer, Double>();
+        double sum = 0;
+        up.put(position, sum);
+        for (Integer parent = positions.get(parentIds[position]); parent != null;
+             parent = positions.get(parentIds[position])) {
+            sum += latencies[position];
+            position = parent;
+            up.put(position, sum);
+        }
+        return up;
+    }
+}
@@ -0,0 +1,131 @@
+package org.fogcomputing.energy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.Test;
+
+public class MeteredPowerHostTest {
+
+    // 100 W idle, 200 W at full utilization
+    private static final double IDLE = 100;
+    private static final double MAX = 200;
+
+    @Test
+    public void energyIsIntegratedOverUtilizationSteps() {
+        MeteredPowerHost host = createHost(1000);
+        FixedUtilizationScheduler scheduler = new FixedUtilizationScheduler();
+        Vm vm = createVm(0, 1000, scheduler);
+        assertTrue(host.vmCreate(vm));
+        double start = host.getLastMeterTime();
+
+        // 1 s at 50% (150 W), then 2 s at 100% (200 W); simulation time is in ms
+        scheduler.utilization = 0.5;
+        host.meter(start + 1000);
+        assertEquals(150, host.getEnergy(), 1e-9);
+        scheduler.utilization = 1;
+        host.meter(start + 3000);
+        assertEquals(550, host.getEnergy(), 1e-9);
+    }
+
+    @Test
+    public void idleVmStillDrawsIdlePower() {
+        MeteredPowerHost host = createHost(1000);
+        assertTrue(host.vmCreate(createVm(0, 1000, new FixedUtilizationScheduler())));
+
+        host.meter(host.getLastMeterTime() + 2000);
+
+        assertEquals(2 * IDLE, host.getEnergy(), 1e-9);
+        // No VM was busy, so the energy is not assigned to one
+        assertEquals(0, host.getVmEnergy(0), 0);
+    }
+
+    @Test
+    public void hostWithoutVmsIsOff() {
+        MeteredPowerHost host = createHost(1000);
+        host.meter(host.getLastMeterTime() + 5000);
+        assertEquals(0, host.getEnergy(), 0);
+
+        FixedUtilizationScheduler scheduler = new FixedUtilizationScheduler();
+        Vm vm = createVm(0, 1000, scheduler);
+        assertTrue(host.vmCreate(vm));
+        scheduler.utilization = 1;
+        host.meter(host.getLastMeterTime() + 1000);
+        assertEquals(MAX, host.getEnergy(), 1e-9);
+
+        host.vmDestroy(vm);
+        host.meter(host.getLastMeterTime() + 5000);
+        assertEquals(MAX, host.getEnergy(), 1e-9);
+    }
+
+    @Test
+    public void energyIsSharedAmongBusyVmsByMips() {
+        MeteredPowerHost host = createHost(1000);
+        FixedUtilizationScheduler busy = new FixedUtilizationScheduler();
+        FixedUtilizationScheduler idle = new FixedUtilizationScheduler();
+        assertTrue(host.vmCreate(createVm(0, 500, busy)));
+        assertTrue(host.vmCreate(createVm(1, 500, idle)));
+        double start = host.getLastMeterTime();
+
+        // Host at 50%: the busy VM takes all 150 J, idle power included
+        busy.utilization = 1;
+        host.meter(start + 1000);
+        assertEquals(150, host.getVmEnergy(0), 1e-9);
+        assertEquals(0, host.getVmEnergy(1), 0);
+
+        // Host at 75%: 175 J, split 2:1 by the MIPS the VMs used
+        idle.utilization = 0.5;
+        host.meter(start + 2000);
+        assertEquals(150 + 175 * 2 / 3.0, host.getVmEnergy(0), 1e-9);
+        assertEquals(175 / 3.0, host.getVmEnergy(1), 1e-9);
+        assertEquals(host.getEnergy(), host.getVmEnergy(0) + host.getVmEnergy(1), 1e-9);
+    }
+
+    @Test
+    public void earlierTimesAreIgnored() {
+        MeteredPowerHost host = createHost(1000);
+        FixedUtilizationScheduler scheduler = new FixedUtilizationScheduler();
+        assertTrue(host.vmCreate(createVm(0, 1000, scheduler)));
+        double start = host.getLastMeterTime();
+        scheduler.utilization = 1;
+
+        host.meter(start + 1000);
+        host.meter(start + 500);
+
+        assertEquals(MAX, host.getEnergy(), 1e-9);
+        assertEquals(start + 1000, host.getLastMeterTime(), 0);
+    }
+
+    static MeteredPowerHost createHost(double mips) {
+        List<Pe> peList = new ArrayList<>();
+        peList.add(new Pe(0, new PeProvisionerSimple(mips)));
+        return new MeteredPowerHost(0, new RamProvisionerSimple(4096), new BwProvisionerSimple(10000), 100000,
+                peList, new VmSchedulerTimeShared(peList), PowerModels.linear(IDLE, MAX));
+    }
+
+    static Vm createVm(int id, double mips, FixedUtilizationScheduler scheduler) {
+        return new Vm(id, 1, mips, 1, 512, 1000, 1000, "Xen", scheduler);
+    }
+
+    /**
+     * A cloudlet scheduler whose CPU utilization is set by the test
+     */
+    static class FixedUtilizationScheduler extends CloudletSchedulerTimeShared {
+        double utilization;
+
+        @Override
+        public double getTotalUtilizationOfCpu(double time) {
+            return utilization;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.fogcomputing.energy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.junit.Test;
+
+public class PowerModelsTest {
+
+    @Test
+    public void curvesRunFromIdleToMax() {
+        assertEquals(100, PowerModels.linear(100, 200).getPower(0), 1e-9);
+        assertEquals(150, PowerModels.linear(100, 200).getPower(0.5), 1e-9);
+        assertEquals(200, PowerModels.linear(100, 200).getPower(1), 1e-9);
+        assertEquals(125, PowerModels.square(100, 200).getPower(0.5), 1e-9);
+        assertEquals(112.5, PowerModels.cubic(100, 200).getPower(0.5), 1e-9);
+        assertEquals(150, PowerModels.sqrt(100, 200).getPower(0.25), 1e-9);
+    }
+
+    @Test
+    public void tableInterpolatesBetweenMeasurements() {
+        PowerModel model = PowerModels.table(50, 60, 70, 80, 90, 100, 110, 120, 130, 140, 150);
+
+        assertEquals(50, model.getPower(0), 1e-9);
+        assertEquals(60, model.getPower(0.1), 1e-9);
+        assertEquals(65, model.getPower(0.15), 1e-9);
+        assertEquals(147.5, model.getPower(0.975), 1e-9);
+        assertEquals(150, model.getPower(1), 1e-9);
+    }
+
+    @Test
+    public void specModelInterpolatesBetweenMeasurements() {
+        PowerModel model = PowerModels.spec("IbmX3550XeonX5670");
+
+        double p10 = model.getPower(0.1);
+        double p20 = model.getPower(0.2);
+        assertEquals((p10 + p20) / 2, model.getPower(0.15), 1e-9);
+        assertEquals(p10 + (p20 - p10) * 0.25, model.getPower(0.125), 1e-9);
+    }
+
+    @Test
+    public void parseBuildsEveryKind() {
+        assertEquals(150, PowerModels.parse("linear:100:200").getPower(0.5), 1e-9);
+        assertEquals(112.5, PowerModels.parse("cubic:100:200").getPower(0.5), 1e-9);
+        assertEquals(65, PowerModels.parse("table:50,60,70,80,90,100,110,120,130,140,150").getPower(0.15), 1e-9);
+        assertEquals(PowerModels.spec("HpProLiantMl110G4Xeon3040").getPower(0.5),
+                PowerModels.parse("spec:HpProLiantMl110G4Xeon3040").getPower(0.5), 1e-9);
+    }
+
+    @Test
+    public void parseRejectsInvalidSpecifications() {
+        String[] invalid = {"linear:100", "linear:200:100", "linear:a:b", "table:1,2,3", "spec:Unknown", "quartic:1:2"};
+        for (String spec : invalid) {
+            try {
+                PowerModels.parse(spec);
+                fail("Accepted " + spec);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void curveRejectsUtilizationAboveOne() {
+        PowerModels.linear(100, 200).getPower(1.5);
+    }
+}
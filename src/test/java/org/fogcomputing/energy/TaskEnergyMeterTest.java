@@ -0,0 +1,53 @@
+package org.fogcomputing.energy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.fogcomputing.energy.MeteredPowerHostTest.FixedUtilizationScheduler;
+import org.junit.Test;
+
+public class TaskEnergyMeterTest {
+
+    @Test
+    public void tasksShareTheirVmEnergyByLengthAndTakeAllOfIt() {
+        MeteredPowerHost host = MeteredPowerHostTest.createHost(1000);
+        FixedUtilizationScheduler scheduler = new FixedUtilizationScheduler();
+        Vm vm = MeteredPowerHostTest.createVm(0, 1000, scheduler);
+        assertTrue(host.vmCreate(vm));
+        double start = host.getLastMeterTime();
+        TaskEnergyMeter meter = new TaskEnergyMeter();
+        Cloudlet shortTask = createCloudlet(0, 1000);
+        Cloudlet longTask = createCloudlet(1, 3000);
+        meter.cloudletSubmitted(shortTask);
+        meter.cloudletSubmitted(longTask);
+
+        // 2 s at full load: 400 J, of which the short task takes a quarter
+        scheduler.utilization = 1;
+        host.meter(start + 2000);
+        assertEquals(100, meter.cloudletReturned(shortTask, vm), 1e-9);
+
+        // The long task takes the rest, including what the VM used after the short task returned
+        host.meter(start + 3000);
+        assertEquals(500, meter.cloudletReturned(longTask, vm), 1e-9);
+        assertEquals(600, host.getEnergy(), 1e-9);
+    }
+
+    @Test
+    public void taskOnUnmeteredHostHasNoEnergy() {
+        TaskEnergyMeter meter = new TaskEnergyMeter();
+        Cloudlet cloudlet = createCloudlet(0, 1000);
+        meter.cloudletSubmitted(cloudlet);
+
+        assertTrue(Double.isNaN(meter.cloudletReturned(cloudlet, null)));
+    }
+
+    private static Cloudlet createCloudlet(int id, long length) {
+        UtilizationModelFull full = new UtilizationModelFull();
+        Cloudlet cloudlet = new Cloudlet(id, length, 1, 300, 300, full, full, full);
+        cloudlet.setVmId(0);
+        return cloudlet;
+    }
+}
@@ -0,0 +1,99 @@
+package org.fogcomputing.logging;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncLogWriterTest {
+
+    private PrintStream originalOut;
+    private ByteArrayOutputStream output;
+
+    @Before
+    public void captureOutput() throws UnsupportedEncodingException {
+        originalOut = System.out;
+        output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, "UTF-8"));
+    }
+
+    @After
+    public void restoreOutput() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    public void flushPrintsQueuedLinesInOrder() throws UnsupportedEncodingException {
+        AsyncLogWriter writer = new AsyncLogWriter(4);
+        for (int i = 0; i < 100; i++) {
+            writer.publish("line " + i);
+        }
+        writer.flush();
+        String[] lines = printedLines();
+        assertEquals(100, lines.length);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("line " + i, lines[i]);
+        }
+        writer.close();
+    }
+
+    @Test
+    public void linesAfterCloseArePrintedDirectly() throws UnsupportedEncodingException {
+        AsyncLogWriter writer = new AsyncLogWriter(4);
+        writer.publish("before");
+        writer.close();
+        writer.publish("after");
+        String[] lines = printedLines();
+        assertEquals(2, lines.length);
+        assertEquals("before", lines[0]);
+        assertEquals("after", lines[1]);
+    }
+
+    @Test
+    public void noLineIsLostWhileClosing() throws InterruptedException, UnsupportedEncodingException {
+        int producers = 4;
+        int linesPerProducer = 2000;
+        for (int round = 0; round < 20; round++) {
+            output.reset();
+            // A small ring keeps producers waiting on a full ring while close() runs
+            final AsyncLogWriter writer = new AsyncLogWriter(8);
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[producers];
+            for (int p = 0; p < producers; p++) {
+                final int producer = p;
+                threads[p] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int i = 0; i < linesPerProducer; i++) {
+                            writer.publish(producer + ":" + i);
+                        }
+                    }
+                });
+                threads[p].start();
+            }
+            start.countDown();
+            Thread.sleep(round % 3);
+            writer.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals("round " + round, producers * linesPerProducer, printedLines().length);
+        }
+    }
+
+    private String[] printedLines() throws UnsupportedEncodingException {
+        String text = output.toString("UTF-8");
+        return text.isEmpty() ? new String[0] : text.split(System.lineSeparator());
+    }
+}
@@ -0,0 +1,126 @@
+package org.fogcomputing.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+    // A bucket is at most 1/32 of its values wide
+    private static final double RELATIVE_ERROR = 1.0 / Histogram.SUB_BUCKETS;
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    @Test
+    public void uniformQuantilesWithinBucketError() {
+        Histogram histogram = new Histogram("ns", 1);
+        for (long v = 1; v <= 100000; v++) {
+            histogram.record(v);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(100000, snapshot.getCount());
+        assertQuantile(snapshot, 0.5, 50000);
+        assertQuantile(snapshot, 0.99, 99000);
+        assertQuantile(snapshot, 0.999, 99900);
+        assertEquals(1, snapshot.quantile(0), 0);
+        assertEquals(100000, snapshot.quantile(1), 0);
+    }
+
+    @Test
+    public void exponentialQuantilesWithinBucketError() {
+        // Latency-like: a long tail over several powers of two
+        Random random = new Random(3);
+        long[] values = new long[200000];
+        Histogram histogram = new Histogram("ns", 1);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (-Math.log(1 - random.nextDouble()) * 20000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        for (double q : QUANTILES) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertQuantile(snapshot, q, exact);
+        }
+    }
+
+    @Test
+    public void tailQuantilesAreNotUnderReported() {
+        Random random = new Random(5);
+        long[] values = new long[50000];
+        Histogram histogram = new Histogram("ns", 1);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000 + random.nextInt(1000000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        for (double q : new double[] {0.99, 0.995, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            double estimate = snapshot.quantile(q);
+            assertTrue("p" + q * 100 + " " + estimate + " < " + exact, estimate >= exact);
+            assertTrue("p" + q * 100 + " above max", estimate <= snapshot.getMax());
+        }
+    }
+
+    @Test
+    public void estimateIsClampedToRecordedRange() {
+        Histogram histogram = new Histogram("ns", 1);
+        // Both values fall in the same 64-wide bucket [4096, 4160)
+        histogram.record(4100);
+        histogram.record(4101);
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        for (double q : QUANTILES) {
+            double estimate = snapshot.quantile(q);
+            assertTrue("p" + q * 100 + " " + estimate, estimate >= 4100 && estimate <= 4101);
+        }
+    }
+
+    @Test
+    public void singleValueIsEveryQuantile() {
+        Histogram histogram = new Histogram("ms", 0.001);
+        histogram.recordValue(12.345);
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        for (double q : QUANTILES) {
+            assertEquals(12.345, snapshot.quantile(q), 1e-9);
+        }
+        assertEquals(12.345, snapshot.getMin(), 1e-9);
+        assertEquals(12.345, snapshot.getMax(), 1e-9);
+        assertEquals(12.345, snapshot.getMean(), 1e-9);
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        HistogramSnapshot snapshot = new Histogram("ns", 1).snapshot();
+        assertEquals(0, snapshot.quantile(0.99), 0);
+        assertEquals(0, snapshot.getMax(), 0);
+    }
+
+    @Test
+    public void bucketsCoverEveryValue() {
+        for (long v : new long[] {0, 1, 31, 32, 33, 63, 64, 1000, 4159, 4160, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucket(v);
+            long lower = Histogram.lowerBound(bucket);
+            assertTrue("value " + v, v >= lower && v - lower < Histogram.width(bucket));
+        }
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsQuantileAboveOne() {
+        new Histogram("ns", 1).snapshot().quantile(1.5);
+    }
+
+    private static void assertQuantile(HistogramSnapshot snapshot, double q, long exact) {
+        assertEquals("p" + q * 100, exact, snapshot.quantile(q), exact * RELATIVE_ERROR);
+    }
+}
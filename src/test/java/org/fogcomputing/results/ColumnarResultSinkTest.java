@@ -0,0 +1,151 @@
+package org.fogcomputing.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fogcomputing.TierRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarResultSinkTest {
+
+    private static final TierRegistry.Tier[] TIERS = TierRegistry.Tier.values();
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("results", ".fcr");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void roundTripsEveryColumn() throws IOException {
+        // Three full blocks and a partial one
+        List<CloudletRecord> records = createRecords(7 * 3 + 4);
+        writeAll(records, 7);
+
+        try (ColumnarResultReader reader = new ColumnarResultReader(file)) {
+            assertEquals(records.size(), reader.getRowCount());
+            assertEquals(4, reader.getBlockCount());
+            assertRows(records, reader);
+        }
+    }
+
+    @Test
+    public void roundTripsSingleBlock() throws IOException {
+        List<CloudletRecord> records = createRecords(10);
+        writeAll(records, ColumnarResultSink.DEFAULT_BLOCK_ROWS);
+
+        try (ColumnarResultReader reader = new ColumnarResultReader(file)) {
+            assertEquals(1, reader.getBlockCount());
+            assertRows(records, reader);
+        }
+    }
+
+    @Test
+    public void emptyFileHasNoBlocks() throws IOException {
+        writeAll(new ArrayList<CloudletRecord>(), 7);
+
+        try (ColumnarResultReader reader = new ColumnarResultReader(file)) {
+            assertEquals(0, reader.getRowCount());
+            assertEquals(0, reader.getBlockCount());
+        }
+    }
+
+    @Test
+    public void unknownTierReadsAsNull() throws IOException {
+        List<CloudletRecord> records = new ArrayList<CloudletRecord>();
+        records.add(createRecord(0, "Unknown"));
+        writeAll(records, 7);
+
+        try (ColumnarResultReader reader = new ColumnarResultReader(file)) {
+            assertNull(reader.block(0).tier(0));
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("cloudletId,status\n".getBytes("US-ASCII"));
+        }
+        try {
+            new ColumnarResultReader(file).close();
+            fail("Read a CSV file as columnar");
+        } catch (IOException expected) {
+            // not a columnar result file
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        writeAll(createRecords(10), 7);
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            // The header of a block that never got its columns
+            out.write(new byte[] {5, 0, 0, 0, 0, 0, 0, 0});
+        }
+        try {
+            new ColumnarResultReader(file).close();
+            fail("Read a truncated file");
+        } catch (IOException expected) {
+            // truncated block
+        }
+    }
+
+    private void writeAll(List<CloudletRecord> records, int blockRows) throws IOException {
+        try (ColumnarResultSink sink = new ColumnarResultSink(file, blockRows)) {
+            for (CloudletRecord record : records) {
+                sink.write(record);
+            }
+        }
+    }
+
+    private static void assertRows(List<CloudletRecord> expected, ColumnarResultReader reader)
+            throws IOException {
+        int index = 0;
+        for (int b = 0; b < reader.getBlockCount(); b++) {
+            ColumnarResultReader.Block block = reader.block(b);
+            for (int row = 0; row < block.getRows(); row++, index++) {
+                CloudletRecord record = expected.get(index);
+                String where = "row " + index;
+                assertEquals(where, record.getCloudletId(), block.cloudletId(row));
+                assertEquals(where, record.getVmId(), block.vmId(row));
+                assertEquals(where, record.getTier(), block.tier(row).getDisplayName());
+                assertEquals(where, record.getLength(), block.length(row));
+                assertEquals(where, record.getFileSize(), block.fileSize(row));
+                assertEquals(where, record.getOutputSize(), block.outputSize(row));
+                assertEquals(where, record.getExecStartTime(), block.start(row), 0);
+                assertEquals(where, record.getFinishTime(), block.finish(row), 0);
+                assertEquals(where, record.getEnergy(), block.energy(row), 0);
+            }
+        }
+        assertEquals(expected.size(), index);
+    }
+
+    private static List<CloudletRecord> createRecords(int count) {
+        List<CloudletRecord> records = new ArrayList<CloudletRecord>();
+        for (int id = 0; id < count; id++) {
+            records.add(createRecord(id, TIERS[id % TIERS.length].getDisplayName()));
+        }
+        return records;
+    }
+
+    private static CloudletRecord createRecord(int id, String tier) {
+        // Distinct values in every column, including large longs and fractional doubles
+        double start = id * 1.25;
+        return new CloudletRecord(id, true, id % 17, tier, 10000L + id * 3_000_000_000L, 300 + id, 500 + 2 * id,
+                start, start + 0.5, start + 10.375 + id, 10.375 + id, 0.5, id * 0.1 + 1e-9, id * 0.01);
+    }
+}
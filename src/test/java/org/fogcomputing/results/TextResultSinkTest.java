@@ -0,0 +1,74 @@
+package org.fogcomputing.results;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextResultSinkTest {
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("results", ".txt");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void jsonLinesWritesFixedDecimals() throws IOException {
+        try (ResultSink sink = new JsonLinesResultSink(file)) {
+            sink.write(createRecord(0.5, 12.25, 0.0001, -3));
+        }
+        assertEquals("{\"cloudletId\":7,\"status\":\"SUCCESS\",\"vmId\":3,\"tier\":\"Fog\",\"length\":25000,"
+                + "\"fileSize\":800,\"outputSize\":400,\"submissionTime\":0.5000,\"execStartTime\":1.0000,"
+                + "\"finishTime\":12.2500,\"executionTime\":11.2500,\"transmissionTime\":0.2500,"
+                + "\"energy\":0.0001,\"cost\":-3.0000}", readSingleLine());
+    }
+
+    @Test
+    public void jsonLinesWritesNonFiniteValuesAsNull() throws IOException {
+        try (ResultSink sink = new JsonLinesResultSink(file)) {
+            sink.write(createRecord(Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 2));
+        }
+        assertEquals("{\"cloudletId\":7,\"status\":\"SUCCESS\",\"vmId\":3,\"tier\":\"Fog\",\"length\":25000,"
+                + "\"fileSize\":800,\"outputSize\":400,\"submissionTime\":null,\"execStartTime\":1.0000,"
+                + "\"finishTime\":null,\"executionTime\":11.2500,\"transmissionTime\":0.2500,"
+                + "\"energy\":null,\"cost\":2.0000}", readSingleLine());
+    }
+
+    @Test
+    public void csvKeepsNonFiniteValues() throws IOException {
+        try (ResultSink sink = new CsvResultSink(file)) {
+            sink.write(createRecord(Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 2));
+        }
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertEquals(CsvResultSink.CSV_HEADER, lines.get(0));
+        assertEquals("7,SUCCESS,3,Fog,25000,800,400,NaN,1.0000,Infinity,11.2500,0.2500,-Infinity,2.0000",
+                lines.get(1));
+    }
+
+    private String readSingleLine() throws IOException {
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        return lines.get(0);
+    }
+
+    private static CloudletRecord createRecord(double submissionTime, double finishTime, double energy,
+                                               double cost) {
+        return new CloudletRecord(7, true, 3, "Fog", 25000, 800, 400,
+                submissionTime, 1, finishTime, 11.25, 0.25, energy, cost);
+    }
+}
@@ -0,0 +1,50 @@
+package org.fogcomputing.scheduling;
+
+import static org.junit.Assert.assertEquals;
+
+import org.fogcomputing.workload.DeadlineCloudlet;
+import org.junit.Test;
+
+public class CloudletSchedulerEdfTest {
+
+    private static final double DELTA = 0.01;
+    private static final double NO_DEADLINE = Double.POSITIVE_INFINITY;
+
+    @Test
+    public void earlierDeadlineOvertakesRunningTask() {
+        SchedulerTestBed bed = new SchedulerTestBed(new CloudletSchedulerEdf());
+        // 10 s of work due at 100, then 2 s of work due at 10
+        DeadlineCloudlet running = bed.submitAt(0, 10000, 0, 100, 1);
+        DeadlineCloudlet urgent = bed.submitAt(5, 2000, 0, 5, 1);
+        bed.run();
+
+        assertEquals(5, bed.startOf(urgent), DELTA);
+        assertEquals(7, bed.finishOf(urgent), DELTA);
+        // Resumed where it stopped; the start time stays the first one
+        assertEquals(0, bed.startOf(running), DELTA);
+        assertEquals(12, bed.finishOf(running), DELTA);
+    }
+
+    @Test
+    public void laterDeadlineWaits() {
+        SchedulerTestBed bed = new SchedulerTestBed(new CloudletSchedulerEdf());
+        DeadlineCloudlet running = bed.submitAt(0, 10000, 0, 20, 1);
+        DeadlineCloudlet relaxed = bed.submitAt(5, 2000, 0, 100, 1);
+        bed.run();
+
+        assertEquals(10, bed.finishOf(running), DELTA);
+        assertEquals(10, bed.startOf(relaxed), DELTA);
+        assertEquals(12, bed.finishOf(relaxed), DELTA);
+    }
+
+    @Test
+    public void taskWithoutDeadlineIsOvertaken() {
+        SchedulerTestBed bed = new SchedulerTestBed(new CloudletSchedulerEdf());
+        DeadlineCloudlet background = bed.submitAt(0, 10000, 0, NO_DEADLINE, 1);
+        DeadlineCloudlet urgent = bed.submitAt(5, 2000, 0, 1000, 1);
+        bed.run();
+
+        assertEquals(7, bed.finishOf(urgent), DELTA);
+        assertEquals(12, bed.finishOf(background), DELTA);
+    }
+}
@@ -0,0 +1,85 @@
+package org.fogcomputing.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.fogcomputing.workload.DeadlineCloudlet;
+import org.junit.Test;
+
+public class CloudletSchedulerPriorityTest {
+
+    private static final double DELTA = 0.01;
+    private static final double NO_DEADLINE = Double.POSITIVE_INFINITY;
+
+    private static final int LOW = 0;
+    private static final int HIGH = 1;
+
+    @Test
+    public void higherClassPreemptsRunningTask() {
+        SchedulerTestBed bed = new SchedulerTestBed(new CloudletSchedulerPriority());
+        DeadlineCloudlet low = bed.submitAt(0, 10000, LOW, NO_DEADLINE, 1);
+        DeadlineCloudlet high = bed.submitAt(5, 2000, HIGH, NO_DEADLINE, 1);
+        bed.run();
+
+        assertEquals(5, bed.startOf(high), DELTA);
+        assertEquals(7, bed.finishOf(high), DELTA);
+        assertEquals(0, bed.startOf(low), DELTA);
+        assertEquals(12, bed.finishOf(low), DELTA);
+    }
+
+    @Test
+    public void nonPreemptiveLetsRunningTaskFinish() {
+        SchedulerTestBed bed = new SchedulerTestBed(CloudletSchedulers.parse("priority:non-preemptive"));
+        DeadlineCloudlet low = bed.submitAt(0, 10000, LOW, NO_DEADLINE, 1);
+        DeadlineCloudlet high = bed.submitAt(5, 2000, HIGH, NO_DEADLINE, 1);
+        bed.run();
+
+        assertEquals(10, bed.finishOf(low), DELTA);
+        assertEquals(10, bed.startOf(high), DELTA);
+        assertEquals(12, bed.finishOf(high), DELTA);
+    }
+
+    @Test
+    public void nonPreemptiveStillOrdersWaitingTasksByClass() {
+        SchedulerTestBed bed = new SchedulerTestBed(new CloudletSchedulerPriority(false));
+        bed.submitAt(0, 10000, LOW, NO_DEADLINE, 1);
+        DeadlineCloudlet waitingLow = bed.submitAt(1, 2000, LOW, NO_DEADLINE, 1);
+        DeadlineCloudlet waitingHigh = bed.submitAt(2, 2000, HIGH, NO_DEADLINE, 1);
+        bed.run();
+
+        assertEquals(12, bed.finishOf(waitingHigh), DELTA);
+        assertEquals(14, bed.finishOf(waitingLow), DELTA);
+    }
+
+    @Test
+    public void classSharesMipsByWeight() {
+        SchedulerTestBed bed = new SchedulerTestBed(new CloudletSchedulerPriority());
+        DeadlineCloudlet heavy = bed.submitAt(0, 1000, LOW, NO_DEADLINE, 3);
+        DeadlineCloudlet light = bed.submitAt(0, 1000, LOW, NO_DEADLINE, 1);
+        bed.run();
+
+        // 750 and 250 MIPS until the heavy task is done, then 1000 for the light one
+        assertEquals(4.0 / 3, bed.finishOf(heavy), DELTA);
+        assertEquals(2, bed.finishOf(light), DELTA);
+    }
+
+    @Test
+    public void lowerClassOnlyGetsWhatHigherClassLeaves() {
+        SchedulerTestBed bed = new SchedulerTestBed(new CloudletSchedulerPriority());
+        DeadlineCloudlet high = bed.submitAt(0, 1000, HIGH, NO_DEADLINE, 1);
+        DeadlineCloudlet low = bed.submitAt(0, 1000, LOW, NO_DEADLINE, 100);
+        bed.run();
+
+        // A weight only counts within its class
+        assertEquals(1, bed.finishOf(high), DELTA);
+        assertEquals(1, bed.startOf(low), DELTA);
+        assertEquals(2, bed.finishOf(low), DELTA);
+    }
+
+    @Test
+    public void parsesPreemptionMode() {
+        assertTrue(((CloudletSchedulerPriority) CloudletSchedulers.parse("priority")).isPreemptive());
+        assertFalse(((CloudletSchedulerPriority) CloudletSchedulers.parse("priority:non-preemptive")).isPreemptive());
+    }
+}
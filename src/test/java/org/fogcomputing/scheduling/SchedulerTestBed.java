@@ -0,0 +1,148 @@
+package org.fogcomputing.scheduling;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.fogcomputing.workload.DeadlineCloudlet;
+
+/**
+ * Runs tasks on one single-PE VM with the scheduler under test, each submitted
+ * at its own time, in a one-host CloudSim simulation. Times are relative to the
+ * creation of the VM.
+ */
+final class SchedulerTestBed {
+
+    // MIPS of the VM's PE
+    static final double VM_MIPS = 1000;
+
+    private final CloudletScheduler scheduler;
+    private final List<DeadlineCloudlet> cloudlets = new ArrayList<DeadlineCloudlet>();
+    private final List<Double> submitTimes = new ArrayList<Double>();
+
+    // Simulation time at which the VM was created
+    private double startTime;
+
+    SchedulerTestBed(CloudletScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Adds a task that is released and submitted at the given time
+     *
+     * @param time submit time, relative to the VM creation
+     * @param length length in MI
+     * @param classType priority class
+     * @param deadline time allowed from the release, or positive infinity
+     * @param weight share of the CPU within the priority class
+     * @return the task, to read its start and finish times after {@link #run()}
+     */
+    DeadlineCloudlet submitAt(double time, long length, int classType, double deadline, double weight) {
+        UtilizationModelFull full = new UtilizationModelFull();
+        DeadlineCloudlet cloudlet = new DeadlineCloudlet(cloudlets.size(), length, 1, 0, 0, full, full, full,
+                deadline, weight);
+        cloudlet.setClassType(classType);
+        cloudlets.add(cloudlet);
+        submitTimes.add(time);
+        return cloudlet;
+    }
+
+    /**
+     * Runs the simulation until every task has returned
+     */
+    void run() {
+        Log.disable();
+        CloudSim.init(1, Calendar.getInstance(), false);
+        DelayedSubmitBroker broker;
+        try {
+            createDatacenter();
+            broker = new DelayedSubmitBroker();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot set up the simulation", e);
+        }
+        List<Vm> vms = new ArrayList<Vm>();
+        vms.add(new Vm(0, broker.getId(), VM_MIPS, 1, 512, 1000, 1000, "Xen", scheduler));
+        broker.submitVmList(vms);
+        for (DeadlineCloudlet cloudlet : cloudlets) {
+            cloudlet.setUserId(broker.getId());
+            cloudlet.setVmId(0);
+        }
+        broker.submitCloudletList(cloudlets);
+
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+        if (broker.getCloudletReceivedList().size() != cloudlets.size()) {
+            throw new IllegalStateException(broker.getCloudletReceivedList().size() + " of " + cloudlets.size()
+                    + " tasks returned");
+        }
+    }
+
+    /**
+     * @return start time of the task, relative to the VM creation
+     */
+    double startOf(Cloudlet cloudlet) {
+        return cloudlet.getExecStartTime() - startTime;
+    }
+
+    /**
+     * @return finish time of the task, relative to the VM creation
+     */
+    double finishOf(Cloudlet cloudlet) {
+        return cloudlet.getFinishTime() - startTime;
+    }
+
+    private static Datacenter createDatacenter() throws Exception {
+        List<Pe> pes = new ArrayList<Pe>();
+        pes.add(new Pe(0, new PeProvisionerSimple(VM_MIPS)));
+        List<Host> hosts = new ArrayList<Host>();
+        hosts.add(new Host(0, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 100000, pes,
+                new VmSchedulerTimeShared(pes)));
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen", hosts,
+                0, 0, 0, 0, 0);
+        return new Datacenter("Datacenter", characteristics, new VmAllocationPolicySimple(hosts),
+                new LinkedList<Storage>(), 0);
+    }
+
+    /**
+     * Sends each task at its submit time instead of all at once
+     */
+    private final class DelayedSubmitBroker extends DatacenterBroker {
+
+        DelayedSubmitBroker() throws Exception {
+            super("Broker");
+        }
+
+        @Override
+        protected void submitCloudlets() {
+            int datacenterId = getVmsToDatacentersMap().get(0);
+            startTime = CloudSim.clock();
+            for (int i = 0; i < cloudlets.size(); i++) {
+                DeadlineCloudlet cloudlet = cloudlets.get(i);
+                cloudlet.release(startTime + submitTimes.get(i));
+                send(datacenterId, submitTimes.get(i), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+                cloudletsSubmitted++;
+                getCloudletSubmittedList().add(cloudlet);
+            }
+            getCloudletList().clear();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.fogcomputing.workload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class ArrivalModelTest {
+
+    private static final int ARRIVALS = 200000;
+
+    @Test
+    public void poissonMeanInterArrivalTimeIsInverseRate() {
+        ArrivalModel model = ArrivalModel.poisson(0.5);
+        double[] gaps = interArrivalTimes(model, 7);
+
+        assertEquals(2.0, mean(gaps), 0.02);
+        // Exponential gaps: the standard deviation equals the mean
+        assertEquals(1.0, coefficientOfVariation(gaps), 0.02);
+    }
+
+    @Test
+    public void mmppLongRunRateIsPhaseWeightedMean() {
+        ArrivalModel model = ArrivalModel.mmpp(0.1, 2, 50, 10);
+        assertEquals((0.1 * 50 + 2 * 10) / 60.0, model.getMeanRate(), 1e-12);
+
+        double[] gaps = interArrivalTimes(model, 7);
+
+        assertEquals(1 / model.getMeanRate(), mean(gaps), 0.05 / model.getMeanRate());
+    }
+
+    @Test
+    public void mmppArrivalsAreBurstierThanPoisson() {
+        // Silent quiet phases: arrivals come only in bursts
+        ArrivalModel model = ArrivalModel.mmpp(0, 2, 50, 10);
+        double[] gaps = interArrivalTimes(model, 7);
+
+        assertTrue(coefficientOfVariation(gaps) > 2);
+        assertEquals(1 / model.getMeanRate(), mean(gaps), 0.05 / model.getMeanRate());
+    }
+
+    @Test
+    public void sameStreamGivesSameArrivals() {
+        ArrivalModel model = ArrivalModel.mmpp(0.1, 2, 50, 10);
+        ArrivalModel.ArrivalProcess first = model.newProcess(new SplittableRandom(3));
+        ArrivalModel.ArrivalProcess second = model.newProcess(new SplittableRandom(3));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.nextArrivalTime(), second.nextArrivalTime(), 0);
+        }
+    }
+
+    @Test
+    public void traceArrivalsHaveNoProcess() {
+        ArrivalModel model = ArrivalModel.parse("trace");
+        assertTrue(model.isTrace());
+        assertTrue(Double.isNaN(model.getMeanRate()));
+        try {
+            model.newProcess(new SplittableRandom(1));
+            fail("Trace arrivals created a process");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parseReadsEveryKind() {
+        assertEquals("poisson:0.5", ArrivalModel.parse("poisson:0.5").toString());
+        assertEquals("mmpp:0.1:2.0:50.0:10.0", ArrivalModel.parse(" mmpp:0.1:2:50:10 ").toString());
+        assertFalse(ArrivalModel.parse("poisson:0.5").isTrace());
+    }
+
+    @Test
+    public void parseRejectsInvalidSpecifications() {
+        String[] invalid = {"poisson", "poisson:0", "poisson:x", "mmpp:1:2:3", "mmpp:1:0:3:4", "trace:1", "uniform:1"};
+        for (String spec : invalid) {
+            try {
+                ArrivalModel.parse(spec);
+                fail("Accepted " + spec);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private static double[] interArrivalTimes(ArrivalModel model, long seed) {
+        ArrivalModel.ArrivalProcess process = model.newProcess(new SplittableRandom(seed));
+        double[] gaps = new double[ARRIVALS];
+        double previous = 0;
+        for (int i = 0; i < gaps.length; i++) {
+            double time = process.nextArrivalTime();
+            gaps[i] = time - previous;
+            assertTrue("Arrival times decreased", gaps[i] >= 0);
+            previous = time;
+        }
+        return gaps;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double coefficientOfVariation(double[] values) {
+        double mean = mean(values);
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(squares / values.length) / mean;
+    }
+}
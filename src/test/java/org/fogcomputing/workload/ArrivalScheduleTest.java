@@ -0,0 +1,94 @@
+package org.fogcomputing.workload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ArrivalScheduleTest {
+
+    private static final int DEVICES = 10;
+    private static final int TASKS = 50000;
+
+    @Test
+    public void arrivalsOfAllDevicesAreInTimeOrder() {
+        for (ArrivalModel model : new ArrivalModel[] {
+                ArrivalModel.poisson(0.5), ArrivalModel.mmpp(0.1, 2, 50, 10)}) {
+            List<CloudletSpec> specs = drain(new ArrivalSchedule(tasks(TASKS), model, DEVICES, 11));
+
+            assertEquals(TASKS, specs.size());
+            for (int i = 1; i < specs.size(); i++) {
+                assertTrue(model + ": arrival #" + i + " is earlier than the one before",
+                        specs.get(i).getSubmitTime() >= specs.get(i - 1).getSubmitTime());
+            }
+        }
+    }
+
+    @Test
+    public void devicesAddUpToTheOfferedLoad() {
+        ArrivalModel model = ArrivalModel.poisson(0.5);
+        List<CloudletSpec> specs = drain(new ArrivalSchedule(tasks(TASKS), model, DEVICES, 11));
+
+        double lastArrival = specs.get(specs.size() - 1).getSubmitTime();
+        assertEquals(DEVICES * model.getMeanRate(), TASKS / lastArrival, 0.02 * DEVICES * model.getMeanRate());
+    }
+
+    @Test
+    public void tasksKeepTheirOrderAndFields() {
+        List<CloudletSpec> specs = drain(new ArrivalSchedule(tasks(100), ArrivalModel.poisson(1), DEVICES, 5));
+
+        for (int i = 0; i < specs.size(); i++) {
+            CloudletSpec spec = specs.get(i);
+            assertEquals(i, spec.getId());
+            assertEquals(1000 + i, spec.getLength());
+            assertTrue(spec.getSubmitTime() > 0);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameArrivals() {
+        ArrivalModel model = ArrivalModel.mmpp(0.1, 2, 50, 10);
+        List<CloudletSpec> first = drain(new ArrivalSchedule(tasks(1000), model, DEVICES, 11));
+        List<CloudletSpec> second = drain(new ArrivalSchedule(tasks(1000), model, DEVICES, 11));
+        List<CloudletSpec> other = drain(new ArrivalSchedule(tasks(1000), model, DEVICES, 12));
+
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getSubmitTime(), second.get(i).getSubmitTime(), 0);
+            differs |= first.get(i).getSubmitTime() != other.get(i).getSubmitTime();
+        }
+        assertTrue("Another seed gave the same arrivals", differs);
+    }
+
+    @Test
+    public void scheduleEndsWithTheTasks() {
+        ArrivalSchedule schedule = new ArrivalSchedule(tasks(0), ArrivalModel.poisson(1), DEVICES, 1);
+        assertFalse(schedule.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scheduleNeedsADevice() {
+        new ArrivalSchedule(tasks(1), ArrivalModel.poisson(1), 0, 1);
+    }
+
+    private static Iterator<CloudletSpec> tasks(int count) {
+        List<CloudletSpec> specs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            specs.add(new CloudletSpec(i, -1, 0, 1000 + i, 1, 300, 300));
+        }
+        return specs.iterator();
+    }
+
+    private static List<CloudletSpec> drain(Iterator<CloudletSpec> schedule) {
+        List<CloudletSpec> specs = new ArrayList<>();
+        while (schedule.hasNext()) {
+            specs.add(schedule.next());
+        }
+        return specs;
+    }
+}
@@ -0,0 +1,158 @@
+package org.fogcomputing.workload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SwfTraceLoaderTest {
+
+    private static final double MIPS = 1000;
+
+    // Jobs 1, 2 and 5 are usable; 3 is malformed, 4 has no run time and 6 is short of fields
+    private static final String TRACE = "; Version: 2.2\n"
+            + ";   MaxJobs: 6\n"
+            + "\n"
+            + "1 0 5 100 4 -1 -1 4 120 -1 1 1 1 -1 1 -1 -1 -1\n"
+            + "2 10 2 -1 2 -1 -1 -1 300 -1 1 1 1 -1 1 -1 -1 -1\r\n"
+            + "3 20 0 50 x2 -1 -1 2 60 -1 1 1 1 -1 1 -1 -1 -1\n"
+            + "   \t\n"
+            + "4 30 0 0 1 -1 -1 1 0 -1 1 1 1 -1 1 -1 -1 -1\n"
+            + "  5\t40.5  0 12.5 8 -1 -1 8 100 -1 1 1 1 -1 1 -1 -1 -1\n"
+            + "; trailing comment\n"
+            + "6 50 0 10 1";
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("trace", ".swf");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void parsesUsableJobsAndSkipsTheRest() throws IOException {
+        writeTrace(TRACE);
+        LoadResult result = load(1, Integer.MAX_VALUE, 16);
+
+        assertEquals(3, result.specs.size());
+        assertSpec(result.specs.get(0), 0, 1, 0, 100000, 4);
+        // Requested time and allocated processors stand in for missing values
+        assertSpec(result.specs.get(1), 1, 2, 10, 300000, 2);
+        assertSpec(result.specs.get(2), 2, 5, 40.5, 12500, 8);
+        assertEquals(3, result.skipped);
+    }
+
+    @Test
+    public void chunkSplitsMatchSequentialParse() throws IOException {
+        writeTrace(TRACE);
+        LoadResult sequential = load(1, Integer.MAX_VALUE, 16);
+        // Every size splits some line in the middle; 1 makes each line a chunk
+        for (int chunkBytes : new int[] {1, 7, 33, 50, 64}) {
+            assertSameResult("chunk size " + chunkBytes, sequential, load(4, chunkBytes, 2));
+        }
+    }
+
+    @Test
+    public void largeTraceMatchesSequentialParse() throws IOException {
+        writeTrace(randomTrace(new Random(7), 2000));
+        LoadResult sequential = load(1, Integer.MAX_VALUE, 1024);
+        LoadResult parallel = load(8, 512, 32);
+
+        assertTrue(sequential.specs.size() > 1500);
+        assertSameResult("8 threads", sequential, parallel);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroChunkSize() {
+        new SwfTraceLoader(file, MIPS, 1, 0, 16);
+    }
+
+    /**
+     * A trace in which about one line in ten is a comment, a blank line or malformed
+     */
+    private static String randomTrace(Random random, int lines) {
+        StringBuilder trace = new StringBuilder("; generated\n");
+        double submit = 0;
+        for (int job = 1; job <= lines; job++) {
+            int kind = random.nextInt(40);
+            if (kind == 0) {
+                trace.append("; comment ").append(job).append('\n');
+            } else if (kind == 1) {
+                trace.append(" \n");
+            } else if (kind == 2) {
+                trace.append(job).append(" ").append(submit).append(" 0 ?? 1 -1 -1 1 10\n");
+            } else if (kind == 3) {
+                trace.append(job).append(" 1e3 0 10 1 -1 -1 1 10\n");
+            } else {
+                submit += random.nextInt(1000) / 100.0;
+                trace.append(job).append(' ').append(submit).append(' ').append(random.nextInt(50)).append(' ')
+                        .append(random.nextInt(10000) / 10.0).append(' ').append(1 + random.nextInt(64))
+                        .append(" -1 -1 ").append(random.nextInt(65) - 1).append(' ').append(random.nextInt(2000))
+                        .append(" -1 1 1 1 -1 1 -1 -1 -1\n");
+            }
+        }
+        return trace.toString();
+    }
+
+    private void writeTrace(String trace) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(trace.getBytes("US-ASCII"));
+        }
+    }
+
+    private LoadResult load(int parallelism, int chunkBytes, int queueCapacity) throws IOException {
+        LoadResult result = new LoadResult();
+        try (SwfTraceLoader loader = new SwfTraceLoader(file, MIPS, parallelism, chunkBytes, queueCapacity)) {
+            loader.start();
+            for (Iterator<CloudletSpec> it = loader.specs(); it.hasNext(); ) {
+                result.specs.add(it.next());
+            }
+            result.skipped = loader.getSkippedCount();
+            assertEquals(result.specs.size(), loader.getPublishedCount());
+        }
+        return result;
+    }
+
+    private static void assertSameResult(String message, LoadResult expected, LoadResult actual) {
+        assertEquals(message, expected.specs.size(), actual.specs.size());
+        assertEquals(message, expected.skipped, actual.skipped);
+        for (int i = 0; i < expected.specs.size(); i++) {
+            CloudletSpec spec = expected.specs.get(i);
+            assertSpec(actual.specs.get(i), spec.getId(), spec.getJobNumber(), spec.getSubmitTime(),
+                    spec.getLength(), spec.getPes());
+        }
+    }
+
+    private static void assertSpec(CloudletSpec spec, int id, long jobNumber, double submitTime, long length,
+                                   int pes) {
+        String where = "spec " + id;
+        assertEquals(where, id, spec.getId());
+        assertEquals(where, jobNumber, spec.getJobNumber());
+        assertEquals(where, submitTime, spec.getSubmitTime(), 0);
+        assertEquals(where, length, spec.getLength());
+        assertEquals(where, pes, spec.getPes());
+        assertEquals(where, 0, spec.getFileSize());
+        assertEquals(where, 0, spec.getOutputSize());
+    }
+
+    private static final class LoadResult {
+        final List<CloudletSpec> specs = new ArrayList<CloudletSpec>();
+        long skipped;
+    }
+}
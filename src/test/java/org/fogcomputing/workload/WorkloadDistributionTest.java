@@ -0,0 +1,116 @@
+package org.fogcomputing.workload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkloadDistributionTest {
+
+    private static final int SAMPLES = 100000;
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("lengths", ".txt");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void empiricalSamplesStayWithinFileRange() throws IOException {
+        writeValues("# task lengths\n" + "3000\n" + "\n" + "  500 \n" + "12000\n" + "7000\n" + "500\n");
+        WorkloadDistribution distribution = WorkloadDistribution.empirical(file);
+
+        SplittableRandom random = new SplittableRandom(1);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < SAMPLES; i++) {
+            double value = distribution.sample(random);
+            assertTrue("sample " + value, value >= 500 && value <= 12000);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        // The inverse reaches both ends of the range
+        assertEquals(500, min, 50);
+        assertEquals(12000, max, 500);
+        assertEquals(4600, distribution.getMean(), 1e-9);
+    }
+
+    @Test
+    public void empiricalMedianInterpolatesBetweenValues() throws IOException {
+        writeValues("0\n10\n");
+        WorkloadDistribution distribution = WorkloadDistribution.empirical(file);
+
+        SplittableRandom random = new SplittableRandom(2);
+        int below = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            if (distribution.sample(random) < 5) {
+                below++;
+            }
+        }
+        assertEquals(0.5, (double) below / SAMPLES, 0.01);
+    }
+
+    @Test
+    public void singleValueIsAlwaysReturned() throws IOException {
+        writeValues("42\n");
+        WorkloadDistribution distribution = WorkloadDistribution.empirical(file);
+
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(42, distribution.sample(random), 0);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFileWithoutValues() throws IOException {
+        writeValues("# nothing here\n\n");
+        WorkloadDistribution.empirical(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsInvalidValue() throws IOException {
+        writeValues("100\nabc\n");
+        WorkloadDistribution.empirical(file);
+    }
+
+    @Test
+    public void boundsClampSamples() throws IOException {
+        WorkloadDistribution distribution = WorkloadDistribution.parse("pareto:1000:1.1:max=20000");
+
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < SAMPLES; i++) {
+            double value = distribution.sample(random);
+            assertTrue("sample " + value, value >= 1000 && value <= 20000);
+        }
+    }
+
+    @Test
+    public void sampleDependsOnlyOnStream() {
+        WorkloadDistribution distribution = WorkloadDistribution.lognormal(9, 1);
+        SplittableRandom first = new SplittableRandom(5);
+        SplittableRandom second = new SplittableRandom(5);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(distribution.sample(first), distribution.sample(second), 0);
+        }
+    }
+
+    private void writeValues(String values) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(values.getBytes("US-ASCII"));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.fogcomputing.workload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class WorkloadGeneratorTest {
+
+    // Several full blocks and a partial one
+    private static final int COUNT = 3 * WorkloadGenerator.BLOCK_SIZE + 17;
+
+    @Test
+    public void sameSeedGivesSameSpecs() {
+        assertSameSpecs(defaultGenerator(42).generate(COUNT), defaultGenerator(42).generate(COUNT));
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentSpecs() {
+        List<CloudletSpec> first = defaultGenerator(42).generate(COUNT);
+        List<CloudletSpec> second = defaultGenerator(43).generate(COUNT);
+        int sameLength = 0;
+        for (int id = 0; id < COUNT; id++) {
+            if (first.get(id).getLength() == second.get(id).getLength()) {
+                sameLength++;
+            }
+        }
+        assertFalse(sameLength > COUNT / 100);
+    }
+
+    @Test
+    public void iteratorMatchesParallelGeneration() {
+        WorkloadGenerator generator = fullGenerator(7);
+        assertSameSpecs(generator.generate(COUNT), drain(generator.iterator(COUNT)));
+    }
+
+    @Test
+    public void threadCountDoesNotChangeSpecs() throws InterruptedException, ExecutionException {
+        WorkloadGenerator generator = fullGenerator(7);
+        assertSameSpecs(generateIn(new ForkJoinPool(1), generator), generateIn(new ForkJoinPool(8), generator));
+    }
+
+    @Test
+    public void deadlinesLeaveLengthsAndSizesUnchanged() {
+        List<CloudletSpec> plain = defaultGenerator(11).generate(COUNT);
+        List<CloudletSpec> withDeadlines = defaultGenerator(11)
+                .withDeadlines(WorkloadGenerator.defaultDeadlineSlack(), 1000).generate(COUNT);
+        for (int id = 0; id < COUNT; id++) {
+            CloudletSpec spec = withDeadlines.get(id);
+            assertEquals(plain.get(id).getLength(), spec.getLength());
+            assertEquals(plain.get(id).getFileSize(), spec.getFileSize());
+            assertEquals(plain.get(id).getOutputSize(), spec.getOutputSize());
+            // Slack 1.5-4 at 1000 MIPS
+            double executionTime = spec.getLength() / 1000.0;
+            assertEquals(2.75 * executionTime, spec.getDeadline(), 1.25 * executionTime);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInteractiveShareAboveOne() {
+        defaultGenerator(1).withInteractiveTasks(1.5, WorkloadGenerator.defaultInteractiveLength());
+    }
+
+    private static WorkloadGenerator defaultGenerator(long seed) {
+        return new WorkloadGenerator(seed, WorkloadGenerator.defaultLength(), WorkloadGenerator.defaultFileSize(),
+                WorkloadGenerator.defaultOutputSize());
+    }
+
+    /**
+     * @return a generator that draws from all three sets of streams
+     */
+    private static WorkloadGenerator fullGenerator(long seed) {
+        return defaultGenerator(seed)
+                .withDeadlines(WorkloadGenerator.defaultDeadlineSlack(), 1000)
+                .withInteractiveTasks(0.3, WorkloadGenerator.defaultInteractiveLength())
+                .withWeights(WorkloadDistribution.uniform(0.5, 2));
+    }
+
+    private static List<CloudletSpec> generateIn(ForkJoinPool pool, final WorkloadGenerator generator)
+            throws InterruptedException, ExecutionException {
+        try {
+            // A parallel stream started from a pool's task runs in that pool
+            return pool.submit(() -> generator.generate(COUNT)).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<CloudletSpec> drain(Iterator<CloudletSpec> specs) {
+        List<CloudletSpec> list = new ArrayList<CloudletSpec>();
+        while (specs.hasNext()) {
+            list.add(specs.next());
+        }
+        return list;
+    }
+
+    private static void assertSameSpecs(List<CloudletSpec> expected, List<CloudletSpec> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int id = 0; id < expected.size(); id++) {
+            CloudletSpec e = expected.get(id);
+            CloudletSpec a = actual.get(id);
+            String where = "spec " + id;
+            assertEquals(where, id, a.getId());
+            assertEquals(where, e.getLength(), a.getLength());
+            assertEquals(where, e.getPes(), a.getPes());
+            assertEquals(where, e.getFileSize(), a.getFileSize());
+            assertEquals(where, e.getOutputSize(), a.getOutputSize());
+            assertEquals(where, e.getDeadline(), a.getDeadline(), 0);
+            assertEquals(where, e.getPriority(), a.getPriority());
+            assertEquals(where, e.getWeight(), a.getWeight(), 0);
+        }
+    }
+}
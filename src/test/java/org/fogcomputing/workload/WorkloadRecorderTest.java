@@ -0,0 +1,163 @@
+package org.fogcomputing.workload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkloadRecorderTest {
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("workload", ".fcw");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void replayReturnsEveryFieldOfTheRecordedTasks() throws IOException {
+        List<CloudletSpec> specs = Arrays.asList(
+                new CloudletSpec(0, -1, 0, 1000, 1, 300, 200),
+                new CloudletSpec(1, 42, 12.5, 25000, 2, 800, 400, 350.25),
+                new CloudletSpec(2, 43, 1e6, Long.MAX_VALUE, 8, 1L << 40, 7, 0.5,
+                        CloudletSpec.PRIORITY_INTERACTIVE, 2.75));
+        record(specs, true);
+
+        try (WorkloadReplay replay = new WorkloadReplay(file)) {
+            assertTrue(replay.isTimedArrivals());
+            assertEquals(specs.size(), replay.getCount());
+            Iterator<CloudletSpec> replayed = replay.specs();
+            for (CloudletSpec expected : specs) {
+                assertSameSpec(expected, replayed.next());
+            }
+            assertFalse(replayed.hasNext());
+        }
+    }
+
+    @Test
+    public void replayReadsAcrossBlocks() throws IOException {
+        List<CloudletSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            specs.add(new CloudletSpec(i, i, i * 0.5, 1000 + i, 1, 300, 200, i, i % 2, 1 + i % 3));
+        }
+        record(specs, false);
+
+        try (WorkloadReplay replay = new WorkloadReplay(file)) {
+            assertFalse(replay.isTimedArrivals());
+            Iterator<CloudletSpec> replayed = replay.specs();
+            for (CloudletSpec expected : specs) {
+                assertSameSpec(expected, replayed.next());
+            }
+            assertFalse(replayed.hasNext());
+        }
+    }
+
+    @Test
+    public void fileHasHeaderAndLittleEndianRecords() throws IOException {
+        record(Arrays.asList(new CloudletSpec(7, 9, 3.5, 1000, 2, 300, 200, 50,
+                CloudletSpec.PRIORITY_INTERACTIVE, 1.5)), true);
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        assertEquals(WorkloadRecorder.FILE_HEADER_BYTES + WorkloadRecorder.RECORD_BYTES, bytes.length);
+        assertEquals(16, WorkloadRecorder.FILE_HEADER_BYTES);
+        assertEquals(68, WorkloadRecorder.RECORD_BYTES);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(WorkloadRecorder.MAGIC, buffer.getInt());
+        assertEquals(WorkloadRecorder.VERSION, buffer.getInt());
+        assertEquals(WorkloadRecorder.FLAG_TIMED_ARRIVALS, buffer.getInt());
+        assertEquals(0, buffer.getInt());
+        assertEquals(1000, buffer.getLong());
+        assertEquals(300, buffer.getLong());
+        assertEquals(200, buffer.getLong());
+        assertEquals(9, buffer.getLong());
+        assertEquals(3.5, buffer.getDouble(), 0);
+        assertEquals(7, buffer.getInt());
+        assertEquals(2, buffer.getInt());
+        assertEquals(50, buffer.getDouble(), 0);
+        assertEquals(1.5, buffer.getDouble(), 0);
+        assertEquals(CloudletSpec.PRIORITY_INTERACTIVE, buffer.getInt());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void replayRejectsBadMagic() throws IOException {
+        record(Arrays.asList(new CloudletSpec(0, -1, 0, 1000, 1, 300, 200)), false);
+        overwriteInt(0, 0x12345678);
+        assertRejected("is not a recorded workload");
+    }
+
+    @Test
+    public void replayRejectsOtherVersions() throws IOException {
+        record(Arrays.asList(new CloudletSpec(0, -1, 0, 1000, 1, 300, 200)), false);
+        overwriteInt(4, WorkloadRecorder.VERSION + 1);
+        assertRejected("Unsupported workload version");
+    }
+
+    @Test
+    public void replayRejectsIncompleteTask() throws IOException {
+        record(Arrays.asList(new CloudletSpec(0, -1, 0, 1000, 1, 300, 200)), false);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        assertRejected("incomplete task");
+    }
+
+    private void record(List<CloudletSpec> specs, boolean timedArrivals) throws IOException {
+        try (WorkloadRecorder recorder = new WorkloadRecorder(file, timedArrivals)) {
+            Iterator<CloudletSpec> recorded = recorder.record(specs.iterator());
+            while (recorded.hasNext()) {
+                recorded.next();
+            }
+            assertEquals(specs.size(), recorder.getCount());
+        }
+    }
+
+    private void overwriteInt(int offset, int value) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+            raf.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array());
+        }
+    }
+
+    private void assertRejected(String message) {
+        try {
+            new WorkloadReplay(file).close();
+            fail("Expected the workload to be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    private static void assertSameSpec(CloudletSpec expected, CloudletSpec actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getJobNumber(), actual.getJobNumber());
+        assertEquals(expected.getSubmitTime(), actual.getSubmitTime(), 0);
+        assertEquals(expected.getLength(), actual.getLength());
+        assertEquals(expected.getPes(), actual.getPes());
+        assertEquals(expected.getFileSize(), actual.getFileSize());
+        assertEquals(expected.getOutputSize(), actual.getOutputSize());
+        assertEquals(expected.getDeadline(), actual.getDeadline(), 0);
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getWeight(), actual.getWeight(), 0);
+    }
+}